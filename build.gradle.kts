@@ -24,8 +24,8 @@ repositories {
 }
 
 java {
-    sourceCompatibility = JavaVersion.VERSION_1_8
-    targetCompatibility = JavaVersion.VERSION_1_8
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
 }
 
 group = "com.mobiquityinc"
@@ -35,6 +35,14 @@ object Versions {
     const val junit5 = "5.3.2"
     const val assertj = "3.11.1"
     const val jacoco = "0.8.2"
+    const val jmh = "1.21"
+}
+
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets["main"].output
+        runtimeClasspath += sourceSets["main"].output
+    }
 }
 
 dependencies {
@@ -44,6 +52,9 @@ dependencies {
     testRuntime("org.junit.jupiter", "junit-jupiter-engine", Versions.junit5)
     testCompile("org.assertj", "assertj-core", Versions.assertj)
 
+    "jmhCompile"("org.openjdk.jmh", "jmh-core", Versions.jmh)
+    "jmhAnnotationProcessor"("org.openjdk.jmh", "jmh-generator-annprocess", Versions.jmh)
+
 }
 
 tasks.withType<Test> {
@@ -54,6 +65,20 @@ tasks.withType<Test> {
     finalizedBy("jacocoTestReport")
 }
 
+tasks.register<JavaExec>("jmh") {
+    description = "Runs JMH benchmarks, use -Pjmh.args to pass arguments to the runner. " +
+        "Results are written to build/reports/jmh/results.json unless -rf is passed"
+    group = "benchmark"
+    main = "org.openjdk.jmh.Main"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    val jmhArgs = (project.findProperty("jmh.args") as String? ?: "").split(" ").filter { it.isNotBlank() }
+    val resultsDir = file("$buildDir/reports/jmh")
+    args = if (jmhArgs.contains("-rf")) jmhArgs else jmhArgs + listOf("-rf", "json", "-rff", "$resultsDir/results.json")
+    doFirst {
+        resultsDir.mkdirs()
+    }
+}
+
 jacoco {
     toolVersion = Versions.jacoco
 }
@@ -0,0 +1,127 @@
+package com.mobiquityinc.packer;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.TaskGenerator.Distribution;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.execution.ExecutionStrategy;
+import com.mobiquityinc.packer.solver.GrayCodeSolver;
+import com.mobiquityinc.packer.solver.PackSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the makespan of {@link Packer#pack(List)} on a skewed list of tasks: most tasks have a few things,
+ * the expensive ones with 10 to 15 strongly correlated things (nothing to reduce) are at the end of the list
+ * from the cheapest to the most expensive one, which is the worst order to submit them in. Compares submission in the input order (task by task and grouped
+ * into submissions of 256 things) with the longest-first scheduling, all on the fixed thread pool of the given size.
+ *
+ * With the SLEEP work tasks are not solved, the expensive ones park the thread for 100 ns per estimated step.
+ * So the effect of the scheduling is visible even if there are fewer cores than threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulingBenchmark {
+
+    @Param({"4"})
+    private int threads;
+
+    @Param({"2000"})
+    private int tasks;
+
+    @Param({"2"})
+    private int expensivePercent;
+
+    @Param({"IN_ORDER", "IN_ORDER_BATCHED", "LONGEST_FIRST"})
+    private String scheduling;
+
+    @Param({"SOLVE", "SLEEP"})
+    private String work;
+
+    private List<PackTask> list;
+    private Packer packer;
+
+    @Setup
+    public void setUp() {
+        final TaskGenerator cheap = new TaskGenerator(Distribution.UNIFORM, 1);
+        final TaskGenerator expensive = new TaskGenerator(Distribution.STRONGLY_CORRELATED, 2);
+        final int expensiveTasks = tasks * expensivePercent / 100;
+        list = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks - expensiveTasks; i++) {
+            list.add(cheap.next(1 + i % 4));
+        }
+        for (int i = 0; i < expensiveTasks; i++) {
+            list.add(expensive.next(10 + i * 6 / expensiveTasks));
+        }
+        final ExecutionStrategy strategy;
+        switch (scheduling) {
+            case "LONGEST_FIRST":
+                strategy = ExecutionStrategy.longestFirst(threads);
+                break;
+            case "IN_ORDER_BATCHED":
+                strategy = ExecutionStrategy.batched(threads);
+                break;
+            default:
+                strategy = ExecutionStrategy.fixedThreadPool(threads);
+                break;
+        }
+        packer = "SLEEP".equals(work) ?
+            new Packer(strategy, task -> { }, task -> new SleepingSolver()) :
+            new Packer(strategy);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        packer.close();
+    }
+
+    @Benchmark
+    public List<Package> pack() throws APIException {
+        return packer.pack(list);
+    }
+
+    /**
+     * Parks the thread for the time proportional to the estimated cost of the Gray code solver.
+     */
+    private static final class SleepingSolver implements PackSolver {
+
+        private static final double MIN_COST = 1024;
+        private static final long NANOS_PER_STEP = 100;
+
+        private final GrayCodeSolver estimator = new GrayCodeSolver();
+
+        @Override
+        public Package solve(PackTask task) {
+            final double cost = estimateCost(task);
+            if (cost >= MIN_COST) {
+                LockSupport.parkNanos((long) cost * NANOS_PER_STEP);
+            }
+            return new Package(Collections.emptyList());
+        }
+
+        @Override
+        public double estimateCost(PackTask task) {
+            return estimator.estimateCost(task);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.mobiquityinc.packer;
+
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Thing;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates random tasks for benchmarks. The same seed gives the same tasks. Weights and costs are generated
+ * according to the chosen {@link Distribution} within the limits of the default validation rules: weights
+ * and costs are not greater than 100, the max weight of the package is a half of the total weight of the things
+ * but not greater than 100.
+ */
+public final class TaskGenerator {
+
+    // weights and costs are generated in hundredths
+    private static final int MIN_VALUE = 100;
+    private static final int MAX_VALUE = 9000;
+    private static final int SPREAD = 1000;
+    private static final int MAX_WEIGHT = 100;
+
+    private final Distribution distribution;
+    private final Random random;
+
+    public TaskGenerator(Distribution distribution, long seed) {
+        this.distribution = distribution;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates the task with the given number of things.
+     *
+     * @param things number of things
+     * @return generated task
+     */
+    public PackTask next(int things) {
+        final List<Thing> list = new ArrayList<>(things);
+        int totalWeight = 0;
+        for (int i = 1; i <= things; i++) {
+            final int weight = MIN_VALUE + random.nextInt(MAX_VALUE - MIN_VALUE);
+            final int cost;
+            switch (distribution) {
+                case CORRELATED:
+                    cost = Math.max(1, weight - SPREAD + random.nextInt(2 * SPREAD + 1));
+                    break;
+                case STRONGLY_CORRELATED:
+                    cost = weight + SPREAD;
+                    break;
+                default:
+                    cost = MIN_VALUE + random.nextInt(MAX_VALUE - MIN_VALUE);
+                    break;
+            }
+            list.add(new Thing(i, weight / 100.0, cost / 100.0));
+            totalWeight += weight;
+        }
+        return new PackTask((double) Math.min(MAX_WEIGHT, Math.max(1, totalWeight / 2 / 100)), list);
+    }
+
+    /**
+     * Writes the given number of tasks in the input format to the file.
+     *
+     * @param file file to write to
+     * @param tasks number of tasks
+     * @param maxThings maximum number of things in a task, the number of things is uniform from 1 to the maximum
+     * @throws IOException if the file can not be written
+     */
+    public void write(Path file, int tasks, int maxThings) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8))) {
+            for (int i = 0; i < tasks; i++) {
+                writer.write(format(next(1 + random.nextInt(maxThings))));
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Formats the task as a line of the input format.
+     *
+     * @param task the task to format
+     * @return formatted line without line break
+     */
+    public static String format(PackTask task) {
+        final StringBuilder line = new StringBuilder();
+        line.append(task.getMaxWeight().intValue()).append(" :");
+        for (Thing thing : task.getThings()) {
+            line.append(" (").append(thing.getIndex()).append(',').append(thing.getWeight())
+                .append(",€").append(thing.getCost()).append(')');
+        }
+        return line.toString();
+    }
+
+    /**
+     * Distribution of weights and costs of things. Solvers behave very differently on them: uniform tasks
+     * are easy to cut with bounds, the stronger the correlation the more packages have close costs.
+     */
+    public enum Distribution {
+        /**
+         * Weights and costs are independent and uniform from 1 to 90.
+         */
+        UNIFORM,
+        /**
+         * Weights are uniform from 1 to 90, costs are uniform within 10 of the weight.
+         */
+        CORRELATED,
+        /**
+         * Weights are uniform from 1 to 90, costs are the weight plus 10.
+         */
+        STRONGLY_CORRELATED
+    }
+}
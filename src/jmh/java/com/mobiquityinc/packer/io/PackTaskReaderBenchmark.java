@@ -0,0 +1,109 @@
+package com.mobiquityinc.packer.io;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link java.util.Scanner} based {@link PackTaskReader}, {@link BytePackTaskReader}
+ * and parallel {@link MappedPackTaskReader} reading all tasks from the generated file.
+ * Use -p fileSize=... to change the size of the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class PackTaskReaderBenchmark {
+
+    @Param({"1073741824"})
+    private long fileSize;
+
+    private Path file;
+
+    private ExecutorService executorService;
+
+    @Setup
+    public void setUp() throws IOException {
+        executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        file = Files.createTempFile("tasks", ".txt");
+        final Random random = new Random(42);
+        long written = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8))) {
+            while (written < fileSize) {
+                final StringBuilder line = new StringBuilder();
+                line.append(1 + random.nextInt(100)).append(" :");
+                for (int j = 1; j <= 1 + random.nextInt(15); j++) {
+                    line.append(" (").append(j).append(',').append((1 + random.nextInt(10000)) / 100.0)
+                        .append(",€").append(1 + random.nextInt(100)).append(')');
+                }
+                line.append('\n');
+                writer.write(line.toString());
+                written += line.toString().getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executorService.shutdownNow();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public void scanner(Blackhole blackhole) throws Exception {
+        try (PackTaskReader reader = new PackTaskReader(open())) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.readNext());
+            }
+        }
+    }
+
+    @Benchmark
+    public void bytes(Blackhole blackhole) throws Exception {
+        try (BytePackTaskReader reader = new BytePackTaskReader(new FileInputStream(file.toFile()))) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.readNext());
+            }
+        }
+    }
+
+    @Benchmark
+    public void mapped(Blackhole blackhole) throws Exception {
+        try (MappedPackTaskReader reader = new MappedPackTaskReader(file, executorService)) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.readNext());
+            }
+        }
+    }
+
+    private InputStream open() throws IOException {
+        return new BufferedInputStream(new FileInputStream(file.toFile()));
+    }
+}
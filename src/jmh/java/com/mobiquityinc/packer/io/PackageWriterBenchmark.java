@@ -0,0 +1,76 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.TaskGenerator;
+import com.mobiquityinc.packer.TaskGenerator.Distribution;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.solver.GrayCodeSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PackageWriter#write(Package)} of the solved packages in each of the standard formats
+ * to the output discarding written bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackageWriterBenchmark {
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"10000"})
+    private int packages;
+
+    @Param
+    private Distribution distribution;
+
+    @Param
+    private StandardPackageFormat format;
+
+    private final List<Package> solved = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws APIException {
+        final TaskGenerator generator = new TaskGenerator(distribution, packages);
+        final GrayCodeSolver solver = new GrayCodeSolver();
+        solved.clear();
+        for (int i = 0; i < packages; i++) {
+            solved.add(solver.solve(generator.next(1 + i % 15)));
+        }
+    }
+
+    @Benchmark
+    public void write() throws Exception {
+        try (PackageWriter writer = new PackageWriter(DISCARD, format)) {
+            for (Package pack : solved) {
+                writer.write(pack);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.TaskGenerator;
+import com.mobiquityinc.packer.TaskGenerator.Distribution;
+import com.mobiquityinc.packer.domain.PackTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PackTaskSource#readAll()} of the readers on the generated input kept in memory,
+ * so only parsing is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadAllBenchmark {
+
+    @Param({"10000"})
+    private int tasks;
+
+    @Param
+    private Distribution distribution;
+
+    private byte[] input;
+
+    @Setup
+    public void setUp() {
+        final TaskGenerator generator = new TaskGenerator(distribution, tasks);
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tasks; i++) {
+            text.append(TaskGenerator.format(generator.next(1 + i % 15))).append('\n');
+        }
+        input = text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<PackTask> scanner() throws APIException {
+        return new PackTaskReader(new ByteArrayInputStream(input)).readAll();
+    }
+
+    @Benchmark
+    public List<PackTask> bytes() throws APIException {
+        return new BytePackTaskReader(ByteBuffer.wrap(input)).readAll();
+    }
+}
@@ -0,0 +1,79 @@
+package com.mobiquityinc.packer.server;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.Packer;
+import com.mobiquityinc.packer.TaskGenerator;
+import com.mobiquityinc.packer.TaskGenerator.Distribution;
+import com.mobiquityinc.packer.execution.ExecutionStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares latency of a small file packed by {@link Packer#pack(String)}, which creates a packer with a new thread pool
+ * on every call, with the request to the warmed {@link PackingServer} on the loopback interface.
+ * Concurrent clients make the server batch requests. Sample time mode reports p50 and p99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class PackingServerBenchmark {
+
+    @Param({"4"})
+    private int tasks;
+
+    @Param({"UNIFORM"})
+    private Distribution distribution;
+
+    private Path file;
+    private String input;
+    private Packer packer;
+    private PackingServer server;
+    private PackingClient client;
+
+    @Setup
+    public void setUp() throws IOException, APIException {
+        file = Files.createTempFile("tasks", ".txt");
+        new TaskGenerator(distribution, tasks).write(file, tasks, 15);
+        input = new String(Files.readAllBytes(file), "UTF-8");
+        packer = new Packer(ExecutionStrategy.batched(Runtime.getRuntime().availableProcessors()));
+        server = new PackingServer(packer, 0);
+        client = new PackingClient(server.getPort());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        server.close();
+        packer.close();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public String packFile() throws APIException {
+        return Packer.pack(file.toString());
+    }
+
+    @Benchmark
+    public String request() throws APIException {
+        return client.pack(input);
+    }
+}
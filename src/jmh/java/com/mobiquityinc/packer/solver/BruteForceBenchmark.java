@@ -0,0 +1,66 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.TaskGenerator;
+import com.mobiquityinc.packer.TaskGenerator.Distribution;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares canonical brute force with the Gray code kernel and with brute force solving reduced tasks
+ * (see {@link ReducingSolverSelector}) on the same tasks for every number of things from 5 to 15
+ * and every distribution of weights and costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BruteForceBenchmark {
+
+    @Param({"5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15"})
+    private int size;
+
+    @Param
+    private Distribution distribution;
+
+    private final BruteForceSolver bruteForceSolver = new BruteForceSolver();
+    private final GrayCodeSolver grayCodeSolver = new GrayCodeSolver();
+    private final ReducingSolverSelector reducingSelector = new ReducingSolverSelector(t -> bruteForceSolver);
+
+    private PackTask task;
+
+    @Setup
+    public void setUp() {
+        task = new TaskGenerator(distribution, size).next(size);
+    }
+
+    @Benchmark
+    public Package bruteForce() throws APIException {
+        return bruteForceSolver.solve(task);
+    }
+
+    @Benchmark
+    public Package grayCode() throws APIException {
+        return grayCodeSolver.solve(task);
+    }
+
+    @Benchmark
+    public Package reducedBruteForce() throws APIException {
+        return reducingSelector.select(task).solve(task);
+    }
+}
@@ -0,0 +1,57 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.TaskGenerator;
+import com.mobiquityinc.packer.TaskGenerator.Distribution;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DynamicProgrammingSolver} on tasks with the package limit of 100, so the keep-table has
+ * 10000 columns for every thing. Run with <code>-prof gc</code> to see the allocation rate of the keep-table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicProgrammingBenchmark {
+
+    @Param({"20", "50", "100"})
+    private int size;
+
+    @Param({"UNIFORM"})
+    private Distribution distribution;
+
+    private final DynamicProgrammingSolver solver = new DynamicProgrammingSolver();
+
+    private PackTask task;
+
+    @Setup
+    public void setUp() {
+        final TaskGenerator generator = new TaskGenerator(distribution, size);
+        task = generator.next(size);
+        while (task.getMaxWeight() < 100) {
+            task = generator.next(size);
+        }
+    }
+
+    @Benchmark
+    public Package dynamicProgramming() throws APIException {
+        return solver.solve(task);
+    }
+}
@@ -24,22 +24,90 @@ public abstract class APIException extends Exception {
     }
 
     /**
-     * Thrown when some business validation was not passed.
+     * Thrown when some business validation was not passed. Contains number of the line (starting from 1)
+     * of the task if the validation was done while reading. The line is not a part of the message,
+     * so messages of the business rules are the same for all ways of validation.
      */
     public static final class ValidationException extends APIException {
 
+        private final long line;
+
         public ValidationException(String message) {
+            this(message, 0);
+        }
+
+        public ValidationException(String message, long line) {
             super(message);
+            this.line = line;
+        }
+
+        /**
+         * Number of the line of the task which has not passed validation.
+         *
+         * @return line number starting from 1 or 0 if it's unknown
+         */
+        public long getLine() {
+            return line;
+        }
+
+        /**
+         * Creates the same exception for the line shifted by the given number of lines.
+         * It's used when a part of the input is parsed separately.
+         *
+         * @param lines number of lines before the parsed part
+         * @return created exception
+         */
+        public ValidationException shiftLine(long lines) {
+            return new ValidationException(getMessage(), line + lines);
         }
     }
 
     /**
      * Thrown when input format is not fit the requirements.
+     * Contains number of the line (starting from 1) where the problem was found if it's known.
      */
     public static final class IncorrectInputException extends APIException {
 
+        private final String reason;
+        private final long line;
+
         public IncorrectInputException(String message) {
-            super(message);
+            this(message, 0);
+        }
+
+        public IncorrectInputException(String reason, long line) {
+            super(line > 0 ? String.format("%s (line %d)", reason, line) : reason);
+            this.reason = reason;
+            this.line = line;
+        }
+
+        /**
+         * Description of the problem without the line number.
+         *
+         * @return description of the problem
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * Number of the line where the problem was found.
+         *
+         * @return line number starting from 1 or 0 if it's unknown
+         */
+        public long getLine() {
+            return line;
+        }
+
+        /**
+         * Creates the same exception for the line shifted by the given number of lines.
+         * It's used when a part of the input is parsed separately.
+         *
+         * @param lines number of lines before the parsed part
+         * @return created exception
+         */
+        public IncorrectInputException shiftLine(long lines) {
+            return new IncorrectInputException(reason, line + lines);
         }
     }
 
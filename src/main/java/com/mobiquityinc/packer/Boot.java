@@ -0,0 +1,178 @@
+package com.mobiquityinc.packer;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.execution.ExecutionStrategy;
+import com.mobiquityinc.packer.io.BinaryConverter;
+import com.mobiquityinc.packer.io.StandardPackageFormat;
+import com.mobiquityinc.packer.journal.Checkpoint;
+import com.mobiquityinc.packer.journal.ResumablePacker;
+import com.mobiquityinc.packer.metrics.PackerMetrics;
+import com.mobiquityinc.packer.metrics.Stage;
+import com.mobiquityinc.packer.server.PackingServer;
+import com.mobiquityinc.packer.shard.ShardCoordinator;
+import com.mobiquityinc.packer.shard.ShardWorker;
+import com.mobiquityinc.packer.solver.CalibratedSolverSelector;
+import com.mobiquityinc.packer.solver.CostModel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command line entry point of the tools around the packer:
+ * <pre>
+ * convert tasks-to-binary &lt;text file&gt; &lt;binary file&gt;
+ * convert tasks-to-text &lt;binary file&gt; &lt;text file&gt;
+ * convert packages-to-text &lt;binary file&gt; &lt;text file&gt; [csv|csv_with_totals|json_lines]
+ * pack &lt;text file&gt; &lt;output file&gt; &lt;journal file&gt;
+ * serve [port]
+ * shard &lt;text file&gt; &lt;workers&gt;
+ * worker [threads]
+ * calibrate &lt;profile file&gt;
+ * </pre>
+ * The pack command resumes the run recorded in the journal if there is one, see {@link ResumablePacker}.
+ * The server runs until the process is stopped and prints p50 and p99 latencies of the requests on exit.
+ * The shard command packs the file with worker processes and prints packages, the worker command is the worker
+ * process of {@link ShardCoordinator} and uses its standard input and output for the requests.
+ * The calibrate command measures the solvers on this machine and saves the {@link CostModel} to the profile
+ * to choose solvers by, the existing profile is refined.
+ * The process exits with status 1 if the command fails and with status 2 if the arguments are wrong.
+ */
+public final class Boot {
+
+    private static final int USAGE_STATUS = 2;
+
+    private static final int P50 = 50;
+    private static final int P99 = 99;
+
+    private Boot() {
+    }
+
+    /**
+     * Runs the command.
+     *
+     * @param args command and its arguments
+     */
+    public static void main(String[] args) {
+        try {
+            if (args.length >= 4 && "convert".equals(args[0])) {
+                convert(args);
+            } else if (args.length >= 4 && "pack".equals(args[0])) {
+                pack(Paths.get(args[1]), Paths.get(args[2]), Paths.get(args[3]));
+            } else if (args.length >= 1 && "serve".equals(args[0])) {
+                serve(args.length > 1 ? Integer.parseInt(args[1]) : 0);
+            } else if (args.length >= 3 && "shard".equals(args[0])) {
+                shard(Paths.get(args[1]), Integer.parseInt(args[2]));
+            } else if (args.length >= 2 && "calibrate".equals(args[0])) {
+                calibrate(Paths.get(args[1]));
+            } else if (args.length >= 1 && "worker".equals(args[0])) {
+                worker(args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors());
+            } else {
+                usage();
+            }
+        } catch (APIException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            usage();
+        }
+    }
+
+    private static void convert(String[] args) throws APIException {
+        final Path input = Paths.get(args[2]);
+        final Path output = Paths.get(args[3]);
+        final long records;
+        switch (args[1]) {
+            case "tasks-to-binary":
+                records = BinaryConverter.tasksToBinary(input, output);
+                break;
+            case "tasks-to-text":
+                records = BinaryConverter.tasksToText(input, output);
+                break;
+            case "packages-to-text":
+                records = BinaryConverter.packagesToText(input, output, args.length > 4 ?
+                    StandardPackageFormat.valueOf(args[4].toUpperCase(Locale.ROOT)) : StandardPackageFormat.CSV);
+                break;
+            default:
+                throw new IllegalArgumentException(args[1]);
+        }
+        System.out.println("Converted records: " + records);
+    }
+
+    private static void pack(Path input, Path output, Path journal) throws APIException {
+        try (Packer packer = new Packer()) {
+            final Checkpoint start = new ResumablePacker(packer).pack(input, output, journal);
+            if (start.getLine() > 1) {
+                System.out.println("Resumed from line " + start.getLine());
+            }
+        } catch (APIException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new APIException.SystemException(e);
+        }
+    }
+
+    private static void serve(int port) throws APIException {
+        final Packer packer = new Packer(ExecutionStrategy.batched(Runtime.getRuntime().availableProcessors()));
+        final PackingServer server = new PackingServer(packer, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            final PackerMetrics metrics = packer.getMetrics();
+            System.out.printf("Requests: %d, p50: %d us, p99: %d us%n",
+                metrics.getCount(Stage.REQUEST.name()),
+                TimeUnit.NANOSECONDS.toMicros(metrics.getPercentileNanos(Stage.REQUEST.name(), P50)),
+                TimeUnit.NANOSECONDS.toMicros(metrics.getPercentileNanos(Stage.REQUEST.name(), P99)));
+            try {
+                server.close();
+                packer.close();
+            } catch (Exception e) {
+                System.err.println(e.getMessage());
+            }
+        }));
+        System.out.println("Listening on " + server.getPort());
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void shard(Path file, int workers) throws APIException {
+        try (ShardCoordinator coordinator = new ShardCoordinator(workers)) {
+            coordinator.pack(file, System.out);
+        }
+    }
+
+    private static void worker(int threads) throws APIException {
+        try (Packer packer = new Packer(ExecutionStrategy.fixedThreadPool(threads))) {
+            ShardWorker.serve(packer, System.in, System.out);
+        } catch (APIException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new APIException.SystemException(e);
+        }
+    }
+
+    private static void calibrate(Path profile) throws APIException {
+        try {
+            final CostModel model = Files.exists(profile) ? CostModel.load(profile) : new CostModel();
+            new CalibratedSolverSelector(model).calibrate(CalibratedSolverSelector.DEFAULT_CALIBRATION_TASKS);
+            model.save(profile);
+            System.out.print(model);
+        } catch (IOException e) {
+            throw new APIException.SystemException(e);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: convert (tasks-to-binary|tasks-to-text|packages-to-text) <input> <output> [format]");
+        System.err.println("       pack <input> <output> <journal>");
+        System.err.println("       serve [port]");
+        System.err.println("       shard <input> <workers>");
+        System.err.println("       worker [threads]");
+        System.err.println("       calibrate <profile>");
+        System.exit(USAGE_STATUS);
+    }
+}
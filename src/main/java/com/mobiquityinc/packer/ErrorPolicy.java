@@ -0,0 +1,23 @@
+package com.mobiquityinc.packer;
+
+/**
+ * Defines what happens to an incorrect task when tasks are solved in streaming mode. A task is incorrect if
+ * its line does not fit the input format or the task does not pass validation or can not be solved
+ * by the chosen algorithm.
+ */
+public enum ErrorPolicy {
+    /**
+     * The first incorrect task stops packing, its exception is thrown.
+     */
+    FAIL,
+    /**
+     * The error record is written in the place of the package of the incorrect task, see
+     * {@link com.mobiquityinc.packer.io.PackageWriter#writeError}, and the rest of the tasks are packed.
+     * The record contains the line of the task whether the problem is found while reading, validating or solving.
+     * Only incorrect tasks are isolated, i.e. {@link com.mobiquityinc.exception.APIException.IncorrectInputException}
+     * and {@link com.mobiquityinc.exception.APIException.ValidationException}. Any other failure, e.g.
+     * {@link com.mobiquityinc.exception.APIException.SystemException} or a runtime exception of a solver,
+     * stops packing as with {@link #FAIL}.
+     */
+    ISOLATE
+}
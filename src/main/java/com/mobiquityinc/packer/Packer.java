@@ -1,12 +1,32 @@
 package com.mobiquityinc.packer;
 
 import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
 import com.mobiquityinc.exception.APIException.SystemException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.FixedPoint;
 import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
 import com.mobiquityinc.packer.domain.Package;
 import com.mobiquityinc.packer.domain.Thing;
-import com.mobiquityinc.packer.io.PackTaskReader;
+import com.mobiquityinc.packer.execution.ExecutionStrategy;
+import com.mobiquityinc.packer.execution.MemoryBudget;
+import com.mobiquityinc.packer.io.BytePackTaskReader;
+import com.mobiquityinc.packer.io.MappedPackTaskReader;
+import com.mobiquityinc.packer.io.PackTaskSource;
 import com.mobiquityinc.packer.io.PackageWriter;
+import com.mobiquityinc.packer.metrics.PackerMetrics;
+import com.mobiquityinc.packer.metrics.Stage;
+import com.mobiquityinc.packer.solver.ApproximateSolverSelector;
+import com.mobiquityinc.packer.solver.CalibratedSolverSelector;
+import com.mobiquityinc.packer.solver.CostModel;
+import com.mobiquityinc.packer.solver.Deadline;
+import com.mobiquityinc.packer.solver.GreedySolver;
+import com.mobiquityinc.packer.solver.PackSolver;
+import com.mobiquityinc.packer.solver.ReducingSolverSelector;
+import com.mobiquityinc.packer.solver.SizeBasedSolverSelector;
+import com.mobiquityinc.packer.solver.SolverSelector;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
 import com.mobiquityinc.packer.validation.ValidationRule;
 import com.mobiquityinc.packer.validation.task.EachThingSatisfyRule;
 import com.mobiquityinc.packer.validation.task.MaxPackageWeightRule;
@@ -15,31 +35,56 @@ import com.mobiquityinc.packer.validation.thing.MaxThingCostRule;
 import com.mobiquityinc.packer.validation.thing.MaxThingWeightRule;
 
 import java.io.ByteArrayOutputStream;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
 
 import static com.mobiquityinc.packer.validation.ValidationRule.allOf;
-import static java.util.stream.Collectors.toList;
 
 /**
- * Solves list of packaging tasks in a separate thread pool. Use {@link #pack(List)} method to start the process.
+ * Solves list of packaging tasks in a separate thread pool. Use {@link #pack(List)} method to start the process
+ * or {@link #pack(PackTaskSource, PackageWriter)} to solve tasks in streaming mode.
+ * Tasks are executed according to the given {@link ExecutionStrategy}, by default they are submitted one by one
+ * to the fixed thread pool with a thread per available processor. If the strategy has the {@link MemoryBudget},
+ * a submission waits until the memory estimated by the solvers of its tasks is available.
+ * Latencies of parsing, validation, waiting in the queue, solving and writing are recorded to {@link PackerMetrics},
+ * by default to the shared instance available via JMX.
  * The algorithm is aimed to solve general knapsack problem for which there is no any polynomial complexity algorithms.
- * For a moment it uses simple brute force algorithm (without branch-and-bound improvement) to find a solution.
- * Only slight modification was made to the canonical implementation to find solution with the minimum weight.
+ * The algorithm for each task is chosen by the given {@link SolverSelector}, by default small tasks are solved
+ * with brute force and the bigger ones with dynamic programming (see {@link SizeBasedSolverSelector}),
+ * or the fastest exact solver is chosen by the calibrated {@link CostModel} (see {@link CalibratedSolverSelector}).
+ * Default selectors are wrapped with {@link ReducingSolverSelector}, so things which can not be packed are removed
+ * from tasks before solving.
+ * Wrap the selector with {@link com.mobiquityinc.packer.solver.CachingSolverSelector} to solve repeated tasks once.
  */
 public class Packer implements AutoCloseable {
 
+    public static final int DEFAULT_MAX_TASKS_IN_FLIGHT = 1024;
+
     private static final ValidationRule<PackTask> DEFAULT_TASK_VALIDATION_RULE;
 
-    private static final int DEFAULT_THREAD_POOL_SIZE = 4;
+    // time given to the solvers to return the best package after the batch deadline
+    private static final long DEADLINE_GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final GreedySolver GREEDY_SOLVER = new GreedySolver();
 
     static {
         DEFAULT_TASK_VALIDATION_RULE = allOf(
@@ -55,44 +100,282 @@ public class Packer implements AutoCloseable {
     }
 
     private final ValidationRule<PackTask> validationRule;
+    private final SolverSelector solverSelector;
+    private final ExecutionStrategy executionStrategy;
     private final ExecutorService executorService;
+    private final PackerMetrics metrics;
 
-    public Packer(int threadPoolSize, ValidationRule<PackTask> validationRule) {
+    public Packer(
+        ExecutionStrategy executionStrategy,
+        ValidationRule<PackTask> validationRule,
+        SolverSelector solverSelector,
+        PackerMetrics metrics) {
         this.validationRule = validationRule;
-        this.executorService = Executors.newFixedThreadPool(threadPoolSize);
+        this.solverSelector = solverSelector;
+        this.executionStrategy = executionStrategy;
+        this.executorService = executionStrategy.getExecutorService();
+        this.metrics = metrics;
+    }
+
+    public Packer(ExecutionStrategy executionStrategy, ValidationRule<PackTask> validationRule, SolverSelector solverSelector) {
+        this(executionStrategy, validationRule, solverSelector, PackerMetrics.getDefault());
+    }
+
+    public Packer(int threadPoolSize, ValidationRule<PackTask> validationRule, SolverSelector solverSelector) {
+        this(ExecutionStrategy.fixedThreadPool(threadPoolSize), validationRule, solverSelector);
+    }
+
+    public Packer(int threadPoolSize, ValidationRule<PackTask> validationRule) {
+        this(threadPoolSize, validationRule, new ReducingSolverSelector(new SizeBasedSolverSelector()));
+    }
+
+    /**
+     * Creates the packer which approximates packages of big tasks, see {@link ApproximateSolverSelector}.
+     * Cost of every package is at least (1 - epsilon) of the best one, the achieved bound
+     * is reported in {@link Package#getGap()}.
+     *
+     * @param threadPoolSize number of threads to solve tasks
+     * @param validationRule rule to validate tasks
+     * @param epsilon allowed relative loss of the cost, from 0 to 1 exclusively
+     */
+    public Packer(int threadPoolSize, ValidationRule<PackTask> validationRule, double epsilon) {
+        this(threadPoolSize, validationRule, new ReducingSolverSelector(new ApproximateSolverSelector(epsilon)));
+    }
+
+    /**
+     * Creates the packer which chooses the fastest exact solver for each task by the cost model,
+     * see {@link CalibratedSolverSelector}. The empty model is calibrated before the packer is created,
+     * pass the model loaded from the saved profile (see {@link CostModel#load}) to start without calibration.
+     * The model keeps learning while tasks are solved.
+     *
+     * @param executionStrategy strategy to execute tasks
+     * @param validationRule rule to validate tasks
+     * @param costModel model to choose solvers by
+     */
+    public Packer(ExecutionStrategy executionStrategy, ValidationRule<PackTask> validationRule, CostModel costModel) {
+        this(executionStrategy, validationRule, new ReducingSolverSelector(calibrated(costModel)));
+    }
+
+    public Packer(ExecutionStrategy executionStrategy) {
+        this(executionStrategy, DEFAULT_TASK_VALIDATION_RULE, new ReducingSolverSelector(new SizeBasedSolverSelector()));
     }
 
     public Packer() {
-        this(DEFAULT_THREAD_POOL_SIZE, DEFAULT_TASK_VALIDATION_RULE);
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_TASK_VALIDATION_RULE);
+    }
+
+    private static CalibratedSolverSelector calibrated(CostModel costModel) {
+        final CalibratedSolverSelector selector = new CalibratedSolverSelector(costModel);
+        if (costModel.isEmpty()) {
+            selector.calibrate(CalibratedSolverSelector.DEFAULT_CALIBRATION_TASKS);
+        }
+        return selector;
     }
 
     @Override
     public void close() throws Exception {
-        this.executorService.shutdownNow();
+        this.executionStrategy.close();
+    }
+
+    public PackerMetrics getMetrics() {
+        return metrics;
     }
 
     /**
-     * Solve packaging problem for the given list of tasks. For each task it creates {@link CallablePackTask}
-     * and submits to the executor service to do work in a separate thread. When all tasks are submitted it's
-     * waiting until all tasks will complete and collects results.
+     * Solve packaging problem for the given list of tasks without deadlines, see {@link #pack(List, Duration, Duration)}.
      *
      * @param tasks list of tasks to solve
      * @return List of built packages as a results of the task executions
      * @throws APIException if something is going wrong
      */
     public List<Package> pack(List<PackTask> tasks) throws APIException {
-        validationRule.validateAll(tasks);
-        final List<Future<Package>> futures = tasks.stream()
-            .map(task -> executorService.submit(new CallablePackTask(task))).collect(toList());
-        final List<Package> result = new ArrayList<>();
-        for (Future<Package> f : futures) {
-            try {
-                result.add(f.get());
-            } catch (InterruptedException | ExecutionException e) {
-                e.printStackTrace();
+        return pack(tasks, null, null);
+    }
+
+    /**
+     * Solve packaging problem for the given list of tasks. Tasks are validated and grouped according to the execution
+     * strategy in one pass, for each group it creates {@link CallablePackTask} and submits to the executor service
+     * to do work in a separate thread. A longest-first strategy schedules all tasks at once, the most expensive first,
+     * see {@link ExecutionStrategy#isLongestFirst()}. When all tasks are submitted it's waiting until all tasks will complete
+     * and collects results. If a task is incorrect or can not be solved, the exception is thrown
+     * and the submitted groups are cancelled.
+     *
+     * The search for each task is limited by the task timeout counted from the start of solving and by the batch
+     * timeout counted from the call. Solvers supporting deadlines return the best package found so far,
+     * see {@link PackSolver#solve(PackTask, Deadline)}. Tasks not solved shortly after the batch deadline
+     * are cancelled and packed by {@link GreedySolver}. Packages which are not proved to be optimal
+     * have positive {@link Package#getGap()}.
+     *
+     * @param tasks list of tasks to solve
+     * @param taskTimeout time limit to solve one task, <code>null</code> means no limit
+     * @param batchTimeout time limit to solve all tasks, <code>null</code> means no limit
+     * @return List of built packages as a results of the task executions
+     * @throws APIException if something is going wrong
+     */
+    public List<Package> pack(List<PackTask> tasks, Duration taskTimeout, Duration batchTimeout) throws APIException {
+        final Deadline batchDeadline = Deadline.after(batchTimeout);
+        final List<CallablePackTask> groups = new ArrayList<>();
+        CallablePackTask group = new CallablePackTask(metrics, ErrorPolicy.FAIL, taskTimeout, batchDeadline);
+        try {
+            for (PackTask task : tasks) {
+                validate(task);
+                group.add(task, solverSelector.select(task), 0);
+                if (!executionStrategy.isLongestFirst() && group.things >= executionStrategy.getThingsPerSubmission()) {
+                    groups.add(schedule(group));
+                    group = new CallablePackTask(metrics, ErrorPolicy.FAIL, taskTimeout, batchDeadline);
+                }
+            }
+            if (!group.tasks.isEmpty()) {
+                groups.add(schedule(group));
+            }
+            final List<Package> result = new ArrayList<>();
+            for (CallablePackTask scheduled : groups) {
+                result.addAll(await(scheduled, batchDeadline));
             }
+            return result;
+        } finally {
+            groups.forEach(CallablePackTask::cancel);
+        }
+    }
+
+    /**
+     * Solve packaging problem for all tasks of the given batch. Works in the same way as {@link #pack(List)},
+     * but solvers take weights and costs directly from the batch arrays and mark packed things in the batch.
+     *
+     * @param batch batch of tasks to solve
+     * @throws APIException if something is going wrong
+     */
+    public void pack(PackTaskBatch batch) throws APIException {
+        final List<Future<Void>> futures = new ArrayList<>();
+        CallableBatchPackTask group = new CallableBatchPackTask(batch, 0, metrics);
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                validate(batch, i);
+                group.add(solverSelector.select(batch, i));
+                if (batch.getTo(i) - batch.getFrom(group.from) >= executionStrategy.getThingsPerSubmission()) {
+                    group.submitted = System.nanoTime();
+                    futures.add(execute(group, group::estimateMemory));
+                    group = new CallableBatchPackTask(batch, i + 1, metrics);
+                }
+            }
+            if (!group.solvers.isEmpty()) {
+                group.submitted = System.nanoTime();
+                futures.add(execute(group, group::estimateMemory));
+            }
+            for (Future<Void> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw failure(e);
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /**
+     * Solves tasks in streaming mode with the default limit of tasks in flight,
+     * see {@link #pack(PackTaskSource, PackageWriter, int, ErrorPolicy)}.
+     *
+     * @param reader reader to read tasks from
+     * @param writer writer to write built packages to
+     * @throws APIException if something is going wrong
+     */
+    public void pack(PackTaskSource reader, PackageWriter writer) throws APIException {
+        pack(reader, writer, DEFAULT_MAX_TASKS_IN_FLIGHT);
+    }
+
+    /**
+     * Solves tasks in streaming mode, the first incorrect task stops packing,
+     * see {@link #pack(PackTaskSource, PackageWriter, int, ErrorPolicy)}.
+     *
+     * @param reader reader to read tasks from
+     * @param writer writer to write built packages to
+     * @param maxTasksInFlight maximum number of submitted but not written tasks
+     * @throws APIException if something is going wrong, tasks in flight are cancelled
+     */
+    public void pack(PackTaskSource reader, PackageWriter writer, int maxTasksInFlight) throws APIException {
+        pack(reader, writer, maxTasksInFlight, ErrorPolicy.FAIL);
+    }
+
+    /**
+     * Solves tasks in streaming mode. Tasks are read one by one, grouped according to the execution strategy
+     * and submitted to the executor service. If the reader supports {@link IncrementalTaskRule}, tasks are validated
+     * while they are parsed, otherwise each task is validated right after reading. Built packages are written
+     * in the order of tasks as soon as they are ready. At most the given number of tasks are submitted but
+     * not written yet, when the limit is reached reading waits for the oldest group to complete. So memory usage
+     * does not depend on the number of tasks in the source. Writer is flushed every time the pipeline waits
+     * for a result. A longest-first strategy schedules windows of a half of the limit, the most expensive tasks
+     * of a window first, so the next window is read while the previous one is solved.
+     *
+     * @param reader reader to read tasks from
+     * @param writer writer to write built packages to
+     * @param maxTasksInFlight maximum number of submitted but not written tasks
+     * @param errorPolicy what to do with incorrect tasks
+     * @throws APIException if something is going wrong, tasks in flight are cancelled
+     */
+    public void pack(PackTaskSource reader, PackageWriter writer, int maxTasksInFlight, ErrorPolicy errorPolicy)
+        throws APIException {
+        final boolean validatedByReader = IncrementalTaskRule.isIncremental(validationRule) &&
+            reader.validateWhileReading((IncrementalTaskRule) validationRule);
+        final Deque<CallablePackTask> inFlight = new ArrayDeque<>();
+        final int windowSize = executionStrategy.isLongestFirst() ? Math.max(1, maxTasksInFlight / 2) : Integer.MAX_VALUE;
+        int tasksInFlight = 0;
+        long tasksRead = 0;
+        CallablePackTask group = new CallablePackTask(metrics, errorPolicy);
+        try {
+            while (reader.hasNext()) {
+                tasksRead++;
+                try {
+                    final PackTask task = read(reader, validatedByReader);
+                    group.add(task, solverSelector.select(task), taskLine(reader, tasksRead));
+                } catch (IncorrectInputException | ValidationException e) {
+                    final APIException error = atLine(e, taskLine(reader, tasksRead));
+                    if (errorPolicy == ErrorPolicy.FAIL) {
+                        throw error;
+                    }
+                    group.addError(error);
+                }
+                if (executionStrategy.isLongestFirst() ?
+                    group.tasks.size() >= windowSize :
+                    group.things >= executionStrategy.getThingsPerSubmission()) {
+                    inFlight.addLast(schedule(group));
+                    tasksInFlight += group.tasks.size();
+                    group = new CallablePackTask(metrics, errorPolicy);
+                }
+                while (tasksInFlight >= maxTasksInFlight) {
+                    tasksInFlight -= write(inFlight.removeFirst(), writer);
+                }
+            }
+            if (!group.tasks.isEmpty()) {
+                inFlight.addLast(schedule(group));
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.removeFirst(), writer);
+            }
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw new SystemException(e.getCause());
+        } finally {
+            inFlight.forEach(CallablePackTask::cancel);
+        }
+    }
+
+    /**
+     * Solves tasks of the given file in streaming mode. The file is read with {@link MappedPackTaskReader},
+     * so its chunks are parsed in parallel in the same thread pool that solves tasks.
+     *
+     * @param file file to read tasks from
+     * @param writer writer to write built packages to
+     * @throws APIException if something is going wrong
+     */
+    public void pack(Path file, PackageWriter writer) throws APIException {
+        try (PackTaskSource reader = new MappedPackTaskReader(file, executorService)) {
+            pack(reader, writer);
+        } catch (APIException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SystemException(e);
         }
-        return result;
     }
 
     /**
@@ -104,11 +387,17 @@ public class Packer implements AutoCloseable {
      * @throws APIException if something is going wrong
      */
     public static String pack(String filePath) throws APIException {
-        try {
-            return pack(new FileInputStream(filePath));
-        } catch (FileNotFoundException e) {
-            throw new APIException.FileNotFoundException(e);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+            Packer packer = new Packer();
+            PackageWriter writer = new PackageWriter(out);) {
+            packer.pack(Paths.get(filePath), writer);
+        } catch (APIException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SystemException(e);
         }
+        return new String(out.toByteArray());
     }
 
     /**
@@ -122,11 +411,10 @@ public class Packer implements AutoCloseable {
     protected static String pack(InputStream inputStream) throws APIException {
         final ByteArrayOutputStream out = new ByteArrayOutputStream();
         try (
-            PackTaskReader reader = new PackTaskReader(inputStream);
+            PackTaskSource reader = new BytePackTaskReader(inputStream);
             Packer packer = new Packer();
             PackageWriter writer = new PackageWriter(out);) {
-            final List<PackTask> tasks = reader.readAll();
-            packer.pack(tasks).forEach(writer::write);
+            packer.pack(reader, writer);
         } catch (APIException e) {
             throw e;
         } catch (Exception e) {
@@ -136,66 +424,528 @@ public class Packer implements AutoCloseable {
     }
 
     /**
-     * Task to submit for execution in a separate thread. Solves the given task and returns built package.
+     * Solves the task asynchronously. The task is validated and its solver is chosen in the calling thread,
+     * then it's submitted to the executor service of the strategy and the returned future is completed
+     * in the thread which solves it. The caller is never blocked: if the {@link MemoryBudget} of the strategy
+     * is exhausted, the task is submitted by the thread which releases the memory. The future is completed
+     * after the memory of the task is released, so dependent stages may pack next tasks without waiting for
+     * the memory they hold. Cancellation of the returned future cancels the task.
+     *
+     * @param task the task to solve
+     * @return future of the package, it's completed exceptionally with {@link APIException} if the task
+     *     is incorrect or can not be solved
      */
-    private static final class CallablePackTask implements Callable<Package> {
+    public CompletableFuture<Package> packAsync(PackTask task) {
+        final CompletableFuture<Package> result = new CompletableFuture<>();
+        try {
+            validate(task);
+            final CallablePackTask group = new CallablePackTask(metrics, ErrorPolicy.FAIL);
+            group.add(task, solverSelector.select(task), 0);
+            group.submitted = System.nanoTime();
+            executeAsync(() -> group.call().get(0), group.estimateMemory(), result);
+        } catch (APIException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
 
-        private static final ValidationRule<PackTask> UP_TO_15_THINGS = new MaxThingsNumberRule(15);
+    /**
+     * Submits the callable without waiting for the memory, see {@link MemoryBudget#acquireAsync}.
+     */
+    private <T> void executeAsync(Callable<T> callable, long memory, CompletableFuture<T> result) {
+        final MemoryBudget budget = executionStrategy.getMemoryBudget();
+        if (budget == null) {
+            submitAsync(callable, null, result);
+        } else {
+            budget.acquireAsync(memory, reserved -> submitAsync(callable, new Reservation(budget, reserved), result));
+        }
+    }
 
-        private final PackTask task;
+    /**
+     * Submits the callable which completes the result when it's done and its reservation is released.
+     */
+    private <T> void submitAsync(Callable<T> callable, Reservation reservation, CompletableFuture<T> result) {
+        final FutureTask<T> future = new FutureTask<T>(reservation == null ? callable : () -> reservation.call(callable)) {
+            @Override
+            protected void done() {
+                if (reservation != null) {
+                    reservation.releaseIfNotStarted();
+                }
+                complete(this, result);
+            }
+        };
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        try {
+            executorService.execute(future);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new SystemException(e));
+            future.cancel(false);
+        }
+    }
 
-        private CallablePackTask(PackTask task) {
-            this.task = task;
+    private static <T> void complete(Future<T> future, CompletableFuture<T> result) {
+        if (future.isCancelled()) {
+            result.cancel(false);
+        } else {
+            try {
+                result.complete(future.get());
+            } catch (InterruptedException | ExecutionException e) {
+                result.completeExceptionally(failure(e));
+            }
         }
+    }
 
-        @Override
-        public Package call() throws Exception {
-            return bruteForce(this.task);
+    private static List<Package> awaitUntil(Future<List<Package>> future, Deadline deadline)
+        throws APIException, TimeoutException {
+        try {
+            return deadline == Deadline.NONE ?
+                future.get() :
+                future.get(Math.min(Long.MAX_VALUE - DEADLINE_GRACE_NANOS, deadline.remainingNanos()) + DEADLINE_GRACE_NANOS,
+                    TimeUnit.NANOSECONDS);
+        } catch (InterruptedException | ExecutionException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * Converts the exception of waiting for a result to the exception of the library.
+     */
+    private static APIException failure(Exception e) {
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        final Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+        return cause instanceof APIException ? (APIException) cause : new SystemException(cause);
+    }
+
+    /**
+     * Packs the task which has not been solved before the deadline. If numbers of the task can not be represented
+     * in the fixed-point format, the empty package is returned with the total cost of things as the gap.
+     */
+    private static Package fallback(PackTask task) throws APIException {
+        final Package pack;
+        if (FixedPoint.isRepresentable(task)) {
+            pack = GREEDY_SOLVER.solve(task);
+        } else {
+            pack = new Package(new ArrayList<>(), task.getThings().stream().mapToDouble(Thing::getCost).sum());
+        }
+        return pack;
+    }
+
+    /**
+     * Validates the task with the rule of the packer, latency is recorded to the metrics.
+     *
+     * @param task the task to validate
+     * @throws APIException if the task does not satisfy the rule
+     */
+    public void validate(PackTask task) throws APIException {
+        final long start = System.nanoTime();
+        validationRule.validate(task);
+        metrics.record(Stage.VALIDATE, task.getThings().size(), System.nanoTime() - start);
+    }
+
+    /**
+     * Validates the task of the batch with the rule of the packer, latency is recorded to the metrics.
+     * An incremental rule checks the numbers of the batch arrays, so the task is not converted
+     * to the object representation, other rules get the converted task.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task to validate in the batch
+     * @throws APIException if the task does not satisfy the rule
+     */
+    public void validate(PackTaskBatch batch, int task) throws APIException {
+        final long start = System.nanoTime();
+        final int from = batch.getFrom(task);
+        final int size = batch.getTo(task) - from;
+        if (IncrementalTaskRule.isIncremental(validationRule)) {
+            final IncrementalTaskRule rule = (IncrementalTaskRule) validationRule;
+            final int[] indices = batch.getIndices();
+            final long[] weights = batch.getWeights();
+            final long[] costs = batch.getCosts();
+            rule.validateMaxWeight(FixedPoint.toDouble(batch.getMaxWeight(task)));
+            for (int i = 0; i < size; i++) {
+                rule.validateThing(i + 1, indices[from + i], FixedPoint.toDouble(weights[from + i]), FixedPoint.toDouble(costs[from + i]));
+            }
+        } else {
+            validationRule.validate(batch.toPackTask(task));
+        }
+        metrics.record(Stage.VALIDATE, size, System.nanoTime() - start);
+    }
+
+    private PackTask read(PackTaskSource reader, boolean validatedByReader) throws APIException {
+        final long start = System.nanoTime();
+        final PackTask task = reader.readNext();
+        metrics.record(Stage.PARSE, task.getThings().size(), System.nanoTime() - start);
+        if (!validatedByReader) {
+            validate(task);
+        }
+        return task;
+    }
+
+    /**
+     * Line of the last read task, the number of read tasks is used if the source does not count lines,
+     * since each task is on its own line in the documented format.
+     */
+    private static long taskLine(PackTaskSource reader, long tasksRead) {
+        final long line = reader.getTaskLine();
+        return line > 0 ? line : tasksRead;
+    }
+
+    /**
+     * Positions the problem of the task at the given line if its line is unknown and the given one is known.
+     */
+    private static APIException atLine(APIException e, long line) {
+        final APIException positioned;
+        if (line > 0 && e instanceof IncorrectInputException && ((IncorrectInputException) e).getLine() == 0) {
+            positioned = ((IncorrectInputException) e).shiftLine(line);
+        } else if (line > 0 && e instanceof ValidationException && ((ValidationException) e).getLine() == 0) {
+            positioned = ((ValidationException) e).shiftLine(line);
+        } else {
+            positioned = e;
+        }
+        return positioned;
+    }
+
+    private CallablePackTask submit(CallablePackTask group) throws APIException {
+        group.submitted = System.nanoTime();
+        group.future = execute(group, group::estimateMemory);
+        return group;
+    }
+
+    /**
+     * Submits the callable to the executor service. If the strategy has the memory budget, the estimated memory
+     * of the callable is reserved first, waiting while the budget is exhausted. The memory is released when
+     * the callable completes or when it's cancelled before it starts.
+     */
+    private <T> Future<T> execute(Callable<T> callable, LongSupplier memory) throws APIException {
+        final MemoryBudget budget = executionStrategy.getMemoryBudget();
+        if (budget == null) {
+            return executorService.submit(callable);
+        }
+        final Reservation reservation;
+        try {
+            reservation = new Reservation(budget, budget.acquire(memory.getAsLong()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException(e);
+        }
+        final FutureTask<T> future = new FutureTask<T>(() -> reservation.call(callable)) {
+            @Override
+            protected void done() {
+                reservation.releaseIfNotStarted();
+            }
+        };
+        executorService.execute(future);
+        return future;
+    }
+
+    /**
+     * Submits the group as is or as units of the longest-first strategy.
+     */
+    private CallablePackTask schedule(CallablePackTask group) throws APIException {
+        if (executionStrategy.isLongestFirst()) {
+            group.units = submitLongestFirst(group);
+            return group;
+        }
+        return submit(group);
+    }
+
+    /**
+     * Submits the correct tasks of the group as units in the descending order of the estimated cost,
+     * a unit is submitted when the total estimated cost of its tasks reaches the cost per submission.
+     * Tasks of the same cost keep their order.
+     *
+     * @return submitted units
+     */
+    private List<CallablePackTask> submitLongestFirst(CallablePackTask group) throws APIException {
+        final double[] costs = new double[group.tasks.size()];
+        final List<Integer> order = new ArrayList<>(group.tasks.size());
+        for (int i = 0; i < group.tasks.size(); i++) {
+            if (group.errors.get(i) == null) {
+                costs[i] = group.solvers.get(i).estimateCost(group.tasks.get(i));
+                order.add(i);
+            }
+        }
+        order.sort((a, b) -> Double.compare(costs[b], costs[a]));
+        final List<CallablePackTask> units = new ArrayList<>();
+        CallablePackTask unit = group.newUnit();
+        double cost = 0;
+        for (int position : order) {
+            unit.add(group.tasks.get(position), group.solvers.get(position), group.lines.get(position));
+            unit.positions.add(position);
+            cost += costs[position];
+            if (cost >= executionStrategy.getCostPerSubmission()) {
+                units.add(submit(unit));
+                unit = group.newUnit();
+                cost = 0;
+            }
+        }
+        if (!unit.tasks.isEmpty()) {
+            units.add(submit(unit));
+        }
+        return units;
+    }
+
+    /**
+     * Waits for the packages of the scheduled group in the order of its tasks. Tasks of the units not completed
+     * shortly after the deadline are packed by {@link #fallback(PackTask)}. Exceptions of the tasks which
+     * can not be solved are moved from the units to the group.
+     */
+    private static List<Package> await(CallablePackTask group, Deadline deadline) throws APIException {
+        if (group.units == null) {
+            return awaitOrFallback(group, deadline);
+        }
+        final List<Package> packages = new ArrayList<>(Collections.nCopies(group.tasks.size(), null));
+        for (CallablePackTask unit : group.units) {
+            final List<Package> unitPackages = awaitOrFallback(unit, deadline);
+            for (int i = 0; i < unitPackages.size(); i++) {
+                final int position = unit.positions.get(i);
+                packages.set(position, unitPackages.get(i));
+                if (unit.errors.get(i) != null) {
+                    group.errors.set(position, unit.errors.get(i));
+                }
+            }
+        }
+        return packages;
+    }
+
+    private static List<Package> awaitOrFallback(CallablePackTask group, Deadline deadline) throws APIException {
+        try {
+            return awaitUntil(group.future, deadline);
+        } catch (TimeoutException e) {
+            group.future.cancel(true);
+            final List<Package> packages = new ArrayList<>(group.tasks.size());
+            for (PackTask task : group.tasks) {
+                packages.add(fallback(task));
+            }
+            return packages;
+        }
+    }
+
+    /**
+     * Waits for the group to complete and writes its packages and error records.
+     *
+     * @return number of written records
+     */
+    private int write(CallablePackTask group, PackageWriter writer) throws APIException {
+        if (!group.isDone()) {
+            writer.flush();
+        }
+        final List<Package> packages = await(group, Deadline.NONE);
+        for (int i = 0; i < packages.size(); i++) {
+            final long start = System.nanoTime();
+            final Package pack = packages.get(i);
+            if (pack == null) {
+                writer.writeError(group.errors.get(i));
+            } else {
+                writer.write(pack);
+            }
+            metrics.record(Stage.WRITE, pack == null ? 0 : pack.getThings().size(), System.nanoTime() - start);
+        }
+        return packages.size();
+    }
+
+    /**
+     * Task to submit for execution in a separate thread. Solves the group of tasks and returns built packages.
+     */
+    private static final class CallablePackTask implements Callable<List<Package>> {
+
+        private final List<PackTask> tasks = new ArrayList<>();
+        private final List<PackSolver> solvers = new ArrayList<>();
+        // exceptions of the incorrect tasks by their positions, null for the correct ones
+        private final List<APIException> errors = new ArrayList<>();
+        // lines of the tasks to position exceptions of solvers, 0 if the line is unknown
+        private final List<Long> lines = new ArrayList<>();
+        private final PackerMetrics metrics;
+        private final ErrorPolicy errorPolicy;
+        private final Duration taskTimeout;
+        private final Deadline batchDeadline;
+        // positions of the tasks of a unit in the scheduled group
+        private final List<Integer> positions = new ArrayList<>();
+        private int things;
+        private long submitted;
+        private Future<List<Package>> future;
+        // submitted units of the group scheduled by the longest-first strategy, null if the group is submitted as is
+        private List<CallablePackTask> units;
+
+        private CallablePackTask(PackerMetrics metrics, ErrorPolicy errorPolicy, Duration taskTimeout, Deadline batchDeadline) {
+            this.metrics = metrics;
+            this.errorPolicy = errorPolicy;
+            this.taskTimeout = taskTimeout;
+            this.batchDeadline = batchDeadline;
+        }
+
+        private CallablePackTask(PackerMetrics metrics, ErrorPolicy errorPolicy) {
+            this(metrics, errorPolicy, null, Deadline.NONE);
+        }
+
+        private void add(PackTask task, PackSolver solver, long line) {
+            tasks.add(task);
+            solvers.add(solver);
+            errors.add(null);
+            lines.add(line);
+            things += task.getThings().size();
         }
 
         /**
-         * Apply canonical knapsack problem brute force algorithm to solve the task.
-         *
-         * @param task the task to solve.
-         * @return built package
+         * Memory of the biggest task, tasks of the group are solved one by one.
          */
-        public Package bruteForce(PackTask task) throws APIException {
-            UP_TO_15_THINGS.validate(task);
-            double bestCost = 0;
-            double bestWeight = Double.MAX_VALUE;
-            int bestPack = 0;
-            for (short i = 1; i < (1 << task.getThings().size()); i++) {
-                double costSum = 0;
-                double weightSum = 0;
-                for (short j = 0; j < task.getThings().size(); j++) {
-                    if ((i & (1 << j)) > 0) {
-                        final Thing includedThing = task.getThings().get(j);
-                        costSum += includedThing.getCost();
-                        weightSum += includedThing.getWeight();
-                    }
-                }
-                if (weightSum < task.getMaxWeight() && isBetter(weightSum, costSum, bestWeight, bestCost)) {
-                    bestPack = i;
-                    bestWeight = weightSum;
-                    bestCost = costSum;
+        private long estimateMemory() {
+            long memory = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                if (errors.get(i) == null) {
+                    memory = Math.max(memory, solvers.get(i).estimateMemory(tasks.get(i)));
                 }
             }
-            return createPackage(task.getThings(), bestPack);
+            return memory;
+        }
+
+        private CallablePackTask newUnit() {
+            return new CallablePackTask(metrics, errorPolicy, taskTimeout, batchDeadline);
+        }
+
+        private boolean isDone() {
+            return units == null ? future.isDone() : units.stream().allMatch(unit -> unit.future.isDone());
+        }
+
+        private void cancel() {
+            if (units != null) {
+                units.forEach(CallablePackTask::cancel);
+            } else if (future != null) {
+                future.cancel(true);
+            }
         }
 
-        private boolean isBetter(double weightSum, double costSum, double bestWeight, double bestCost) {
-            return costSum > bestCost || costSum == bestCost && bestWeight > weightSum;
+        /**
+         * Adds the incorrect task, it takes its place in the group as a thing.
+         */
+        private void addError(APIException error) {
+            tasks.add(null);
+            solvers.add(null);
+            errors.add(error);
+            lines.add(0L);
+            things++;
         }
 
-        private Package createPackage(List<Thing> allThings, int set) {
-            final List<Thing> packageThings = new ArrayList<>();
-            for (int j = 0; j < allThings.size(); j++) {
-                if ((set & (1 << j)) > 0) {
-                    packageThings.add(allThings.get(j));
+        /**
+         * Solves the tasks of the group. If the policy is {@link ErrorPolicy#ISOLATE}, tasks which can not be solved
+         * are kept as <code>null</code> packages with the exceptions in {@link #errors}.
+         */
+        @Override
+        public List<Package> call() throws Exception {
+            long start = System.nanoTime();
+            final long queued = start - submitted;
+            final List<Package> packages = new ArrayList<>(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                Package pack = null;
+                if (errors.get(i) == null) {
+                    final int size = tasks.get(i).getThings().size();
+                    metrics.record(Stage.QUEUE, size, queued);
+                    try {
+                        pack = solvers.get(i).solve(tasks.get(i), Deadline.after(taskTimeout).min(batchDeadline));
+                    } catch (IncorrectInputException | ValidationException e) {
+                        final APIException error = atLine(e, lines.get(i));
+                        if (errorPolicy == ErrorPolicy.FAIL) {
+                            throw error;
+                        }
+                        errors.set(i, error);
+                    }
+                    final long end = System.nanoTime();
+                    metrics.recordSolve(solvers.get(i).getEffectiveSolverClass(), size, end - start);
+                    start = end;
                 }
+                packages.add(pack);
+            }
+            return packages;
+        }
+    }
+
+    /**
+     * Task to submit for execution in a separate thread. Solves the group of consecutive tasks of the batch
+     * and marks packed things.
+     */
+    private static final class CallableBatchPackTask implements Callable<Void> {
+
+        private final PackTaskBatch batch;
+        private final int from;
+        private final List<PackSolver> solvers = new ArrayList<>();
+        private final PackerMetrics metrics;
+        private long submitted;
+
+        private CallableBatchPackTask(PackTaskBatch batch, int from, PackerMetrics metrics) {
+            this.batch = batch;
+            this.from = from;
+            this.metrics = metrics;
+        }
+
+        private void add(PackSolver solver) {
+            solvers.add(solver);
+        }
+
+        private long estimateMemory() {
+            long memory = 0;
+            for (int i = 0; i < solvers.size(); i++) {
+                memory = Math.max(memory, solvers.get(i).estimateMemory(batch, from + i));
+            }
+            return memory;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            long start = System.nanoTime();
+            final long queued = start - submitted;
+            for (int i = 0; i < solvers.size(); i++) {
+                final int size = batch.getTo(from + i) - batch.getFrom(from + i);
+                metrics.record(Stage.QUEUE, size, queued);
+                solvers.get(i).solve(batch, from + i);
+                final long end = System.nanoTime();
+                metrics.recordSolve(solvers.get(i).getEffectiveSolverClass(), size, end - start);
+                start = end;
             }
-            return new Package(packageThings);
+            return null;
         }
     }
 
+    /**
+     * Memory reserved in the budget for a submitted callable. It's released once: when the callable completes
+     * or when the callable is cancelled before it starts. A callable cancelled while running keeps the memory
+     * until it returns.
+     */
+    private static final class Reservation {
+
+        private static final int RESERVED = 0;
+        private static final int RUNNING = 1;
+        private static final int RELEASED = 2;
+
+        private final MemoryBudget budget;
+        private final long bytes;
+        private final AtomicInteger state = new AtomicInteger(RESERVED);
+
+        private Reservation(MemoryBudget budget, long bytes) {
+            this.budget = budget;
+            this.bytes = bytes;
+        }
+
+        private <T> T call(Callable<T> callable) throws Exception {
+            final boolean running = state.compareAndSet(RESERVED, RUNNING);
+            try {
+                return callable.call();
+            } finally {
+                if (running) {
+                    state.set(RELEASED);
+                    budget.release(bytes);
+                }
+            }
+        }
+
+        private void releaseIfNotStarted() {
+            if (state.compareAndSet(RESERVED, RELEASED)) {
+                budget.release(bytes);
+            }
+        }
+    }
 }
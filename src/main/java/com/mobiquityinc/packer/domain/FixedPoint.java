@@ -0,0 +1,72 @@
+package com.mobiquityinc.packer.domain;
+
+/**
+ * Converts weights and costs of the tasks to the fixed-point representation with {@link #SCALE} as a multiplier.
+ * Input format defines numbers with at most two decimals, so they can be represented as integers
+ * without any precision loss. It makes possible to use integer arithmetic in the algorithms
+ * where exact comparison of sums is required.
+ */
+public final class FixedPoint {
+
+    /**
+     * Number of decimals supported by the format.
+     */
+    public static final int DECIMALS = 2;
+
+    /**
+     * Multiplier to convert a number with two decimals to an integer.
+     */
+    public static final int SCALE = 100;
+
+    private static final double EPSILON = 1e-6;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Converts the given value to the fixed-point representation.
+     *
+     * @param value value to convert
+     * @return fixed-point representation of the value
+     */
+    public static long toFixed(double value) {
+        return Math.round(value * SCALE);
+    }
+
+    /**
+     * Converts the given fixed-point value back to the floating point representation.
+     *
+     * @param value fixed-point value to convert
+     * @return floating point representation of the value
+     */
+    public static double toDouble(long value) {
+        return (double) value / SCALE;
+    }
+
+    /**
+     * Checks if the given value can be represented in the fixed-point format without precision loss.
+     *
+     * @param value value to check
+     * @return <code>true</code> if the value has no more decimals than supported else returns <code>false</code>
+     */
+    public static boolean isRepresentable(double value) {
+        final double scaled = value * SCALE;
+        return Math.abs(scaled - Math.rint(scaled)) < EPSILON;
+    }
+
+    /**
+     * Checks if the package limit, weights and costs of the given task can be represented
+     * in the fixed-point format without precision loss.
+     *
+     * @param task task to check
+     * @return <code>true</code> if all numbers of the task are representable else returns <code>false</code>
+     */
+    public static boolean isRepresentable(PackTask task) {
+        boolean representable = isRepresentable(task.getMaxWeight());
+        for (int i = 0; representable && i < task.getThings().size(); i++) {
+            final Thing thing = task.getThings().get(i);
+            representable = isRepresentable(thing.getWeight()) && isRepresentable(thing.getCost());
+        }
+        return representable;
+    }
+}
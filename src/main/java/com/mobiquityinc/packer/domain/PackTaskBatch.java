@@ -0,0 +1,254 @@
+package com.mobiquityinc.packer.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact columnar representation of many packaging tasks. Things of all tasks are stored in the shared flat
+ * primitive arrays (index, weight and cost columns), each task refers to the range of things by offsets.
+ * Weights and costs are kept in the {@link FixedPoint} representation. Result of the packaging is kept
+ * in the same batch as a column of flags marking packed things and the optimality gap of each task.
+ *
+ * The batch does not create any objects per task or thing, arrays grow when needed and can be reused
+ * for the next portion of tasks after {@link #clear()}. Arrays returned by the getters are not copied,
+ * they are valid for the things in range [0, {@link #getThingsNumber()}).
+ */
+public final class PackTaskBatch {
+
+    private static final int DEFAULT_TASKS_CAPACITY = 1024;
+    private static final int DEFAULT_THINGS_CAPACITY = 16 * 1024;
+
+    private int size;
+    private int thingsNumber;
+    private long[] maxWeights;
+    private long[] gaps;
+    private int[] offsets;
+    private int[] indices;
+    private long[] weights;
+    private long[] costs;
+    private boolean[] packed;
+
+    public PackTaskBatch(int tasksCapacity, int thingsCapacity) {
+        this.maxWeights = new long[tasksCapacity];
+        this.gaps = new long[tasksCapacity];
+        this.offsets = new int[tasksCapacity + 1];
+        this.indices = new int[thingsCapacity];
+        this.weights = new long[thingsCapacity];
+        this.costs = new long[thingsCapacity];
+        this.packed = new boolean[thingsCapacity];
+    }
+
+    public PackTaskBatch() {
+        this(DEFAULT_TASKS_CAPACITY, DEFAULT_THINGS_CAPACITY);
+    }
+
+    /**
+     * Creates batch of the given tasks. All numbers of the tasks should be representable in
+     * the {@link FixedPoint} format.
+     *
+     * @param tasks tasks to add to the batch
+     * @return created batch
+     */
+    public static PackTaskBatch of(List<PackTask> tasks) {
+        final PackTaskBatch batch = new PackTaskBatch(tasks.size(), tasks.stream().mapToInt(t -> t.getThings().size()).sum());
+        for (PackTask task : tasks) {
+            batch.addTask(FixedPoint.toFixed(task.getMaxWeight()));
+            for (Thing thing : task.getThings()) {
+                batch.addThing(thing.getIndex(), FixedPoint.toFixed(thing.getWeight()), FixedPoint.toFixed(thing.getCost()));
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Starts the new task, the following things will be added to this task.
+     *
+     * @param maxWeight package limit of the task
+     */
+    public void addTask(long maxWeight) {
+        if (size == maxWeights.length) {
+            final int capacity = Math.max(size << 1, 1);
+            maxWeights = Arrays.copyOf(maxWeights, capacity);
+            gaps = Arrays.copyOf(gaps, capacity);
+            offsets = Arrays.copyOf(offsets, capacity + 1);
+        }
+        maxWeights[size] = maxWeight;
+        gaps[size] = 0;
+        offsets[size] = thingsNumber;
+        size++;
+        offsets[size] = thingsNumber;
+    }
+
+    /**
+     * Adds thing to the last added task.
+     *
+     * @param index index of the thing
+     * @param weight weight of the thing
+     * @param cost cost of the thing
+     */
+    public void addThing(int index, long weight, long cost) {
+        if (size == 0) {
+            throw new IllegalStateException("Task should be added before things");
+        }
+        if (thingsNumber == indices.length) {
+            final int capacity = Math.max(thingsNumber << 1, 1);
+            indices = Arrays.copyOf(indices, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            costs = Arrays.copyOf(costs, capacity);
+            packed = Arrays.copyOf(packed, capacity);
+        }
+        indices[thingsNumber] = index;
+        weights[thingsNumber] = weight;
+        costs[thingsNumber] = cost;
+        packed[thingsNumber] = false;
+        thingsNumber++;
+        offsets[size] = thingsNumber;
+    }
+
+    /**
+     * Removes the tasks after the given number of tasks and their things, e.g. to roll back the partially added task.
+     *
+     * @param tasks number of tasks to keep
+     */
+    public void truncate(int tasks) {
+        if (tasks < size) {
+            size = tasks;
+            thingsNumber = offsets[tasks];
+        }
+    }
+
+    /**
+     * Removes all tasks from the batch keeping allocated arrays.
+     */
+    public void clear() {
+        size = 0;
+        thingsNumber = 0;
+    }
+
+    /**
+     * Number of tasks in the batch.
+     *
+     * @return number of tasks
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getThingsNumber() {
+        return thingsNumber;
+    }
+
+    /**
+     * Package limit of the task.
+     *
+     * @param task position of the task in the batch
+     * @return package limit
+     */
+    public long getMaxWeight(int task) {
+        return maxWeights[task];
+    }
+
+    /**
+     * Position of the first thing of the task.
+     *
+     * @param task position of the task in the batch
+     * @return position of the first thing
+     */
+    public int getFrom(int task) {
+        return offsets[task];
+    }
+
+    /**
+     * Position after the last thing of the task.
+     *
+     * @param task position of the task in the batch
+     * @return position after the last thing
+     */
+    public int getTo(int task) {
+        return offsets[task + 1];
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public long[] getWeights() {
+        return weights;
+    }
+
+    public long[] getCosts() {
+        return costs;
+    }
+
+    /**
+     * Checks if the thing is packed.
+     *
+     * @param thing position of the thing in the batch
+     * @return <code>true</code> if the thing is packed else returns <code>false</code>
+     */
+    public boolean isPacked(int thing) {
+        return packed[thing];
+    }
+
+    /**
+     * Marks the thing as packed or not.
+     *
+     * @param thing position of the thing in the batch
+     * @param value <code>true</code> if the thing is packed
+     */
+    public void setPacked(int thing, boolean value) {
+        packed[thing] = value;
+    }
+
+    /**
+     * Optimality gap of the solved task: the difference between the upper bound of the cost of the best package
+     * and the cost of the found one. It's zero if the found package is optimal.
+     *
+     * @param task position of the task in the batch
+     * @return optimality gap in the fixed-point representation
+     */
+    public long getGap(int task) {
+        return gaps[task];
+    }
+
+    /**
+     * Sets optimality gap of the solved task, see {@link #getGap(int)}.
+     *
+     * @param task position of the task in the batch
+     * @param gap optimality gap in the fixed-point representation
+     */
+    public void setGap(int task, long gap) {
+        gaps[task] = gap;
+    }
+
+    /**
+     * Creates object representation of the task.
+     *
+     * @param task position of the task in the batch
+     * @return created task
+     */
+    public PackTask toPackTask(int task) {
+        final List<Thing> things = new ArrayList<>(getTo(task) - getFrom(task));
+        for (int i = getFrom(task); i < getTo(task); i++) {
+            things.add(new Thing(indices[i], FixedPoint.toDouble(weights[i]), FixedPoint.toDouble(costs[i])));
+        }
+        return new PackTask(FixedPoint.toDouble(maxWeights[task]), things);
+    }
+
+    /**
+     * Creates object representation of the task result, it contains packed things of the task.
+     *
+     * @param task position of the task in the batch
+     * @return created package
+     */
+    public Package toPackage(int task) {
+        final List<Thing> things = new ArrayList<>();
+        for (int i = getFrom(task); i < getTo(task); i++) {
+            if (packed[i]) {
+                things.add(new Thing(indices[i], FixedPoint.toDouble(weights[i]), FixedPoint.toDouble(costs[i])));
+            }
+        }
+        return new Package(things, FixedPoint.toDouble(gaps[task]));
+    }
+}
@@ -4,16 +4,37 @@ import java.util.List;
 
 /**
  * Represents built package of things. It's used as a result of packaging algorithm.
+ * If the algorithm was stopped before it proved the package to be the best one, the package contains
+ * the optimality gap: how much the cost of the best package can be greater than the cost of this one.
  */
 public class Package {
 
     private final List<Thing> things;
+    private final double gap;
 
-    public Package(List<Thing> things) {
+    public Package(List<Thing> things, double gap) {
         this.things = things;
+        this.gap = gap;
+    }
+
+    public Package(List<Thing> things) {
+        this(things, 0);
     }
 
     public List<Thing> getThings() {
         return things;
     }
+
+    /**
+     * Upper bound of the difference between the cost of the best package and the cost of this one.
+     *
+     * @return optimality gap, zero for the optimal package
+     */
+    public double getGap() {
+        return gap;
+    }
+
+    public boolean isOptimal() {
+        return gap == 0;
+    }
 }
@@ -0,0 +1,164 @@
+package com.mobiquityinc.packer.execution;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Defines how {@link com.mobiquityinc.packer.Packer} executes tasks: the executor service to submit them to
+ * and the minimum total number of things of the tasks grouped into one submission. With the minimum of one thing
+ * every task is submitted separately, bigger values group tiny tasks to reduce the overhead of submissions
+ * while big tasks are still submitted alone.
+ *
+ * Tasks are submitted in the order of the input by default. A longest-first strategy estimates the cost of every task
+ * with its solver (see {@link com.mobiquityinc.packer.solver.PackSolver#estimateCost}) and submits the most expensive
+ * tasks first, cheap tasks are grouped into submissions of at least the given estimated cost. So the slowest tasks
+ * do not start last and keep one thread busy while the others are idle. Packages are still returned
+ * and written in the order of tasks.
+ *
+ * Memory of the tasks solved at the same time can be limited by the {@link MemoryBudget}, see
+ * {@link #withMemoryBudget(long)}. Without the budget tasks are submitted regardless of their memory.
+ *
+ * Strategy owns the executor service and shuts it down on {@link #close()}.
+ */
+public final class ExecutionStrategy implements AutoCloseable {
+
+    private static final int DEFAULT_THINGS_PER_SUBMISSION = 256;
+
+    // about the cost of a task with 12 things solved with the Gray code brute force
+    private static final double DEFAULT_COST_PER_SUBMISSION = 4 * 1024;
+
+    private final ExecutorService executorService;
+    private final int thingsPerSubmission;
+    private final double costPerSubmission;
+    private final MemoryBudget memoryBudget;
+
+    private ExecutionStrategy(
+        ExecutorService executorService, int thingsPerSubmission, double costPerSubmission, MemoryBudget memoryBudget) {
+        this.executorService = executorService;
+        this.thingsPerSubmission = thingsPerSubmission;
+        this.costPerSubmission = costPerSubmission;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Creates strategy with the given executor service.
+     *
+     * @param executorService executor service to run tasks
+     * @param thingsPerSubmission minimum total number of things of the tasks submitted together
+     * @return created strategy
+     */
+    public static ExecutionStrategy of(ExecutorService executorService, int thingsPerSubmission) {
+        return new ExecutionStrategy(executorService, thingsPerSubmission, 0, null);
+    }
+
+    /**
+     * Creates longest-first strategy with the given executor service.
+     *
+     * @param executorService executor service to run tasks
+     * @param costPerSubmission minimum total estimated cost of the tasks submitted together
+     * @return created strategy
+     */
+    public static ExecutionStrategy longestFirst(ExecutorService executorService, double costPerSubmission) {
+        return new ExecutionStrategy(executorService, 1, costPerSubmission, null);
+    }
+
+    /**
+     * Creates longest-first strategy with the fixed thread pool, tasks are grouped into submissions
+     * of at least 4096 estimated steps.
+     *
+     * @param threads number of threads in the pool
+     * @return created strategy
+     */
+    public static ExecutionStrategy longestFirst(int threads) {
+        return longestFirst(Executors.newFixedThreadPool(threads), DEFAULT_COST_PER_SUBMISSION);
+    }
+
+    /**
+     * Creates strategy submitting every task separately to the fixed thread pool.
+     *
+     * @param threads number of threads in the pool
+     * @return created strategy
+     */
+    public static ExecutionStrategy fixedThreadPool(int threads) {
+        return of(Executors.newFixedThreadPool(threads), 1);
+    }
+
+    /**
+     * Creates strategy submitting every task separately to the work-stealing {@link ForkJoinPool}.
+     * Solvers supporting it split the search for big tasks into subtasks, so idle threads steal
+     * the work of slow tasks.
+     *
+     * @param parallelism parallelism level of the pool
+     * @return created strategy
+     */
+    public static ExecutionStrategy workStealing(int parallelism) {
+        return of(new ForkJoinPool(parallelism), 1);
+    }
+
+    /**
+     * Creates strategy grouping tiny tasks into submissions of at least 256 things to the fixed thread pool.
+     *
+     * @param threads number of threads in the pool
+     * @return created strategy
+     */
+    public static ExecutionStrategy batched(int threads) {
+        return of(Executors.newFixedThreadPool(threads), DEFAULT_THINGS_PER_SUBMISSION);
+    }
+
+    /**
+     * Creates strategy solving tasks in the calling thread. It's useful to embed the packer
+     * into an application which manages threads itself.
+     *
+     * @return created strategy
+     */
+    public static ExecutionStrategy sameThread() {
+        return of(new SameThreadExecutorService(), 1);
+    }
+
+    /**
+     * Creates the same strategy which limits the memory of the tasks solved at the same time.
+     * The created strategy takes over the executor service, only one of them should be closed.
+     *
+     * @param bytes memory budget in bytes
+     * @return created strategy
+     */
+    public ExecutionStrategy withMemoryBudget(long bytes) {
+        return new ExecutionStrategy(executorService, thingsPerSubmission, costPerSubmission, new MemoryBudget(bytes));
+    }
+
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    public int getThingsPerSubmission() {
+        return thingsPerSubmission;
+    }
+
+    public double getCostPerSubmission() {
+        return costPerSubmission;
+    }
+
+    /**
+     * Budget of the memory of the tasks solved at the same time.
+     *
+     * @return the budget or <code>null</code> if the memory is not limited
+     */
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Checks if the most expensive tasks are submitted first.
+     *
+     * @return <code>true</code> for the longest-first strategy else returns <code>false</code>
+     */
+    public boolean isLongestFirst() {
+        return costPerSubmission > 0;
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+}
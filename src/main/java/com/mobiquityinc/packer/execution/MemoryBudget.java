@@ -0,0 +1,205 @@
+package com.mobiquityinc.packer.execution;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Global limit of the memory taken by the tasks solved at the same time. The packer reserves the memory
+ * estimated by the solvers (see {@link com.mobiquityinc.packer.solver.PackSolver#estimateMemory}) before it submits
+ * tasks to the executor service and releases it when they are solved, so submission waits while the budget
+ * is exhausted. A reservation bigger than the whole budget takes the whole budget, so such a task is solved alone
+ * instead of waiting forever.
+ *
+ * Reservations may also be made without waiting, see {@link #acquireAsync(long, LongConsumer)}. Reservations
+ * which have to wait are served in the order they were made, whether the thread waits or not, so a big reservation
+ * is not overtaken by smaller ones forever. Actions of the reservations made without waiting are run by the thread
+ * releasing the memory. If an action releases memory itself, e.g. it solves the task in the same thread,
+ * actions granted by that release are run after it returns, so the stack does not grow with the queue.
+ *
+ * The budget is thread-safe.
+ */
+public final class MemoryBudget {
+
+    private final long bytes;
+    // reservations which wait for the memory, in the order they were made
+    private final Deque<Pending> pending = new ArrayDeque<>();
+    // actions granted to the thread which is running granted actions, null if it does not run them
+    private final ThreadLocal<Deque<Pending>> dispatching = new ThreadLocal<>();
+    private long available;
+    private long waits;
+
+    public MemoryBudget(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Memory budget should be positive, given: " + bytes);
+        }
+        this.bytes = bytes;
+        this.available = bytes;
+    }
+
+    /**
+     * Waits until the memory is available and all reservations made earlier are served, then reserves it.
+     *
+     * @param memory number of bytes to reserve
+     * @return number of reserved bytes to release, it's not greater than the budget
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public long acquire(long memory) throws InterruptedException {
+        final Pending waiter = new Pending(Math.min(Math.max(memory, 0), bytes), null);
+        List<Pending> granted = Collections.emptyList();
+        InterruptedException interrupted = null;
+        synchronized (this) {
+            if (pending.isEmpty() && available >= waiter.memory) {
+                available -= waiter.memory;
+            } else {
+                waits++;
+                pending.addLast(waiter);
+                try {
+                    while (!waiter.granted) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    if (waiter.granted) {
+                        Thread.currentThread().interrupt();
+                    } else {
+                        // the waiter may have blocked smaller reservations behind it
+                        pending.remove(waiter);
+                        granted = grant();
+                        interrupted = e;
+                    }
+                }
+            }
+        }
+        dispatch(granted);
+        if (interrupted != null) {
+            throw interrupted;
+        }
+        return waiter.memory;
+    }
+
+    /**
+     * Reserves the memory without waiting: if it's available and no reservation waits for it, the action is run
+     * by the calling thread, otherwise the reservation is queued and the action is run by the thread which releases
+     * enough memory. The action gets the number of reserved bytes and must release them when the memory
+     * is not needed any more.
+     *
+     * @param memory number of bytes to reserve
+     * @param action action to run when the memory is reserved, it should not block
+     */
+    public void acquireAsync(long memory, LongConsumer action) {
+        final long reserved = Math.min(Math.max(memory, 0), bytes);
+        final boolean granted;
+        synchronized (this) {
+            granted = pending.isEmpty() && available >= reserved;
+            if (granted) {
+                available -= reserved;
+            } else {
+                waits++;
+                pending.addLast(new Pending(reserved, action));
+            }
+        }
+        if (granted) {
+            action.accept(reserved);
+        }
+    }
+
+    /**
+     * Releases the reserved memory, wakes up the waiting threads and runs the actions of the reservations
+     * made without waiting which fit the memory now.
+     *
+     * @param reserved number of bytes returned by {@link #acquire(long)} or given to the action
+     *     of {@link #acquireAsync(long, LongConsumer)}
+     */
+    public void release(long reserved) {
+        final List<Pending> granted;
+        synchronized (this) {
+            available += reserved;
+            granted = grant();
+        }
+        dispatch(granted);
+    }
+
+    /**
+     * Serves the waiting reservations in their order while the first one fits the available memory.
+     *
+     * @return reservations made without waiting whose actions should be run
+     */
+    private List<Pending> grant() {
+        List<Pending> granted = Collections.emptyList();
+        boolean woken = false;
+        while (!pending.isEmpty() && pending.peekFirst().memory <= available) {
+            final Pending next = pending.removeFirst();
+            available -= next.memory;
+            next.granted = true;
+            if (next.action == null) {
+                woken = true;
+            } else {
+                if (granted.isEmpty()) {
+                    granted = new ArrayList<>();
+                }
+                granted.add(next);
+            }
+        }
+        if (woken) {
+            notifyAll();
+        }
+        return granted;
+    }
+
+    /**
+     * Runs the granted actions. If the thread is already running granted actions, they are queued for it.
+     */
+    private void dispatch(List<Pending> granted) {
+        final Deque<Pending> queue = dispatching.get();
+        if (queue != null) {
+            queue.addAll(granted);
+        } else if (!granted.isEmpty()) {
+            final Deque<Pending> own = new ArrayDeque<>(granted);
+            dispatching.set(own);
+            try {
+                while (!own.isEmpty()) {
+                    final Pending next = own.removeFirst();
+                    next.action.accept(next.memory);
+                }
+            } finally {
+                dispatching.remove();
+            }
+        }
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getAvailable() {
+        return available;
+    }
+
+    /**
+     * Number of reservations which had to wait for the memory.
+     *
+     * @return number of waits
+     */
+    public synchronized long getWaits() {
+        return waits;
+    }
+
+    /**
+     * Reservation which waits for the memory.
+     */
+    private static final class Pending {
+
+        private final long memory;
+        // action of the reservation made without waiting, null if the thread waits
+        private final LongConsumer action;
+        private boolean granted;
+
+        private Pending(long memory, LongConsumer action) {
+            this.memory = memory;
+            this.action = action;
+        }
+    }
+}
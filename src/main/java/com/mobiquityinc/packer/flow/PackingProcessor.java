@@ -0,0 +1,236 @@
+package com.mobiquityinc.packer.flow;
+
+import com.mobiquityinc.packer.Packer;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reactive-streams stage solving tasks with {@link Packer#packAsync(PackTask)}. It subscribes to the publisher
+ * of tasks and publishes packages in the order of tasks to one subscriber. No thread is blocked: tasks are solved
+ * in the executor service of the packer and packages are emitted by the thread which completes the oldest one
+ * or which requests more.
+ *
+ * Back-pressure is driven by the demand of the subscriber: tasks are requested from the publisher only while
+ * the number of tasks requested, being solved and solved but not emitted is less than both the outstanding demand
+ * and the given limit of tasks in flight. So a slow subscriber stops reading of tasks and the memory does not
+ * depend on the number of tasks.
+ *
+ * The first incorrect task or the task which can not be solved stops the stream, as {@link Packer#pack(java.util.List)}
+ * does: the subscription to the publisher and the tasks in flight are cancelled and the subscriber gets
+ * {@link com.mobiquityinc.exception.APIException} in {@code onError}. An error of the publisher is passed
+ * to the subscriber in the same way. Cancellation by the subscriber cancels the subscription to the publisher
+ * and the tasks in flight.
+ */
+public final class PackingProcessor implements Flow.Processor<PackTask, Package> {
+
+    public static final int DEFAULT_MAX_TASKS_IN_FLIGHT = 256;
+
+    private final Packer packer;
+    private final int maxTasksInFlight;
+
+    // tasks received from the publisher, they are submitted by the drain loop
+    private final Queue<PackTask> received = new ConcurrentLinkedQueue<>();
+    // submitted tasks in the order of the publisher, accessed by the drain loop only
+    private final Deque<CompletableFuture<Package>> inFlight = new ArrayDeque<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super Package> downstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable error;
+    private volatile boolean cancelled;
+    private boolean terminated;
+
+    public PackingProcessor(Packer packer, int maxTasksInFlight) {
+        if (maxTasksInFlight <= 0) {
+            throw new IllegalArgumentException("Max tasks in flight should be positive, given: " + maxTasksInFlight);
+        }
+        this.packer = packer;
+        this.maxTasksInFlight = maxTasksInFlight;
+    }
+
+    public PackingProcessor(Packer packer) {
+        this(packer, DEFAULT_MAX_TASKS_IN_FLIGHT);
+    }
+
+    /**
+     * Subscribes the subscriber of packages, the processor supports only one subscriber.
+     *
+     * @param subscriber subscriber of packages
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Package> subscriber) {
+        synchronized (this) {
+            if (downstream != null) {
+                subscriber.onSubscribe(new NoSubscription());
+                subscriber.onError(new IllegalStateException("Processor supports only one subscriber"));
+                return;
+            }
+            downstream = subscriber;
+        }
+        subscriber.onSubscribe(new Subscription());
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null || cancelled) {
+            subscription.cancel();
+        } else {
+            upstream = subscription;
+            drain();
+        }
+    }
+
+    @Override
+    public void onNext(PackTask task) {
+        received.add(task);
+        requested.decrementAndGet();
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    /**
+     * Submits received tasks, emits solved packages, terminates the stream and requests more tasks.
+     * Only one thread runs the loop at a time, signals arrived meanwhile make it run again.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            final Flow.Subscriber<? super Package> subscriber = downstream;
+            PackTask task = received.poll();
+            while (task != null && !cancelled) {
+                final CompletableFuture<Package> pack = packer.packAsync(task);
+                pack.whenComplete((p, e) -> drain());
+                inFlight.addLast(pack);
+                task = received.poll();
+            }
+            if (subscriber != null && !terminated) {
+                emit(subscriber);
+            }
+            if (cancelled || terminated) {
+                inFlight.forEach(pack -> pack.cancel(true));
+                inFlight.clear();
+                received.clear();
+            } else {
+                requestMore();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Emits the solved packages at the head of the queue while there is demand and terminates the stream
+     * if it's completed or failed.
+     */
+    private void emit(Flow.Subscriber<? super Package> subscriber) {
+        CompletableFuture<Package> head = inFlight.peekFirst();
+        while (!cancelled && error == null && demand.get() > 0 && head != null && head.isDone()) {
+            inFlight.removeFirst();
+            try {
+                final Package pack = head.join();
+                demand.decrementAndGet();
+                subscriber.onNext(pack);
+            } catch (CompletionException e) {
+                error = e.getCause();
+            }
+            head = inFlight.peekFirst();
+        }
+        if (!cancelled && error != null) {
+            terminated = true;
+            cancelUpstream();
+            subscriber.onError(error);
+        } else if (!cancelled && upstreamDone && inFlight.isEmpty() && received.isEmpty()) {
+            terminated = true;
+            subscriber.onComplete();
+        }
+    }
+
+    /**
+     * Requests tasks up to the smallest of the outstanding demand and the limit of tasks in flight.
+     */
+    private void requestMore() {
+        final Flow.Subscription subscription = upstream;
+        if (subscription != null && !upstreamDone) {
+            final long window = Math.min(demand.get(), maxTasksInFlight);
+            final long missing = window - inFlight.size() - requested.get();
+            if (missing > 0) {
+                requested.addAndGet(missing);
+                subscription.request(missing);
+            }
+        }
+    }
+
+    private void cancelUpstream() {
+        final Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Subscription of the subscriber of packages.
+     */
+    private final class Subscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Number of requested packages should be positive, given: " + n);
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancelUpstream();
+            drain();
+        }
+    }
+
+    /**
+     * Subscription of the rejected subscriber.
+     */
+    private static final class NoSubscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            // nothing to publish
+        }
+
+        @Override
+        public void cancel() {
+            // nothing to cancel
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.SystemException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Thing;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Converts files between the text format and the {@link BinaryFormat}. Numbers are kept in the {@link FixedPoint}
+ * representation, so tasks round-trip exactly: the text written back differs from the original one only
+ * in the insignificant zeros and whitespaces. Tasks are converted strictly, the first incorrect task
+ * stops the conversion with the exception containing its line or record.
+ */
+public final class BinaryConverter {
+
+    private BinaryConverter() {
+    }
+
+    /**
+     * Converts tasks from the text format to the binary one.
+     *
+     * @param text file of tasks in the text format
+     * @param binary file to write the tasks to, it's overwritten
+     * @return number of converted tasks
+     * @throws APIException if a task is incorrect or a file can not be read or written
+     */
+    public static long tasksToBinary(Path text, Path binary) throws APIException {
+        long tasks = 0;
+        try (
+            PackTaskSource reader = new BytePackTaskReader(Files.newInputStream(text));
+            BinaryPackTaskWriter writer = new BinaryPackTaskWriter(Files.newOutputStream(binary))) {
+            while (reader.hasNext()) {
+                writer.write(reader.readNext());
+                tasks++;
+            }
+        } catch (APIException e) {
+            throw e;
+        } catch (NoSuchFileException e) {
+            throw new APIException.FileNotFoundException(e);
+        } catch (Exception e) {
+            throw new SystemException(e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Converts tasks from the binary format to the text one.
+     *
+     * @param binary file of tasks in the binary format
+     * @param text file to write the tasks to, it's overwritten
+     * @return number of converted tasks
+     * @throws APIException if a task is incorrect or a file can not be read or written
+     */
+    public static long tasksToText(Path binary, Path text) throws APIException {
+        long tasks = 0;
+        try (
+            PackTaskSource reader = new BinaryPackTaskReader(binary);
+            Writer writer = Files.newBufferedWriter(text, StandardCharsets.UTF_8)) {
+            while (reader.hasNext()) {
+                writer.write(format(reader.readNext()));
+                writer.write('\n');
+                tasks++;
+            }
+        } catch (APIException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SystemException(e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Converts packages from the binary format to the given text one. Error records are written
+     * as errors of the format.
+     *
+     * @param binary file of packages in the {@link StandardPackageFormat#BINARY} format
+     * @param text file to write the packages to, it's overwritten
+     * @param format format to write the packages in
+     * @return number of converted records
+     * @throws APIException if the binary file is malformed or a file can not be read or written
+     */
+    public static long packagesToText(Path binary, Path text, PackageFormat format) throws APIException {
+        long packages = 0;
+        try (
+            BinaryPackageReader reader = new BinaryPackageReader(binary);
+            OutputStream out = Files.newOutputStream(text);
+            PackageWriter writer = new PackageWriter(out, format)) {
+            while (reader.hasNext()) {
+                try {
+                    writer.write(reader.readNext());
+                } catch (IncorrectInputException e) {
+                    writer.writeError(e);
+                }
+                packages++;
+            }
+        } catch (APIException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SystemException(e);
+        }
+        return packages;
+    }
+
+    /**
+     * Formats the task as a line of the text format, numbers are written without insignificant zeros.
+     *
+     * @param task the task to format
+     * @return formatted line without the line break
+     */
+    public static String format(PackTask task) {
+        final StringBuilder line = new StringBuilder();
+        line.append(format(task.getMaxWeight())).append(" :");
+        for (Thing thing : task.getThings()) {
+            line.append(" (").append(thing.getIndex())
+                .append(',').append(format(thing.getWeight()))
+                .append(",€").append(format(thing.getCost()))
+                .append(')');
+        }
+        return line.toString();
+    }
+
+    private static String format(double value) {
+        return BigDecimal.valueOf(FixedPoint.toFixed(value), FixedPoint.DECIMALS).stripTrailingZeros().toPlainString();
+    }
+}
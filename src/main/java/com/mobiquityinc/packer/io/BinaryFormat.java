@@ -0,0 +1,143 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary format of the tasks and the packages for internal services. A file starts with the 4 bytes
+ * of the magic number telling what it contains, followed by the records. Each record is prefixed with its length
+ * in bytes, so a reader can skip a record it can not decode and continue with the next one.
+ *
+ * Numbers are unsigned LEB128 varints: 7 bits per byte starting from the lowest ones, the high bit is set
+ * if more bytes follow. Weights, costs and gaps are written in the {@link com.mobiquityinc.packer.domain.FixedPoint}
+ * representation, so numbers of the text format round-trip exactly and most of them take 1 or 2 bytes.
+ *
+ * Task record: max weight, number of things and index, weight, cost of each thing.
+ * Package record: {@link #PACKAGE} kind byte, number of packed things, index, weight, cost of each packed thing
+ * and the gap. Error record: {@link #ERROR} kind byte, line of the task or 0 if it's unknown and UTF-8 bytes
+ * of the reason up to the end of the record.
+ */
+public final class BinaryFormat {
+
+    /**
+     * Magic number of the file of tasks: <code>PKT</code> and the version.
+     */
+    public static final int TASKS_MAGIC = 0x504B5401;
+
+    /**
+     * Magic number of the file of packages: <code>PKP</code> and the version.
+     */
+    public static final int PACKAGES_MAGIC = 0x504B5001;
+
+    /**
+     * Size of the magic number at the start of the file.
+     */
+    public static final int MAGIC_SIZE = Integer.BYTES;
+
+    /**
+     * Maximum number of bytes of a varint.
+     */
+    public static final int MAX_VARINT_SIZE = 10;
+
+    static final byte PACKAGE = 0;
+    static final byte ERROR = 1;
+
+    private static final int PAYLOAD_BITS = 7;
+    private static final int PAYLOAD_MASK = 0x7F;
+    private static final int CONTINUATION = 0x80;
+    // characters below are encoded with 2 bytes in UTF-8
+    private static final int TWO_BYTES_LIMIT = 0x800;
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * Number of bytes of the value encoded as a varint.
+     *
+     * @param value value to encode
+     * @return number of bytes from 1 to {@link #MAX_VARINT_SIZE}
+     */
+    public static int varintSize(long value) {
+        final int bits = Long.SIZE - Long.numberOfLeadingZeros(value | 1);
+        return (bits + PAYLOAD_BITS - 1) / PAYLOAD_BITS;
+    }
+
+    /**
+     * Puts the value encoded as a varint to the buffer.
+     *
+     * @param buffer buffer with at least {@link #varintSize(long)} bytes remaining
+     * @param value value to encode
+     */
+    public static void putVarint(ByteBuffer buffer, long value) {
+        long rest = value;
+        while ((rest & ~PAYLOAD_MASK) != 0) {
+            buffer.put((byte) (rest & PAYLOAD_MASK | CONTINUATION));
+            rest >>>= PAYLOAD_BITS;
+        }
+        buffer.put((byte) rest);
+    }
+
+    /**
+     * Gets the varint from the buffer.
+     *
+     * @param buffer buffer positioned at the varint, the varint should end before the limit
+     * @return decoded value
+     * @throws IncorrectInputException if the varint is truncated or longer than {@link #MAX_VARINT_SIZE} bytes
+     */
+    public static long getVarint(ByteBuffer buffer) throws IncorrectInputException {
+        long value = 0;
+        int shift = 0;
+        int b = CONTINUATION;
+        while ((b & CONTINUATION) != 0) {
+            if (!buffer.hasRemaining() || shift >= Long.SIZE) {
+                throw new IncorrectInputException("Record is malformed");
+            }
+            b = buffer.get();
+            value |= (long) (b & PAYLOAD_MASK) << shift;
+            shift += PAYLOAD_BITS;
+        }
+        return value;
+    }
+
+    /**
+     * Gets the varint which should fit into <code>int</code>, e.g. an index or a number of things.
+     *
+     * @param buffer buffer positioned at the varint
+     * @return decoded value
+     * @throws IncorrectInputException if the varint is malformed or does not fit into <code>int</code>
+     */
+    public static int getIntVarint(ByteBuffer buffer) throws IncorrectInputException {
+        final long value = getVarint(buffer);
+        if (value != (int) value) {
+            throw new IncorrectInputException("Record is malformed");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Number of bytes of the text encoded in UTF-8, unpaired surrogates are counted as replaced with
+     * a single byte as {@link java.nio.charset.CodingErrorAction#REPLACE} does.
+     *
+     * @param text text to encode
+     * @return number of bytes
+     */
+    public static int utf8Size(CharSequence text) {
+        int size = 0;
+        int i = 0;
+        while (i < text.length()) {
+            final char c = text.charAt(i++);
+            if (c < CONTINUATION) {
+                size++;
+            } else if (c < TWO_BYTES_LIMIT) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i < text.length() && Character.isLowSurrogate(text.charAt(i))) {
+                size += 4;
+                i++;
+            } else {
+                size += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,148 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads tasks in the {@link BinaryFormat} written by {@link BinaryPackTaskWriter}. The file is memory-mapped
+ * and records are decoded in place, {@link #readBatch(PackTaskBatch, int)} puts fixed-point numbers straight
+ * to the batch without creating tasks and things.
+ *
+ * Records play the role of lines: the line of {@link IncorrectInputException} and {@link ValidationException}
+ * is the number of the record starting from 1. Since records are length-prefixed, reading can be continued
+ * from the next record after an incorrect one.
+ */
+public class BinaryPackTaskReader implements PackTaskSource {
+
+    // index, weight and cost of a thing take at least a byte each
+    private static final int MIN_THING_SIZE = 3;
+
+    private final BinaryRecordReader records;
+
+    private IncrementalTaskRule rule;
+
+    public BinaryPackTaskReader(ByteBuffer buffer) throws APIException {
+        this.records = new BinaryRecordReader(buffer, BinaryFormat.TASKS_MAGIC);
+    }
+
+    public BinaryPackTaskReader(Path file, int regionSize) throws APIException {
+        this.records = new BinaryRecordReader(file, BinaryFormat.TASKS_MAGIC, regionSize);
+    }
+
+    public BinaryPackTaskReader(Path file) throws APIException {
+        this(file, BinaryRecordReader.DEFAULT_REGION_SIZE);
+    }
+
+    @Override
+    public boolean hasNext() throws APIException {
+        return records.hasNext();
+    }
+
+    @Override
+    public PackTask readNext() throws APIException {
+        final ByteBuffer record = records.next();
+        try {
+            final long maxWeight = BinaryFormat.getVarint(record);
+            if (rule != null) {
+                rule.validateMaxWeight(FixedPoint.toDouble(maxWeight));
+            }
+            final int size = thingsNumber(record);
+            final List<Thing> things = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                final Thing thing = new Thing(
+                    BinaryFormat.getIntVarint(record),
+                    FixedPoint.toDouble(BinaryFormat.getVarint(record)),
+                    FixedPoint.toDouble(BinaryFormat.getVarint(record))
+                );
+                if (rule != null) {
+                    rule.validateThing(i + 1, thing.getIndex(), thing.getWeight(), thing.getCost());
+                }
+                things.add(thing);
+            }
+            return new PackTask(FixedPoint.toDouble(maxWeight), things);
+        } catch (IncorrectInputException | ValidationException e) {
+            throw withRecord(e);
+        }
+    }
+
+    @Override
+    public int readBatch(PackTaskBatch batch, int maxTasks) throws APIException {
+        int read = 0;
+        while (read < maxTasks && hasNext()) {
+            final ByteBuffer record = records.next();
+            try {
+                final long maxWeight = BinaryFormat.getVarint(record);
+                if (rule != null) {
+                    rule.validateMaxWeight(FixedPoint.toDouble(maxWeight));
+                }
+                final int size = thingsNumber(record);
+                batch.addTask(maxWeight);
+                for (int i = 0; i < size; i++) {
+                    final int index = BinaryFormat.getIntVarint(record);
+                    final long weight = BinaryFormat.getVarint(record);
+                    final long cost = BinaryFormat.getVarint(record);
+                    if (rule != null) {
+                        rule.validateThing(i + 1, index, FixedPoint.toDouble(weight), FixedPoint.toDouble(cost));
+                    }
+                    batch.addThing(index, weight, cost);
+                }
+            } catch (IncorrectInputException | ValidationException e) {
+                throw withRecord(e);
+            }
+            read++;
+        }
+        return read;
+    }
+
+    /**
+     * Number of the last read record, records play the role of lines.
+     *
+     * @return number of the record starting from 1
+     */
+    @Override
+    public long getTaskLine() {
+        return records.getRecord();
+    }
+
+    @Override
+    public boolean validateWhileReading(IncrementalTaskRule taskRule) {
+        this.rule = taskRule;
+        return true;
+    }
+
+    @Override
+    public void close() throws Exception {
+        records.close();
+    }
+
+    private static int thingsNumber(ByteBuffer record) throws IncorrectInputException {
+        final int size = BinaryFormat.getIntVarint(record);
+        if (size < 1 || size > record.remaining() / MIN_THING_SIZE) {
+            throw new IncorrectInputException(size == 0 ? "Task has no things" : "Record is malformed");
+        }
+        return size;
+    }
+
+    private APIException withRecord(APIException e) {
+        final APIException result;
+        if (e instanceof IncorrectInputException && ((IncorrectInputException) e).getLine() == 0) {
+            result = new IncorrectInputException(((IncorrectInputException) e).getReason(), records.getRecord());
+        } else if (e instanceof ValidationException && ((ValidationException) e).getLine() == 0) {
+            result = ((ValidationException) e).shiftLine(records.getRecord());
+        } else {
+            result = e;
+        }
+        return result;
+    }
+}
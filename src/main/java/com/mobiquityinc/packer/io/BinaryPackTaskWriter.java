@@ -0,0 +1,112 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.SystemException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Thing;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Writes tasks in the {@link BinaryFormat} to be read with {@link BinaryPackTaskReader}. Records are encoded
+ * into the reusable direct buffer which is written to the channel when it's full or on {@link #flush()}.
+ * The magic number is written when the writer is created. The writer is not thread-safe.
+ */
+public class BinaryPackTaskWriter implements AutoCloseable {
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    public BinaryPackTaskWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, BinaryFormat.MAX_VARINT_SIZE));
+        buffer.putInt(BinaryFormat.TASKS_MAGIC);
+    }
+
+    public BinaryPackTaskWriter(OutputStream out) {
+        this(
+            out instanceof FileOutputStream ? ((FileOutputStream) out).getChannel() : Channels.newChannel(out),
+            PackageWriter.DEFAULT_BUFFER_SIZE
+        );
+    }
+
+    /**
+     * Writes the task. Weights and costs should be representable in the {@link FixedPoint} format,
+     * so the tasks read from the text format are written exactly.
+     *
+     * @param task task to write
+     * @throws APIException if the task has no things or its numbers can not be represented exactly
+     *                      or if the channel fails
+     */
+    public void write(PackTask task) throws APIException {
+        final List<Thing> things = task.getThings();
+        if (things.isEmpty()) {
+            throw new IncorrectInputException("Task has no things");
+        }
+        if (!FixedPoint.isRepresentable(task)) {
+            throw new IncorrectInputException("Task numbers can not be represented in the fixed-point format");
+        }
+        final long maxWeight = FixedPoint.toFixed(task.getMaxWeight());
+        long length = BinaryFormat.varintSize(maxWeight) + BinaryFormat.varintSize(things.size());
+        for (int i = 0; i < things.size(); i++) {
+            final Thing thing = things.get(i);
+            length += BinaryFormat.varintSize(thing.getIndex()) +
+                BinaryFormat.varintSize(FixedPoint.toFixed(thing.getWeight())) +
+                BinaryFormat.varintSize(FixedPoint.toFixed(thing.getCost()));
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IncorrectInputException("Task is too big to be written");
+        }
+        put(length);
+        put(maxWeight);
+        put(things.size());
+        for (int i = 0; i < things.size(); i++) {
+            final Thing thing = things.get(i);
+            put(thing.getIndex());
+            put(FixedPoint.toFixed(thing.getWeight()));
+            put(FixedPoint.toFixed(thing.getCost()));
+        }
+    }
+
+    /**
+     * Flushes written tasks to the channel.
+     *
+     * @throws APIException if the channel fails
+     */
+    public void flush() throws APIException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new SystemException(e);
+        } finally {
+            buffer.compact();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void put(long value) throws APIException {
+        if (buffer.remaining() < BinaryFormat.MAX_VARINT_SIZE) {
+            flush();
+        }
+        BinaryFormat.putVarint(buffer, value);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads packages written by {@link PackageWriter} in the {@link StandardPackageFormat#BINARY} format.
+ * The file is memory-mapped and records are decoded in place. Error records are thrown by {@link #readNext()}
+ * as {@link IncorrectInputException} with the line and the reason of the written error in the place
+ * of the package, so reading can be continued from the next record.
+ */
+public class BinaryPackageReader implements AutoCloseable {
+
+    // index, weight and cost of a thing take at least a byte each
+    private static final int MIN_THING_SIZE = 3;
+
+    private final BinaryRecordReader records;
+
+    public BinaryPackageReader(ByteBuffer buffer) throws APIException {
+        this.records = new BinaryRecordReader(buffer, BinaryFormat.PACKAGES_MAGIC);
+    }
+
+    public BinaryPackageReader(Path file, int regionSize) throws APIException {
+        this.records = new BinaryRecordReader(file, BinaryFormat.PACKAGES_MAGIC, regionSize);
+    }
+
+    public BinaryPackageReader(Path file) throws APIException {
+        this(file, BinaryRecordReader.DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Checks if there is something to read.
+     *
+     * @return <code>true</code> if there is the next record else returns <code>false</code>
+     * @throws APIException if the next record is malformed
+     */
+    public boolean hasNext() throws APIException {
+        return records.hasNext();
+    }
+
+    /**
+     * Reads the next package.
+     *
+     * @return read package
+     * @throws APIException if the record is the error record or if it's malformed
+     */
+    public Package readNext() throws APIException {
+        final ByteBuffer record = records.next();
+        final int kind = record.hasRemaining() ? record.get() : -1;
+        if (kind == BinaryFormat.ERROR) {
+            throw readError(record);
+        }
+        try {
+            if (kind != BinaryFormat.PACKAGE) {
+                throw new IncorrectInputException("Record is malformed");
+            }
+            final int size = BinaryFormat.getIntVarint(record);
+            if (size < 0 || size > record.remaining() / MIN_THING_SIZE) {
+                throw new IncorrectInputException("Record is malformed");
+            }
+            final List<Thing> things = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                things.add(new Thing(
+                    BinaryFormat.getIntVarint(record),
+                    FixedPoint.toDouble(BinaryFormat.getVarint(record)),
+                    FixedPoint.toDouble(BinaryFormat.getVarint(record))
+                ));
+            }
+            return new Package(things, FixedPoint.toDouble(BinaryFormat.getVarint(record)));
+        } catch (IncorrectInputException e) {
+            throw new IncorrectInputException(e.getReason(), records.getRecord());
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        records.close();
+    }
+
+    private IncorrectInputException readError(ByteBuffer record) {
+        final long line;
+        try {
+            line = BinaryFormat.getVarint(record);
+        } catch (IncorrectInputException e) {
+            return new IncorrectInputException(e.getReason(), records.getRecord());
+        }
+        return new IncorrectInputException(StandardCharsets.UTF_8.decode(record).toString(), line);
+    }
+}
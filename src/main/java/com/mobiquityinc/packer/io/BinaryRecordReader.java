@@ -0,0 +1,168 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.SystemException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads length-prefixed records of the {@link BinaryFormat} in place. The reader works either over the given buffer
+ * or over the file mapped with {@link FileChannel#map} region by region: when the next record does not fit
+ * the rest of the region, the next region is mapped from the start of the record. So records are never copied
+ * and the file may be larger than a single mapping allows.
+ *
+ * {@link #next()} returns the buffer positioned at the body of the record and limited by its end,
+ * the following call of {@link #hasNext()} moves to the next record regardless of how much of the body was read.
+ */
+final class BinaryRecordReader implements AutoCloseable {
+
+    static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int regionSize;
+
+    private ByteBuffer buffer;
+    // end of the data in the buffer, the limit is moved to the end of the current record
+    private int end;
+    // position of the buffer start in the file
+    private long regionStart;
+    private int recordEnd;
+    private boolean ready;
+    private long record;
+
+    BinaryRecordReader(ByteBuffer buffer, int magic) throws APIException {
+        this.channel = null;
+        this.fileSize = buffer.remaining();
+        this.regionSize = buffer.remaining();
+        this.buffer = buffer;
+        this.end = buffer.limit();
+        checkMagic(magic);
+    }
+
+    BinaryRecordReader(Path file, int magic, int regionSize) throws APIException {
+        this.regionSize = regionSize;
+        this.buffer = ByteBuffer.allocate(0);
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new APIException.FileNotFoundException(e);
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+        try {
+            this.fileSize = channel.size();
+            checkMagic(magic);
+        } catch (IOException | APIException e) {
+            closeQuietly(e);
+            throw e instanceof APIException ? (APIException) e : new SystemException(e);
+        }
+    }
+
+    /**
+     * Checks if there is the next record and makes sure it's available in the buffer.
+     *
+     * @return <code>true</code> if there is the next record else returns <code>false</code>
+     * @throws APIException if the length of the record is malformed or the record is truncated
+     */
+    boolean hasNext() throws APIException {
+        if (!ready) {
+            buffer.limit(end).position(recordEnd);
+            ensure(BinaryFormat.MAX_VARINT_SIZE);
+            if (buffer.hasRemaining()) {
+                final long length = lengthOf(record + 1);
+                ensure(length);
+                if (buffer.remaining() < length) {
+                    throw new IncorrectInputException("Record is truncated", record + 1);
+                }
+                recordEnd = buffer.position() + (int) length;
+                record++;
+                ready = true;
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return buffer positioned at the body of the record and limited by its end
+     * @throws APIException if the next record can not be read
+     */
+    ByteBuffer next() throws APIException {
+        if (!hasNext()) {
+            throw new IllegalStateException("All records has been already read");
+        }
+        ready = false;
+        return buffer.limit(recordEnd);
+    }
+
+    /**
+     * Number of the record returned by the last call of {@link #next()}.
+     *
+     * @return number of the record starting from 1
+     */
+    long getRecord() {
+        return record;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void closeQuietly(Exception cause) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void checkMagic(int magic) throws APIException {
+        ensure(BinaryFormat.MAGIC_SIZE);
+        if (buffer.remaining() < BinaryFormat.MAGIC_SIZE || buffer.getInt() != magic) {
+            throw new IncorrectInputException("Input is not in the expected binary format");
+        }
+        recordEnd = buffer.position();
+    }
+
+    private long lengthOf(long next) throws APIException {
+        try {
+            final long length = BinaryFormat.getVarint(buffer);
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                throw new IncorrectInputException("Record is too long", next);
+            }
+            return length;
+        } catch (IncorrectInputException e) {
+            throw e.getLine() > 0 ? e : new IncorrectInputException(e.getReason(), next);
+        }
+    }
+
+    /**
+     * Maps the next region from the current position if less than the given number of bytes remains
+     * in the buffer and the file has more.
+     */
+    private void ensure(long bytes) throws APIException {
+        final long position = regionStart + buffer.position();
+        if (channel != null && buffer.remaining() < bytes && regionStart + buffer.limit() < fileSize) {
+            final long size = Math.min(Math.max(regionSize, bytes), fileSize - position);
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                end = buffer.limit();
+            } catch (IOException e) {
+                throw new SystemException(e);
+            }
+            regionStart = position;
+            recordEnd = 0;
+        }
+    }
+}
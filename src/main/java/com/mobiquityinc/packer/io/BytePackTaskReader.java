@@ -0,0 +1,394 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.SystemException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads tasks to package from UTF-8 encoded bytes according the documented format. It accepts the same input
+ * as {@link PackTaskReader} does and throws {@link IncorrectInputException} in the same cases, but works
+ * directly with bytes: numbers are decoded by hand, the euro sign is matched as its UTF-8 byte sequence,
+ * no regular expressions and intermediate strings are used.
+ *
+ * The reader works either over the given buffer (e.g. memory-mapped file) advancing its position,
+ * or over the channel reading it to the internal buffer portion by portion.
+ * Lines are counted while reading, so {@link IncorrectInputException} contains the line of the problem.
+ * Rules given to {@link #validateWhileReading(IncrementalTaskRule)} are checked as soon as numbers are decoded.
+ */
+public class BytePackTaskReader implements PackTaskSource {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int EURO_FIRST_BYTE = 0xE2;
+    private static final int EURO_SECOND_BYTE = 0x82;
+    private static final int EURO_THIRD_BYTE = 0xAC;
+
+    private static final int BYTE_MASK = 0xFF;
+    private static final int FILE_SEPARATOR = 0x1C;
+    private static final int UNIT_SEPARATOR = 0x1F;
+
+    private static final int SIGNIFICAND_BITS = 53;
+    private static final int MAX_EXACT_POWER_OF_TEN = 22;
+    private static final long MAX_EXACT_MANTISSA = 1L << SIGNIFICAND_BITS;
+    private static final long MAX_MANTISSA = Long.MAX_VALUE / 10 - 9;
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER_OF_TEN + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    private long line = 1;
+    private long taskLine;
+    private IncrementalTaskRule rule;
+
+    // last decoded number and thing, kept in fields to avoid allocations
+    private long mantissa;
+    private int decimals;
+    private int thingIndex;
+    private long weightMantissa;
+    private int weightDecimals;
+    private long costMantissa;
+    private int costDecimals;
+
+    public BytePackTaskReader(ByteBuffer buffer) {
+        this(buffer, 1);
+    }
+
+    /**
+     * Creates the reader of the part of the input, lines are counted from the given one.
+     *
+     * @param buffer bytes of the part starting at the beginning of the line
+     * @param firstLine number of the first line of the part in the whole input
+     */
+    public BytePackTaskReader(ByteBuffer buffer, long firstLine) {
+        this.channel = null;
+        this.buffer = buffer;
+        this.line = firstLine;
+    }
+
+    public BytePackTaskReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.limit(0);
+    }
+
+    public BytePackTaskReader(InputStream is) {
+        this(Channels.newChannel(is), DEFAULT_BUFFER_SIZE);
+    }
+
+    @Override
+    public boolean hasNext() throws APIException {
+        skipWhitespaces();
+        return peek() >= 0;
+    }
+
+    @Override
+    public PackTask readNext() throws APIException {
+        if (!hasNext()) {
+            throw new IllegalStateException("All tasks has been already read");
+        }
+        taskLine = line;
+        try {
+            readNumber();
+            final double maxWeight = toDouble(mantissa, decimals);
+            if (rule != null) {
+                rule.validateMaxWeight(maxWeight);
+            }
+            readColon();
+            final List<Thing> things = new ArrayList<>();
+            do {
+                readThing();
+                final Thing thing = new Thing(
+                    thingIndex, toDouble(weightMantissa, weightDecimals), toDouble(costMantissa, costDecimals)
+                );
+                if (rule != null) {
+                    rule.validateThing(things.size() + 1, thing.getIndex(), thing.getWeight(), thing.getCost());
+                }
+                things.add(thing);
+            } while (hasNextThing());
+            return new PackTask(maxWeight, things);
+        } catch (IncorrectInputException e) {
+            skipLine(taskLine);
+            throw e;
+        } catch (ValidationException e) {
+            skipLine(taskLine);
+            throw e.getLine() > 0 ? e : e.shiftLine(taskLine);
+        }
+    }
+
+    @Override
+    public int readBatch(PackTaskBatch batch, int maxTasks) throws APIException {
+        int read = 0;
+        while (read < maxTasks && hasNext()) {
+            taskLine = line;
+            final int tasks = batch.size();
+            try {
+                readNumber();
+                if (rule != null) {
+                    rule.validateMaxWeight(toDouble(mantissa, decimals));
+                }
+                batch.addTask(toFixed(mantissa, decimals));
+                readColon();
+                int things = 0;
+                do {
+                    readThing();
+                    if (rule != null) {
+                        rule.validateThing(++things, thingIndex,
+                            toDouble(weightMantissa, weightDecimals), toDouble(costMantissa, costDecimals));
+                    }
+                    batch.addThing(thingIndex, toFixed(weightMantissa, weightDecimals), toFixed(costMantissa, costDecimals));
+                } while (hasNextThing());
+            } catch (IncorrectInputException e) {
+                rollBack(batch, tasks, taskLine);
+                throw e;
+            } catch (ValidationException e) {
+                rollBack(batch, tasks, taskLine);
+                throw e.getLine() > 0 ? e : e.shiftLine(taskLine);
+            }
+            read++;
+        }
+        return read;
+    }
+
+    /**
+     * Removes the partially read task from the batch and skips the rest of its line, as {@link #readNext()} does.
+     */
+    private void rollBack(PackTaskBatch batch, int tasks, long taskLine) throws APIException {
+        batch.truncate(tasks);
+        skipLine(taskLine);
+    }
+
+    @Override
+    public boolean validateWhileReading(IncrementalTaskRule taskRule) {
+        this.rule = taskRule;
+        return true;
+    }
+
+    /**
+     * Number of the current line.
+     *
+     * @return number of the current line starting from 1
+     */
+    public long getLine() {
+        return line;
+    }
+
+    @Override
+    public long getTaskLine() {
+        return taskLine;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void readColon() throws APIException {
+        checkTokenEnd();
+        skipWhitespaces();
+        expect(':');
+        checkTokenEnd();
+        skipWhitespaces();
+        if (peek() != '(') {
+            throw incorrectInput();
+        }
+    }
+
+    private boolean hasNextThing() throws APIException {
+        skipWhitespaces();
+        return peek() == '(';
+    }
+
+    /**
+     * Reads thing token: (index,weight,€cost).
+     */
+    private void readThing() throws APIException {
+        expect('(');
+        thingIndex = readIndex();
+        expect(',');
+        readNumber();
+        weightMantissa = mantissa;
+        weightDecimals = decimals;
+        expect(',');
+        expect(EURO_FIRST_BYTE);
+        expect(EURO_SECOND_BYTE);
+        expect(EURO_THIRD_BYTE);
+        readNumber();
+        costMantissa = mantissa;
+        costDecimals = decimals;
+        expect(')');
+        checkTokenEnd();
+    }
+
+    private int readIndex() throws APIException {
+        if (!isDigit(peek())) {
+            throw incorrectInput();
+        }
+        long index = 0;
+        while (isDigit(peek())) {
+            index = index * 10 + next() - '0';
+            if (index > Integer.MAX_VALUE) {
+                throw incorrectInput();
+            }
+        }
+        return (int) index;
+    }
+
+    /**
+     * Reads number in format: digits or [digits].digits, stores it to {@link #mantissa} and {@link #decimals}.
+     */
+    private void readNumber() throws APIException {
+        long value = 0;
+        int digits = 0;
+        int fraction = 0;
+        while (isDigit(peek())) {
+            value = appendDigit(value, next());
+            digits++;
+        }
+        if (peek() == '.') {
+            next();
+            while (isDigit(peek())) {
+                value = appendDigit(value, next());
+                fraction++;
+            }
+            if (fraction == 0) {
+                throw incorrectInput();
+            }
+        } else if (digits == 0) {
+            throw incorrectInput();
+        }
+        mantissa = value;
+        decimals = fraction;
+    }
+
+    private long appendDigit(long value, int digit) throws APIException {
+        if (value > MAX_MANTISSA) {
+            throw new IncorrectInputException("Number has too many digits", line);
+        }
+        return value * 10 + digit - '0';
+    }
+
+    private double toDouble(long value, int scale) {
+        // division of two exactly representable numbers is rounded correctly as the decimal itself
+        return value <= MAX_EXACT_MANTISSA && scale < POWERS_OF_TEN.length ?
+            value / POWERS_OF_TEN[scale] :
+            BigDecimal.valueOf(value, scale).doubleValue();
+    }
+
+    private long toFixed(long value, int scale) throws APIException {
+        long fixed = value;
+        int fixedScale = scale;
+        while (fixedScale > FixedPoint.DECIMALS && fixed % 10 == 0) {
+            fixed /= 10;
+            fixedScale--;
+        }
+        if (fixedScale > FixedPoint.DECIMALS) {
+            throw new IncorrectInputException(String.format(
+                "Number %s has more decimals than supported by the fixed-point format",
+                BigDecimal.valueOf(value, scale).toPlainString()
+            ), line);
+        }
+        for (; fixedScale < FixedPoint.DECIMALS; fixedScale++) {
+            fixed *= 10;
+        }
+        return fixed;
+    }
+
+    private void expect(int expected) throws APIException {
+        if (peek() != expected) {
+            throw incorrectInput();
+        }
+        next();
+    }
+
+    private void checkTokenEnd() throws APIException {
+        final int c = peek();
+        if (c >= 0 && !isWhitespace(c)) {
+            throw incorrectInput();
+        }
+    }
+
+    /**
+     * Skips the rest of the line of the incorrect task, so the next task is read from the next line.
+     * If the task is broken by a line break, the reader is already on the next line and nothing is skipped.
+     */
+    private void skipLine(long taskLine) throws APIException {
+        while (line == taskLine && peek() >= 0) {
+            if (next() == '\n') {
+                line++;
+            }
+        }
+    }
+
+    private void skipWhitespaces() throws APIException {
+        while (isWhitespace(peek())) {
+            if (next() == '\n') {
+                line++;
+            }
+        }
+    }
+
+    private int peek() throws APIException {
+        return buffer.hasRemaining() || fill() ? buffer.get(buffer.position()) & BYTE_MASK : -1;
+    }
+
+    private int next() {
+        return buffer.get() & BYTE_MASK;
+    }
+
+    private boolean fill() throws APIException {
+        boolean filled = false;
+        if (channel != null) {
+            try {
+                buffer.clear();
+                int read = 0;
+                while (read == 0) {
+                    read = channel.read(buffer);
+                }
+                buffer.flip();
+                filled = read > 0;
+            } catch (IOException e) {
+                throw new SystemException(e);
+            }
+        }
+        return filled;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Checks if the byte is a whitespace as it's defined by {@link Character#isWhitespace(char)}.
+     */
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c >= '\t' && c <= '\r' || c >= FILE_SEPARATOR && c <= UNIT_SEPARATOR;
+    }
+
+    private IncorrectInputException incorrectInput() {
+        return new IncorrectInputException("Check the input format! It's incorrect!", line);
+    }
+}
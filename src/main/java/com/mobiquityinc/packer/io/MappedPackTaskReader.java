@@ -0,0 +1,324 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.SystemException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads tasks from the file in parallel. The file is split at line boundaries into chunks, each chunk is
+ * memory-mapped with {@link FileChannel#map} and parsed by {@link BytePackTaskReader} in the given executor service.
+ * Tasks are returned in the order of lines regardless of the order in which chunks are parsed.
+ * At most the given number of chunks are parsed ahead, so memory usage does not depend on the file size.
+ *
+ * Each task must be on its own line, as the documented format requires, since a task split by a line break
+ * may be split between chunks. Line number of {@link IncorrectInputException} is counted from the file start.
+ * Incorrect tasks do not stop parsing of the chunk, the exception is thrown by {@link #readNext()} in the place
+ * of the task, so reading can be continued from the next task.
+ *
+ * Chunks are parsed to the representation of the read method called last: after {@link #readBatch(PackTaskBatch, int)}
+ * next chunks are parsed straight to columnar batches, so no objects are created for their tasks and things.
+ */
+public class MappedPackTaskReader implements PackTaskSource {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    public static final int DEFAULT_MAX_CHUNKS_IN_FLIGHT = 16;
+
+    private static final int BOUNDARY_SEARCH_BUFFER_SIZE = 4 * 1024;
+
+    private static final int INITIAL_TASK_LINES = 1024;
+
+    private final FileChannel channel;
+    private final ExecutorService executorService;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+    private final long fileSize;
+    private final Deque<Future<Chunk>> chunks;
+
+    private long nextChunkStart;
+    private long linesBefore;
+    private long chunkLinesBefore;
+    private Chunk chunk = Chunk.EMPTY;
+    private int position;
+    // position of the next task of the columnar chunk in its batch
+    private int batchPosition;
+    private boolean columnar;
+    private IncrementalTaskRule rule;
+
+    public MappedPackTaskReader(Path file, ExecutorService executorService, int chunkSize, int maxChunksInFlight)
+        throws APIException {
+        this.executorService = executorService;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
+        this.chunks = new ArrayDeque<>(maxChunksInFlight);
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.fileSize = channel.size();
+        } catch (NoSuchFileException e) {
+            throw new APIException.FileNotFoundException(e);
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+    }
+
+    public MappedPackTaskReader(Path file, ExecutorService executorService) throws APIException {
+        this(file, executorService, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CHUNKS_IN_FLIGHT);
+    }
+
+    @Override
+    public boolean hasNext() throws APIException {
+        while (position == chunk.size && submitChunks()) {
+            chunk = await(chunks.removeFirst());
+            position = 0;
+            batchPosition = 0;
+            chunkLinesBefore = linesBefore;
+            linesBefore += chunk.lines;
+        }
+        return position < chunk.size;
+    }
+
+    @Override
+    public PackTask readNext() throws APIException {
+        columnar = false;
+        if (!hasNext()) {
+            throw new IllegalStateException("All tasks has been already read");
+        }
+        final APIException error = chunk.errors.get(position++);
+        if (error != null) {
+            throw shiftLine(error, chunkLinesBefore);
+        }
+        return chunk.batch == null ? chunk.tasks.get(position - 1) : chunk.batch.toPackTask(batchPosition++);
+    }
+
+    @Override
+    public int readBatch(PackTaskBatch batch, int maxTasks) throws APIException {
+        columnar = true;
+        int read = 0;
+        while (read < maxTasks && hasNext()) {
+            final APIException error = chunk.errors.get(position++);
+            if (error != null) {
+                throw shiftLine(error, chunkLinesBefore);
+            }
+            if (chunk.batch == null) {
+                addTask(batch, chunk.tasks.get(position - 1));
+            } else {
+                copyTask(chunk.batch, batchPosition++, batch);
+            }
+            read++;
+        }
+        return read;
+    }
+
+    /**
+     * Adds the task of the chunk parsed before the reader switched to batches.
+     */
+    private void addTask(PackTaskBatch batch, PackTask task) throws APIException {
+        if (!FixedPoint.isRepresentable(task)) {
+            throw new IncorrectInputException("Task numbers can not be represented in the fixed-point format", getTaskLine());
+        }
+        batch.addTask(FixedPoint.toFixed(task.getMaxWeight()));
+        for (Thing thing : task.getThings()) {
+            batch.addThing(thing.getIndex(), FixedPoint.toFixed(thing.getWeight()), FixedPoint.toFixed(thing.getCost()));
+        }
+    }
+
+    private static void copyTask(PackTaskBatch source, int task, PackTaskBatch batch) {
+        final int[] indices = source.getIndices();
+        final long[] weights = source.getWeights();
+        final long[] costs = source.getCosts();
+        batch.addTask(source.getMaxWeight(task));
+        for (int i = source.getFrom(task); i < source.getTo(task); i++) {
+            batch.addThing(indices[i], weights[i], costs[i]);
+        }
+    }
+
+    @Override
+    public long getTaskLine() {
+        return position == 0 ? 0 : chunkLinesBefore + chunk.taskLines[position - 1];
+    }
+
+    @Override
+    public boolean validateWhileReading(IncrementalTaskRule taskRule) {
+        this.rule = taskRule;
+        return true;
+    }
+
+    @Override
+    public void close() throws Exception {
+        chunks.forEach(f -> f.cancel(true));
+        channel.close();
+    }
+
+    /**
+     * Submits next chunks for parsing until the limit of chunks in flight is reached or the file is over.
+     *
+     * @return <code>true</code> if there are chunks to wait for
+     */
+    private boolean submitChunks() throws APIException {
+        try {
+            while (chunks.size() < maxChunksInFlight && nextChunkStart < fileSize) {
+                final long end = chunkEnd(nextChunkStart);
+                final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, nextChunkStart, end - nextChunkStart);
+                final IncrementalTaskRule taskRule = rule;
+                final boolean toBatch = columnar;
+                chunks.addLast(executorService.submit(() -> parse(buffer, taskRule, toBatch)));
+                nextChunkStart = end;
+            }
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+        return !chunks.isEmpty();
+    }
+
+    /**
+     * Finds the position right after the first line break at or after the given position.
+     *
+     * @param channel file to search in
+     * @param position position to start from
+     * @return position of the beginning of the next line or the file size if there is no line break
+     * @throws IOException if the file can not be read
+     */
+    public static long nextLineStart(FileChannel channel, long position) throws IOException {
+        final long fileSize = channel.size();
+        final ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SEARCH_BUFFER_SIZE);
+        long end = position;
+        boolean found = end >= fileSize;
+        while (!found) {
+            buffer.clear();
+            channel.read(buffer, end);
+            buffer.flip();
+            while (!found && buffer.hasRemaining()) {
+                found = buffer.get() == '\n';
+            }
+            end += buffer.position();
+            found |= end >= fileSize;
+        }
+        return Math.min(end, fileSize);
+    }
+
+    /**
+     * Finds end of the chunk starting at the given position. The chunk ends right after the first line break
+     * following the chunk size or at the end of the file.
+     */
+    private long chunkEnd(long start) throws IOException, APIException {
+        final long end = nextLineStart(channel, Math.min(start + chunkSize, fileSize));
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IncorrectInputException("Line is too long to be mapped");
+        }
+        return end;
+    }
+
+    private Chunk await(Future<Chunk> future) throws APIException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            throw cause instanceof APIException ? (APIException) cause : new SystemException(cause);
+        }
+    }
+
+    private static APIException shiftLine(APIException e, long lines) {
+        final APIException shifted;
+        if (e instanceof IncorrectInputException) {
+            shifted = ((IncorrectInputException) e).shiftLine(lines);
+        } else if (e instanceof ValidationException) {
+            shifted = ((ValidationException) e).shiftLine(lines);
+        } else {
+            shifted = e;
+        }
+        return shifted;
+    }
+
+    /**
+     * Parses all tasks of the chunk to the list of tasks or to the batch, incorrect tasks are kept as exceptions
+     * by their positions. In the list they take <code>null</code> places, in the batch they take no place.
+     */
+    private static Chunk parse(ByteBuffer buffer, IncrementalTaskRule rule, boolean toBatch) throws APIException {
+        final BytePackTaskReader reader = new BytePackTaskReader(buffer);
+        if (rule != null) {
+            reader.validateWhileReading(rule);
+        }
+        final List<PackTask> tasks = toBatch ? null : new ArrayList<>();
+        final PackTaskBatch batch = toBatch ? new PackTaskBatch() : null;
+        final Map<Integer, APIException> errors = new HashMap<>();
+        long[] taskLines = new long[INITIAL_TASK_LINES];
+        int size = 0;
+        while (reader.hasNext()) {
+            if (size == taskLines.length) {
+                taskLines = Arrays.copyOf(taskLines, taskLines.length * 2);
+            }
+            try {
+                if (toBatch) {
+                    reader.readBatch(batch, 1);
+                } else {
+                    tasks.add(reader.readNext());
+                }
+            } catch (IncorrectInputException | ValidationException e) {
+                errors.put(size, e);
+                if (!toBatch) {
+                    tasks.add(null);
+                }
+            }
+            taskLines[size++] = reader.getTaskLine();
+        }
+        return new Chunk(size, tasks, batch, errors, taskLines, reader.getLine() - 1);
+    }
+
+    /**
+     * Parsed tasks of the chunk either as objects or as the batch, exceptions of the incorrect ones
+     * by their positions, lines of the tasks in the chunk and the number of line breaks in the chunk.
+     */
+    private static final class Chunk {
+
+        private static final Chunk EMPTY = new Chunk(0, Collections.emptyList(), null, Collections.emptyMap(), new long[0], 0);
+
+        private final int size;
+        private final List<PackTask> tasks;
+        private final PackTaskBatch batch;
+        private final Map<Integer, APIException> errors;
+        private final long[] taskLines;
+        private final long lines;
+
+        private Chunk(
+            int size,
+            List<PackTask> tasks,
+            PackTaskBatch batch,
+            Map<Integer, APIException> errors,
+            long[] taskLines,
+            long lines) {
+            this.size = size;
+            this.tasks = tasks;
+            this.batch = batch;
+            this.errors = errors;
+            this.taskLines = taskLines;
+            this.lines = lines;
+        }
+    }
+}
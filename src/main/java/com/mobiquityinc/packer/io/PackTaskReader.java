@@ -1,8 +1,11 @@
 package com.mobiquityinc.packer.io;
 
 import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.FixedPoint;
 import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
 import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
 
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -11,16 +14,24 @@ import java.util.Scanner;
 import java.util.regex.MatchResult;
 
 /**
- * Reads task to package from the given input stream according the documented format.
+ * Reads task to package from the given input stream according the documented format with {@link Scanner}.
  * Method {@link #readNext()} is used to read the next task,
  * if it's the end of stream the method will throw {@link IllegalStateException}.
  * Use {@link #hasNext} to define if there is something to read.
  *
  * The class also implements convenient method {@link #readAll()} to read all tasks.
+ * Method {@link #readBatch(PackTaskBatch, int)} reads tasks directly to the columnar {@link PackTaskBatch}
+ * without creating objects for tasks and things.
+ *
+ * Rules given to {@link #validateWhileReading(IncrementalTaskRule)} are checked as soon as tokens are read.
+ * After an incorrect task the rest of the current line is skipped.
+ *
+ * See {@link BytePackTaskReader} for the faster implementation working with bytes.
  */
-public class PackTaskReader implements AutoCloseable {
+public class PackTaskReader implements PackTaskSource {
 
     private Scanner scanner;
+    private IncrementalTaskRule rule;
 
     public PackTaskReader(InputStream is) {
         this.scanner = new Scanner(is);
@@ -31,8 +42,9 @@ public class PackTaskReader implements AutoCloseable {
      *
      * @return <code>true</code> if reader has something to read else returns <code>false</code>
      */
+    @Override
     public boolean hasNext() {
-        return scanner.hasNextLine();
+        return scanner.hasNext();
     }
 
     /**
@@ -41,29 +53,70 @@ public class PackTaskReader implements AutoCloseable {
      * @return Read task.
      * @throws APIException if something is going wrong
      */
+    @Override
     public PackTask readNext() throws APIException {
         if (!hasNext()) {
             throw new IllegalStateException("All tasks has been already read");
         }
-        checkNextToken(Token.DOUBLE);
-        final double weight = readWeight();
-        checkAndSkipColon();
-        final List<Thing> things = readThings(scanner);
-        return new PackTask(weight, things);
+        try {
+            checkNextToken(Token.DOUBLE);
+            final double weight = readWeight();
+            if (rule != null) {
+                rule.validateMaxWeight(weight);
+            }
+            checkAndSkipColon();
+            final List<Thing> things = readThings(scanner);
+            return new PackTask(weight, things);
+        } catch (APIException.IncorrectInputException | APIException.ValidationException e) {
+            if (scanner.hasNextLine()) {
+                scanner.nextLine();
+            }
+            throw e;
+        }
     }
 
     /**
-     * Reads all tasks from the source.
+     * Reads tasks to the given batch. Weights and costs are converted to the {@link FixedPoint} representation,
+     * so they should not have more decimals than the format supports.
      *
-     * @return list of read tasks
+     * @param batch batch to add read tasks to
+     * @param maxTasks maximum number of tasks to read
+     * @return number of read tasks
      * @throws APIException if something is going wrong
      */
-    public List<PackTask> readAll() throws APIException {
-        final List<PackTask> tasks = new ArrayList<>();
-        while (hasNext()) {
-            tasks.add(readNext());
+    @Override
+    public int readBatch(PackTaskBatch batch, int maxTasks) throws APIException {
+        int read = 0;
+        while (read < maxTasks && hasNext()) {
+            checkNextToken(Token.DOUBLE);
+            final int weight = readWeight();
+            if (rule != null) {
+                rule.validateMaxWeight(weight);
+            }
+            batch.addTask(FixedPoint.toFixed(weight));
+            checkAndSkipColon();
+            checkNextToken(Token.THING);
+            int things = 0;
+            while (scanner.hasNext(Token.THING.pattern)) {
+                scanner.next(Token.THING.pattern);
+                final MatchResult matchResult = scanner.match();
+                if (rule != null) {
+                    rule.validateThing(++things, Integer.parseInt(matchResult.group(1)),
+                        Double.parseDouble(matchResult.group(2)), Double.parseDouble(matchResult.group(3)));
+                }
+                batch.addThing(
+                    Integer.parseInt(matchResult.group(1)), toFixed(matchResult.group(2)), toFixed(matchResult.group(3))
+                );
+            }
+            read++;
         }
-        return tasks;
+        return read;
+    }
+
+    @Override
+    public boolean validateWhileReading(IncrementalTaskRule taskRule) {
+        this.rule = taskRule;
+        return true;
     }
 
     private List<Thing> readThings(Scanner scanner) throws APIException {
@@ -75,11 +128,24 @@ public class PackTaskReader implements AutoCloseable {
             final int index = Integer.valueOf(matchResult.group(1));
             final double weight = Double.valueOf(matchResult.group(2));
             final double cost = Double.valueOf(matchResult.group(3));
+            if (rule != null) {
+                rule.validateThing(things.size() + 1, index, weight, cost);
+            }
             things.add(new Thing(index, weight, cost));
         }
         return things;
     }
 
+    private long toFixed(String number) throws APIException {
+        final double value = Double.parseDouble(number);
+        if (!FixedPoint.isRepresentable(value)) {
+            throw new APIException.IncorrectInputException(
+                String.format("Number %s has more decimals than supported by the fixed-point format", number)
+            );
+        }
+        return FixedPoint.toFixed(value);
+    }
+
     private int readWeight() throws APIException {
         checkNextToken(Token.DOUBLE);
         return scanner.nextInt();
@@ -0,0 +1,83 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Source of the tasks to package. Method {@link #readNext()} is used to read the next task,
+ * if it's the end of the source the method will throw {@link IllegalStateException}.
+ * Use {@link #hasNext} to define if there is something to read.
+ *
+ * If a task is incorrect, {@link #readNext()} throws the exception and skips the rest of the line of the task,
+ * so reading can be continued from the next task.
+ */
+public interface PackTaskSource extends AutoCloseable {
+
+    /**
+     * Checks if source has something to read.
+     *
+     * @return <code>true</code> if source has something to read else returns <code>false</code>
+     * @throws APIException if something is going wrong
+     */
+    boolean hasNext() throws APIException;
+
+    /**
+     * Reads next task.
+     *
+     * @return Read task.
+     * @throws APIException if something is going wrong
+     */
+    PackTask readNext() throws APIException;
+
+    /**
+     * Reads tasks to the given batch. Weights and costs are converted to the fixed-point representation,
+     * so they should not have more decimals than the format supports.
+     *
+     * @param batch batch to add read tasks to
+     * @param maxTasks maximum number of tasks to read
+     * @return number of read tasks
+     * @throws APIException if something is going wrong
+     */
+    int readBatch(PackTaskBatch batch, int maxTasks) throws APIException;
+
+    /**
+     * Number of the line of the task returned or thrown by the last call of {@link #readNext()}.
+     * It positions problems of the task found after reading, e.g. by validation or solving.
+     *
+     * @return line number starting from 1 or 0 if the source does not count lines
+     */
+    default long getTaskLine() {
+        return 0;
+    }
+
+    /**
+     * Asks the source to check the given rule while reading tasks, so tasks are not traversed again
+     * to be validated. It should be called before reading. If a task does not satisfy the rule,
+     * {@link com.mobiquityinc.exception.APIException.ValidationException} is thrown by the read methods.
+     *
+     * @param rule rule to check while reading
+     * @return <code>true</code> if the source checks the rule, otherwise tasks should be validated after reading
+     */
+    default boolean validateWhileReading(IncrementalTaskRule rule) {
+        return false;
+    }
+
+    /**
+     * Reads all tasks from the source.
+     *
+     * @return list of read tasks
+     * @throws APIException if something is going wrong
+     */
+    default List<PackTask> readAll() throws APIException {
+        final List<PackTask> tasks = new ArrayList<>();
+        while (hasNext()) {
+            tasks.add(readNext());
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,97 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+
+import java.util.function.Function;
+
+/**
+ * Format of the records written by {@link PackageWriter}. Formats encode the record with the <code>append</code>
+ * methods of the writer, the writer ends each record with {@link #endRecord(PackageWriter)} which adds
+ * the line break by default. See {@link StandardPackageFormat} for the available formats.
+ */
+public interface PackageFormat {
+
+    /**
+     * Encodes the package.
+     *
+     * @param pack package to encode, <code>null</code> is encoded as the empty package
+     * @param out writer to append the record to
+     */
+    void write(Package pack, PackageWriter out);
+
+    /**
+     * Encodes packed things of the task from the batch.
+     *
+     * @param batch batch of solved tasks
+     * @param task position of the task in the batch
+     * @param out writer to append the record to
+     */
+    void write(PackTaskBatch batch, int task, PackageWriter out);
+
+    /**
+     * Encodes the error record of the incorrect task: the exclamation mark followed by the line of the task
+     * if it's known and the description of the problem.
+     *
+     * @param line line of the task starting from 1 or 0 if it's unknown
+     * @param reason description of the problem
+     * @param out writer to append the record to
+     */
+    default void writeError(long line, String reason, PackageWriter out) {
+        out.append('!').append(' ');
+        if (line > 0) {
+            out.append("line ").append(line).append(':').append(' ');
+        }
+        out.append(reason);
+    }
+
+    /**
+     * Encodes the beginning of the output, it's called once when the writer is created. Text formats have no header.
+     *
+     * @param out writer to append the header to
+     */
+    default void writeHeader(PackageWriter out) {
+    }
+
+    /**
+     * Encodes the end of the record.
+     *
+     * @param out writer to append to
+     */
+    default void endRecord(PackageWriter out) {
+        out.append('\n');
+    }
+
+    /**
+     * Makes the format from the function building the record as a string.
+     * It's convenient for custom formats, but allocates the string for each record.
+     *
+     * @param formatter function to build the record of the package
+     * @return created format
+     */
+    static PackageFormat of(Function<Package, String> formatter) {
+        return new FunctionFormat(formatter);
+    }
+
+    /**
+     * The format building records with the given function, tasks of the batch are converted to packages.
+     */
+    class FunctionFormat implements PackageFormat {
+
+        private final Function<Package, String> formatter;
+
+        public FunctionFormat(Function<Package, String> formatter) {
+            this.formatter = formatter;
+        }
+
+        @Override
+        public void write(Package pack, PackageWriter out) {
+            out.append(formatter.apply(pack));
+        }
+
+        @Override
+        public void write(PackTaskBatch batch, int task, PackageWriter out) {
+            write(batch.toPackage(task), out);
+        }
+    }
+}
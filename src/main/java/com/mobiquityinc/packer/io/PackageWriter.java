@@ -1,25 +1,80 @@
 package com.mobiquityinc.packer.io;
 
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
 import com.mobiquityinc.packer.domain.Package;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.function.Function;
 
 /**
- * Writes built package to the given output stream using the provided {@link #formatter}.
+ * Writes built packages to the given channel in the provided {@link PackageFormat}, one record per line.
+ * Records are encoded straight into the reusable direct buffer without intermediate strings, the buffer is written
+ * to the channel when it's full or on {@link #flush()}, so the channel gets large blocks. Lines of the text formats
+ * end with <code>\n</code> on all platforms.
+ *
+ * Methods <code>append</code> are used by formats to encode the record. If the channel fails
+ * {@link UncheckedIOException} is thrown. The writer is not thread-safe.
  */
 public class PackageWriter implements AutoCloseable {
 
-    private PrintWriter writer;
-    private Function<Package, String> formatter;
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    // enough for any long in decimal notation
+    private static final int MAX_DIGITS = 20;
+
+    private final WritableByteChannel channel;
+    // stream under the channel to flush, null if the writer is created for the channel
+    private final OutputStream out;
+    private final ByteBuffer buffer;
+    private final PackageFormat format;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final byte[] digits = new byte[MAX_DIGITS];
+
+    public PackageWriter(WritableByteChannel channel, PackageFormat format, int bufferSize) {
+        this(channel, null, format, bufferSize);
+    }
+
+    public PackageWriter(WritableByteChannel channel, PackageFormat format) {
+        this(channel, format, DEFAULT_BUFFER_SIZE);
+    }
+
+    public PackageWriter(OutputStream out, PackageFormat format) {
+        this(
+            out instanceof FileOutputStream ? ((FileOutputStream) out).getChannel() : Channels.newChannel(out),
+            out, format, DEFAULT_BUFFER_SIZE
+        );
+    }
 
     public PackageWriter(OutputStream out, Function<Package, String> formatter) {
-        this.writer = new PrintWriter(out);
+        this(out, PackageFormat.of(formatter));
     }
 
     public PackageWriter(OutputStream out) {
-        this(out, PackageWriter::defaultFormatter);
+        this(out, StandardPackageFormat.CSV);
+    }
+
+    private PackageWriter(WritableByteChannel channel, OutputStream out, PackageFormat format, int bufferSize) {
+        this.channel = channel;
+        this.out = out;
+        this.format = format;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, BinaryFormat.MAX_VARINT_SIZE));
+        format.writeHeader(this);
     }
 
     /**
@@ -28,16 +83,179 @@ public class PackageWriter implements AutoCloseable {
      * @param pack pack to write
      */
     public void write(Package pack) {
-        writer.println(defaultFormatter(pack));
+        format.write(pack, this);
+        format.endRecord(this);
+    }
+
+    /**
+     * Writes packed things of the task from the batch to the underlying output.
+     *
+     * @param batch batch of solved tasks
+     * @param task position of the task in the batch
+     */
+    public void write(PackTaskBatch batch, int task) {
+        format.write(batch, task, this);
+        format.endRecord(this);
+    }
+
+    /**
+     * Writes the error record in the place of the package of the incorrect task, so records stay in the order
+     * of the tasks. The record contains the line of the task if it's known and the description of the problem,
+     * e.g. <code>! line 3: Check the input format! It's incorrect!</code> in CSV formats.
+     *
+     * @param error the problem of the task
+     */
+    public void writeError(APIException error) {
+        long line = 0;
+        String reason = error.getMessage();
+        if (error instanceof IncorrectInputException) {
+            line = ((IncorrectInputException) error).getLine();
+            reason = ((IncorrectInputException) error).getReason();
+        } else if (error instanceof ValidationException) {
+            line = ((ValidationException) error).getLine();
+        }
+        format.writeError(line, reason, this);
+        format.endRecord(this);
+    }
+
+    /**
+     * Appends ASCII character to the record.
+     *
+     * @param c character to append, should be less than 128
+     * @return this writer
+     */
+    public PackageWriter append(char c) {
+        ensureRemaining(1);
+        buffer.put((byte) c);
+        return this;
+    }
+
+    /**
+     * Appends the number in decimal notation to the record.
+     *
+     * @param value number to append
+     * @return this writer
+     */
+    public PackageWriter append(long value) {
+        int position = digits.length;
+        long rest = value;
+        do {
+            digits[--position] = (byte) ('0' + Math.abs(rest % 10));
+            rest /= 10;
+        } while (rest != 0);
+        if (value < 0) {
+            digits[--position] = '-';
+        }
+        ensureRemaining(digits.length - position);
+        buffer.put(digits, position, digits.length - position);
+        return this;
+    }
+
+    /**
+     * Appends the text encoded in UTF-8 to the record.
+     *
+     * @param text text to append
+     * @return this writer
+     */
+    public PackageWriter append(CharSequence text) {
+        final CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (encoder.encode(chars, buffer, true).isOverflow()) {
+            drain();
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+        return this;
+    }
+
+    /**
+     * Appends the number in the {@link FixedPoint} representation as a decimal without trailing zeros,
+     * e.g. <code>53.38</code>, <code>53.3</code> or <code>53</code>.
+     *
+     * @param value number in the fixed-point representation
+     * @return this writer
+     */
+    public PackageWriter appendFixed(long value) {
+        if (value < 0) {
+            append('-');
+        }
+        final long abs = Math.abs(value);
+        append(abs / FixedPoint.SCALE);
+        long fraction = abs % FixedPoint.SCALE;
+        if (fraction != 0) {
+            append('.');
+            for (int scale = FixedPoint.SCALE / 10; scale > 0 && fraction != 0; scale /= 10) {
+                append((char) ('0' + fraction / scale));
+                fraction %= scale;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends the byte to the record, it's used by binary formats.
+     *
+     * @param b byte to append, only the lowest 8 bits are taken
+     * @return this writer
+     */
+    public PackageWriter appendByte(int b) {
+        ensureRemaining(1);
+        buffer.put((byte) b);
+        return this;
+    }
+
+    /**
+     * Appends the number encoded as the varint of the {@link BinaryFormat} to the record.
+     *
+     * @param value number to append
+     * @return this writer
+     */
+    public PackageWriter appendVarint(long value) {
+        ensureRemaining(BinaryFormat.MAX_VARINT_SIZE);
+        BinaryFormat.putVarint(buffer, value);
+        return this;
+    }
+
+    /**
+     * Flushes written packages to the underlying output.
+     */
+    public void flush() {
+        drain();
+        if (out != null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
     @Override
     public void close() throws Exception {
-        writer.close();
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensureRemaining(int bytes) {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
     }
 
-    private static String defaultFormatter(Package pack) {
-        return pack == null || pack.getThings().size() == 0 ? "-" :
-            pack.getThings().stream().map(t -> String.valueOf(t.getIndex())).reduce((p, c) -> p + "," + c).orElse("");
+    private void drain() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.compact();
+        }
     }
 }
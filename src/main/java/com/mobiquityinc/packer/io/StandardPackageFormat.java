@@ -0,0 +1,222 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Formats of the records supported out of the box: text formats with a record per line and the binary one.
+ * Totals of the packages are computed in the {@link FixedPoint} representation, so weights and costs
+ * of the things are rounded to hundredths.
+ */
+public enum StandardPackageFormat implements PackageFormat {
+
+    /**
+     * Comma separated indices of the packed things or <code>-</code> if nothing is packed: <code>2,7</code>.
+     */
+    CSV {
+        @Override
+        public void write(Package pack, PackageWriter out) {
+            appendIndices(pack, out);
+        }
+
+        @Override
+        public void write(PackTaskBatch batch, int task, PackageWriter out) {
+            appendIndices(batch, task, out);
+        }
+    },
+
+    /**
+     * Indices as in {@link #CSV} followed by the total weight and the total cost of the package separated
+     * by semicolons: <code>2,7;72.3;148</code> or <code>-;0;0</code>.
+     */
+    CSV_WITH_TOTALS {
+        @Override
+        public void write(Package pack, PackageWriter out) {
+            appendIndices(pack, out);
+            long weight = 0;
+            long cost = 0;
+            if (pack != null) {
+                final List<Thing> things = pack.getThings();
+                for (int i = 0; i < things.size(); i++) {
+                    weight += FixedPoint.toFixed(things.get(i).getWeight());
+                    cost += FixedPoint.toFixed(things.get(i).getCost());
+                }
+            }
+            out.append(';').appendFixed(weight).append(';').appendFixed(cost);
+        }
+
+        @Override
+        public void write(PackTaskBatch batch, int task, PackageWriter out) {
+            appendIndices(batch, task, out);
+            long weight = 0;
+            long cost = 0;
+            for (int i = batch.getFrom(task); i < batch.getTo(task); i++) {
+                if (batch.isPacked(i)) {
+                    weight += batch.getWeights()[i];
+                    cost += batch.getCosts()[i];
+                }
+            }
+            out.append(';').appendFixed(weight).append(';').appendFixed(cost);
+        }
+    },
+
+    /**
+     * JSON object per line with the array of indices of the packed things: <code>{"things":[2,7]}</code>.
+     * Error records are objects with the line and the reason: <code>{"line":3,"error":"..."}</code>.
+     */
+    JSON_LINES {
+        @Override
+        public void write(Package pack, PackageWriter out) {
+            out.append("{\"things\":[");
+            if (pack != null) {
+                final List<Thing> things = pack.getThings();
+                for (int i = 0; i < things.size(); i++) {
+                    if (i > 0) {
+                        out.append(',');
+                    }
+                    out.append(things.get(i).getIndex());
+                }
+            }
+            out.append("]}");
+        }
+
+        @Override
+        public void write(PackTaskBatch batch, int task, PackageWriter out) {
+            out.append("{\"things\":[");
+            boolean first = true;
+            for (int i = batch.getFrom(task); i < batch.getTo(task); i++) {
+                if (batch.isPacked(i)) {
+                    if (!first) {
+                        out.append(',');
+                    }
+                    out.append(batch.getIndices()[i]);
+                    first = false;
+                }
+            }
+            out.append("]}");
+        }
+
+        @Override
+        public void writeError(long line, String reason, PackageWriter out) {
+            final StringBuilder escaped = new StringBuilder(reason.length());
+            for (int i = 0; i < reason.length(); i++) {
+                final char c = reason.charAt(i);
+                if (c == '"' || c == '\\') {
+                    escaped.append('\\').append(c);
+                } else if (c < ' ') {
+                    escaped.append(String.format("\\u%04x", (int) c));
+                } else {
+                    escaped.append(c);
+                }
+            }
+            out.append("{\"line\":").append(line).append(",\"error\":\"").append(escaped).append("\"}");
+        }
+    },
+
+    /**
+     * Length-prefixed records of the {@link BinaryFormat} to be read with {@link BinaryPackageReader}.
+     * Weights and costs of the packed things and the gap are written too, so packages round-trip exactly.
+     */
+    BINARY {
+        @Override
+        public void writeHeader(PackageWriter out) {
+            for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+                out.appendByte(BinaryFormat.PACKAGES_MAGIC >>> shift);
+            }
+        }
+
+        @Override
+        public void write(Package pack, PackageWriter out) {
+            final List<Thing> things = pack == null ? Collections.emptyList() : pack.getThings();
+            final long gap = pack == null ? 0 : FixedPoint.toFixed(pack.getGap());
+            long length = 1 + BinaryFormat.varintSize(things.size()) + BinaryFormat.varintSize(gap);
+            for (int i = 0; i < things.size(); i++) {
+                final Thing thing = things.get(i);
+                length += BinaryFormat.varintSize(thing.getIndex()) +
+                    BinaryFormat.varintSize(FixedPoint.toFixed(thing.getWeight())) +
+                    BinaryFormat.varintSize(FixedPoint.toFixed(thing.getCost()));
+            }
+            out.appendVarint(length).appendByte(BinaryFormat.PACKAGE).appendVarint(things.size());
+            for (int i = 0; i < things.size(); i++) {
+                final Thing thing = things.get(i);
+                out.appendVarint(thing.getIndex())
+                    .appendVarint(FixedPoint.toFixed(thing.getWeight()))
+                    .appendVarint(FixedPoint.toFixed(thing.getCost()));
+            }
+            out.appendVarint(gap);
+        }
+
+        @Override
+        public void write(PackTaskBatch batch, int task, PackageWriter out) {
+            final int[] indices = batch.getIndices();
+            final long[] weights = batch.getWeights();
+            final long[] costs = batch.getCosts();
+            int packed = 0;
+            long length = 1 + BinaryFormat.varintSize(batch.getGap(task));
+            for (int i = batch.getFrom(task); i < batch.getTo(task); i++) {
+                if (batch.isPacked(i)) {
+                    packed++;
+                    length += BinaryFormat.varintSize(indices[i]) +
+                        BinaryFormat.varintSize(weights[i]) +
+                        BinaryFormat.varintSize(costs[i]);
+                }
+            }
+            length += BinaryFormat.varintSize(packed);
+            out.appendVarint(length).appendByte(BinaryFormat.PACKAGE).appendVarint(packed);
+            for (int i = batch.getFrom(task); i < batch.getTo(task); i++) {
+                if (batch.isPacked(i)) {
+                    out.appendVarint(indices[i]).appendVarint(weights[i]).appendVarint(costs[i]);
+                }
+            }
+            out.appendVarint(batch.getGap(task));
+        }
+
+        @Override
+        public void writeError(long line, String reason, PackageWriter out) {
+            out.appendVarint(1 + BinaryFormat.varintSize(line) + BinaryFormat.utf8Size(reason))
+                .appendByte(BinaryFormat.ERROR)
+                .appendVarint(line)
+                .append(reason);
+        }
+
+        @Override
+        public void endRecord(PackageWriter out) {
+            // records are length-prefixed
+        }
+    };
+
+    private static void appendIndices(Package pack, PackageWriter out) {
+        if (pack == null || pack.getThings().isEmpty()) {
+            out.append('-');
+        } else {
+            final List<Thing> things = pack.getThings();
+            for (int i = 0; i < things.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(things.get(i).getIndex());
+            }
+        }
+    }
+
+    private static void appendIndices(PackTaskBatch batch, int task, PackageWriter out) {
+        boolean empty = true;
+        for (int i = batch.getFrom(task); i < batch.getTo(task); i++) {
+            if (batch.isPacked(i)) {
+                if (!empty) {
+                    out.append(',');
+                }
+                out.append(batch.getIndices()[i]);
+                empty = false;
+            }
+        }
+        if (empty) {
+            out.append('-');
+        }
+    }
+}
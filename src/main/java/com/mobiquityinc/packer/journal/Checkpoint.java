@@ -0,0 +1,72 @@
+package com.mobiquityinc.packer.journal;
+
+import java.util.Objects;
+
+/**
+ * Progress of the run: all tasks before the given line of the input are packed and their records
+ * are in the output before the given offset.
+ */
+public class Checkpoint {
+
+    /**
+     * Beginning of the run, nothing is packed yet.
+     */
+    public static final Checkpoint START = new Checkpoint(1, 0, 0);
+
+    private final long line;
+    private final long inputOffset;
+    private final long outputOffset;
+
+    public Checkpoint(long line, long inputOffset, long outputOffset) {
+        this.line = line;
+        this.inputOffset = inputOffset;
+        this.outputOffset = outputOffset;
+    }
+
+    /**
+     * Number of the first line which is not packed yet.
+     *
+     * @return number of the line starting from 1
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * Offset of the first line which is not packed yet in the input.
+     *
+     * @return offset in bytes
+     */
+    public long getInputOffset() {
+        return inputOffset;
+    }
+
+    /**
+     * Size of the output with the records of the packed tasks.
+     *
+     * @return offset in bytes
+     */
+    public long getOutputOffset() {
+        return outputOffset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Checkpoint that = (Checkpoint) o;
+        return line == that.line &&
+            inputOffset == that.inputOffset &&
+            outputOffset == that.outputOffset;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(line, inputOffset, outputOffset);
+    }
+
+    @Override
+    public String toString() {
+        return "Checkpoint{line=" + line + ", inputOffset=" + inputOffset + ", outputOffset=" + outputOffset + '}';
+    }
+}
@@ -0,0 +1,191 @@
+package com.mobiquityinc.packer.journal;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.SystemException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of {@link Checkpoint}s. Each record has a fixed size: the line, the input offset
+ * and the output offset as big-endian longs followed by the CRC32 of them. Records are only appended,
+ * so a crash can damage at most the last one, records which do not match their checksum and everything
+ * after them are ignored when the journal is opened.
+ *
+ * Appended records reach the disk when the operating system writes them or on {@link #sync()}.
+ * {@link #reset(Checkpoint)} writes the new journal to a temporary file and moves it over the old one,
+ * so a crash leaves either the old or the new journal. The journal is not thread-safe.
+ */
+public final class ProgressJournal implements AutoCloseable {
+
+    static final int RECORD_SIZE = 3 * Long.BYTES + Integer.BYTES;
+
+    private static final int CHECKSUM_OFFSET = 3 * Long.BYTES;
+
+    private final Path file;
+    private final List<Checkpoint> checkpoints;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+
+    private ProgressJournal(Path file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.checkpoints = readCheckpoints();
+    }
+
+    /**
+     * Opens the journal and reads its valid records, the file is created if it does not exist.
+     *
+     * @param file file of the journal
+     * @return opened journal
+     * @throws APIException if the file can not be opened or read
+     */
+    public static ProgressJournal open(Path file) throws APIException {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new ProgressJournal(file, channel);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new SystemException(e);
+        }
+    }
+
+    /**
+     * Valid records of the journal read when it was opened, from the oldest to the newest one.
+     *
+     * @return checkpoints of the journal
+     */
+    public List<Checkpoint> getCheckpoints() {
+        return Collections.unmodifiableList(checkpoints);
+    }
+
+    /**
+     * Replaces all records of the journal by the given checkpoint, so the journal does not grow from run to run.
+     * The new journal is synced to a temporary file next to the journal, which is atomically moved over it,
+     * so the old records are kept until the new one is on the disk.
+     *
+     * @param checkpoint checkpoint to start the journal with
+     * @throws APIException if the journal can not be written
+     */
+    public void reset(Checkpoint checkpoint) throws APIException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (FileChannel replacement = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                write(replacement, checkpoint);
+                replacement.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+            syncDirectory(directory);
+            channel.close();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new SystemException(e);
+        }
+    }
+
+    /**
+     * Appends the record of the checkpoint.
+     *
+     * @param checkpoint checkpoint to append
+     * @throws APIException if the journal can not be written
+     */
+    public void append(Checkpoint checkpoint) throws APIException {
+        try {
+            write(channel, checkpoint);
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+    }
+
+    private void write(FileChannel target, Checkpoint checkpoint) throws IOException {
+        record.clear();
+        record.putLong(checkpoint.getLine()).putLong(checkpoint.getInputOffset()).putLong(checkpoint.getOutputOffset());
+        crc.reset();
+        crc.update(record.array(), 0, CHECKSUM_OFFSET);
+        record.putInt((int) crc.getValue()).flip();
+        while (record.hasRemaining()) {
+            target.write(record);
+        }
+    }
+
+    /**
+     * Forces the appended records to the disk.
+     *
+     * @throws APIException if the journal can not be written
+     */
+    public void sync() throws APIException {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private List<Checkpoint> readCheckpoints() throws IOException {
+        final List<Checkpoint> read = new ArrayList<>();
+        final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        boolean valid = true;
+        while (valid && channel.read(buffer.clear(), (long) read.size() * RECORD_SIZE) == RECORD_SIZE) {
+            crc.reset();
+            crc.update(buffer.array(), 0, CHECKSUM_OFFSET);
+            valid = buffer.getInt(CHECKSUM_OFFSET) == (int) crc.getValue();
+            if (valid) {
+                read.add(new Checkpoint(buffer.getLong(0), buffer.getLong(Long.BYTES), buffer.getLong(2 * Long.BYTES)));
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Forces the entry of the moved file to the disk. Directories can not be opened on some platforms,
+     * the move is durable there once the operating system writes it.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel entries = FileChannel.open(directory, StandardOpenOption.READ)) {
+            entries.force(true);
+        } catch (IOException e) {
+            // the directory is synced by the operating system
+        }
+    }
+
+    private static void deleteQuietly(Path temp) {
+        if (temp != null) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                // the exception of writing is reported
+            }
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // the exception of opening is reported
+            }
+        }
+    }
+}
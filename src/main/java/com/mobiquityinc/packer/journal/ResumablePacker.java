@@ -0,0 +1,357 @@
+package com.mobiquityinc.packer.journal;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.SystemException;
+import com.mobiquityinc.packer.ErrorPolicy;
+import com.mobiquityinc.packer.Packer;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.io.BytePackTaskReader;
+import com.mobiquityinc.packer.io.MappedPackTaskReader;
+import com.mobiquityinc.packer.io.PackTaskSource;
+import com.mobiquityinc.packer.io.PackageFormat;
+import com.mobiquityinc.packer.io.PackageWriter;
+import com.mobiquityinc.packer.io.StandardPackageFormat;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Packs a file of tasks to an output file so that the run can be resumed after a crash. The input is read
+ * in regions of whole lines of about the checkpoint interval. When all records of the tasks of a region
+ * are written, the output is flushed and the {@link Checkpoint} with the end of the region in the input
+ * and the size of the output is appended to the {@link ProgressJournal}. The pipeline of the packer is not
+ * drained at checkpoints, tasks of the next regions are solved while the records of the previous one are written.
+ *
+ * Every given number of checkpoints the output and then the journal are forced to the disk, so journaling costs
+ * one fsync of each file per several regions. Between syncs the records are written to the operating system only,
+ * which survives a crash of the process but not of the machine. So a run is resumed from the newest checkpoint
+ * which output is not longer than the output file: the output is truncated to its offset, the input is read
+ * from its offset and lines are counted from its line, tasks before it are neither read nor solved.
+ * A finished run has the checkpoint at the end of the input, running it again does nothing.
+ *
+ * Output is written by {@link PackageWriter} in the given format, if the run is resumed the header of the format
+ * is not written again. Runs of the same journal must have the same input, output and format.
+ */
+public class ResumablePacker {
+
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 4 * 1024 * 1024;
+
+    public static final int DEFAULT_CHECKPOINTS_PER_SYNC = 16;
+
+    private final Packer packer;
+    private final long checkpointInterval;
+    private final int checkpointsPerSync;
+
+    /**
+     * Creates the packer of resumable runs.
+     *
+     * @param packer packer to solve tasks with
+     * @param checkpointInterval size of the input between checkpoints in bytes, checkpoints are at line breaks
+     * @param checkpointsPerSync number of checkpoints between fsyncs, 1 syncs every checkpoint,
+     *                           0 syncs only at the end of the run
+     */
+    public ResumablePacker(Packer packer, long checkpointInterval, int checkpointsPerSync) {
+        this.packer = packer;
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointsPerSync = checkpointsPerSync;
+    }
+
+    public ResumablePacker(Packer packer) {
+        this(packer, DEFAULT_CHECKPOINT_INTERVAL, DEFAULT_CHECKPOINTS_PER_SYNC);
+    }
+
+    /**
+     * Packs the file to the output in the CSV format, the first incorrect task stops the run,
+     * see {@link #pack(Path, Path, Path, PackageFormat, ErrorPolicy)}.
+     *
+     * @param input file of tasks
+     * @param output file of packages
+     * @param journal file of the journal
+     * @return checkpoint the run is resumed from, {@link Checkpoint#START} for a new run
+     * @throws APIException if something is going wrong
+     */
+    public Checkpoint pack(Path input, Path output, Path journal) throws APIException {
+        return pack(input, output, journal, StandardPackageFormat.CSV, ErrorPolicy.FAIL);
+    }
+
+    /**
+     * Packs the file to the output or resumes the run recorded in the journal. Tasks are packed in streaming mode,
+     * see {@link Packer#pack(PackTaskSource, PackageWriter, int, ErrorPolicy)}. If the run fails, the journal
+     * keeps the checkpoints of the written records and the run can be resumed.
+     *
+     * @param input file of tasks
+     * @param output file of packages, it's created if it does not exist
+     * @param journal file of the journal, it's created if it does not exist
+     * @param format format of the output
+     * @param errorPolicy what to do with incorrect tasks
+     * @return checkpoint the run is resumed from, {@link Checkpoint#START} for a new run
+     * @throws APIException if something is going wrong
+     */
+    public Checkpoint pack(Path input, Path output, Path journal, PackageFormat format, ErrorPolicy errorPolicy)
+        throws APIException {
+        try (
+            ProgressJournal progress = ProgressJournal.open(journal);
+            FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+            FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            final Checkpoint start = resumePoint(progress.getCheckpoints(), in.size(), out.size());
+            progress.reset(start);
+            out.truncate(start.getOutputOffset());
+            out.position(start.getOutputOffset());
+            final CheckpointingSource source = new CheckpointingSource(in, start);
+            final JournalingWriter writer = new JournalingWriter(
+                out, start.getOutputOffset() > 0 ? new ContinuedFormat(format) : format, progress, source.regions,
+                checkpointsPerSync
+            );
+            packer.pack(source, writer, Packer.DEFAULT_MAX_TASKS_IN_FLIGHT, errorPolicy);
+            writer.checkpoint();
+            writer.sync();
+            return start;
+        } catch (NoSuchFileException e) {
+            throw new APIException.FileNotFoundException(e);
+        } catch (IOException e) {
+            throw new SystemException(e);
+        } catch (UncheckedIOException e) {
+            throw new SystemException(e.getCause());
+        }
+    }
+
+    /**
+     * Finds the newest checkpoint which is within both files.
+     */
+    private static Checkpoint resumePoint(List<Checkpoint> checkpoints, long inputSize, long outputSize) {
+        Checkpoint start = Checkpoint.START;
+        for (int i = checkpoints.size() - 1; i >= 0 && start == Checkpoint.START; i--) {
+            final Checkpoint checkpoint = checkpoints.get(i);
+            if (checkpoint.getInputOffset() <= inputSize && checkpoint.getOutputOffset() <= outputSize) {
+                start = checkpoint;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * End of the region of the input and the number of tasks up to it.
+     */
+    private static final class Region {
+
+        private final long tasks;
+        private final long line;
+        private final long end;
+
+        private Region(long tasks, long line, long end) {
+            this.tasks = tasks;
+            this.line = line;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Reads the input region by region from the checkpoint, each region is memory-mapped and read
+     * with {@link BytePackTaskReader}. Ends of the read regions are queued for the writer.
+     */
+    private final class CheckpointingSource implements PackTaskSource {
+
+        private final FileChannel channel;
+        private final Deque<Region> regions = new ArrayDeque<>();
+        // end of the current region, it's the beginning of the next one
+        private long position;
+        private long line;
+        private long tasks;
+        private BytePackTaskReader reader;
+        private IncrementalTaskRule rule;
+
+        private CheckpointingSource(FileChannel channel, Checkpoint start) {
+            this.channel = channel;
+            this.position = start.getInputOffset();
+            this.line = start.getLine();
+        }
+
+        @Override
+        public boolean hasNext() throws APIException {
+            try {
+                boolean hasNext = reader != null && reader.hasNext();
+                while (!hasNext && (reader != null || position < channel.size())) {
+                    if (reader != null) {
+                        line = reader.getLine();
+                        regions.addLast(new Region(tasks, line, position));
+                        reader = null;
+                    }
+                    if (position < channel.size()) {
+                        final long end = MappedPackTaskReader.nextLineStart(
+                            channel, Math.min(position + checkpointInterval, channel.size()) - 1
+                        );
+                        reader = new BytePackTaskReader(channel.map(FileChannel.MapMode.READ_ONLY, position, end - position), line);
+                        if (rule != null) {
+                            reader.validateWhileReading(rule);
+                        }
+                        position = end;
+                        hasNext = reader.hasNext();
+                    }
+                }
+                return hasNext;
+            } catch (IOException e) {
+                throw new SystemException(e);
+            }
+        }
+
+        @Override
+        public PackTask readNext() throws APIException {
+            if (!hasNext()) {
+                throw new IllegalStateException("All tasks has been already read");
+            }
+            try {
+                return reader.readNext();
+            } finally {
+                tasks++;
+            }
+        }
+
+        @Override
+        public long getTaskLine() {
+            return reader == null ? 0 : reader.getTaskLine();
+        }
+
+        @Override
+        public int readBatch(PackTaskBatch batch, int maxTasks) throws APIException {
+            int read = 0;
+            while (read < maxTasks && hasNext()) {
+                final int regionRead = reader.readBatch(batch, maxTasks - read);
+                read += regionRead;
+                tasks += regionRead;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean validateWhileReading(IncrementalTaskRule taskRule) {
+            this.rule = taskRule;
+            if (reader != null) {
+                reader.validateWhileReading(taskRule);
+            }
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // the channel is closed by the run
+        }
+    }
+
+    /**
+     * Counts written records and journals the regions which records are all written.
+     */
+    private static final class JournalingWriter extends PackageWriter {
+
+        private final FileChannel channel;
+        private final ProgressJournal journal;
+        private final Deque<Region> regions;
+        private final int checkpointsPerSync;
+        private long records;
+        private int checkpointsSinceSync;
+
+        private JournalingWriter(
+            FileChannel channel, PackageFormat format, ProgressJournal journal, Deque<Region> regions, int checkpointsPerSync) {
+            super(channel, format);
+            this.channel = channel;
+            this.journal = journal;
+            this.regions = regions;
+            this.checkpointsPerSync = checkpointsPerSync;
+        }
+
+        @Override
+        public void write(Package pack) {
+            super.write(pack);
+            records++;
+            checkpointUnchecked();
+        }
+
+        @Override
+        public void writeError(APIException error) {
+            super.writeError(error);
+            records++;
+            checkpointUnchecked();
+        }
+
+        /**
+         * Appends checkpoints of the regions which records are written.
+         */
+        private void checkpoint() throws APIException {
+            while (!regions.isEmpty() && regions.peekFirst().tasks <= records) {
+                final Region region = regions.removeFirst();
+                flush();
+                try {
+                    journal.append(new Checkpoint(region.line, region.end, channel.position()));
+                } catch (IOException e) {
+                    throw new SystemException(e);
+                }
+                if (++checkpointsSinceSync == checkpointsPerSync) {
+                    sync();
+                }
+            }
+        }
+
+        /**
+         * Forces the output and then the journal to the disk, so the journal never points beyond the synced output.
+         */
+        private void sync() throws APIException {
+            flush();
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new SystemException(e);
+            }
+            journal.sync();
+            checkpointsSinceSync = 0;
+        }
+
+        private void checkpointUnchecked() {
+            try {
+                checkpoint();
+            } catch (APIException e) {
+                throw new UncheckedIOException(e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e));
+            }
+        }
+    }
+
+    /**
+     * Format of the resumed output: the header is already written.
+     */
+    private static final class ContinuedFormat implements PackageFormat {
+
+        private final PackageFormat format;
+
+        private ContinuedFormat(PackageFormat format) {
+            this.format = format;
+        }
+
+        @Override
+        public void write(Package pack, PackageWriter out) {
+            format.write(pack, out);
+        }
+
+        @Override
+        public void write(PackTaskBatch batch, int task, PackageWriter out) {
+            format.write(batch, task, out);
+        }
+
+        @Override
+        public void writeError(long line, String reason, PackageWriter out) {
+            format.writeError(line, reason, out);
+        }
+
+        @Override
+        public void endRecord(PackageWriter out) {
+            format.endRecord(out);
+        }
+    }
+}
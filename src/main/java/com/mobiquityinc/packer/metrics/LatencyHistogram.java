@@ -0,0 +1,111 @@
+package com.mobiquityinc.packer.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds. Every power of two range is split into four buckets,
+ * so percentiles are estimated with an error within 25%. Recording does not allocate.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+        final long value = Math.max(0, nanos);
+        buckets.incrementAndGet(index(value));
+        count.increment();
+        total.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getTotal() {
+        return total.sum();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Estimates the percentile as the upper bound of the bucket containing it.
+     *
+     * @param percentile percentile from 0 to 100
+     * @return estimated value or 0 if nothing is recorded
+     */
+    long getPercentile(double percentile) {
+        return getPercentile(new LatencyHistogram[] {this}, percentile);
+    }
+
+    /**
+     * Estimates the percentile of all latencies recorded by the given histograms.
+     *
+     * @param histograms histograms to merge
+     * @param percentile percentile from 0 to 100
+     * @return estimated value or 0 if nothing is recorded
+     */
+    static long getPercentile(LatencyHistogram[] histograms, double percentile) {
+        final long[] counts = new long[BUCKETS];
+        long recorded = 0;
+        long max = 0;
+        for (LatencyHistogram histogram : histograms) {
+            for (int i = 0; i < BUCKETS; i++) {
+                final long count = histogram.buckets.get(i);
+                counts[i] += count;
+                recorded += count;
+            }
+            max = Math.max(max, histogram.getMax());
+        }
+        final long rank = Math.max(1, (long) Math.ceil(recorded * percentile / 100));
+        long seen = counts[0];
+        int i = 0;
+        while (i < BUCKETS - 1 && seen < rank) {
+            i++;
+            seen += counts[i];
+        }
+        return recorded == 0 ? 0 : Math.min(upperBound(i), max);
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Index of the bucket: values below four have own buckets, others are grouped by the position
+     * of the highest bit and the next two bits.
+     */
+    private static int index(long value) {
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        return exponent < SUB_BUCKET_BITS ?
+            (int) value :
+            (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + (int) (value >>> (exponent - SUB_BUCKET_BITS)) % SUB_BUCKETS;
+    }
+
+    private static long upperBound(int index) {
+        final long result;
+        if (index < SUB_BUCKETS) {
+            result = index;
+        } else {
+            final int shift = index / SUB_BUCKETS - 1;
+            result = ((long) (SUB_BUCKETS + index % SUB_BUCKETS + 1) << shift) - 1;
+        }
+        return result;
+    }
+}
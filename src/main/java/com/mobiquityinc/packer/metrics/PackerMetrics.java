@@ -0,0 +1,223 @@
+package com.mobiquityinc.packer.metrics;
+
+import jdk.jfr.EventType;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Latency statistics of the task processing stages. Every stage is measured for tasks grouped by the number of things
+ * (1, 2-3, 4-7, ..., 64 and more), solving is measured for each solver separately as well.
+ * Recording is lock-free and does not allocate, so metrics can be always on. Parsing, solving and writing
+ * also commit JFR events, they are created only while they are enabled in a flight recording.
+ * Solvers chosen by the cost model of {@link com.mobiquityinc.packer.solver.CalibratedSolverSelector} are counted
+ * with the predicted and the observed time, so the accuracy of its choices is visible too.
+ *
+ * {@link #getDefault()} instance is registered in the platform MBean server with the name {@link #OBJECT_NAME}.
+ */
+public class PackerMetrics implements PackerMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.mobiquityinc.packer:type=PackerMetrics";
+
+    private static final int THINGS_GROUPS = 7;
+
+    // number of tasks, observed and predicted nanoseconds of every group
+    private static final int PREDICTION_COUNTERS = 3;
+
+    private static final EventType PARSE_EVENT = EventType.getEventType(StageEvent.Parse.class);
+    private static final EventType SOLVE_EVENT = EventType.getEventType(StageEvent.Solve.class);
+    private static final EventType WRITE_EVENT = EventType.getEventType(StageEvent.Write.class);
+
+    private static final Function<Class<?>, LatencyHistogram[]> NEW_GROUPS = solver -> newGroups();
+    private static final Function<Class<?>, AtomicLongArray> NEW_PREDICTIONS =
+        solver -> new AtomicLongArray(THINGS_GROUPS * PREDICTION_COUNTERS);
+
+    private final Map<Stage, LatencyHistogram[]> stages = new EnumMap<>(Stage.class);
+    private final Map<Class<?>, LatencyHistogram[]> solvers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, AtomicLongArray> predictions = new ConcurrentHashMap<>();
+
+    public PackerMetrics() {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, newGroups());
+        }
+    }
+
+    /**
+     * Returns the instance shared by packers which is registered in the platform MBean server.
+     *
+     * @return shared instance
+     */
+    public static PackerMetrics getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Records latency of the stage of the task.
+     *
+     * @param stage measured stage
+     * @param things number of things in the task
+     * @param nanos latency in nanoseconds
+     */
+    public void record(Stage stage, int things, long nanos) {
+        stages.get(stage)[group(things)].record(nanos);
+        if (stage == Stage.PARSE && PARSE_EVENT.isEnabled()) {
+            commit(new StageEvent.Parse(), things, nanos);
+        } else if (stage == Stage.WRITE && WRITE_EVENT.isEnabled()) {
+            commit(new StageEvent.Write(), things, nanos);
+        }
+    }
+
+    /**
+     * Records latency of solving of the task by the solver.
+     *
+     * @param solver class of the solver
+     * @param things number of things in the task
+     * @param nanos latency in nanoseconds
+     */
+    public void recordSolve(Class<?> solver, int things, long nanos) {
+        record(Stage.SOLVE, things, nanos);
+        LatencyHistogram[] groups = solvers.get(solver);
+        if (groups == null) {
+            groups = solvers.computeIfAbsent(solver, NEW_GROUPS);
+        }
+        groups[group(things)].record(nanos);
+        if (SOLVE_EVENT.isEnabled()) {
+            final StageEvent.Solve event = new StageEvent.Solve();
+            event.solver = solver;
+            commit(event, things, nanos);
+        }
+    }
+
+    /**
+     * Records the solving of the task by the solver chosen by the cost model together with the time predicted
+     * when it was chosen.
+     *
+     * @param solver class of the chosen solver
+     * @param things number of things in the task
+     * @param predictedNanos predicted time in nanoseconds
+     * @param nanos observed time in nanoseconds
+     */
+    public void recordPrediction(Class<?> solver, int things, long predictedNanos, long nanos) {
+        AtomicLongArray counters = predictions.get(solver);
+        if (counters == null) {
+            counters = predictions.computeIfAbsent(solver, NEW_PREDICTIONS);
+        }
+        final int first = group(things) * PREDICTION_COUNTERS;
+        counters.incrementAndGet(first);
+        counters.addAndGet(first + 1, nanos);
+        counters.addAndGet(first + 2, predictedNanos);
+    }
+
+    @Override
+    public long getCount(String stage) {
+        long count = 0;
+        for (LatencyHistogram histogram : stages.get(Stage.valueOf(stage))) {
+            count += histogram.getCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getPercentileNanos(String stage, double percentile) {
+        return LatencyHistogram.getPercentile(stages.get(Stage.valueOf(stage)), percentile);
+    }
+
+    @Override
+    public List<StageStatistics> getStatistics() {
+        final List<StageStatistics> statistics = new ArrayList<>();
+        stages.forEach((stage, groups) -> addStatistics(statistics, stage.name(), "", groups));
+        solvers.forEach((solver, groups) -> addStatistics(statistics, Stage.SOLVE.name(), solver.getName(), groups));
+        return statistics;
+    }
+
+    @Override
+    public List<PredictionStatistics> getPredictionStatistics() {
+        final List<PredictionStatistics> statistics = new ArrayList<>();
+        predictions.forEach((solver, counters) -> {
+            for (int i = 0; i < THINGS_GROUPS; i++) {
+                final int first = i * PREDICTION_COUNTERS;
+                final long tasks = counters.get(first);
+                if (tasks > 0) {
+                    statistics.add(new PredictionStatistics(
+                        solver.getName(), 1 << i, maxThings(i), tasks, counters.get(first + 1), counters.get(first + 2)
+                    ));
+                }
+            }
+        });
+        return statistics;
+    }
+
+    @Override
+    public void reset() {
+        stages.values().forEach(PackerMetrics::resetAll);
+        solvers.values().forEach(PackerMetrics::resetAll);
+        predictions.values().forEach(counters -> {
+            for (int i = 0; i < counters.length(); i++) {
+                counters.set(i, 0);
+            }
+        });
+    }
+
+    private static void addStatistics(List<StageStatistics> statistics, String stage, String solver, LatencyHistogram[] groups) {
+        for (int i = 0; i < groups.length; i++) {
+            if (groups[i].getCount() > 0) {
+                statistics.add(new StageStatistics(stage, solver, 1 << i, maxThings(i), groups[i]));
+            }
+        }
+    }
+
+    private static int maxThings(int group) {
+        return group == THINGS_GROUPS - 1 ? Integer.MAX_VALUE : (1 << group + 1) - 1;
+    }
+
+    private static void commit(StageEvent event, int things, long nanos) {
+        event.things = things;
+        event.latency = nanos;
+        event.commit();
+    }
+
+    private static void resetAll(LatencyHistogram[] groups) {
+        for (LatencyHistogram histogram : groups) {
+            histogram.reset();
+        }
+    }
+
+    private static int group(int things) {
+        return Math.min(THINGS_GROUPS - 1, Math.max(0, Integer.SIZE - 1 - Integer.numberOfLeadingZeros(things)));
+    }
+
+    private static LatencyHistogram[] newGroups() {
+        final LatencyHistogram[] groups = new LatencyHistogram[THINGS_GROUPS];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = new LatencyHistogram();
+        }
+        return groups;
+    }
+
+    /**
+     * Holder of the default instance, it's created and registered on the first use.
+     */
+    private static final class DefaultHolder {
+
+        private static final PackerMetrics INSTANCE = new PackerMetrics();
+
+        static {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                throw new IllegalStateException("Packer metrics can not be registered", e);
+            }
+        }
+
+        private DefaultHolder() {
+        }
+    }
+}
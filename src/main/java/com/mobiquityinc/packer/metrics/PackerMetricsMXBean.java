@@ -0,0 +1,47 @@
+package com.mobiquityinc.packer.metrics;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link PackerMetrics}.
+ */
+public interface PackerMetricsMXBean {
+
+    /**
+     * Number of tasks passed the stage.
+     *
+     * @param stage name of the {@link Stage}
+     * @return number of tasks
+     */
+    long getCount(String stage);
+
+    /**
+     * Estimated percentile of the latency of the stage over all tasks regardless of their size.
+     *
+     * @param stage name of the {@link Stage}
+     * @param percentile percentile from 0 to 100, e.g. 50 or 99
+     * @return latency in nanoseconds or 0 if nothing is recorded
+     */
+    long getPercentileNanos(String stage, double percentile);
+
+    /**
+     * Statistics of all stages split by the number of things, statistics of solving are also split by solver.
+     * Groups without recorded tasks are skipped.
+     *
+     * @return statistics of the stages
+     */
+    List<StageStatistics> getStatistics();
+
+    /**
+     * Statistics of the solvers chosen by the cost model split by solver and the number of things: the number
+     * of tasks, the observed and the predicted time. Groups without recorded tasks are skipped.
+     *
+     * @return statistics of the predictions
+     */
+    List<PredictionStatistics> getPredictionStatistics();
+
+    /**
+     * Resets all statistics.
+     */
+    void reset();
+}
@@ -0,0 +1,69 @@
+package com.mobiquityinc.packer.metrics;
+
+/**
+ * Snapshot of the tasks with the number of things in the given range solved by the solver chosen by the cost model:
+ * how many tasks it was chosen for, how long they took and how long the model predicted them to take.
+ * Times are in nanoseconds.
+ */
+public class PredictionStatistics {
+
+    private final String solver;
+    private final int minThings;
+    private final int maxThings;
+    private final long tasks;
+    private final long nanos;
+    private final long predictedNanos;
+
+    PredictionStatistics(String solver, int minThings, int maxThings, long tasks, long nanos, long predictedNanos) {
+        this.solver = solver;
+        this.minThings = minThings;
+        this.maxThings = maxThings;
+        this.tasks = tasks;
+        this.nanos = nanos;
+        this.predictedNanos = predictedNanos;
+    }
+
+    /**
+     * Name of the solver class.
+     *
+     * @return name of the solver class
+     */
+    public String getSolver() {
+        return solver;
+    }
+
+    public int getMinThings() {
+        return minThings;
+    }
+
+    public int getMaxThings() {
+        return maxThings;
+    }
+
+    /**
+     * Number of tasks the solver was chosen for and solved.
+     *
+     * @return number of tasks
+     */
+    public long getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Total observed time of solving of the tasks.
+     *
+     * @return time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Total time of solving of the tasks predicted when the solver was chosen.
+     *
+     * @return time in nanoseconds
+     */
+    public long getPredictedNanos() {
+        return predictedNanos;
+    }
+}
@@ -0,0 +1,32 @@
+package com.mobiquityinc.packer.metrics;
+
+/**
+ * Stages of the task processing measured by {@link PackerMetrics}.
+ */
+public enum Stage {
+    /**
+     * Reading of the task from the source.
+     */
+    PARSE,
+    /**
+     * Validation of the task.
+     */
+    VALIDATE,
+    /**
+     * Waiting of the submitted task in the executor queue.
+     */
+    QUEUE,
+    /**
+     * Solving of the task.
+     */
+    SOLVE,
+    /**
+     * Writing of the built package.
+     */
+    WRITE,
+    /**
+     * Handling of the request by {@link com.mobiquityinc.packer.server.PackingServer} from the accept
+     * of the connection to the written response, grouped by the total number of things of the request.
+     */
+    REQUEST
+}
@@ -0,0 +1,53 @@
+package com.mobiquityinc.packer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Base of the JFR events committed by {@link PackerMetrics} for the measured stages. Events are instant,
+ * the measured latency is kept in the field.
+ */
+@Category("Packer")
+@StackTrace(false)
+abstract class StageEvent extends Event {
+
+    @Label("Things")
+    @Description("Number of things in the task")
+    int things;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    /**
+     * Parsing of the task.
+     */
+    @Label("Parse")
+    @Name("com.mobiquityinc.packer.Parse")
+    static final class Parse extends StageEvent {
+    }
+
+    /**
+     * Solving of the task.
+     */
+    @Label("Solve")
+    @Name("com.mobiquityinc.packer.Solve")
+    static final class Solve extends StageEvent {
+
+        @Label("Solver")
+        Class<?> solver;
+    }
+
+    /**
+     * Writing of the package.
+     */
+    @Label("Write")
+    @Name("com.mobiquityinc.packer.Write")
+    static final class Write extends StageEvent {
+    }
+}
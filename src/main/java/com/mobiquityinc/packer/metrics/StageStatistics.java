@@ -0,0 +1,74 @@
+package com.mobiquityinc.packer.metrics;
+
+/**
+ * Snapshot of the latency statistics of a stage for tasks with the number of things in the given range
+ * solved by the given solver. Latencies are in nanoseconds.
+ */
+public class StageStatistics {
+
+    private static final double MEDIAN = 50;
+    private static final double P99 = 99;
+
+    private final String stage;
+    private final String solver;
+    private final int minThings;
+    private final int maxThings;
+    private final long count;
+    private final long totalNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    StageStatistics(String stage, String solver, int minThings, int maxThings, LatencyHistogram histogram) {
+        this.stage = stage;
+        this.solver = solver;
+        this.minThings = minThings;
+        this.maxThings = maxThings;
+        this.count = histogram.getCount();
+        this.totalNanos = histogram.getTotal();
+        this.p50Nanos = histogram.getPercentile(MEDIAN);
+        this.p99Nanos = histogram.getPercentile(P99);
+        this.maxNanos = histogram.getMax();
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    /**
+     * Name of the solver class.
+     *
+     * @return name of the solver class or empty string for all solvers
+     */
+    public String getSolver() {
+        return solver;
+    }
+
+    public int getMinThings() {
+        return minThings;
+    }
+
+    public int getMaxThings() {
+        return maxThings;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+}
@@ -0,0 +1,65 @@
+package com.mobiquityinc.packer.server;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.SystemException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Client of the {@link PackingServer} on the loopback interface. Every request is sent over its own connection,
+ * the client is thread-safe.
+ */
+public final class PackingClient {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final InetSocketAddress address;
+
+    public PackingClient(int port) {
+        this.address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Sends tasks in the text format and returns the response: a line per task with the indices
+     * of the packed things or the error record.
+     *
+     * @param tasks lines of tasks
+     * @return lines of packages
+     * @throws APIException if the server is not available
+     */
+    public String pack(String tasks) throws APIException {
+        return new String(send(tasks.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sends the request and returns the response.
+     *
+     * @param request tasks in the text or the binary format
+     * @return packages in the text format for the text request or in the binary one for the binary request
+     * @throws APIException if the server is not available
+     */
+    public byte[] send(byte[] request) throws APIException {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            final ByteBuffer output = ByteBuffer.wrap(request);
+            while (output.hasRemaining()) {
+                channel.write(output);
+            }
+            channel.shutdownOutput();
+            final ByteArrayOutputStream response = new ByteArrayOutputStream();
+            final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(input) >= 0) {
+                response.write(input.array(), 0, input.position());
+                input.clear();
+            }
+            return response.toByteArray();
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+    }
+}
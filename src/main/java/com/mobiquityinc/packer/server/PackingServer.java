@@ -0,0 +1,324 @@
+package com.mobiquityinc.packer.server;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.SystemException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.Packer;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.io.BinaryFormat;
+import com.mobiquityinc.packer.io.BinaryPackTaskReader;
+import com.mobiquityinc.packer.io.BytePackTaskReader;
+import com.mobiquityinc.packer.io.PackTaskSource;
+import com.mobiquityinc.packer.io.PackageFormat;
+import com.mobiquityinc.packer.io.PackageWriter;
+import com.mobiquityinc.packer.io.StandardPackageFormat;
+import com.mobiquityinc.packer.metrics.PackerMetrics;
+import com.mobiquityinc.packer.metrics.Stage;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-running packing server on the loopback interface. It keeps the warmed {@link Packer} with its thread pool alive,
+ * so latency of small requests is not dominated by the start of the JVM and the creation of the pool.
+ *
+ * A request is a TCP connection: the client writes tasks in the text format or in the {@link BinaryFormat}
+ * and shuts down the output. The server writes a record per task in the order of tasks and closes the connection:
+ * packages in {@link StandardPackageFormat#CSV} for the text request or in {@link StandardPackageFormat#BINARY}
+ * for the binary one, incorrect tasks get error records. See {@link PackingClient}.
+ *
+ * Concurrent requests are micro-batched: all tasks of a batch of requests are solved with a single
+ * {@link Packer#pack(List)} call, so with a grouping {@link com.mobiquityinc.packer.execution.ExecutionStrategy}
+ * tasks of small requests share submissions to the executor. At most the given number of batches are solved
+ * at once, requests arriving meanwhile are queued and the next batch takes all of them up to the maximum number
+ * of tasks. So batches grow with the load, while a request to the idle server is solved at once. The batch window
+ * makes the batcher additionally wait for more requests, it's zero by default.
+ *
+ * Latency of requests is recorded to the metrics of the packer as the {@link Stage#REQUEST} stage,
+ * p50 and p99 are available via {@link PackerMetrics#getPercentileNanos}.
+ *
+ * The packer is not closed by the server.
+ */
+public class PackingServer implements AutoCloseable {
+
+    public static final Duration DEFAULT_BATCH_WINDOW = Duration.ZERO;
+
+    public static final int DEFAULT_MAX_BATCH_TASKS = 1024;
+
+    public static final int DEFAULT_MAX_REQUEST_SIZE = 64 * 1024 * 1024;
+
+    private static final int INITIAL_REQUEST_BUFFER_SIZE = 8 * 1024;
+
+    private final Packer packer;
+    private final PackerMetrics metrics;
+    private final long batchWindowNanos;
+    private final int maxBatchTasks;
+    private final Semaphore batchesInFlight;
+    private final int maxRequestSize;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService connections;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread acceptor;
+    private final Thread batcher;
+
+    public PackingServer(
+        Packer packer,
+        int port,
+        Duration batchWindow,
+        int maxBatchTasks,
+        int maxBatchesInFlight,
+        int maxRequestSize) throws APIException {
+        this.packer = packer;
+        this.metrics = packer.getMetrics();
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.maxBatchTasks = maxBatchTasks;
+        this.batchesInFlight = new Semaphore(maxBatchesInFlight);
+        this.maxRequestSize = maxRequestSize;
+        try {
+            this.serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+        this.connections = Executors.newCachedThreadPool(r -> daemon(r, "packing-server-connection"));
+        this.acceptor = daemon(this::accept, "packing-server-acceptor");
+        this.batcher = daemon(this::batch, "packing-server-batcher");
+        acceptor.start();
+        batcher.start();
+    }
+
+    public PackingServer(Packer packer, int port) throws APIException {
+        this(
+            packer, port, DEFAULT_BATCH_WINDOW, DEFAULT_MAX_BATCH_TASKS,
+            Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_REQUEST_SIZE
+        );
+    }
+
+    /**
+     * Port the server listens to, it's useful when the server is started on the port 0.
+     *
+     * @return local port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections and interrupts requests in progress.
+     *
+     * @throws Exception if the server socket can not be closed
+     */
+    @Override
+    public void close() throws Exception {
+        try {
+            serverChannel.close();
+        } finally {
+            batcher.interrupt();
+            connections.shutdownNow();
+        }
+    }
+
+    private void accept() {
+        boolean open = true;
+        while (open) {
+            try {
+                final SocketChannel channel = serverChannel.accept();
+                final long accepted = System.nanoTime();
+                connections.execute(() -> handle(channel, accepted));
+            } catch (ClosedChannelException e) {
+                open = false;
+            } catch (IOException e) {
+                open = serverChannel.isOpen();
+            }
+        }
+    }
+
+    /**
+     * Reads the request, waits for its packages and writes the response.
+     */
+    private void handle(SocketChannel channel, long accepted) {
+        try (SocketChannel connection = channel) {
+            boolean binary = false;
+            Request request;
+            try {
+                final ByteBuffer input = read(connection);
+                binary = input.remaining() >= BinaryFormat.MAGIC_SIZE &&
+                    input.getInt(input.position()) == BinaryFormat.TASKS_MAGIC;
+                request = parse(binary ? new BinaryPackTaskReader(input) : new BytePackTaskReader(input));
+            } catch (IncorrectInputException e) {
+                // the request is too big or its binary records can not be separated
+                request = new Request();
+                request.errors.add(e);
+            }
+            if (request.tasks.isEmpty()) {
+                request.packages.complete(Collections.emptyList());
+            } else {
+                queue.add(request);
+            }
+            final PackageFormat format = binary ? StandardPackageFormat.BINARY : StandardPackageFormat.CSV;
+            try (PackageWriter writer = new PackageWriter(connection, format)) {
+                respond(request, writer);
+            }
+            metrics.record(Stage.REQUEST, request.things, System.nanoTime() - accepted);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // the client has gone, there is nobody to report to
+        }
+    }
+
+    /**
+     * Reads the request until the client shuts down its output. A request of the maximum size is accepted,
+     * only a byte beyond the limit makes it too big.
+     */
+    private ByteBuffer read(SocketChannel channel) throws IOException, APIException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(INITIAL_REQUEST_BUFFER_SIZE, maxRequestSize));
+        boolean open = channel.read(buffer) >= 0;
+        while (open) {
+            if (buffer.hasRemaining()) {
+                open = channel.read(buffer) >= 0;
+            } else if (buffer.capacity() < maxRequestSize) {
+                final ByteBuffer bigger = ByteBuffer.allocate((int) Math.min(2L * buffer.capacity(), maxRequestSize));
+                buffer.flip();
+                buffer = bigger.put(buffer);
+            } else if (channel.read(ByteBuffer.allocate(1)) >= 0) {
+                throw new IncorrectInputException("Request is too big");
+            } else {
+                open = false;
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Reads and validates tasks of the request, incorrect tasks are kept as errors in their places.
+     */
+    private Request parse(PackTaskSource reader) throws APIException {
+        final Request request = new Request();
+        while (reader.hasNext()) {
+            final long start = System.nanoTime();
+            try {
+                final PackTask task = reader.readNext();
+                metrics.record(Stage.PARSE, task.getThings().size(), System.nanoTime() - start);
+                packer.validate(task);
+                request.tasks.add(task);
+                request.errors.add(null);
+                request.things += task.getThings().size();
+            } catch (IncorrectInputException | ValidationException e) {
+                request.errors.add(e);
+            }
+        }
+        return request;
+    }
+
+    private static void respond(Request request, PackageWriter writer) throws InterruptedException {
+        List<Package> packages;
+        APIException failure = null;
+        try {
+            packages = request.packages.get();
+        } catch (ExecutionException e) {
+            packages = Collections.emptyList();
+            failure = e.getCause() instanceof APIException ? (APIException) e.getCause() : new SystemException(e.getCause());
+        }
+        int next = 0;
+        for (APIException error : request.errors) {
+            if (error != null) {
+                writer.writeError(error);
+            } else if (failure != null) {
+                writer.writeError(failure);
+            } else {
+                writer.write(packages.get(next++));
+            }
+        }
+    }
+
+    /**
+     * Collects requests into batches and hands them over to the connection threads to solve
+     * when there is a free slot for the batch.
+     */
+    private void batch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Request request = queue.take();
+                batchesInFlight.acquire();
+                final List<Request> requests = new ArrayList<>();
+                final long deadline = System.nanoTime() + batchWindowNanos;
+                int tasks = 0;
+                while (request != null) {
+                    requests.add(request);
+                    tasks += request.tasks.size();
+                    request = tasks < maxBatchTasks ? queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS) : null;
+                }
+                connections.execute(() -> {
+                    try {
+                        solve(requests);
+                    } finally {
+                        batchesInFlight.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Solves tasks of all requests at once. If the batch fails, requests are solved one by one,
+     * so a failing request does not fail the others.
+     */
+    private void solve(List<Request> requests) {
+        final List<PackTask> tasks = new ArrayList<>();
+        requests.forEach(request -> tasks.addAll(request.tasks));
+        try {
+            final List<Package> packages = packer.pack(tasks);
+            int from = 0;
+            for (Request request : requests) {
+                request.packages.complete(packages.subList(from, from + request.tasks.size()));
+                from += request.tasks.size();
+            }
+        } catch (APIException e) {
+            if (requests.size() == 1) {
+                requests.get(0).packages.completeExceptionally(e);
+            } else {
+                requests.forEach(request -> solve(Collections.singletonList(request)));
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Correct tasks of the request, error of every incorrect task or <code>null</code> for the correct one
+     * in the order of tasks and the packages of the correct tasks when they are solved.
+     */
+    private static final class Request {
+
+        private final List<PackTask> tasks = new ArrayList<>();
+        private final List<APIException> errors = new ArrayList<>();
+        private final CompletableFuture<List<Package>> packages = new CompletableFuture<>();
+        private int things;
+    }
+}
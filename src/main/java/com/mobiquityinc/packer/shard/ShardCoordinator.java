@@ -0,0 +1,472 @@
+package com.mobiquityinc.packer.shard;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.SystemException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.Boot;
+import com.mobiquityinc.packer.io.MappedPackTaskReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Packs a file of tasks with several local worker processes, so the heap and the garbage collection of one JVM
+ * do not limit big files. The file is split into shards of whole lines of about the given size, shards are
+ * dispatched to the workers and their packages are written in the order of the shards, so the output is the same
+ * as {@link com.mobiquityinc.packer.Packer#pack(String)} gives. At most a few shards per worker are packed ahead
+ * of the one being written, so memory usage does not depend on the size of the file.
+ *
+ * A worker is a child process started with the given command, by default it's the JVM of the coordinator running
+ * the {@code worker} command of {@link Boot}. Requests and responses go through the standard input and output
+ * of the process, see {@link ShardWorker}. Workers are started by the constructor and serve all files packed
+ * by the coordinator until it's closed. If a worker crashes, breaks the protocol or does not respond to a shard
+ * within the response timeout, it's restarted and the shard is packed again, the shard fails after the given
+ * number of attempts. A worker which does not respond in time is killed, so a hung worker does not stall its slot.
+ *
+ * The first incorrect task fails packing as {@link com.mobiquityinc.packer.Packer#pack(String)} does,
+ * the line of the exception is counted from the start of the file.
+ */
+public class ShardCoordinator implements AutoCloseable {
+
+    public static final long DEFAULT_SHARD_SIZE = 4 * 1024 * 1024;
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    public static final Duration DEFAULT_RESPONSE_TIMEOUT = Duration.ofMinutes(10);
+
+    private static final int SHARDS_AHEAD_PER_WORKER = 4;
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private static final long STOP_TIMEOUT_SECONDS = 5;
+
+    private final List<String> workerCommand;
+    private final long shardSize;
+    private final int maxAttempts;
+    private final Duration responseTimeout;
+    private final Worker[] workers;
+    private final ExecutorService dispatchers;
+    private final ScheduledExecutorService watchdog;
+    private final AtomicLong restarts = new AtomicLong();
+
+    public ShardCoordinator(int workers, List<String> workerCommand, long shardSize, int maxAttempts, Duration responseTimeout)
+        throws APIException {
+        this.workerCommand = new ArrayList<>(workerCommand);
+        this.shardSize = shardSize;
+        this.maxAttempts = maxAttempts;
+        this.responseTimeout = responseTimeout;
+        this.workers = new Worker[workers];
+        this.dispatchers = Executors.newFixedThreadPool(workers, r -> {
+            final Thread thread = new Thread(r, "shard-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "shard-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int i = 0; i < workers; i++) {
+                this.workers[i] = start();
+            }
+        } catch (IOException e) {
+            close();
+            throw new SystemException(e);
+        }
+    }
+
+    public ShardCoordinator(int workers, List<String> workerCommand, long shardSize, int maxAttempts) throws APIException {
+        this(workers, workerCommand, shardSize, maxAttempts, DEFAULT_RESPONSE_TIMEOUT);
+    }
+
+    /**
+     * Creates the coordinator with the workers running in the JVM of the coordinator, processors are shared
+     * between the workers equally.
+     *
+     * @param workers number of worker processes
+     * @throws APIException if a worker can not be started
+     */
+    public ShardCoordinator(int workers) throws APIException {
+        this(
+            workers,
+            workerCommand(Collections.emptyList(), Math.max(1, Runtime.getRuntime().availableProcessors() / workers)),
+            DEFAULT_SHARD_SIZE,
+            DEFAULT_MAX_ATTEMPTS
+        );
+    }
+
+    /**
+     * Creates the command to start a worker in the JVM of the current process with its class path.
+     *
+     * @param jvmOptions options of the worker JVM, e.g. the heap size
+     * @param threads number of threads of the worker to solve tasks
+     * @return command of the worker process
+     */
+    public static List<String> workerCommand(List<String> jvmOptions, int threads) {
+        final List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Boot.class.getName());
+        command.add("worker");
+        command.add(Integer.toString(threads));
+        return command;
+    }
+
+    /**
+     * Number of the workers restarted after crashes since the coordinator was created.
+     *
+     * @return number of restarts
+     */
+    public long getRestarts() {
+        return restarts.get();
+    }
+
+    /**
+     * Packs the file and returns packages in the text format.
+     *
+     * @param file file of tasks
+     * @return packages in the format of {@link com.mobiquityinc.packer.Packer#pack(String)}
+     * @throws APIException if a task is incorrect or a shard can not be packed
+     */
+    public String pack(Path file) throws APIException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pack(file, out);
+        return new String(out.toByteArray());
+    }
+
+    /**
+     * Packs the file and writes packages in the order of tasks to the given stream.
+     *
+     * @param file file of tasks
+     * @param out stream to write packages to
+     * @throws APIException if a task is incorrect or a shard can not be packed
+     */
+    public synchronized void pack(Path file, OutputStream out) throws APIException {
+        final List<Shard> shards = split(file);
+        final Run run = new Run(file, shards, workers.length * SHARDS_AHEAD_PER_WORKER);
+        final List<Future<?>> loops = new ArrayList<>();
+        for (int i = 0; i < workers.length; i++) {
+            final int slot = i;
+            loops.add(dispatchers.submit(() -> run.dispatch(slot)));
+        }
+        try {
+            for (int i = 0; i < shards.size(); i++) {
+                out.write(run.await(i));
+                run.ahead.release();
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new SystemException(e);
+        } finally {
+            run.stop();
+            awaitAll(loops);
+        }
+    }
+
+    /**
+     * Closes the input of the workers, so they exit, and kills the ones which do not exit in time.
+     */
+    @Override
+    public void close() {
+        dispatchers.shutdownNow();
+        for (Worker worker : workers) {
+            if (worker != null) {
+                worker.stop();
+            }
+        }
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * Splits the file into shards ending at line breaks, a shard is not smaller than the shard size
+     * unless it's the last one.
+     */
+    private List<Shard> split(Path file) throws APIException {
+        final List<Shard> shards = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long from = 0;
+            while (from < size) {
+                long to = Math.min(from + shardSize, size);
+                if (to < size) {
+                    to = MappedPackTaskReader.nextLineStart(channel, to - 1);
+                }
+                shards.add(new Shard(from, to));
+                from = to;
+            }
+        } catch (NoSuchFileException e) {
+            throw new APIException.FileNotFoundException(e);
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+        return shards;
+    }
+
+    /**
+     * Counts line breaks before the given position, it's the number of lines before the shard starting there.
+     */
+    private static long countLines(Path file, long position) throws APIException {
+        long lines = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            long offset = 0;
+            while (offset < position) {
+                buffer.clear().limit((int) Math.min(SCAN_BUFFER_SIZE, position - offset));
+                final int read = channel.read(buffer, offset);
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        lines++;
+                    }
+                }
+                offset += read;
+            }
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+        return lines;
+    }
+
+    /**
+     * Shifts the line of the exception of the shard by the number of lines before the shard.
+     */
+    private static APIException shift(APIException e, Path file, Shard shard) throws APIException {
+        APIException shifted = e;
+        if (e instanceof ValidationException && ((ValidationException) e).getLine() > 0) {
+            shifted = ((ValidationException) e).shiftLine(countLines(file, shard.from));
+        } else if (e instanceof IncorrectInputException && ((IncorrectInputException) e).getLine() > 0) {
+            shifted = ((IncorrectInputException) e).shiftLine(countLines(file, shard.from));
+        }
+        return shifted;
+    }
+
+    private Worker start() throws IOException {
+        final Process process = new ProcessBuilder(workerCommand).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        return new Worker(process, watchdog, responseTimeout);
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // dispatchers complete shards exceptionally, there is nothing else to report
+            }
+        }
+    }
+
+    /**
+     * Line-aligned byte range of the file.
+     */
+    private static final class Shard {
+
+        private final long from;
+        private final long to;
+        private final CompletableFuture<byte[]> packages = new CompletableFuture<>();
+
+        private Shard(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    /**
+     * Packing of one file: shards are taken in order by the dispatchers of the workers, a permit of the look-ahead
+     * is taken for every shard and released when its packages are written. A dispatcher packs the shard again
+     * with the restarted worker if its worker crashes.
+     */
+    private final class Run {
+
+        private final Path file;
+        private final List<Shard> shards;
+        private final Semaphore ahead;
+        private final AtomicInteger next = new AtomicInteger();
+        private volatile boolean stopped;
+
+        private Run(Path file, List<Shard> shards, int maxShardsAhead) {
+            this.file = file;
+            this.shards = shards;
+            this.ahead = new Semaphore(maxShardsAhead);
+        }
+
+        private void dispatch(int slot) {
+            try {
+                while (!stopped) {
+                    ahead.acquire();
+                    final int index = next.getAndIncrement();
+                    if (stopped || index >= shards.size()) {
+                        stopped |= index >= shards.size();
+                        ahead.release();
+                        break;
+                    }
+                    pack(slot, shards.get(index));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void pack(int slot, Shard shard) {
+            int attempt = 1;
+            while (!shard.packages.isDone()) {
+                try {
+                    shard.packages.complete(workers[slot].pack(file, shard));
+                } catch (APIException e) {
+                    shard.packages.completeExceptionally(e);
+                } catch (IOException e) {
+                    if (attempt++ >= maxAttempts) {
+                        shard.packages.completeExceptionally(new SystemException(e));
+                    }
+                    restart(slot, shard);
+                }
+            }
+        }
+
+        private void restart(int slot, Shard shard) {
+            workers[slot].stop();
+            restarts.incrementAndGet();
+            try {
+                workers[slot] = start();
+            } catch (IOException e) {
+                shard.packages.completeExceptionally(new SystemException(e));
+            }
+        }
+
+        private byte[] await(int index) throws APIException {
+            final Shard shard = shards.get(index);
+            try {
+                return shard.packages.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SystemException(e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof APIException ?
+                    shift((APIException) e.getCause(), file, shard) :
+                    new SystemException(e.getCause());
+            }
+        }
+
+        /**
+         * Stops dispatching of the next shards and wakes up the dispatchers waiting for a permit.
+         */
+        private void stop() {
+            stopped = true;
+            ahead.release(workers.length);
+        }
+    }
+
+    /**
+     * Worker process with the streams of its requests and responses. The watchdog kills the process if it does not
+     * respond in time, so the blocked read of the response ends as if the worker has crashed.
+     */
+    private static final class Worker {
+
+        private final Process process;
+        private final DataOutputStream requests;
+        private final DataInputStream responses;
+        private final ScheduledExecutorService watchdog;
+        private final Duration responseTimeout;
+        private volatile boolean timedOut;
+
+        private Worker(Process process, ScheduledExecutorService watchdog, Duration responseTimeout) {
+            this.process = process;
+            this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.responses = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+            this.watchdog = watchdog;
+            this.responseTimeout = responseTimeout;
+        }
+
+        /**
+         * Sends the shard to the worker and waits for its packages.
+         *
+         * @throws APIException if a task of the shard is incorrect
+         * @throws IOException if the worker has crashed or has not responded in time
+         */
+        private byte[] pack(Path file, Shard shard) throws APIException, IOException {
+            requests.writeUTF(file.toAbsolutePath().toString());
+            requests.writeLong(shard.from);
+            requests.writeLong(shard.to);
+            requests.flush();
+            final ScheduledFuture<?> kill = watchdog.schedule(this::kill, responseTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            try {
+                return readResponse();
+            } catch (IOException e) {
+                throw timedOut ? new IOException("Worker has not responded in " + responseTimeout, e) : e;
+            } finally {
+                kill.cancel(false);
+            }
+        }
+
+        private byte[] readResponse() throws APIException, IOException {
+            final int status = responses.readByte();
+            if (status == ShardWorker.ERROR) {
+                throw ShardWorker.readError(responses);
+            } else if (status != ShardWorker.OK) {
+                throw new IOException("Unexpected status of the worker response: " + status);
+            }
+            final byte[] packages = new byte[responses.readInt()];
+            responses.readFully(packages);
+            return packages;
+        }
+
+        private void kill() {
+            timedOut = true;
+            process.destroyForcibly();
+        }
+
+        private void stop() {
+            try {
+                requests.close();
+                if (!process.waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (IOException e) {
+                process.destroyForcibly();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            } finally {
+                closeResponses();
+            }
+        }
+
+        private void closeResponses() {
+            try {
+                responses.close();
+            } catch (IOException e) {
+                // the process is stopped, nothing is read from the stream any more
+            }
+        }
+    }
+}
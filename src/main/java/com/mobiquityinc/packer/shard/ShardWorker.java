@@ -0,0 +1,144 @@
+package com.mobiquityinc.packer.shard;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.SystemException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.Packer;
+import com.mobiquityinc.packer.io.BytePackTaskReader;
+import com.mobiquityinc.packer.io.PackTaskSource;
+import com.mobiquityinc.packer.io.PackageWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Worker side of {@link ShardCoordinator}. The worker process reads requests from its standard input
+ * and writes responses to its standard output until the input is closed. All numbers are big-endian:
+ * <pre>
+ * request:  path of the file (modified UTF-8), first byte of the shard (long), byte after the shard (long)
+ * response: 0 (byte), length (int), packages of the shard in the text format
+ *           1 (byte), kind of the exception (byte), line in the shard or 0 (long), message (modified UTF-8)
+ * </pre>
+ * The shard is memory-mapped and packed with the given {@link Packer} in streaming mode, the first incorrect
+ * task stops packing of the shard and is reported with its line counted from the start of the shard.
+ */
+public final class ShardWorker {
+
+    static final int OK = 0;
+    static final int ERROR = 1;
+
+    private static final int VALIDATION = 0;
+    private static final int INCORRECT_INPUT = 1;
+    private static final int SYSTEM = 2;
+
+    private ShardWorker() {
+    }
+
+    /**
+     * Serves requests until the end of the input.
+     *
+     * @param packer packer to solve tasks with
+     * @param in stream of requests
+     * @param out stream of responses
+     * @throws IOException if a request can not be read or a response can not be written
+     */
+    public static void serve(Packer packer, InputStream in, OutputStream out) throws IOException {
+        final DataInputStream requests = new DataInputStream(new BufferedInputStream(in));
+        final DataOutputStream responses = new DataOutputStream(new BufferedOutputStream(out));
+        String file = readPath(requests);
+        while (file != null) {
+            final long from = requests.readLong();
+            final long to = requests.readLong();
+            final ByteArrayOutputStream packages = new ByteArrayOutputStream();
+            try {
+                pack(packer, Paths.get(file), from, to, packages);
+                responses.writeByte(OK);
+                responses.writeInt(packages.size());
+                packages.writeTo(responses);
+            } catch (APIException e) {
+                responses.writeByte(ERROR);
+                writeError(responses, e);
+            }
+            responses.flush();
+            file = readPath(requests);
+        }
+    }
+
+    /**
+     * Reads the error of the response, see {@link #serve}.
+     *
+     * @param responses stream of responses positioned after the status
+     * @return the exception thrown by the worker
+     * @throws IOException if the response can not be read
+     */
+    static APIException readError(DataInputStream responses) throws IOException {
+        final int kind = responses.readByte();
+        final long line = responses.readLong();
+        final String message = responses.readUTF();
+        final APIException error;
+        switch (kind) {
+            case VALIDATION:
+                error = new ValidationException(message, line);
+                break;
+            case INCORRECT_INPUT:
+                error = new IncorrectInputException(message, line);
+                break;
+            default:
+                error = new SystemException(new IOException(message));
+                break;
+        }
+        return error;
+    }
+
+    private static void writeError(DataOutputStream responses, APIException e) throws IOException {
+        if (e instanceof ValidationException) {
+            responses.writeByte(VALIDATION);
+            responses.writeLong(((ValidationException) e).getLine());
+            responses.writeUTF(e.getMessage());
+        } else if (e instanceof IncorrectInputException) {
+            responses.writeByte(INCORRECT_INPUT);
+            responses.writeLong(((IncorrectInputException) e).getLine());
+            responses.writeUTF(((IncorrectInputException) e).getReason());
+        } else {
+            responses.writeByte(SYSTEM);
+            responses.writeLong(0);
+            responses.writeUTF(String.valueOf(e.getMessage()));
+        }
+    }
+
+    private static String readPath(DataInputStream requests) throws IOException {
+        try {
+            return requests.readUTF();
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void pack(Packer packer, Path file, long from, long to, OutputStream out) throws APIException {
+        try (
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            PackTaskSource reader = new BytePackTaskReader(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from));
+            PackageWriter writer = new PackageWriter(out)) {
+            packer.pack(reader, writer);
+        } catch (APIException e) {
+            throw e;
+        } catch (NoSuchFileException e) {
+            throw new APIException.FileNotFoundException(e);
+        } catch (Exception e) {
+            throw new SystemException(e);
+        }
+    }
+}
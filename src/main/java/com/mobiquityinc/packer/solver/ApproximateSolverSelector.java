@@ -0,0 +1,59 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+
+/**
+ * Chooses {@link ProfitScalingSolver} with the given epsilon for big tasks, so the cost of every package
+ * is at least (1 - epsilon) of the best one. Small tasks (default up to 15 things) and tasks for which
+ * the exact dynamic programming needs a smaller table than the approximation are solved exactly
+ * by {@link SizeBasedSolverSelector}.
+ */
+public class ApproximateSolverSelector implements SolverSelector {
+
+    private static final int DEFAULT_EXACT_MAX_THINGS = 15;
+
+    private final int exactMaxThings;
+    private final ProfitScalingSolver profitScalingSolver;
+    private final SizeBasedSolverSelector exactSelector;
+
+    public ApproximateSolverSelector(double epsilon) {
+        this(epsilon, DEFAULT_EXACT_MAX_THINGS);
+    }
+
+    public ApproximateSolverSelector(double epsilon, int exactMaxThings) {
+        this.exactMaxThings = exactMaxThings;
+        this.profitScalingSolver = new ProfitScalingSolver(epsilon);
+        this.exactSelector = new SizeBasedSolverSelector(exactMaxThings);
+    }
+
+    public double getEpsilon() {
+        return profitScalingSolver.getEpsilon();
+    }
+
+    @Override
+    public PackSolver select(PackTask task) {
+        final int size = task.getThings().size();
+        return size > exactMaxThings && profitScalingSolver.isApplicable(task) &&
+            isCheaperThanExact(size, FixedPoint.toFixed(task.getMaxWeight())) ?
+            profitScalingSolver :
+            exactSelector.select(task);
+    }
+
+    @Override
+    public PackSolver select(PackTaskBatch batch, int task) {
+        final int size = batch.getTo(task) - batch.getFrom(task);
+        return size > exactMaxThings && profitScalingSolver.isApplicable(batch, task) &&
+            isCheaperThanExact(size, batch.getMaxWeight(task)) ?
+            profitScalingSolver :
+            exactSelector.select(batch, task);
+    }
+
+    /**
+     * Compares the keep-table of the approximation with the one of {@link DynamicProgrammingSolver}.
+     */
+    private boolean isCheaperThanExact(int thingsNumber, long maxWeight) {
+        return profitScalingSolver.tableSize(thingsNumber) < (double) thingsNumber * (maxWeight + 1);
+    }
+}
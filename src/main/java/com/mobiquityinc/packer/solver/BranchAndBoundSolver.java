@@ -0,0 +1,329 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.validation.task.MaxThingsNumberRule;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Solves the task with depth-first branch-and-bound search. Things are sorted by the cost to weight ratio,
+ * a branch is cut if the thing does not fit the rest of the limit or if the upper bound of the branch
+ * (the solution of the fractional knapsack problem for the rest of the things) can not beat the best package.
+ *
+ * Weights and costs are taken in the {@link FixedPoint} representation to compare sums exactly.
+ * Sets of the chosen things are kept as bit masks of positions, so up to 63 things are supported.
+ * Ties are resolved in the same way as {@link BruteForceSolver} does: the lightest package is preferred
+ * and then the one with the smallest mask.
+ *
+ * When the solver runs in a {@link java.util.concurrent.ForkJoinPool} and the task is big enough, the first
+ * levels of the search tree are split into subtasks, so idle threads of the pool steal parts of the search.
+ * Subtasks share the best package to cut branches, the result does not depend on the order they complete in.
+ *
+ * The search starts from the greedy solution: things are taken in the order of the ratio while they fit.
+ * If the deadline expires the search stops and the best package found so far is returned with the gap
+ * between the upper bound of the root of the search tree and its cost.
+ */
+public class BranchAndBoundSolver extends FixedPointSolver {
+
+    private static final MaxThingsNumberRule UP_TO_63_THINGS = new MaxThingsNumberRule(63);
+
+    private static final int PARALLEL_MIN_THINGS = 24;
+
+    private static final int SPLIT_DEPTH = 8;
+
+    private static final int DEADLINE_CHECK_MASK = 1024 - 1;
+
+    /**
+     * Checks if the task can be solved with this algorithm.
+     *
+     * @param task the task to check
+     * @return <code>true</code> if the task can be solved else returns <code>false</code>
+     */
+    public boolean isApplicable(PackTask task) {
+        return task.getThings().size() < Long.SIZE && FixedPoint.isRepresentable(task);
+    }
+
+    /**
+     * Checks if the task of the batch can be solved with this algorithm.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task in the batch
+     * @return <code>true</code> if the task can be solved else returns <code>false</code>
+     */
+    public boolean isApplicable(PackTaskBatch batch, int task) {
+        return batch.getTo(task) - batch.getFrom(task) < Long.SIZE;
+    }
+
+    /**
+     * Estimates the cost as the size of the keep-table of {@link DynamicProgrammingSolver}, bounds are assumed
+     * to cut the search tree to about the same number of nodes.
+     *
+     * @param task the task to estimate
+     * @return estimated number of steps
+     */
+    @Override
+    public double estimateCost(PackTask task) {
+        return (double) task.getThings().size() * FixedPoint.toFixed(task.getMaxWeight());
+    }
+
+    @Override
+    public double estimateCost(PackTaskBatch batch, int task) {
+        return (double) (batch.getTo(task) - batch.getFrom(task)) * batch.getMaxWeight(task);
+    }
+
+    /**
+     * Compares things by descending cost to weight ratio: c1 / w1 > c2 / w2 <=> c1 * w2 > c2 * w1.
+     * Things without weight go first, equal ratios are ordered by position.
+     */
+    static int compareRatio(long[] weights, long[] costs, int a, int b) {
+        final int result = weights[a] == 0 || weights[b] == 0 ?
+            Boolean.compare(weights[b] == 0, weights[a] == 0) :
+            Long.compare(costs[b] * weights[a], costs[a] * weights[b]);
+        return result != 0 ? result : Integer.compare(a, b);
+    }
+
+    @Override
+    public void solve(PackTaskBatch batch, int task) throws APIException {
+        solve(batch, task, Deadline.NONE);
+    }
+
+    @Override
+    public void solve(PackTaskBatch batch, int task, Deadline deadline) throws APIException {
+        final int size = batch.getTo(task) - batch.getFrom(task);
+        UP_TO_63_THINGS.validateThingsNumber(size);
+        final Search search = new Search(batch, task, size >= PARALLEL_MIN_THINGS && ForkJoinTask.inForkJoinPool(), deadline);
+        search.run();
+        if (search.bestCost == 0) {
+            Packages.markZeroCost(batch, task);
+        } else {
+            Packages.mark(batch, task, search.bestMask);
+        }
+        batch.setGap(task, search.stopped.get() ? Math.max(0, search.rootBound - search.bestCost) : 0);
+    }
+
+    /**
+     * State of the search for one task.
+     */
+    private static final class Search {
+
+        private final int[] positions;
+        private final long[] weights;
+        private final long[] costs;
+        private final long capacity;
+        // best package found by all subtasks of the parallel search, null for the sequential one
+        private final AtomicReference<Best> shared;
+        private final Deadline deadline;
+        // set when the search is stopped by the deadline, shared by all subtasks
+        private final AtomicBoolean stopped;
+
+        private long rootBound;
+        private long nodes;
+        private boolean stop;
+        private long bestCost;
+        private long bestWeight;
+        private long bestMask;
+
+        private Search(PackTaskBatch batch, int task, boolean parallel, Deadline deadline) {
+            final int size = batch.getTo(task) - batch.getFrom(task);
+            final long[] thingWeights = Arrays.copyOfRange(batch.getWeights(), batch.getFrom(task), batch.getTo(task));
+            final long[] thingCosts = Arrays.copyOfRange(batch.getCosts(), batch.getFrom(task), batch.getTo(task));
+            final Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> compareRatio(thingWeights, thingCosts, a, b));
+            this.positions = new int[size];
+            this.weights = new long[size];
+            this.costs = new long[size];
+            for (int i = 0; i < size; i++) {
+                positions[i] = order[i];
+                weights[i] = thingWeights[order[i]];
+                costs[i] = thingCosts[order[i]];
+            }
+            // strict inequality of the weight to the limit
+            this.capacity = batch.getMaxWeight(task) - 1;
+            this.shared = parallel ? new AtomicReference<>(new Best(0, 0, 0)) : null;
+            this.deadline = deadline;
+            this.stopped = new AtomicBoolean();
+        }
+
+        private Search(Search parent) {
+            this.positions = parent.positions;
+            this.weights = parent.weights;
+            this.costs = parent.costs;
+            this.capacity = parent.capacity;
+            this.shared = parent.shared;
+            this.deadline = parent.deadline;
+            this.stopped = parent.stopped;
+            adopt(shared.get());
+        }
+
+        private void run() {
+            if (capacity >= 0) {
+                rootBound = upperBound(0, 0, 0);
+                seed();
+                visit(0, 0, 0, 0);
+            }
+            if (shared != null) {
+                adopt(shared.get());
+            }
+        }
+
+        /**
+         * Starts from the greedy solution: things are taken in the order of the ratio while they fit.
+         */
+        private void seed() {
+            long cost = 0;
+            long weight = 0;
+            long mask = 0;
+            for (int i = 0; i < positions.length; i++) {
+                if (weight + weights[i] <= capacity) {
+                    cost += costs[i];
+                    weight += weights[i];
+                    mask |= 1L << positions[i];
+                }
+            }
+            if (cost > 0 && isBetter(cost, weight, mask)) {
+                bestCost = cost;
+                bestWeight = weight;
+                bestMask = mask;
+                publish();
+            }
+        }
+
+        private void visit(int k, long cost, long weight, long mask) {
+            if (isBetter(cost, weight, mask)) {
+                bestCost = cost;
+                bestWeight = weight;
+                bestMask = mask;
+                publish();
+            }
+            if ((++nodes & DEADLINE_CHECK_MASK) == 0 && !stop) {
+                stop = stopped.get() || deadline.isExpired();
+                if (stop) {
+                    stopped.set(true);
+                }
+            }
+            if (!stop && k < positions.length && canImprove(upperBound(k, cost, weight), weight)) {
+                final boolean fits = weight + weights[k] <= capacity;
+                if (fits && shared != null && k < SPLIT_DEPTH) {
+                    ForkJoinTask.invokeAll(
+                        new Branch(this, k + 1, cost + costs[k], weight + weights[k], mask | 1L << positions[k]),
+                        new Branch(this, k + 1, cost, weight, mask)
+                    );
+                } else {
+                    if (fits) {
+                        visit(k + 1, cost + costs[k], weight + weights[k], mask | 1L << positions[k]);
+                    }
+                    visit(k + 1, cost, weight, mask);
+                }
+            }
+        }
+
+        /**
+         * Takes the best package found by the other subtasks if it's better than the own one.
+         */
+        private void adopt(Best best) {
+            if (isBetter(best.cost, best.weight, best.mask)) {
+                bestCost = best.cost;
+                bestWeight = best.weight;
+                bestMask = best.mask;
+            }
+        }
+
+        /**
+         * Shares the own best package with the other subtasks if it's better than the shared one.
+         */
+        private void publish() {
+            if (shared != null) {
+                final Best candidate = new Best(bestCost, bestWeight, bestMask);
+                Best current = shared.get();
+                while (candidate.isBetter(current) && !shared.compareAndSet(current, candidate)) {
+                    current = shared.get();
+                }
+            }
+        }
+
+        private boolean isBetter(long cost, long weight, long mask) {
+            return cost > bestCost || cost == bestCost && (weight < bestWeight || weight == bestWeight && mask < bestMask);
+        }
+
+        private boolean canImprove(long bound, long weight) {
+            if (shared != null) {
+                adopt(shared.get());
+            }
+            return bound > bestCost || bound == bestCost && weight <= bestWeight;
+        }
+
+        private long upperBound(int k, long cost, long weight) {
+            long bound = cost;
+            long rest = capacity - weight;
+            boolean filled = false;
+            for (int i = k; i < positions.length && !filled; i++) {
+                if (weights[i] <= rest) {
+                    bound += costs[i];
+                    rest -= weights[i];
+                } else {
+                    // fractional part of the first thing which does not fit
+                    bound += costs[i] * rest / weights[i];
+                    filled = true;
+                }
+            }
+            return bound;
+        }
+    }
+
+    /**
+     * Package found by the parallel search.
+     */
+    private static final class Best {
+
+        private final long cost;
+        private final long weight;
+        private final long mask;
+
+        private Best(long cost, long weight, long mask) {
+            this.cost = cost;
+            this.weight = weight;
+            this.mask = mask;
+        }
+
+        private boolean isBetter(Best other) {
+            return cost > other.cost || cost == other.cost && (weight < other.weight || weight == other.weight && mask < other.mask);
+        }
+    }
+
+    /**
+     * Subtask of the parallel search visiting the subtree of the given node.
+     */
+    private static final class Branch extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Search parent;
+        private final int k;
+        private final long cost;
+        private final long weight;
+        private final long mask;
+
+        private Branch(Search parent, int k, long cost, long weight, long mask) {
+            this.parent = parent;
+            this.k = k;
+            this.cost = cost;
+            this.weight = weight;
+            this.mask = mask;
+        }
+
+        @Override
+        protected void compute() {
+            new Search(parent).visit(k, cost, weight, mask);
+        }
+    }
+}
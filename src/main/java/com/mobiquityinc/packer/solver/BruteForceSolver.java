@@ -0,0 +1,60 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.validation.ValidationRule;
+import com.mobiquityinc.packer.validation.task.MaxThingsNumberRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies canonical knapsack problem brute force algorithm (without branch-and-bound improvement) to solve the task.
+ * Only slight modification was made to the canonical implementation to find solution with the minimum weight.
+ * Checks all 2^n subsets of things, so it's applicable only for small tasks (up to 15 things).
+ */
+public class BruteForceSolver implements PackSolver {
+
+    private static final ValidationRule<PackTask> UP_TO_15_THINGS = new MaxThingsNumberRule(15);
+
+    @Override
+    public Package solve(PackTask task) throws APIException {
+        UP_TO_15_THINGS.validate(task);
+        double bestCost = 0;
+        double bestWeight = Double.MAX_VALUE;
+        int bestPack = 0;
+        for (int i = 1; i < (1 << task.getThings().size()); i++) {
+            double costSum = 0;
+            double weightSum = 0;
+            for (int j = 0; j < task.getThings().size(); j++) {
+                if ((i & (1 << j)) > 0) {
+                    final Thing includedThing = task.getThings().get(j);
+                    costSum += includedThing.getCost();
+                    weightSum += includedThing.getWeight();
+                }
+            }
+            if (weightSum < task.getMaxWeight() && isBetter(weightSum, costSum, bestWeight, bestCost)) {
+                bestPack = i;
+                bestWeight = weightSum;
+                bestCost = costSum;
+            }
+        }
+        return createPackage(task.getThings(), bestPack);
+    }
+
+    private boolean isBetter(double weightSum, double costSum, double bestWeight, double bestCost) {
+        return costSum > bestCost || costSum == bestCost && bestWeight > weightSum;
+    }
+
+    private Package createPackage(List<Thing> allThings, int set) {
+        final List<Thing> packageThings = new ArrayList<>();
+        for (int j = 0; j < allThings.size(); j++) {
+            if ((set & (1 << j)) > 0) {
+                packageThings.add(allThings.get(j));
+            }
+        }
+        return new Package(packageThings);
+    }
+}
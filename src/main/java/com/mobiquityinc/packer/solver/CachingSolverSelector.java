@@ -0,0 +1,102 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+
+/**
+ * Puts {@link PackageCache} in front of the solvers chosen by the given selector, so the same tasks
+ * repeated in the input are solved only once. Use it as a selector of {@link com.mobiquityinc.packer.Packer}
+ * to enable caching. Deadlines are passed to the solvers on misses, tasks of batches are cached
+ * in the object representation.
+ */
+public class CachingSolverSelector implements SolverSelector {
+
+    private final SolverSelector delegate;
+    private final PackageCache cache;
+
+    public CachingSolverSelector(SolverSelector delegate, PackageCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    public CachingSolverSelector(SolverSelector delegate, int cacheSize) {
+        this(delegate, new PackageCache(cacheSize));
+    }
+
+    @Override
+    public PackSolver select(PackTask task) {
+        return new CachingSolver(delegate.select(task));
+    }
+
+    @Override
+    public PackSolver select(PackTaskBatch batch, int task) {
+        return new CachingSolver(delegate.select(batch, task));
+    }
+
+    public PackageCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Solver which looks up the cache before the chosen solver.
+     */
+    private final class CachingSolver implements PackSolver {
+
+        private final PackSolver solver;
+
+        private CachingSolver(PackSolver solver) {
+            this.solver = solver;
+        }
+
+        @Override
+        public Package solve(PackTask task) throws APIException {
+            return cache.get(task, solver);
+        }
+
+        @Override
+        public Package solve(PackTask task, Deadline deadline) throws APIException {
+            return cache.get(task, solver, deadline);
+        }
+
+        @Override
+        public void solve(PackTaskBatch batch, int task) throws APIException {
+            solve(batch, task, Deadline.NONE);
+        }
+
+        @Override
+        public void solve(PackTaskBatch batch, int task, Deadline deadline) throws APIException {
+            final PackTask packTask = batch.toPackTask(task);
+            final Package pack = cache.get(packTask, solver, deadline);
+            Packages.mark(batch, task, packTask.getThings(), pack);
+            batch.setGap(task, FixedPoint.toFixed(pack.getGap()));
+        }
+
+        @Override
+        public Class<?> getEffectiveSolverClass() {
+            return solver.getEffectiveSolverClass();
+        }
+
+        @Override
+        public double estimateCost(PackTask task) {
+            return solver.estimateCost(task);
+        }
+
+        @Override
+        public double estimateCost(PackTaskBatch batch, int task) {
+            return solver.estimateCost(batch, task);
+        }
+
+        @Override
+        public long estimateMemory(PackTask task) {
+            return solver.estimateMemory(task);
+        }
+
+        @Override
+        public long estimateMemory(PackTaskBatch batch, int task) {
+            return solver.estimateMemory(batch, task);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.metrics.PackerMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * Chooses the exact algorithm which is predicted to solve the task fastest by the {@link CostModel}. Candidates are
+ * {@link GrayCodeSolver}, {@link DynamicProgrammingSolver}, {@link BranchAndBoundSolver} and
+ * {@link MeetInTheMiddleSolver}, all of them find the same package, so the choice affects only the time. Unlike
+ * {@link SizeBasedSolverSelector} there is no fixed cut by the number of things: the choice depends on the size,
+ * the package limit and the precision of weights through the steps estimated by every applicable solver and on the
+ * nanoseconds per step measured on this machine. Tasks no candidate is applicable for are given to
+ * {@link BruteForceSolver}, it rejects too big tasks.
+ *
+ * The model is filled by {@link #calibrate(int)}, which solves random tasks of all sizes with every candidate,
+ * or loaded from the saved profile, see {@link CostModel#load(java.nio.file.Path)}. Then the model keeps learning:
+ * chosen solvers are wrapped to measure solving and every optimal package updates the model, so correlated data
+ * making a solver slower than calibrated moves next tasks to another one. Packages found by the deadline are not
+ * learnt from, the search was cut. Decisions and their accuracy are counted by solvers, see {@link #getStatistics()},
+ * and published to {@link PackerMetrics} by groups of tasks, see {@link PackerMetrics#getPredictionStatistics()}.
+ *
+ * The choice always follows the model, exploration comes from the model itself: nanoseconds per step of a solver
+ * which is not chosen decay (see {@link CostModel#DECAY_HALF_LIFE}), so a solver which was observed slow once
+ * is tried again and the model recovers if the slowness was temporary.
+ */
+public class CalibratedSolverSelector implements SolverSelector {
+
+    public static final int DEFAULT_CALIBRATION_TASKS = 16;
+
+    // representatives of the groups of tasks by the number of things in the cost model
+    private static final int[] CALIBRATION_SIZES = {1, 3, 6, 12, 24, 48};
+    private static final int CALIBRATION_WARM_UP_ROUNDS = 2;
+    private static final double CALIBRATION_MAX_STEPS = 1 << 24;
+    private static final long CALIBRATION_SEED = 25;
+
+    private final CostModel model;
+    private final PackerMetrics metrics;
+    private final List<ObservedSolver> candidates;
+    private final BruteForceSolver bruteForceSolver = new BruteForceSolver();
+
+    public CalibratedSolverSelector(CostModel model, PackerMetrics metrics) {
+        this.model = model;
+        this.metrics = metrics;
+        final GrayCodeSolver grayCodeSolver = new GrayCodeSolver();
+        final DynamicProgrammingSolver dynamicProgrammingSolver = new DynamicProgrammingSolver();
+        final BranchAndBoundSolver branchAndBoundSolver = new BranchAndBoundSolver();
+        final MeetInTheMiddleSolver meetInTheMiddleSolver = new MeetInTheMiddleSolver();
+        this.candidates = Arrays.asList(
+            new ObservedSolver(grayCodeSolver, grayCodeSolver::isApplicable, grayCodeSolver::isApplicable),
+            new ObservedSolver(dynamicProgrammingSolver, dynamicProgrammingSolver::isApplicable, dynamicProgrammingSolver::isApplicable),
+            new ObservedSolver(branchAndBoundSolver, branchAndBoundSolver::isApplicable, branchAndBoundSolver::isApplicable),
+            // it has no implementation over the batch arrays, tasks of batches are left to the other candidates
+            new ObservedSolver(meetInTheMiddleSolver, meetInTheMiddleSolver::isApplicable, (batch, task) -> false)
+        );
+    }
+
+    public CalibratedSolverSelector(CostModel model) {
+        this(model, PackerMetrics.getDefault());
+    }
+
+    public CalibratedSolverSelector() {
+        this(new CostModel());
+    }
+
+    /**
+     * Creates the selector with the new model and calibrates it, see {@link #calibrate(int)}.
+     *
+     * @return calibrated selector
+     */
+    public static CalibratedSolverSelector calibrated() {
+        final CalibratedSolverSelector selector = new CalibratedSolverSelector();
+        selector.calibrate(DEFAULT_CALIBRATION_TASKS);
+        return selector;
+    }
+
+    @Override
+    public PackSolver select(PackTask task) {
+        final int size = task.getThings().size();
+        PackSolver solver = bruteForceSolver;
+        double nanos = Double.POSITIVE_INFINITY;
+        for (ObservedSolver candidate : candidates) {
+            if (candidate.applicable.test(task)) {
+                final double predicted = candidate.predictNanos(size, candidate.solver.estimateCost(task));
+                if (predicted < nanos) {
+                    solver = candidate;
+                    nanos = predicted;
+                }
+            }
+        }
+        return solver;
+    }
+
+    @Override
+    public PackSolver select(PackTaskBatch batch, int task) {
+        final int size = batch.getTo(task) - batch.getFrom(task);
+        PackSolver solver = bruteForceSolver;
+        double nanos = Double.POSITIVE_INFINITY;
+        for (ObservedSolver candidate : candidates) {
+            if (candidate.batchApplicable.test(batch, task)) {
+                final double predicted = candidate.predictNanos(size, candidate.solver.estimateCost(batch, task));
+                if (predicted < nanos) {
+                    solver = candidate;
+                    nanos = predicted;
+                }
+            }
+        }
+        return solver;
+    }
+
+    /**
+     * Measures the candidates on random tasks of every group of the model: the given number of tasks of each size
+     * is solved by every applicable candidate, first to warm up the code and then to observe the time. Candidates
+     * which would take too long for the size are skipped, they are left to be learnt at runtime.
+     *
+     * @param tasksPerSize number of tasks of every size
+     */
+    public void calibrate(int tasksPerSize) {
+        final Random random = new Random(CALIBRATION_SEED);
+        for (int size : CALIBRATION_SIZES) {
+            final List<PackTask> tasks = new ArrayList<>(tasksPerSize);
+            for (int i = 0; i < tasksPerSize; i++) {
+                tasks.add(randomTask(random, size));
+            }
+            for (ObservedSolver candidate : candidates) {
+                for (int round = 0; round <= CALIBRATION_WARM_UP_ROUNDS; round++) {
+                    for (PackTask task : tasks) {
+                        candidate.calibrate(task, round == CALIBRATION_WARM_UP_ROUNDS);
+                    }
+                }
+            }
+        }
+    }
+
+    public CostModel getModel() {
+        return model;
+    }
+
+    /**
+     * Statistics of the tasks solved by every candidate.
+     *
+     * @return statistics in the order of candidates
+     */
+    public List<SelectionStatistics> getStatistics() {
+        final List<SelectionStatistics> statistics = new ArrayList<>(candidates.size());
+        candidates.forEach(candidate -> statistics.add(candidate.statistics));
+        return statistics;
+    }
+
+    /**
+     * Random task of the range of the default validation rules.
+     */
+    private static PackTask randomTask(Random random, int size) {
+        final List<Thing> things = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            things.add(new Thing(i + 1, random.nextInt(100 * 100 + 1) / 100.0, (double) random.nextInt(100 + 1)));
+        }
+        return new PackTask(random.nextInt(100 * 100 + 1) / 100.0, things);
+    }
+
+    /**
+     * Applicability of the solver to the task of the batch.
+     */
+    @FunctionalInterface
+    private interface BatchPredicate {
+
+        boolean test(PackTaskBatch batch, int task);
+    }
+
+    /**
+     * Candidate solver which measures solving of tasks and teaches the model. Its cost is the predicted time,
+     * so the tasks solved by different candidates are comparable when they are scheduled.
+     */
+    private final class ObservedSolver implements PackSolver {
+
+        private final PackSolver solver;
+        private final Predicate<PackTask> applicable;
+        private final BatchPredicate batchApplicable;
+        private final SelectionStatistics statistics;
+
+        private ObservedSolver(PackSolver solver, Predicate<PackTask> applicable, BatchPredicate batchApplicable) {
+            this.solver = solver;
+            this.applicable = applicable;
+            this.batchApplicable = batchApplicable;
+            this.statistics = new SelectionStatistics(solver.getClass().getName());
+        }
+
+        @Override
+        public Package solve(PackTask task) throws APIException {
+            return solve(task, Deadline.NONE);
+        }
+
+        @Override
+        public Package solve(PackTask task, Deadline deadline) throws APIException {
+            final int size = task.getThings().size();
+            final double steps = solver.estimateCost(task);
+            final double predicted = predictNanos(size, steps);
+            final long start = System.nanoTime();
+            final Package pack = solver.solve(task, deadline);
+            observe(size, steps, predicted, System.nanoTime() - start, pack.isOptimal());
+            return pack;
+        }
+
+        @Override
+        public void solve(PackTaskBatch batch, int task) throws APIException {
+            solve(batch, task, Deadline.NONE);
+        }
+
+        @Override
+        public void solve(PackTaskBatch batch, int task, Deadline deadline) throws APIException {
+            final int size = batch.getTo(task) - batch.getFrom(task);
+            final double steps = solver.estimateCost(batch, task);
+            final double predicted = predictNanos(size, steps);
+            final long start = System.nanoTime();
+            solver.solve(batch, task, deadline);
+            observe(size, steps, predicted, System.nanoTime() - start, batch.getGap(task) == 0);
+        }
+
+        @Override
+        public Class<?> getEffectiveSolverClass() {
+            return solver.getEffectiveSolverClass();
+        }
+
+        @Override
+        public double estimateCost(PackTask task) {
+            return predictNanos(task.getThings().size(), solver.estimateCost(task));
+        }
+
+        @Override
+        public double estimateCost(PackTaskBatch batch, int task) {
+            return predictNanos(batch.getTo(task) - batch.getFrom(task), solver.estimateCost(batch, task));
+        }
+
+        @Override
+        public long estimateMemory(PackTask task) {
+            return solver.estimateMemory(task);
+        }
+
+        @Override
+        public long estimateMemory(PackTaskBatch batch, int task) {
+            return solver.estimateMemory(batch, task);
+        }
+
+        private double predictNanos(int size, double steps) {
+            return model.predictNanos(solver.getClass(), size, steps);
+        }
+
+        private void observe(int size, double steps, double predicted, long nanos, boolean optimal) {
+            statistics.record(nanos, predicted);
+            metrics.recordPrediction(solver.getClass(), size, (long) predicted, nanos);
+            if (optimal) {
+                model.observe(solver.getClass(), size, steps, nanos);
+            }
+        }
+
+        /**
+         * Solves the task if the candidate is applicable and not too slow for it, the time is learnt if required.
+         */
+        private void calibrate(PackTask task, boolean learn) {
+            final double steps = solver.estimateCost(task);
+            if (applicable.test(task) && steps <= CALIBRATION_MAX_STEPS) {
+                try {
+                    final long start = System.nanoTime();
+                    solver.solve(task);
+                    if (learn) {
+                        model.observe(solver.getClass(), task.getThings().size(), steps, System.nanoTime() - start);
+                    }
+                } catch (APIException e) {
+                    throw new IllegalStateException("Calibration task can not be solved by " + solver.getClass().getName(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.mobiquityinc.packer.solver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Runtime cost model of the solvers: the time to solve a task is predicted as the number of steps estimated
+ * by the solver (see {@link PackSolver#estimateCost}) times the nanoseconds per step measured for the solver.
+ * Steps of different algorithms take different time and the time of a step depends on the size of the task
+ * (caches, bounds cutting the search), so nanoseconds per step are kept for every solver and group of tasks
+ * by the number of things: 1, 2-3, 4-7, ..., 64 and more.
+ *
+ * The model learns from every observed solving: nanoseconds per step of the group move to the observed value
+ * by its moving average over the last {@link #LEARNING_WINDOW} observations, so the model follows the machine
+ * and the data. Groups without observations have 1 nanosecond per step, i.e. the steps are compared as is.
+ * Updates are lock-free, the model is shared by the threads solving tasks.
+ *
+ * A solver is observed only when it's chosen, so a solver observed slow once could be never chosen again
+ * and never corrected. To explore, nanoseconds per step of a solver used in predictions halve every
+ * {@link #DECAY_HALF_LIFE} observations of the other solvers in the group since the solver was observed there last.
+ * A stale solver gets cheaper until it's chosen again, its next observation restores the learnt value.
+ * A solver which is really slower is retried rarely: the more it's slower, the longer it takes to decay.
+ *
+ * The model can be saved to a properties file and loaded later, so calibration is not repeated at every start.
+ */
+public final class CostModel {
+
+    /**
+     * Number of the last observations the nanoseconds per step are averaged over.
+     */
+    public static final int LEARNING_WINDOW = 32;
+
+    /**
+     * Number of observations of the other solvers of the group after which the predictions of a solver
+     * not observed meanwhile halve.
+     */
+    public static final int DECAY_HALF_LIFE = 4096;
+
+    private static final int THINGS_GROUPS = 7;
+
+    private static final double DEFAULT_NANOS_PER_STEP = 1;
+
+    private static final String NANOS_PER_STEP = ".nanosPerStep.";
+    private static final String OBSERVATIONS = ".observations.";
+
+    private final Map<String, Coefficients> solvers = new ConcurrentHashMap<>();
+    // observations of all solvers by groups, the clock of the decay
+    private final AtomicLongArray groupObservations = new AtomicLongArray(THINGS_GROUPS);
+
+    /**
+     * Loads the model saved by {@link #save(Path)}.
+     *
+     * @param file properties file of the model
+     * @return loaded model
+     * @throws IOException if the file can not be read
+     */
+    public static CostModel load(Path file) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        final CostModel model = new CostModel();
+        for (String key : properties.stringPropertyNames()) {
+            final int separator = key.indexOf(NANOS_PER_STEP);
+            if (separator > 0) {
+                final String solver = key.substring(0, separator);
+                final String group = key.substring(separator + NANOS_PER_STEP.length());
+                final Coefficients coefficients = model.coefficients(solver);
+                final int i = Integer.parseInt(group);
+                coefficients.nanosPerStep.set(i, Double.doubleToLongBits(Double.parseDouble(properties.getProperty(key))));
+                coefficients.observations.set(i, Long.parseLong(properties.getProperty(solver + OBSERVATIONS + group, "1")));
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Saves nanoseconds per step and numbers of observations of the groups which have them.
+     *
+     * @param file properties file of the model
+     * @throws IOException if the file can not be written
+     */
+    public void save(Path file) throws IOException {
+        final Properties properties = new Properties();
+        solvers.forEach((solver, coefficients) -> {
+            for (int i = 0; i < THINGS_GROUPS; i++) {
+                final long observations = coefficients.observations.get(i);
+                if (observations > 0) {
+                    properties.setProperty(solver + NANOS_PER_STEP + i, Double.toString(coefficients.getNanosPerStep(i)));
+                    properties.setProperty(solver + OBSERVATIONS + i, Long.toString(observations));
+                }
+            }
+        });
+        try (OutputStream out = Files.newOutputStream(file)) {
+            properties.store(out, "Nanoseconds per step of the solvers by groups of tasks of 2^i to 2^(i+1)-1 things");
+        }
+    }
+
+    /**
+     * Predicts the time to solve the task.
+     *
+     * @param solver class of the solver
+     * @param things number of things in the task
+     * @param steps number of steps estimated by the solver
+     * @return predicted time in nanoseconds
+     */
+    public double predictNanos(Class<?> solver, int things, double steps) {
+        final Coefficients coefficients = solvers.get(solver.getName());
+        return (coefficients == null ? DEFAULT_NANOS_PER_STEP : decayedNanosPerStep(coefficients, group(things))) *
+            Math.max(steps, 1);
+    }
+
+    /**
+     * Learns from the observed time of solving of the task.
+     *
+     * @param solver class of the solver
+     * @param things number of things in the task
+     * @param steps number of steps estimated by the solver
+     * @param nanos observed time in nanoseconds
+     */
+    public void observe(Class<?> solver, int things, double steps, long nanos) {
+        final Coefficients coefficients = coefficients(solver.getName());
+        final int group = group(things);
+        final double sample = nanos / Math.max(steps, 1);
+        final long observations = coefficients.observations.incrementAndGet(group);
+        final double weight = 1.0 / Math.min(observations, LEARNING_WINDOW);
+        long bits = coefficients.nanosPerStep.get(group);
+        long updated = Double.doubleToLongBits(Double.longBitsToDouble(bits) * (1 - weight) + sample * weight);
+        while (!coefficients.nanosPerStep.compareAndSet(group, bits, updated)) {
+            bits = coefficients.nanosPerStep.get(group);
+            updated = Double.doubleToLongBits(Double.longBitsToDouble(bits) * (1 - weight) + sample * weight);
+        }
+        coefficients.lastObserved.set(group, groupObservations.incrementAndGet(group));
+    }
+
+    /**
+     * Checks whether the model has observations, a new model has none until it's calibrated.
+     *
+     * @return <code>true</code> if nothing is observed else returns <code>false</code>
+     */
+    public boolean isEmpty() {
+        return solvers.isEmpty();
+    }
+
+    /**
+     * Nanoseconds per step of the solver for tasks of the size as they are learnt, without the decay.
+     *
+     * @param solver class of the solver
+     * @param things number of things in the task
+     * @return nanoseconds per step
+     */
+    public double getNanosPerStep(Class<?> solver, int things) {
+        final Coefficients coefficients = solvers.get(solver.getName());
+        return coefficients == null ? DEFAULT_NANOS_PER_STEP : coefficients.getNanosPerStep(group(things));
+    }
+
+    /**
+     * Number of observations of the solver for tasks of the size, including the ones of calibration.
+     *
+     * @param solver class of the solver
+     * @param things number of things in the task
+     * @return number of observations
+     */
+    public long getObservations(Class<?> solver, int things) {
+        final Coefficients coefficients = solvers.get(solver.getName());
+        return coefficients == null ? 0 : coefficients.observations.get(group(things));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder text = new StringBuilder();
+        new TreeMap<>(solvers).forEach((solver, coefficients) -> {
+            text.append(solver).append(':');
+            for (int i = 0; i < THINGS_GROUPS; i++) {
+                if (coefficients.observations.get(i) > 0) {
+                    text.append(' ').append(1 << i).append("+=")
+                        .append(String.format(Locale.ROOT, "%.3f", coefficients.getNanosPerStep(i)));
+                }
+            }
+            text.append('\n');
+        });
+        return text.toString();
+    }
+
+    private Coefficients coefficients(String solver) {
+        Coefficients coefficients = solvers.get(solver);
+        if (coefficients == null) {
+            coefficients = solvers.computeIfAbsent(solver, s -> new Coefficients());
+        }
+        return coefficients;
+    }
+
+    /**
+     * Nanoseconds per step of the group decayed by the number of observations of the other solvers since the last
+     * observation of the solver, groups without observations keep the default.
+     */
+    private double decayedNanosPerStep(Coefficients coefficients, int group) {
+        final double nanosPerStep = coefficients.getNanosPerStep(group);
+        final long stale = groupObservations.get(group) - coefficients.lastObserved.get(group);
+        return coefficients.observations.get(group) == 0 || stale <= 0 ?
+            nanosPerStep :
+            nanosPerStep * Math.pow(2, -(double) stale / DECAY_HALF_LIFE);
+    }
+
+    private static int group(int things) {
+        return Math.min(THINGS_GROUPS - 1, Math.max(0, Integer.SIZE - 1 - Integer.numberOfLeadingZeros(things)));
+    }
+
+    /**
+     * Nanoseconds per step as bits of doubles, numbers of observations and the observations of the group
+     * at the last observation of the solver by groups of tasks.
+     */
+    private static final class Coefficients {
+
+        private final AtomicLongArray nanosPerStep = new AtomicLongArray(THINGS_GROUPS);
+        private final AtomicLongArray observations = new AtomicLongArray(THINGS_GROUPS);
+        private final AtomicLongArray lastObserved = new AtomicLongArray(THINGS_GROUPS);
+
+        private Coefficients() {
+            for (int i = 0; i < THINGS_GROUPS; i++) {
+                nanosPerStep.set(i, Double.doubleToLongBits(DEFAULT_NANOS_PER_STEP));
+            }
+        }
+
+        private double getNanosPerStep(int group) {
+            return Double.longBitsToDouble(nanosPerStep.get(group));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mobiquityinc.packer.solver;
+
+import java.time.Duration;
+
+/**
+ * Point in time, measured with {@link System#nanoTime()}, when a solver should stop the search and return
+ * the best package found so far.
+ */
+public final class Deadline {
+
+    /**
+     * Deadline which never expires.
+     */
+    public static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    private final long nanoTime;
+
+    private Deadline(long nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Creates deadline expiring after the given timeout from now.
+     *
+     * @param timeout timeout, <code>null</code> means no deadline
+     * @return created deadline
+     */
+    public static Deadline after(Duration timeout) {
+        return timeout == null ? NONE : new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public boolean isExpired() {
+        return this != NONE && System.nanoTime() - nanoTime >= 0;
+    }
+
+    /**
+     * Time left before the deadline.
+     *
+     * @return time left in nanoseconds, not negative
+     */
+    public long remainingNanos() {
+        return this == NONE ? Long.MAX_VALUE : Math.max(0, nanoTime - System.nanoTime());
+    }
+
+    /**
+     * Chooses the earliest of this deadline and the given one.
+     *
+     * @param other other deadline
+     * @return the earliest deadline
+     */
+    public Deadline min(Deadline other) {
+        return this == NONE || other != NONE && other.nanoTime - nanoTime < 0 ? other : this;
+    }
+}
@@ -0,0 +1,186 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+
+/**
+ * Solves the task with the canonical dynamic programming algorithm for 0/1 knapsack problem.
+ * Weights and costs are converted to the {@link FixedPoint} representation, so the algorithm works
+ * in O(n*W) time where W is the scaled package limit. Only one row of the best costs is kept in memory
+ * (rolling array), the decisions are stored in the {@link KeepTable} of n*W bits to reconstruct the chosen things.
+ * The memory of both is reported by {@link #estimateMemory(PackTask)}, so the packer can limit the number
+ * of big tables allocated at the same time.
+ *
+ * Among the packages with the maximum cost the lightest one is chosen. If there are still several candidates
+ * the package that does not include things with the bigger positions is preferred,
+ * it gives the same result as {@link BruteForceSolver}.
+ *
+ * The deadline is checked after every row of the table. If it expires the table is dropped and the task
+ * is packed by {@link GreedySolver}, the package is reported with its gap.
+ */
+public class DynamicProgrammingSolver extends FixedPointSolver {
+
+    private static final long DEFAULT_MAX_TABLE_SIZE = 64L * 1024 * 1024;
+
+    private static final GreedySolver GREEDY_SOLVER = new GreedySolver();
+
+    private final long maxTableSize;
+
+    public DynamicProgrammingSolver() {
+        this(DEFAULT_MAX_TABLE_SIZE);
+    }
+
+    public DynamicProgrammingSolver(long maxTableSize) {
+        this.maxTableSize = maxTableSize;
+    }
+
+    /**
+     * Checks if the task can be solved with this algorithm. All weights and costs should be representable
+     * in the fixed-point format and the keep-table should not exceed the configured size.
+     *
+     * @param task the task to check
+     * @return <code>true</code> if the task can be solved else returns <code>false</code>
+     */
+    public boolean isApplicable(PackTask task) {
+        return FixedPoint.isRepresentable(task) &&
+            fitsTable(task.getThings().size(), FixedPoint.toFixed(task.getMaxWeight()));
+    }
+
+    /**
+     * Checks if the task of the batch can be solved with this algorithm,
+     * the keep-table should not exceed the configured size.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task in the batch
+     * @return <code>true</code> if the task can be solved else returns <code>false</code>
+     */
+    public boolean isApplicable(PackTaskBatch batch, int task) {
+        return fitsTable(batch.getTo(task) - batch.getFrom(task), batch.getMaxWeight(task));
+    }
+
+    /**
+     * Estimates the cost as the size of the keep-table.
+     *
+     * @param task the task to estimate
+     * @return estimated number of steps
+     */
+    @Override
+    public double estimateCost(PackTask task) {
+        return (double) task.getThings().size() * FixedPoint.toFixed(task.getMaxWeight());
+    }
+
+    @Override
+    public double estimateCost(PackTaskBatch batch, int task) {
+        return (double) (batch.getTo(task) - batch.getFrom(task)) * batch.getMaxWeight(task);
+    }
+
+    /**
+     * Estimates the memory as the size of the keep-table and the row of the best costs.
+     *
+     * @param task the task to estimate
+     * @return estimated number of bytes
+     */
+    @Override
+    public long estimateMemory(PackTask task) {
+        return isApplicable(task) ? memory(task.getThings().size(), FixedPoint.toFixed(task.getMaxWeight())) : 0;
+    }
+
+    @Override
+    public long estimateMemory(PackTaskBatch batch, int task) {
+        return isApplicable(batch, task) ? memory(batch.getTo(task) - batch.getFrom(task), batch.getMaxWeight(task)) : 0;
+    }
+
+    @Override
+    public void solve(PackTaskBatch batch, int task) throws APIException {
+        solve(batch, task, Deadline.NONE);
+    }
+
+    @Override
+    public void solve(PackTaskBatch batch, int task, Deadline deadline) throws APIException {
+        if (!isApplicable(batch, task)) {
+            throw new ValidationException("Task can not be solved with dynamic programming algorithm");
+        }
+        // strict inequality of the weight to the limit
+        final int capacity = (int) batch.getMaxWeight(task) - 1;
+        if (capacity < 0) {
+            Packages.markZeroCost(batch, task);
+        } else {
+            final long[] best = new long[capacity + 1];
+            final KeepTable keep = fill(batch, task, best, deadline);
+            if (keep == null) {
+                GREEDY_SOLVER.solve(batch, task);
+            } else if (!choose(batch, task, best, keep)) {
+                Packages.markZeroCost(batch, task);
+            }
+        }
+    }
+
+    private boolean fitsTable(int thingsNumber, long maxWeight) {
+        return (long) thingsNumber * (maxWeight + 1) <= maxTableSize;
+    }
+
+    private static long memory(int thingsNumber, long maxWeight) {
+        return KeepTable.bytes(thingsNumber, Math.max(maxWeight, 0)) + Math.max(maxWeight, 0) * Long.BYTES;
+    }
+
+    /**
+     * Fills the rolling row of the best costs by capacities and the keep-table.
+     *
+     * @return filled keep-table or <code>null</code> if the deadline expired before all rows were filled
+     */
+    private static KeepTable fill(PackTaskBatch batch, int task, long[] best, Deadline deadline) {
+        final int from = batch.getFrom(task);
+        final int size = batch.getTo(task) - from;
+        final int capacity = best.length - 1;
+        final long[] weights = batch.getWeights();
+        final long[] costs = batch.getCosts();
+        final KeepTable keep = KeepTable.of(size, capacity + 1);
+        boolean expired = false;
+        for (int i = 0; i < size && !expired; i++) {
+            final long weight = weights[from + i];
+            for (int c = capacity; c >= weight; c--) {
+                final long candidate = best[(int) (c - weight)] + costs[from + i];
+                if (candidate > best[c]) {
+                    best[c] = candidate;
+                    keep.set(i, c);
+                }
+            }
+            // the last row completes the table, its package is optimal even if the deadline has just expired
+            expired = i < size - 1 && deadline.isExpired();
+        }
+        return expired ? null : keep;
+    }
+
+    /**
+     * Finds the best package in the filled table and marks its things in the batch.
+     *
+     * @return <code>false</code> if there is no package with positive cost else returns <code>true</code>
+     */
+    private boolean choose(PackTaskBatch batch, int task, long[] best, KeepTable keep) {
+        final int from = batch.getFrom(task);
+        final int size = batch.getTo(task) - from;
+        final long[] weights = batch.getWeights();
+        final int capacity = best.length - 1;
+        final boolean found = best[capacity] > 0;
+        int c = minCapacityWithCost(best, best[capacity]);
+        for (int i = size - 1; i >= 0; i--) {
+            final boolean packed = found && keep.get(i, c);
+            batch.setPacked(from + i, packed);
+            if (packed) {
+                c -= weights[from + i];
+            }
+        }
+        return found;
+    }
+
+    private int minCapacityWithCost(long[] best, long cost) {
+        int c = 0;
+        while (best[c] != cost) {
+            c++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,49 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+
+import java.util.Collections;
+
+/**
+ * Base class for the algorithms working with weights and costs in the {@link FixedPoint} representation.
+ * Algorithm is implemented over the primitive arrays of {@link PackTaskBatch}, the object representation
+ * of a task is converted to the batch of one task.
+ */
+public abstract class FixedPointSolver implements PackSolver {
+
+    @Override
+    public Package solve(PackTask task) throws APIException {
+        return solve(task, Deadline.NONE);
+    }
+
+    @Override
+    public Package solve(PackTask task, Deadline deadline) throws APIException {
+        if (!FixedPoint.isRepresentable(task)) {
+            throw new ValidationException("Task numbers can not be represented in the fixed-point format");
+        }
+        final PackTaskBatch batch = PackTaskBatch.of(Collections.singletonList(task));
+        solve(batch, 0, deadline);
+        return Packages.of(task.getThings(), batch, 0);
+    }
+
+    @Override
+    public abstract void solve(PackTaskBatch batch, int task) throws APIException;
+
+    /**
+     * Solves the task of the batch, the deadline is ignored. Algorithms able to stop the search override it.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task to solve in the batch
+     * @param deadline deadline of the search
+     * @throws APIException if the task can not be solved by the algorithm
+     */
+    @Override
+    public void solve(PackTaskBatch batch, int task, Deadline deadline) throws APIException {
+        solve(batch, task);
+    }
+}
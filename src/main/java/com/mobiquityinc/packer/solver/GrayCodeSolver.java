@@ -0,0 +1,120 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.validation.task.MaxThingsNumberRule;
+
+/**
+ * Brute force algorithm which walks through the subsets in Gray code order. Two neighbour subsets differ
+ * by one thing only, so sums are updated with one addition or subtraction per subset instead of
+ * recalculation from scratch. It takes O(2^n) time instead of O(n*2^n) of {@link BruteForceSolver}.
+ *
+ * Weights and costs are taken from the primitive arrays in the {@link FixedPoint} representation,
+ * integer sums do not accumulate rounding errors of the incremental updates. The search loop does not
+ * allocate any objects. Ties are resolved explicitly by the subset mask, so the result is the same
+ * as {@link BruteForceSolver} gives enumerating subsets in the natural order.
+ *
+ * The deadline is checked every {@value #DEADLINE_CHECK_SUBSETS} subsets. The subsets walked so far are not
+ * the best ones of any part of the task, so when it expires the task is packed by {@link GreedySolver}
+ * which reports the gap.
+ */
+public class GrayCodeSolver extends FixedPointSolver {
+
+    private static final MaxThingsNumberRule UP_TO_15_THINGS = new MaxThingsNumberRule(15);
+
+    private static final int DEADLINE_CHECK_SUBSETS = 4096;
+
+    private static final GreedySolver GREEDY_SOLVER = new GreedySolver();
+
+    /**
+     * Checks if the task can be solved with this algorithm.
+     *
+     * @param task the task to check
+     * @return <code>true</code> if the task can be solved else returns <code>false</code>
+     */
+    public boolean isApplicable(PackTask task) {
+        return task.getThings().size() <= 15 && FixedPoint.isRepresentable(task);
+    }
+
+    /**
+     * Checks if the task of the batch can be solved with this algorithm.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task in the batch
+     * @return <code>true</code> if the task can be solved else returns <code>false</code>
+     */
+    public boolean isApplicable(PackTaskBatch batch, int task) {
+        return batch.getTo(task) - batch.getFrom(task) <= 15;
+    }
+
+    @Override
+    public double estimateCost(PackTask task) {
+        return Math.scalb(1.0, task.getThings().size());
+    }
+
+    @Override
+    public double estimateCost(PackTaskBatch batch, int task) {
+        return Math.scalb(1.0, batch.getTo(task) - batch.getFrom(task));
+    }
+
+    @Override
+    public void solve(PackTaskBatch batch, int task) throws APIException {
+        solve(batch, task, Deadline.NONE);
+    }
+
+    @Override
+    public void solve(PackTaskBatch batch, int task, Deadline deadline) throws APIException {
+        UP_TO_15_THINGS.validateThingsNumber(batch.getTo(task) - batch.getFrom(task));
+        final long mask = search(
+            batch.getMaxWeight(task), batch.getWeights(), batch.getCosts(), batch.getFrom(task), batch.getTo(task), deadline
+        );
+        if (mask < 0) {
+            GREEDY_SOLVER.solve(batch, task);
+        } else {
+            Packages.mark(batch, task, mask);
+        }
+    }
+
+    /**
+     * Finds the best subset of the things in the given range.
+     *
+     * @param maxWeight package limit
+     * @param weights weights of the things
+     * @param costs costs of the things
+     * @param from position of the first thing
+     * @param to position after the last thing
+     * @param deadline deadline of the search
+     * @return mask of the best subset or -1 if the deadline expired before all subsets were checked
+     */
+    static long search(long maxWeight, long[] weights, long[] costs, int from, int to, Deadline deadline) {
+        long bestCost = 0;
+        long bestWeight = Long.MAX_VALUE;
+        int bestMask = 0;
+        long weight = 0;
+        long cost = 0;
+        int mask = 0;
+        for (int i = 1; i < 1 << (to - from); i++) {
+            if (i % DEADLINE_CHECK_SUBSETS == 0 && deadline.isExpired()) {
+                return -1;
+            }
+            final int bit = Integer.numberOfTrailingZeros(i);
+            mask ^= 1 << bit;
+            if ((mask & 1 << bit) != 0) {
+                weight += weights[from + bit];
+                cost += costs[from + bit];
+            } else {
+                weight -= weights[from + bit];
+                cost -= costs[from + bit];
+            }
+            if (weight < maxWeight &&
+                (cost > bestCost || cost == bestCost && (weight < bestWeight || weight == bestWeight && mask < bestMask))) {
+                bestCost = cost;
+                bestWeight = weight;
+                bestMask = mask;
+            }
+        }
+        return bestMask;
+    }
+}
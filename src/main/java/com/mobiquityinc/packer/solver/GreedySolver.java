@@ -0,0 +1,54 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+
+import java.util.Arrays;
+
+/**
+ * Builds the package greedily: things are taken in the order of the descending cost to weight ratio while they fit.
+ * It takes O(n log n) time for any number of things, but the package is not always optimal. The optimality gap
+ * is estimated with the solution of the fractional knapsack problem, which is the upper bound of the best cost.
+ * It's used as a fallback when there is no time left to search for the best package.
+ */
+public class GreedySolver extends FixedPointSolver {
+
+    @Override
+    public double estimateCost(PackTask task) {
+        final int size = task.getThings().size();
+        return (double) size * (Integer.SIZE - Integer.numberOfLeadingZeros(size));
+    }
+
+    @Override
+    public void solve(PackTaskBatch batch, int task) throws APIException {
+        final int from = batch.getFrom(task);
+        final long[] weights = Arrays.copyOfRange(batch.getWeights(), from, batch.getTo(task));
+        final long[] costs = Arrays.copyOfRange(batch.getCosts(), from, batch.getTo(task));
+        final Integer[] order = new Integer[weights.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> BranchAndBoundSolver.compareRatio(weights, costs, a, b));
+        // strict inequality of the weight to the limit
+        long rest = batch.getMaxWeight(task) - 1;
+        long cost = 0;
+        long bound = 0;
+        boolean filled = rest < 0;
+        for (int i : order) {
+            final boolean fits = weights[i] <= rest;
+            batch.setPacked(from + i, fits);
+            if (fits) {
+                rest -= weights[i];
+                cost += costs[i];
+            } else if (!filled) {
+                bound = cost + costs[i] * rest / weights[i];
+                filled = true;
+            }
+        }
+        if (cost == 0) {
+            Packages.markZeroCost(batch, task);
+        }
+        batch.setGap(task, filled ? Math.max(0, bound - cost) : 0);
+    }
+}
@@ -0,0 +1,78 @@
+package com.mobiquityinc.packer.solver;
+
+import java.util.Arrays;
+
+/**
+ * Keep-table of the dynamic programming algorithms packed into bits: a row for every thing and a column
+ * for every total weight or cost, each row starts at a word boundary. It takes 8 times less memory than
+ * a table of booleans. Words of tables up to {@link #MAX_REUSED_WORDS} are reused by the thread, so solving
+ * a stream of tasks does not allocate tables, bigger tables are allocated for each task.
+ *
+ * A table is valid until the next call of {@link #of(int, int)} in the same thread, solvers must not solve
+ * another task while they use the table.
+ */
+final class KeepTable {
+
+    // 1 MB per thread
+    static final int MAX_REUSED_WORDS = 128 * 1024;
+
+    private static final int WORD_SHIFT = 6;
+
+    private static final ThreadLocal<long[]> REUSED = ThreadLocal.withInitial(() -> new long[0]);
+
+    private final long[] words;
+    private final int rowWords;
+
+    private KeepTable(long[] words, int rowWords) {
+        this.words = words;
+        this.rowWords = rowWords;
+    }
+
+    /**
+     * Returns the cleared table of the given size.
+     *
+     * @param rows number of rows
+     * @param columns number of columns
+     * @return table with all bits unset
+     */
+    static KeepTable of(int rows, int columns) {
+        final int rowWords = rowWords(columns);
+        final int size = Math.toIntExact((long) rows * rowWords);
+        long[] words;
+        if (size <= MAX_REUSED_WORDS) {
+            words = REUSED.get();
+            if (words.length < size) {
+                words = new long[Math.max(size, Math.min(2 * words.length, MAX_REUSED_WORDS))];
+                REUSED.set(words);
+            } else {
+                Arrays.fill(words, 0, size, 0);
+            }
+        } else {
+            words = new long[size];
+        }
+        return new KeepTable(words, rowWords);
+    }
+
+    /**
+     * Size of the table in bytes.
+     *
+     * @param rows number of rows
+     * @param columns number of columns
+     * @return number of bytes
+     */
+    static long bytes(long rows, long columns) {
+        return rows * rowWords(columns) * Long.BYTES;
+    }
+
+    void set(int row, int column) {
+        words[row * rowWords + (column >>> WORD_SHIFT)] |= 1L << column;
+    }
+
+    boolean get(int row, int column) {
+        return (words[row * rowWords + (column >>> WORD_SHIFT)] & 1L << column) != 0;
+    }
+
+    private static int rowWords(long columns) {
+        return (int) ((columns + Long.SIZE - 1) >>> WORD_SHIFT);
+    }
+}
@@ -0,0 +1,217 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.validation.ValidationRule;
+import com.mobiquityinc.packer.validation.task.MaxThingsNumberRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Solves the task with meet-in-the-middle algorithm. Things are split into two halves, all subsets of each half
+ * are enumerated into primitive arrays. Subsets of the first half are sorted by weight and the best subset
+ * for each prefix is calculated, so for each subset of the second half the best complement is found
+ * with binary search. It takes about 2^(n/2)*n time instead of 2^n of {@link BruteForceSolver}.
+ *
+ * Weights and costs are used as is, so the algorithm is applicable for numbers with any precision.
+ * Ties are resolved in the same way as {@link BruteForceSolver} does: the lightest package is preferred
+ * and then the one with the smallest mask. Up to 40 things are supported.
+ *
+ * The deadline is checked every {@value #DEADLINE_CHECK_SUBSETS} subsets of the second half. When it expires
+ * the best package combined so far is returned, the gap is taken to the solution of the fractional knapsack
+ * problem, which is the upper bound of the best cost.
+ */
+public class MeetInTheMiddleSolver implements PackSolver {
+
+    private static final int MAX_THINGS = 40;
+    private static final ValidationRule<PackTask> UP_TO_40_THINGS = new MaxThingsNumberRule(MAX_THINGS);
+    private static final int DEADLINE_CHECK_SUBSETS = 1024;
+
+    /**
+     * Checks if the task can be solved with this algorithm.
+     *
+     * @param task the task to check
+     * @return <code>true</code> if the task can be solved else returns <code>false</code>
+     */
+    public boolean isApplicable(PackTask task) {
+        return task.getThings().size() <= MAX_THINGS;
+    }
+
+    @Override
+    public double estimateCost(PackTask task) {
+        final int size = task.getThings().size();
+        return Math.scalb((double) Math.max(size, 1), size / 2);
+    }
+
+    /**
+     * Estimates the memory as the sums of all subsets of both halves and the arrays sorting the low half.
+     *
+     * @param task the task to estimate
+     * @return estimated number of bytes
+     */
+    @Override
+    public long estimateMemory(PackTask task) {
+        final int size = Math.min(task.getThings().size(), MAX_THINGS);
+        final long low = 1L << (size / 2);
+        final long high = 1L << (size - size / 2);
+        return (low + high) * 2 * Double.BYTES + low * 3 * Integer.BYTES;
+    }
+
+    @Override
+    public Package solve(PackTask task) throws APIException {
+        return solve(task, Deadline.NONE);
+    }
+
+    @Override
+    public Package solve(PackTask task, Deadline deadline) throws APIException {
+        UP_TO_40_THINGS.validate(task);
+        final List<Thing> things = task.getThings();
+        final int lowSize = things.size() / 2;
+        final Half low = new Half(things, 0, lowSize);
+        final Half high = new Half(things, lowSize, things.size());
+        final int[] order = low.sortedByWeight();
+        final int[] prefixBest = prefixBest(low, order);
+        final double maxWeight = task.getMaxWeight();
+        double bestCost = 0;
+        double bestWeight = 0;
+        long bestMask = 0;
+        boolean expired = false;
+        for (int h = 0; h < high.weights.length && !expired; h++) {
+            // the last subset completes the search, its package is optimal even if the deadline has just expired
+            expired = h % DEADLINE_CHECK_SUBSETS == DEADLINE_CHECK_SUBSETS - 1 && h < high.weights.length - 1 &&
+                deadline.isExpired();
+            final int last = lastFitting(low, order, high.weights[h], maxWeight);
+            if (last >= 0) {
+                final int l = prefixBest[last];
+                final double cost = low.costs[l] + high.costs[h];
+                final double weight = low.weights[l] + high.weights[h];
+                final long mask = (long) h << lowSize | l;
+                if (cost > bestCost || cost == bestCost && (weight < bestWeight || weight == bestWeight && mask < bestMask)) {
+                    bestCost = cost;
+                    bestWeight = weight;
+                    bestMask = mask;
+                }
+            }
+        }
+        final Package pack;
+        if (expired) {
+            pack = new Package(Packages.of(things, bestMask).getThings(), Math.max(0, upperBound(task) - bestCost));
+        } else {
+            pack = bestCost == 0 ? Packages.ofZeroCost(task) : Packages.of(things, bestMask);
+        }
+        return pack;
+    }
+
+    /**
+     * Solves the fractional knapsack problem: things are taken in the order of the descending cost to weight ratio
+     * and the first one which does not fit is taken partially.
+     */
+    private static double upperBound(PackTask task) {
+        final List<Thing> things = new ArrayList<>(task.getThings());
+        things.sort((a, b) -> Double.compare(b.getCost() * a.getWeight(), a.getCost() * b.getWeight()));
+        double rest = task.getMaxWeight();
+        double bound = 0;
+        for (int i = 0; i < things.size() && rest > 0; i++) {
+            final Thing thing = things.get(i);
+            final double taken = Math.min(thing.getWeight(), rest);
+            bound += taken == thing.getWeight() ? thing.getCost() : thing.getCost() * taken / thing.getWeight();
+            rest -= taken;
+        }
+        return bound;
+    }
+
+    /**
+     * For each position in the sorted by weight subsets finds the best subset among the ones up to this position.
+     */
+    private int[] prefixBest(Half half, int[] order) {
+        final int[] prefixBest = new int[order.length];
+        int best = order[0];
+        for (int i = 0; i < order.length; i++) {
+            final int s = order[i];
+            if (half.costs[s] > half.costs[best] ||
+                half.costs[s] == half.costs[best] && (half.weights[s] < half.weights[best] ||
+                    half.weights[s] == half.weights[best] && s < best)) {
+                best = s;
+            }
+            prefixBest[i] = best;
+        }
+        return prefixBest;
+    }
+
+    /**
+     * Finds the last position in the sorted by weight subsets which still fits the limit
+     * together with the given weight, returns -1 if there is no such subset.
+     */
+    private int lastFitting(Half half, int[] order, double weight, double maxWeight) {
+        int lo = 0;
+        int hi = order.length - 1;
+        int last = -1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (half.weights[order[mid]] + weight < maxWeight) {
+                last = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Sums of weights and costs of all subsets of the things in the given range, indexed by the subset mask.
+     */
+    private static final class Half {
+
+        private final double[] weights;
+        private final double[] costs;
+
+        private Half(List<Thing> things, int from, int to) {
+            final int size = 1 << (to - from);
+            this.weights = new double[size];
+            this.costs = new double[size];
+            for (int mask = 1; mask < size; mask++) {
+                final int lowest = Integer.numberOfTrailingZeros(mask);
+                final int rest = mask & (mask - 1);
+                final Thing thing = things.get(from + lowest);
+                weights[mask] = weights[rest] + thing.getWeight();
+                costs[mask] = costs[rest] + thing.getCost();
+            }
+        }
+
+        /**
+         * Sorts subsets by weight with stable merge sort, so subsets of the same weight stay ordered by mask.
+         */
+        private int[] sortedByWeight() {
+            int[] order = new int[weights.length];
+            int[] buffer = new int[weights.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            for (int width = 1; width < order.length; width <<= 1) {
+                for (int from = 0; from < order.length; from += width << 1) {
+                    merge(order, buffer, from, Math.min(from + width, order.length), Math.min(from + (width << 1), order.length));
+                }
+                final int[] swap = order;
+                order = buffer;
+                buffer = swap;
+            }
+            return order;
+        }
+
+        private void merge(int[] source, int[] target, int from, int middle, int to) {
+            int left = from;
+            int right = middle;
+            for (int i = from; i < to; i++) {
+                if (right >= to || left < middle && weights[source[left]] <= weights[source[right]]) {
+                    target[i] = source[left++];
+                } else {
+                    target[i] = source[right++];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+
+/**
+ * Algorithm to solve the packaging task. Implementations must find the package with the maximum total cost
+ * which total weight is less than the package limit. If there are several such packages the one with
+ * the minimum weight should be chosen.
+ *
+ * Solvers able to stop the search at a {@link Deadline} override the methods taking it. They return the best
+ * package found so far with the optimality gap, see {@link Package#getGap()}. Other solvers ignore the deadline.
+ */
+public interface PackSolver {
+
+    /**
+     * Solves the given task.
+     *
+     * @param task the task to solve
+     * @return built package
+     * @throws APIException if the task can not be solved by the algorithm
+     */
+    Package solve(PackTask task) throws APIException;
+
+    /**
+     * Solves the given task stopping the search at the deadline.
+     *
+     * @param task the task to solve
+     * @param deadline deadline of the search
+     * @return built package
+     * @throws APIException if the task can not be solved by the algorithm
+     */
+    default Package solve(PackTask task, Deadline deadline) throws APIException {
+        return solve(task);
+    }
+
+    /**
+     * Solves the task of the batch and marks packed things in the batch. Default implementation
+     * converts the task to the object representation, algorithms working with primitive values
+     * should override it to use the batch arrays directly.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task to solve in the batch
+     * @throws APIException if the task can not be solved by the algorithm
+     */
+    default void solve(PackTaskBatch batch, int task) throws APIException {
+        solve(batch, task, Deadline.NONE);
+    }
+
+    /**
+     * Solves the task of the batch stopping the search at the deadline, the gap of the package is set
+     * to the batch. Default implementation converts the task to the object representation.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task to solve in the batch
+     * @param deadline deadline of the search
+     * @throws APIException if the task can not be solved by the algorithm
+     */
+    default void solve(PackTaskBatch batch, int task, Deadline deadline) throws APIException {
+        final PackTask packTask = batch.toPackTask(task);
+        final Package pack = solve(packTask, deadline);
+        Packages.mark(batch, task, packTask.getThings(), pack);
+        batch.setGap(task, FixedPoint.toFixed(pack.getGap()));
+    }
+
+    /**
+     * Estimates the number of elementary steps to solve the task, it's used to schedule expensive tasks first.
+     * Default implementation assumes that all 2^n subsets are checked in O(n) each as {@link BruteForceSolver} does.
+     *
+     * @param task the task to estimate
+     * @return estimated number of steps
+     */
+    default double estimateCost(PackTask task) {
+        final int size = task.getThings().size();
+        return Math.scalb((double) Math.max(size, 1), size);
+    }
+
+    /**
+     * Estimates the number of elementary steps to solve the task of the batch, see {@link #estimateCost(PackTask)}.
+     * Default implementation converts the task to the object representation.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task in the batch
+     * @return estimated number of steps
+     */
+    default double estimateCost(PackTaskBatch batch, int task) {
+        return estimateCost(batch.toPackTask(task));
+    }
+
+    /**
+     * Class of the algorithm which solved the last task on the current thread, the latency of solving is split
+     * by it in {@link com.mobiquityinc.packer.metrics.PackerMetrics}. Solvers delegating tasks to the other ones
+     * return the class reported by the solver they gave the last task of the thread to. Default implementation
+     * returns the class of this solver.
+     *
+     * @return class of the solver
+     */
+    default Class<?> getEffectiveSolverClass() {
+        return getClass();
+    }
+
+    /**
+     * Estimates the memory the solver allocates to solve the task, it's used to limit the memory of the tasks
+     * solved at the same time, see {@link com.mobiquityinc.packer.execution.MemoryBudget}. Default implementation
+     * returns 0, it suits solvers which memory is small and does not depend on the package limit.
+     *
+     * @param task the task to estimate
+     * @return estimated number of bytes
+     */
+    default long estimateMemory(PackTask task) {
+        return 0;
+    }
+
+    /**
+     * Estimates the memory the solver allocates to solve the task of the batch, see {@link #estimateMemory(PackTask)}.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task in the batch
+     * @return estimated number of bytes
+     */
+    default long estimateMemory(PackTaskBatch batch, int task) {
+        return 0;
+    }
+}
@@ -0,0 +1,199 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of built packages. Tasks are compared by their content: the max weight and the sequence
+ * of (weight, cost) pairs of the things, so indices of things do not matter. Cached solution is kept as positions
+ * of packed things and is mapped back to the things of the requested task on a hit, so the package contains
+ * the original indices. The order of things is a part of the key: solvers resolve ties between packages
+ * of the same cost and weight by the positions of things, so a task with the same things in another order
+ * may have another package and is solved on its own.
+ *
+ * Packages keep their optimality gap in the cache. Packages found by a solver stopped at the deadline are not cached,
+ * another run with more time may find a better one. Packages of approximate solvers without a deadline are cached,
+ * they do not depend on the time.
+ * The least recently used entry is evicted when the cache is full. The cache is thread-safe.
+ */
+public class PackageCache {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<Key, Solution> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PackageCache(int maxSize) {
+        this.entries = new LinkedHashMap<Key, Solution>(maxSize, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Solution> eldest) {
+                final boolean evict = size() > maxSize;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached package for the task or solves the task with the given solver without deadline,
+     * see {@link #get(PackTask, PackSolver, Deadline)}.
+     *
+     * @param task the task to solve
+     * @param solver solver to use on a miss
+     * @return built package
+     * @throws APIException if the task can not be solved by the solver
+     */
+    public Package get(PackTask task, PackSolver solver) throws APIException {
+        return get(task, solver, Deadline.NONE);
+    }
+
+    /**
+     * Returns the cached package for the task or solves the task with the given solver and caches the result.
+     * The solver is called outside of the lock, so tasks are solved in parallel.
+     *
+     * @param task the task to solve
+     * @param solver solver to use on a miss
+     * @param deadline deadline of the search on a miss
+     * @return built package
+     * @throws APIException if the task can not be solved by the solver
+     */
+    public Package get(PackTask task, PackSolver solver, Deadline deadline) throws APIException {
+        final List<Thing> things = task.getThings();
+        final Key key = new Key(task);
+        Solution solution;
+        synchronized (entries) {
+            solution = entries.get(key);
+        }
+        if (solution == null) {
+            misses.incrementAndGet();
+            final Package pack = solver.solve(task, deadline);
+            if (pack.isOptimal() || deadline == Deadline.NONE) {
+                solution = new Solution(positions(things, pack), pack.getGap());
+                synchronized (entries) {
+                    entries.put(key, solution);
+                }
+            }
+            return pack;
+        }
+        hits.incrementAndGet();
+        final List<Thing> packageThings = new ArrayList<>(solution.packed.length);
+        for (int position : solution.packed) {
+            packageThings.add(things.get(position));
+        }
+        return new Package(packageThings, solution.gap);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Number of cached packages.
+     *
+     * @return number of cached packages
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Removes all cached packages, counters are not reset.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private static int[] positions(List<Thing> things, Package pack) {
+        final int[] packed = new int[pack.getThings().size()];
+        int next = 0;
+        for (int j = 0; j < things.size() && next < packed.length; j++) {
+            if (pack.getThings().get(next) == things.get(j)) {
+                packed[next++] = j;
+            }
+        }
+        return next == packed.length ? packed : Arrays.copyOf(packed, next);
+    }
+
+    /**
+     * Solution of the task: positions of packed things and the optimality gap.
+     */
+    private static final class Solution {
+
+        private final int[] packed;
+        private final double gap;
+
+        private Solution(int[] packed, double gap) {
+            this.packed = packed;
+            this.gap = gap;
+        }
+    }
+
+    /**
+     * Content of the task: max weight and weights and costs of things in the order of the task.
+     */
+    private static final class Key {
+
+        private final double maxWeight;
+        private final double[] weights;
+        private final double[] costs;
+        private final int hash;
+
+        private Key(PackTask task) {
+            final List<Thing> things = task.getThings();
+            this.maxWeight = task.getMaxWeight();
+            this.weights = new double[things.size()];
+            this.costs = new double[things.size()];
+            for (int i = 0; i < things.size(); i++) {
+                final Thing thing = things.get(i);
+                weights[i] = thing.getWeight();
+                costs[i] = thing.getCost();
+            }
+            this.hash = 31 * (31 * Double.hashCode(maxWeight) + Arrays.hashCode(weights)) + Arrays.hashCode(costs);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return hash == key.hash &&
+                Double.compare(key.maxWeight, maxWeight) == 0 &&
+                Arrays.equals(weights, key.weights) &&
+                Arrays.equals(costs, key.costs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Helper methods to build result packages shared by the solvers.
+ */
+final class Packages {
+
+    private Packages() {
+    }
+
+    /**
+     * Creates package of the chosen things.
+     *
+     * @param allThings all things of the task
+     * @param mask bit mask of the chosen things positions
+     * @return created package
+     */
+    static Package of(List<Thing> allThings, long mask) {
+        final List<Thing> packageThings = new ArrayList<>();
+        for (int j = 0; j < allThings.size(); j++) {
+            if ((mask & 1L << j) != 0) {
+                packageThings.add(allThings.get(j));
+            }
+        }
+        return new Package(packageThings);
+    }
+
+    /**
+     * Creates package of the things marked as packed in the batch with the optimality gap of the task.
+     *
+     * @param allThings all things of the task
+     * @param batch batch with the solved task
+     * @param task position of the task in the batch
+     * @return created package
+     */
+    static Package of(List<Thing> allThings, PackTaskBatch batch, int task) {
+        final List<Thing> packageThings = new ArrayList<>();
+        for (int j = 0; j < allThings.size(); j++) {
+            if (batch.isPacked(batch.getFrom(task) + j)) {
+                packageThings.add(allThings.get(j));
+            }
+        }
+        return new Package(packageThings, FixedPoint.toDouble(batch.getGap(task)));
+    }
+
+    /**
+     * Creates package for the task where no thing with positive cost fits the limit.
+     * {@link BruteForceSolver} never considers an empty package, so it chooses the lightest thing (the first one
+     * if there are several of them) that fits, the other solvers must give the same result.
+     *
+     * @param task the task to solve
+     * @return created package
+     */
+    static Package ofZeroCost(PackTask task) {
+        Thing lightest = null;
+        for (Thing thing : task.getThings()) {
+            if (thing.getWeight() < task.getMaxWeight() && (lightest == null || thing.getWeight() < lightest.getWeight())) {
+                lightest = thing;
+            }
+        }
+        return new Package(lightest == null ? new ArrayList<>() : new ArrayList<>(Collections.singletonList(lightest)));
+    }
+
+    /**
+     * Marks things of the built package as packed in the batch.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task in the batch
+     * @param allThings all things of the task
+     * @param pack built package
+     */
+    static void mark(PackTaskBatch batch, int task, List<Thing> allThings, Package pack) {
+        int next = 0;
+        for (int j = 0; j < allThings.size(); j++) {
+            final boolean packed = next < pack.getThings().size() && pack.getThings().get(next) == allThings.get(j);
+            batch.setPacked(batch.getFrom(task) + j, packed);
+            if (packed) {
+                next++;
+            }
+        }
+    }
+
+    /**
+     * Marks the chosen things as packed in the batch.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task in the batch
+     * @param mask bit mask of the chosen things positions relative to the first thing of the task
+     */
+    static void mark(PackTaskBatch batch, int task, long mask) {
+        for (int i = batch.getFrom(task); i < batch.getTo(task); i++) {
+            batch.setPacked(i, (mask & 1L << (i - batch.getFrom(task))) != 0);
+        }
+    }
+
+    /**
+     * Marks the package for the task where no thing with positive cost fits the limit, see {@link #ofZeroCost}.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task in the batch
+     */
+    static void markZeroCost(PackTaskBatch batch, int task) {
+        int lightest = -1;
+        for (int i = batch.getFrom(task); i < batch.getTo(task); i++) {
+            batch.setPacked(i, false);
+            final long weight = batch.getWeights()[i];
+            if (weight < batch.getMaxWeight(task) && (lightest < 0 || weight < batch.getWeights()[lightest])) {
+                lightest = i;
+            }
+        }
+        if (lightest >= 0) {
+            batch.setPacked(lightest, true);
+        }
+    }
+}
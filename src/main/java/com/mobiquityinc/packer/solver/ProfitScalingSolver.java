@@ -0,0 +1,216 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+
+import java.util.Arrays;
+
+/**
+ * Approximates the best package with the profit-scaling FPTAS. Costs are divided by K = epsilon * maxCost / n
+ * and rounded down, then the dynamic programming over the scaled costs finds the lightest package for every
+ * total scaled cost. It works in O(n^3 / epsilon) time and memory regardless of the package limit, and the cost
+ * of the found package is at least (1 - epsilon) of the best one. Decisions are kept in the {@link KeepTable}.
+ *
+ * Among the packages of all scaled costs that fit the limit the one with the maximum real cost is chosen,
+ * so the result is never worse than the guarantee. The achieved optimality gap is reported in
+ * {@link com.mobiquityinc.packer.domain.Package#getGap()}: the upper bound of the best cost is the minimum of the
+ * rounding bound K * (maxScaledCost + n) and the solution of the fractional knapsack problem.
+ */
+public class ProfitScalingSolver extends FixedPointSolver {
+
+    private static final long DEFAULT_MAX_TABLE_SIZE = 64L * 1024 * 1024;
+
+    private final double epsilon;
+    private final long maxTableSize;
+
+    public ProfitScalingSolver(double epsilon) {
+        this(epsilon, DEFAULT_MAX_TABLE_SIZE);
+    }
+
+    public ProfitScalingSolver(double epsilon, long maxTableSize) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Epsilon should be in (0, 1), given: " + epsilon);
+        }
+        this.epsilon = epsilon;
+        this.maxTableSize = maxTableSize;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    /**
+     * Checks if the task can be solved with this algorithm. All weights and costs should be representable
+     * in the fixed-point format and the keep-table should not exceed the configured size.
+     *
+     * @param task the task to check
+     * @return <code>true</code> if the task can be solved else returns <code>false</code>
+     */
+    public boolean isApplicable(PackTask task) {
+        return FixedPoint.isRepresentable(task) && fitsTable(task.getThings().size());
+    }
+
+    /**
+     * Checks if the task of the batch can be solved with this algorithm,
+     * the keep-table should not exceed the configured size.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task in the batch
+     * @return <code>true</code> if the task can be solved else returns <code>false</code>
+     */
+    public boolean isApplicable(PackTaskBatch batch, int task) {
+        return fitsTable(batch.getTo(task) - batch.getFrom(task));
+    }
+
+    @Override
+    public void solve(PackTaskBatch batch, int task) throws APIException {
+        if (!isApplicable(batch, task)) {
+            throw new ValidationException("Task can not be solved with profit scaling algorithm");
+        }
+        final int from = batch.getFrom(task);
+        final long[] weights = Arrays.copyOfRange(batch.getWeights(), from, batch.getTo(task));
+        final long[] costs = Arrays.copyOfRange(batch.getCosts(), from, batch.getTo(task));
+        // strict inequality of the weight to the limit
+        final long capacity = batch.getMaxWeight(task) - 1;
+        long maxCost = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] <= capacity) {
+                maxCost = Math.max(maxCost, costs[i]);
+            }
+        }
+        if (maxCost == 0) {
+            Packages.markZeroCost(batch, task);
+            batch.setGap(task, 0);
+        } else {
+            choose(batch, task, weights, costs, capacity, epsilon * maxCost / weights.length);
+        }
+    }
+
+    @Override
+    public double estimateCost(PackTask task) {
+        return tableSize(task.getThings().size());
+    }
+
+    @Override
+    public double estimateCost(PackTaskBatch batch, int task) {
+        return tableSize(batch.getTo(task) - batch.getFrom(task));
+    }
+
+    /**
+     * Estimates the memory as the size of the keep-table and two rows of the lightest packages and their costs.
+     *
+     * @param task the task to estimate
+     * @return estimated number of bytes
+     */
+    @Override
+    public long estimateMemory(PackTask task) {
+        return memory(task.getThings().size());
+    }
+
+    @Override
+    public long estimateMemory(PackTaskBatch batch, int task) {
+        return memory(batch.getTo(task) - batch.getFrom(task));
+    }
+
+    /**
+     * Keep-table has a row for every thing and a column for every total scaled cost,
+     * scaled cost of a thing is not greater than n / epsilon.
+     */
+    double tableSize(int thingsNumber) {
+        return (double) thingsNumber * (thingsNumber * Math.floor(thingsNumber / epsilon) + 1);
+    }
+
+    private boolean fitsTable(int thingsNumber) {
+        return tableSize(thingsNumber) <= maxTableSize;
+    }
+
+    private long memory(int thingsNumber) {
+        final long columns = thingsNumber == 0 ? 1 : (long) (tableSize(thingsNumber) / thingsNumber);
+        return fitsTable(thingsNumber) ? KeepTable.bytes(thingsNumber, columns) + 2 * columns * Long.BYTES : 0;
+    }
+
+    /**
+     * Finds the package with the maximum real cost among the lightest packages of every scaled cost,
+     * marks its things in the batch and sets the gap. Things which do not fit the limit alone are not packed.
+     */
+    private void choose(PackTaskBatch batch, int task, long[] weights, long[] costs, long capacity, double scale) {
+        final int from = batch.getFrom(task);
+        final int size = weights.length;
+        final int[] scaled = new int[size];
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = weights[i] <= capacity ? (int) (costs[i] / scale) : 0;
+            total += scaled[i];
+        }
+        // the lightest package and its real cost for every total scaled cost, weight is -1 if there is no package
+        final long[] lightest = new long[total + 1];
+        final long[] real = new long[total + 1];
+        Arrays.fill(lightest, -1);
+        lightest[0] = 0;
+        final KeepTable keep = KeepTable.of(size, total + 1);
+        int reached = 0;
+        for (int i = 0; i < size; i++) {
+            reached += scaled[i];
+            for (int p = reached; p >= scaled[i] && scaled[i] > 0; p--) {
+                final long previous = lightest[p - scaled[i]];
+                if (previous >= 0 && previous + weights[i] <= capacity) {
+                    final long weight = previous + weights[i];
+                    final long cost = real[p - scaled[i]] + costs[i];
+                    if (lightest[p] < 0 || weight < lightest[p] || weight == lightest[p] && cost > real[p]) {
+                        lightest[p] = weight;
+                        real[p] = cost;
+                        keep.set(i, p);
+                    }
+                }
+            }
+        }
+        int best = 0;
+        int maxScaled = 0;
+        for (int p = 1; p <= total; p++) {
+            if (lightest[p] >= 0) {
+                maxScaled = p;
+                if (real[p] > real[best] || real[p] == real[best] && lightest[p] < lightest[best]) {
+                    best = p;
+                }
+            }
+        }
+        int p = best;
+        for (int i = size - 1; i >= 0; i--) {
+            final boolean packed = keep.get(i, p);
+            batch.setPacked(from + i, packed);
+            if (packed) {
+                p -= scaled[i];
+            }
+        }
+        final long bound = Math.min((long) Math.ceil(scale * (maxScaled + size)), fractionalBound(weights, costs, capacity));
+        batch.setGap(task, Math.max(0, bound - real[best]));
+    }
+
+    /**
+     * Solution of the fractional knapsack problem, the upper bound of the best cost.
+     */
+    private static long fractionalBound(long[] weights, long[] costs, long capacity) {
+        final Integer[] order = new Integer[weights.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> BranchAndBoundSolver.compareRatio(weights, costs, a, b));
+        long bound = 0;
+        long rest = capacity;
+        boolean filled = false;
+        for (int k = 0; k < order.length && !filled; k++) {
+            final int i = order[k];
+            if (weights[i] <= rest) {
+                bound += costs[i];
+                rest -= weights[i];
+            } else {
+                bound += costs[i] * rest / weights[i];
+                filled = true;
+            }
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,264 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.FixedPoint;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Puts the problem reduction in front of the solvers chosen by the given selector. Things which can not be
+ * in the best package are removed from the task before the solver is chosen, so the solver gets the smaller task
+ * or is not called at all:
+ * <ul>
+ * <li>things not fitting the limit alone;</li>
+ * <li>things without cost if a thing with positive cost fits the limit, otherwise the lightest thing
+ * is the package (see {@link BruteForceSolver}) and the task is trivial;</li>
+ * <li>dominated things: a thing is dominated by another one which is more valuable and not heavier, lighter
+ * and not less valuable or which is the same and goes earlier. Replacing the thing by its dominator
+ * gives a better package or the same one with the smaller mask, so the thing is removed if it can not be packed
+ * together with all its dominators;</li>
+ * <li>if all remaining things fit the limit, the package contains all of them and the task is trivial.</li>
+ * </ul>
+ * The remaining things keep their order, so ties are resolved by the solver in the same way as for the whole task
+ * and the package is exactly the same. Packed things are mapped back to the original things.
+ *
+ * Numbers are compared in the {@link FixedPoint} representation, tasks which numbers are not representable
+ * are solved without reduction. Counters of the removed things are available via {@link #getStatistics()}.
+ * The solver reports the class of the solver chosen by the delegate as the effective one, tasks solved
+ * by the reduction alone are reported as its own.
+ */
+public class ReducingSolverSelector implements SolverSelector {
+
+    private final SolverSelector delegate;
+    private final ReductionStatistics statistics = new ReductionStatistics();
+    private final PackSolver solver = new ReducingSolver();
+    // solver chosen by the delegate for the last task of the thread, null if the reduction solved it
+    private final ThreadLocal<PackSolver> delegated = new ThreadLocal<>();
+
+    public ReducingSolverSelector(SolverSelector delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public PackSolver select(PackTask task) {
+        return solver;
+    }
+
+    @Override
+    public PackSolver select(PackTaskBatch batch, int task) {
+        return solver;
+    }
+
+    public ReductionStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Reduces the task of the batch and solves the rest with the solver chosen by the delegate.
+     */
+    private void reduceAndSolve(PackTaskBatch batch, int task, Deadline deadline) throws APIException {
+        final int from = batch.getFrom(task);
+        final int size = batch.getTo(task) - from;
+        final long maxWeight = batch.getMaxWeight(task);
+        final long[] weights = batch.getWeights();
+        final long[] costs = batch.getCosts();
+        int fitting = 0;
+        boolean valuable = false;
+        for (int i = from; i < from + size; i++) {
+            if (weights[i] < maxWeight) {
+                fitting++;
+                valuable |= costs[i] > 0;
+            }
+        }
+        delegated.remove();
+        if (!valuable) {
+            Packages.markZeroCost(batch, task);
+            batch.setGap(task, 0);
+            statistics.record(size, size - fitting, 0, 0, true);
+            return;
+        }
+        final boolean[] kept = new boolean[size];
+        int candidates = 0;
+        for (int i = 0; i < size; i++) {
+            kept[i] = weights[from + i] < maxWeight && costs[from + i] > 0;
+            if (kept[i]) {
+                candidates++;
+            }
+        }
+        final int dominated = removeDominated(batch, task, kept, candidates);
+        final int remaining = candidates - dominated;
+        long remainingWeight = 0;
+        for (int i = 0; i < size; i++) {
+            if (kept[i]) {
+                remainingWeight += weights[from + i];
+            }
+        }
+        final boolean trivial = remainingWeight < maxWeight;
+        statistics.record(size, size - fitting, fitting - candidates, dominated, trivial);
+        if (trivial) {
+            for (int i = 0; i < size; i++) {
+                batch.setPacked(from + i, kept[i]);
+            }
+            batch.setGap(task, 0);
+        } else if (remaining == size) {
+            solveDelegated(delegate.select(batch, task), batch, task, deadline);
+        } else {
+            final PackTaskBatch reduced = new PackTaskBatch(1, remaining);
+            reduced.addTask(maxWeight);
+            for (int i = 0; i < size; i++) {
+                if (kept[i]) {
+                    reduced.addThing(batch.getIndices()[from + i], weights[from + i], costs[from + i]);
+                }
+            }
+            solveDelegated(delegate.select(reduced, 0), reduced, 0, deadline);
+            int next = 0;
+            for (int i = 0; i < size; i++) {
+                batch.setPacked(from + i, kept[i] && reduced.isPacked(next));
+                if (kept[i]) {
+                    next++;
+                }
+            }
+            batch.setGap(task, reduced.getGap(0));
+        }
+    }
+
+    private void solveDelegated(PackSolver chosen, PackTaskBatch batch, int task, Deadline deadline) throws APIException {
+        delegated.set(chosen);
+        chosen.solve(batch, task, deadline);
+    }
+
+    /**
+     * Unmarks the kept things which can not be packed together with all things dominating them.
+     * Things are visited from the lightest one, the most valuable first among things of the same weight,
+     * so the dominators of a thing are the visited things which are not less valuable. Total weight
+     * of the visited things is kept in the Fenwick tree indexed by the rank of the cost in the descending order.
+     *
+     * @return number of dominated things
+     */
+    private static int removeDominated(PackTaskBatch batch, int task, boolean[] kept, int candidates) {
+        final int from = batch.getFrom(task);
+        final long maxWeight = batch.getMaxWeight(task);
+        final long[] weights = batch.getWeights();
+        final long[] costs = batch.getCosts();
+        final Integer[] order = new Integer[candidates];
+        final long[] descendingCosts = new long[candidates];
+        int next = 0;
+        for (int i = 0; i < kept.length; i++) {
+            if (kept[i]) {
+                descendingCosts[next] = -costs[from + i];
+                order[next++] = from + i;
+            }
+        }
+        Arrays.sort(order, (a, b) -> {
+            int result = Long.compare(weights[a], weights[b]);
+            if (result == 0) {
+                result = Long.compare(costs[b], costs[a]);
+            }
+            return result == 0 ? Integer.compare(a, b) : result;
+        });
+        Arrays.sort(descendingCosts);
+        final long[] tree = new long[candidates + 1];
+        int dominated = 0;
+        for (int thing : order) {
+            final int rank = rank(descendingCosts, -costs[thing]);
+            long dominatorsWeight = 0;
+            for (int i = rank; i > 0; i -= i & -i) {
+                dominatorsWeight += tree[i];
+            }
+            if (weights[thing] + dominatorsWeight >= maxWeight) {
+                kept[thing - from] = false;
+                dominated++;
+            }
+            for (int i = rank; i <= candidates; i += i & -i) {
+                tree[i] += weights[thing];
+            }
+        }
+        return dominated;
+    }
+
+    /**
+     * Number of the values not greater than the given one, all equal values get the same rank.
+     */
+    private static int rank(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (sorted[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Solver reducing the task, the object representation of a task is converted to the batch of one task.
+     */
+    private final class ReducingSolver implements PackSolver {
+
+        @Override
+        public Package solve(PackTask task) throws APIException {
+            return solve(task, Deadline.NONE);
+        }
+
+        @Override
+        public Package solve(PackTask task, Deadline deadline) throws APIException {
+            if (!FixedPoint.isRepresentable(task)) {
+                final PackSolver chosen = delegate.select(task);
+                delegated.set(chosen);
+                return chosen.solve(task, deadline);
+            }
+            final PackTaskBatch batch = PackTaskBatch.of(Collections.singletonList(task));
+            reduceAndSolve(batch, 0, deadline);
+            return Packages.of(task.getThings(), batch, 0);
+        }
+
+        @Override
+        public void solve(PackTaskBatch batch, int task) throws APIException {
+            reduceAndSolve(batch, task, Deadline.NONE);
+        }
+
+        @Override
+        public void solve(PackTaskBatch batch, int task, Deadline deadline) throws APIException {
+            reduceAndSolve(batch, task, deadline);
+        }
+
+        @Override
+        public Class<?> getEffectiveSolverClass() {
+            final PackSolver chosen = delegated.get();
+            return chosen == null ? getClass() : chosen.getEffectiveSolverClass();
+        }
+
+        /**
+         * Estimates the cost of the task without reduction, it's the upper bound.
+         */
+        @Override
+        public double estimateCost(PackTask task) {
+            return delegate.select(task).estimateCost(task);
+        }
+
+        @Override
+        public double estimateCost(PackTaskBatch batch, int task) {
+            return delegate.select(batch, task).estimateCost(batch, task);
+        }
+
+        /**
+         * Estimates the memory of the task without reduction, it's the upper bound.
+         */
+        @Override
+        public long estimateMemory(PackTask task) {
+            return delegate.select(task).estimateMemory(task);
+        }
+
+        @Override
+        public long estimateMemory(PackTaskBatch batch, int task) {
+            return delegate.select(batch, task).estimateMemory(batch, task);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.mobiquityinc.packer.solver;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the tasks reduced by {@link ReducingSolverSelector}: how many things were removed
+ * for every reason and how many tasks were solved without any solver. The counters are thread-safe.
+ */
+public final class ReductionStatistics {
+
+    private final AtomicLong tasks = new AtomicLong();
+    private final AtomicLong trivialTasks = new AtomicLong();
+    private final AtomicLong things = new AtomicLong();
+    private final AtomicLong infeasibleThings = new AtomicLong();
+    private final AtomicLong zeroCostThings = new AtomicLong();
+    private final AtomicLong dominatedThings = new AtomicLong();
+
+    /**
+     * Number of reduced tasks, tasks which numbers can not be represented in the fixed-point format
+     * are not reduced.
+     *
+     * @return number of reduced tasks
+     */
+    public long getTasks() {
+        return tasks.get();
+    }
+
+    /**
+     * Number of tasks solved by the reduction itself: all remaining things fit the limit
+     * or no thing with positive cost fits it.
+     *
+     * @return number of trivial tasks
+     */
+    public long getTrivialTasks() {
+        return trivialTasks.get();
+    }
+
+    /**
+     * Number of things in the reduced tasks before the reduction.
+     *
+     * @return number of things
+     */
+    public long getThings() {
+        return things.get();
+    }
+
+    /**
+     * Number of things not fitting the limit alone.
+     *
+     * @return number of removed infeasible things
+     */
+    public long getInfeasibleThings() {
+        return infeasibleThings.get();
+    }
+
+    /**
+     * Number of things without cost removed from the tasks where a thing with positive cost fits the limit.
+     *
+     * @return number of removed things without cost
+     */
+    public long getZeroCostThings() {
+        return zeroCostThings.get();
+    }
+
+    /**
+     * Number of things removed because they are dominated by lighter and more valuable things
+     * or duplicate the previous ones.
+     *
+     * @return number of removed dominated things
+     */
+    public long getDominatedThings() {
+        return dominatedThings.get();
+    }
+
+    /**
+     * Number of things removed for any reason.
+     *
+     * @return number of removed things
+     */
+    public long getRemovedThings() {
+        return getInfeasibleThings() + getZeroCostThings() + getDominatedThings();
+    }
+
+    void record(int thingsNumber, int infeasible, int zeroCost, int dominated, boolean trivial) {
+        tasks.incrementAndGet();
+        things.addAndGet(thingsNumber);
+        infeasibleThings.addAndGet(infeasible);
+        zeroCostThings.addAndGet(zeroCost);
+        dominatedThings.addAndGet(dominated);
+        if (trivial) {
+            trivialTasks.incrementAndGet();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "tasks=" + getTasks() +
+            ", trivialTasks=" + getTrivialTasks() +
+            ", things=" + getThings() +
+            ", infeasible=" + getInfeasibleThings() +
+            ", zeroCost=" + getZeroCostThings() +
+            ", dominated=" + getDominatedThings();
+    }
+}
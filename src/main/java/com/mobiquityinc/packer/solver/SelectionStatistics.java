@@ -0,0 +1,65 @@
+package com.mobiquityinc.packer.solver;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the tasks solved by a solver chosen by {@link CalibratedSolverSelector}: how many tasks it solved,
+ * how long it took and how long the {@link CostModel} predicted it to take. The counters are thread-safe.
+ */
+public final class SelectionStatistics {
+
+    private final String solver;
+    private final AtomicLong tasks = new AtomicLong();
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicLong predictedNanos = new AtomicLong();
+
+    SelectionStatistics(String solver) {
+        this.solver = solver;
+    }
+
+    public String getSolver() {
+        return solver;
+    }
+
+    /**
+     * Number of tasks the solver was chosen for and solved.
+     *
+     * @return number of tasks
+     */
+    public long getTasks() {
+        return tasks.get();
+    }
+
+    /**
+     * Total observed time of solving of the tasks.
+     *
+     * @return time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos.get();
+    }
+
+    /**
+     * Total time of solving of the tasks predicted when the solver was chosen, compare it with {@link #getNanos()}
+     * to see the accuracy of the model.
+     *
+     * @return time in nanoseconds
+     */
+    public long getPredictedNanos() {
+        return predictedNanos.get();
+    }
+
+    void record(long observed, double predicted) {
+        tasks.incrementAndGet();
+        nanos.addAndGet(observed);
+        predictedNanos.addAndGet((long) predicted);
+    }
+
+    @Override
+    public String toString() {
+        return "solver=" + solver +
+            ", tasks=" + getTasks() +
+            ", nanos=" + getNanos() +
+            ", predictedNanos=" + getPredictedNanos();
+    }
+}
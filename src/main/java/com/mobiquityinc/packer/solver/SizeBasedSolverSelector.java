@@ -0,0 +1,66 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+
+/**
+ * Chooses the algorithm depending on the number of things in the task. Small tasks (default up to 15 things)
+ * are solved by {@link GrayCodeSolver} or by {@link BruteForceSolver} if the numbers can not be represented
+ * in the fixed-point format, bigger ones are solved by {@link DynamicProgrammingSolver} if it's
+ * applicable for the task or by {@link BranchAndBoundSolver} if the keep-table is too big for the task.
+ * Tasks with numbers which can not be represented in the fixed-point format are solved by
+ * {@link MeetInTheMiddleSolver}. Otherwise brute force is used, it rejects too big tasks.
+ */
+public class SizeBasedSolverSelector implements SolverSelector {
+
+    private static final int DEFAULT_BRUTE_FORCE_MAX_THINGS = 15;
+
+    private final int bruteForceMaxThings;
+    private final BruteForceSolver bruteForceSolver = new BruteForceSolver();
+    private final GrayCodeSolver grayCodeSolver = new GrayCodeSolver();
+    private final DynamicProgrammingSolver dynamicProgrammingSolver = new DynamicProgrammingSolver();
+    private final BranchAndBoundSolver branchAndBoundSolver = new BranchAndBoundSolver();
+    private final MeetInTheMiddleSolver meetInTheMiddleSolver = new MeetInTheMiddleSolver();
+
+    public SizeBasedSolverSelector() {
+        this(DEFAULT_BRUTE_FORCE_MAX_THINGS);
+    }
+
+    public SizeBasedSolverSelector(int bruteForceMaxThings) {
+        this.bruteForceMaxThings = bruteForceMaxThings;
+    }
+
+    @Override
+    public PackSolver select(PackTask task) {
+        PackSolver solver = bruteForceSolver;
+        if (task.getThings().size() <= bruteForceMaxThings) {
+            if (grayCodeSolver.isApplicable(task)) {
+                solver = grayCodeSolver;
+            }
+        } else {
+            if (dynamicProgrammingSolver.isApplicable(task)) {
+                solver = dynamicProgrammingSolver;
+            } else if (branchAndBoundSolver.isApplicable(task)) {
+                solver = branchAndBoundSolver;
+            } else if (meetInTheMiddleSolver.isApplicable(task)) {
+                solver = meetInTheMiddleSolver;
+            }
+        }
+        return solver;
+    }
+
+    @Override
+    public PackSolver select(PackTaskBatch batch, int task) {
+        PackSolver solver = bruteForceSolver;
+        if (batch.getTo(task) - batch.getFrom(task) <= bruteForceMaxThings) {
+            if (grayCodeSolver.isApplicable(batch, task)) {
+                solver = grayCodeSolver;
+            }
+        } else if (dynamicProgrammingSolver.isApplicable(batch, task)) {
+            solver = dynamicProgrammingSolver;
+        } else if (branchAndBoundSolver.isApplicable(batch, task)) {
+            solver = branchAndBoundSolver;
+        }
+        return solver;
+    }
+}
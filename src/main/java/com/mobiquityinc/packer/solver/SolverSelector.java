@@ -0,0 +1,30 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+
+/**
+ * Chooses the algorithm to solve the given task.
+ */
+public interface SolverSelector {
+
+    /**
+     * Chooses the algorithm to solve the given task.
+     *
+     * @param task the task to solve
+     * @return the solver to use
+     */
+    PackSolver select(PackTask task);
+
+    /**
+     * Chooses the algorithm to solve the task of the batch. Default implementation converts the task
+     * to the object representation.
+     *
+     * @param batch batch of tasks
+     * @param task position of the task in the batch
+     * @return the solver to use
+     */
+    default PackSolver select(PackTaskBatch batch, int task) {
+        return select(batch.toPackTask(task));
+    }
+}
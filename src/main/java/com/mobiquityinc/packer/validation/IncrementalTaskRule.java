@@ -0,0 +1,53 @@
+package com.mobiquityinc.packer.validation;
+
+import com.mobiquityinc.exception.APIException;
+
+/**
+ * Rule of a task that can be checked while the task is being parsed, so tasks are not traversed again
+ * after reading and an incorrect task is rejected as soon as the incorrect number is read.
+ * Readers call the methods in the order of the line: first for the max weight of the package,
+ * then for every thing with the number of things read so far.
+ */
+public interface IncrementalTaskRule {
+
+    /**
+     * Validates max weight of the package.
+     *
+     * @param maxWeight max weight of the package
+     * @throws APIException if the rule is not satisfied
+     */
+    default void validateMaxWeight(double maxWeight) throws APIException {
+    }
+
+    /**
+     * Validates the next thing of the task.
+     *
+     * @param thingsNumber number of things read so far including this one
+     * @param index index of the thing
+     * @param weight weight of the thing
+     * @param cost cost of the thing
+     * @throws APIException if the rule is not satisfied
+     */
+    default void validateThing(int thingsNumber, int index, double weight, double cost) throws APIException {
+    }
+
+    /**
+     * Checks if all checks of the rule are done by the incremental methods,
+     * so the task does not need to be validated again after reading.
+     *
+     * @return <code>true</code> if the incremental methods cover the rule else returns <code>false</code>
+     */
+    default boolean isIncremental() {
+        return true;
+    }
+
+    /**
+     * Checks if the given rule is fully covered by its incremental methods.
+     *
+     * @param rule rule to check
+     * @return <code>true</code> if the rule is an incremental one and covers all its checks
+     */
+    static boolean isIncremental(Object rule) {
+        return rule instanceof IncrementalTaskRule && ((IncrementalTaskRule) rule).isIncremental();
+    }
+}
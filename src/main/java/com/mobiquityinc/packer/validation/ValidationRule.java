@@ -43,10 +43,11 @@ public interface ValidationRule<O> {
 
     /**
      * The rule that controls that all of the underling rules are satisfied by the given object.
+     * Incremental checks are delegated to the underlying rules that support them.
      *
      * @param <O> the type of the object to validate
      */
-    class AllOfValidationRule<O> implements ValidationRule<O> {
+    class AllOfValidationRule<O> implements ValidationRule<O>, IncrementalTaskRule {
 
         private ValidationRule<O>[] rules;
 
@@ -60,5 +61,32 @@ public interface ValidationRule<O> {
                 rule.validate(obj);
             }
         }
+
+        @Override
+        public void validateMaxWeight(double maxWeight) throws APIException {
+            for (ValidationRule<O> rule : rules) {
+                if (rule instanceof IncrementalTaskRule) {
+                    ((IncrementalTaskRule) rule).validateMaxWeight(maxWeight);
+                }
+            }
+        }
+
+        @Override
+        public void validateThing(int thingsNumber, int index, double weight, double cost) throws APIException {
+            for (ValidationRule<O> rule : rules) {
+                if (rule instanceof IncrementalTaskRule) {
+                    ((IncrementalTaskRule) rule).validateThing(thingsNumber, index, weight, cost);
+                }
+            }
+        }
+
+        @Override
+        public boolean isIncremental() {
+            boolean incremental = true;
+            for (ValidationRule<O> rule : rules) {
+                incremental &= IncrementalTaskRule.isIncremental(rule);
+            }
+            return incremental;
+        }
     }
 }
@@ -3,12 +3,14 @@ package com.mobiquityinc.packer.validation.task;
 import com.mobiquityinc.exception.APIException;
 import com.mobiquityinc.packer.domain.PackTask;
 import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
 import com.mobiquityinc.packer.validation.ValidationRule;
 
 /**
- * Checks that all things of a task satisfy the given rule.
+ * Checks that all things of a task satisfy the given rule. While parsing every thing is checked as soon as
+ * it's read, the thing object is created for the check only if the thing rule is not an incremental one.
  */
-public class EachThingSatisfyRule implements ValidationRule<PackTask> {
+public class EachThingSatisfyRule implements ValidationRule<PackTask>, IncrementalTaskRule {
 
     private final ValidationRule<Thing> thingRule;
 
@@ -22,4 +24,13 @@ public class EachThingSatisfyRule implements ValidationRule<PackTask> {
             thingRule.validate(thing);
         }
     }
+
+    @Override
+    public void validateThing(int thingsNumber, int index, double weight, double cost) throws APIException {
+        if (IncrementalTaskRule.isIncremental(thingRule)) {
+            ((IncrementalTaskRule) thingRule).validateThing(thingsNumber, index, weight, cost);
+        } else {
+            thingRule.validate(new Thing(index, weight, cost));
+        }
+    }
 }
@@ -3,12 +3,13 @@ package com.mobiquityinc.packer.validation.task;
 import com.mobiquityinc.exception.APIException;
 import com.mobiquityinc.exception.APIException.ValidationException;
 import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
 import com.mobiquityinc.packer.validation.ValidationRule;
 
 /**
  * Checks that package has weight up to the given maximum value (default 100.0).
  */
-public class MaxPackageWeightRule implements ValidationRule<PackTask> {
+public class MaxPackageWeightRule implements ValidationRule<PackTask>, IncrementalTaskRule {
 
     private static final double DEFAULT_MAX_WEIGHT = 100.0;
 
@@ -24,9 +25,14 @@ public class MaxPackageWeightRule implements ValidationRule<PackTask> {
 
     @Override
     public void validate(PackTask task) throws APIException {
-        if (task.getMaxWeight() > max) {
+        validateMaxWeight(task.getMaxWeight());
+    }
+
+    @Override
+    public void validateMaxWeight(double maxWeight) throws APIException {
+        if (maxWeight > max) {
             throw new ValidationException(
-                String.format("Max weight that a package can take is ≤ %s, given: %s", max, task.getMaxWeight())
+                String.format("Max weight that a package can take is ≤ %s, given: %s", max, maxWeight)
             );
         }
     }
@@ -3,12 +3,13 @@ package com.mobiquityinc.packer.validation.task;
 import com.mobiquityinc.exception.APIException;
 import com.mobiquityinc.exception.APIException.ValidationException;
 import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
 import com.mobiquityinc.packer.validation.ValidationRule;
 
 /**
  * Checks that package has up to the given maximum value number of things (default 15).
  */
-public class MaxThingsNumberRule implements ValidationRule<PackTask> {
+public class MaxThingsNumberRule implements ValidationRule<PackTask>, IncrementalTaskRule {
 
     private static final int DEFAULT_MAX_THINGS_NUMBER = 15;
 
@@ -24,9 +25,24 @@ public class MaxThingsNumberRule implements ValidationRule<PackTask> {
 
     @Override
     public void validate(PackTask task) throws APIException {
-        if (task.getThings().size() > max) {
+        validateThingsNumber(task.getThings().size());
+    }
+
+    @Override
+    public void validateThing(int thingsNumber, int index, double weight, double cost) throws APIException {
+        validateThingsNumber(thingsNumber);
+    }
+
+    /**
+     * Validates the number of things of a task.
+     *
+     * @param thingsNumber number of things of the task
+     * @throws APIException if the number exceeds the maximum value
+     */
+    public void validateThingsNumber(int thingsNumber) throws APIException {
+        if (thingsNumber > max) {
             throw new ValidationException(
-                String.format("Task might have up to %s things to pack from, given: %s", max, task.getThings().size())
+                String.format("Task might have up to %s things to pack from, given: %s", max, thingsNumber)
             );
         }
     }
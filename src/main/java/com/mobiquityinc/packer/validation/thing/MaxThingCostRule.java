@@ -3,12 +3,13 @@ package com.mobiquityinc.packer.validation.thing;
 import com.mobiquityinc.exception.APIException;
 import com.mobiquityinc.exception.APIException.ValidationException;
 import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
 import com.mobiquityinc.packer.validation.ValidationRule;
 
 /**
  * Checks that a thing has cost up to the given maximum value (default 100.0).
  */
-public class MaxThingCostRule implements ValidationRule<Thing> {
+public class MaxThingCostRule implements ValidationRule<Thing>, IncrementalTaskRule {
 
     private static final double DEFAULT_MAX_COST = 100.0;
 
@@ -24,9 +25,14 @@ public class MaxThingCostRule implements ValidationRule<Thing> {
 
     @Override
     public void validate(Thing thing) throws APIException {
-        if (thing.getCost() > max) {
+        validateThing(0, thing.getIndex(), thing.getWeight(), thing.getCost());
+    }
+
+    @Override
+    public void validateThing(int thingsNumber, int index, double weight, double cost) throws APIException {
+        if (cost > max) {
             throw new ValidationException(
-                String.format("Max cost that a thing can have is ≤ %s, given: %s", max, thing.getCost())
+                String.format("Max cost that a thing can have is ≤ %s, given: %s", max, cost)
             );
         }
     }
@@ -3,12 +3,13 @@ package com.mobiquityinc.packer.validation.thing;
 import com.mobiquityinc.exception.APIException;
 import com.mobiquityinc.exception.APIException.ValidationException;
 import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
 import com.mobiquityinc.packer.validation.ValidationRule;
 
 /**
  * Checks that a thing has weight up to the given maximum value (default 100.0).
  */
-public class MaxThingWeightRule implements ValidationRule<Thing> {
+public class MaxThingWeightRule implements ValidationRule<Thing>, IncrementalTaskRule {
 
     private static final double DEFAULT_MAX_WEIGHT = 100.0;
 
@@ -24,9 +25,14 @@ public class MaxThingWeightRule implements ValidationRule<Thing> {
 
     @Override
     public void validate(Thing thing) throws APIException {
-        if (thing.getWeight() > max) {
+        validateThing(0, thing.getIndex(), thing.getWeight(), thing.getCost());
+    }
+
+    @Override
+    public void validateThing(int thingsNumber, int index, double weight, double cost) throws APIException {
+        if (weight > max) {
             throw new ValidationException(
-                String.format("Max weight that a thing can have is ≤ %s, given: %s", max, thing.getWeight())
+                String.format("Max weight that a thing can have is ≤ %s, given: %s", max, weight)
             );
         }
     }
@@ -2,12 +2,43 @@ package com.mobiquityinc.packer;
 
 import com.mobiquityinc.exception.APIException;
 import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.execution.ExecutionStrategy;
+import com.mobiquityinc.packer.io.BytePackTaskReader;
 import com.mobiquityinc.packer.io.PackTaskReader;
+import com.mobiquityinc.packer.io.PackageWriter;
+import com.mobiquityinc.packer.solver.BranchAndBoundSolver;
+import com.mobiquityinc.packer.solver.PackSolver;
+import com.mobiquityinc.packer.validation.ValidationRule;
+import com.mobiquityinc.packer.validation.task.EachThingSatisfyRule;
+import com.mobiquityinc.packer.validation.task.MaxPackageWeightRule;
+import com.mobiquityinc.packer.validation.thing.MaxThingCostRule;
+import com.mobiquityinc.packer.validation.thing.MaxThingWeightRule;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import static com.mobiquityinc.packer.validation.ValidationRule.allOf;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 
@@ -27,6 +58,99 @@ public class PackerTest {
         );
     }
 
+    @Test
+    public void whenBatchThenSameResultAsForTasks() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+            PackTaskReader reader = new PackTaskReader(getClass().getClassLoader().getResourceAsStream("success_test_case.txt"));
+            Packer packer = new Packer();
+            PackageWriter writer = new PackageWriter(out)) {
+            final PackTaskBatch batch = new PackTaskBatch();
+            reader.readBatch(batch, Integer.MAX_VALUE);
+            packer.pack(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                writer.write(batch, i);
+            }
+        }
+        assertThat(new String(out.toByteArray())).isEqualTo("4\n-\n2,7\n8,9\n");
+    }
+
+    @Test
+    public void whenStreamingThenResultsWrittenInInputOrder() throws Exception {
+        final Random random = new Random(3);
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            input.append(random.nextInt(101)).append(" :");
+            for (int j = 1; j <= 1 + random.nextInt(15); j++) {
+                input.append(" (").append(j).append(',').append(random.nextInt(10000) / 100.0)
+                    .append(",€").append(random.nextInt(101)).append(')');
+            }
+            input.append('\n');
+        }
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+            PackTaskReader reader = new PackTaskReader(new ByteArrayInputStream(input.toString().getBytes()));
+            PackTaskReader streamReader = new PackTaskReader(new ByteArrayInputStream(input.toString().getBytes()));
+            Packer packer = new Packer();
+            PackageWriter expectedWriter = new PackageWriter(expected);
+            PackageWriter writer = new PackageWriter(out)) {
+            packer.pack(reader.readAll()).forEach(expectedWriter::write);
+            packer.pack(streamReader, writer, 8);
+        }
+        assertThat(new String(out.toByteArray())).isEqualTo(new String(expected.toByteArray()));
+    }
+
+    static Stream<Arguments> strategies() {
+        return Stream.of(
+            Arguments.of((Supplier<ExecutionStrategy>) () -> ExecutionStrategy.workStealing(3)),
+            Arguments.of((Supplier<ExecutionStrategy>) () -> ExecutionStrategy.batched(2)),
+            Arguments.of((Supplier<ExecutionStrategy>) () -> ExecutionStrategy.longestFirst(2)),
+            Arguments.of((Supplier<ExecutionStrategy>) () -> ExecutionStrategy.longestFirst(Executors.newFixedThreadPool(3), 1)),
+            Arguments.of((Supplier<ExecutionStrategy>) () -> ExecutionStrategy.batched(3).withMemoryBudget(64 * 1024)),
+            Arguments.of((Supplier<ExecutionStrategy>) ExecutionStrategy::sameThread)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("strategies")
+    public void whenExecutionStrategyChangedThenSameResults(Supplier<ExecutionStrategy> strategy) throws Exception {
+        final Random random = new Random(5);
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            input.append(random.nextInt(101)).append(" :");
+            for (int j = 1; j <= 1 + random.nextInt(15); j++) {
+                input.append(" (").append(j).append(',').append(random.nextInt(10000) / 100.0)
+                    .append(",€").append(random.nextInt(101)).append(')');
+            }
+            input.append('\n');
+        }
+        final List<PackTask> tasks = new PackTaskReader(new ByteArrayInputStream(input.toString().getBytes())).readAll();
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        final ByteArrayOutputStream listOut = new ByteArrayOutputStream();
+        final ByteArrayOutputStream streamOut = new ByteArrayOutputStream();
+        final ByteArrayOutputStream batchOut = new ByteArrayOutputStream();
+        try (
+            Packer packer = new Packer();
+            Packer strategyPacker = new Packer(strategy.get());
+            PackageWriter expectedWriter = new PackageWriter(expected);
+            PackageWriter listWriter = new PackageWriter(listOut);
+            PackageWriter streamWriter = new PackageWriter(streamOut);
+            PackageWriter batchWriter = new PackageWriter(batchOut)) {
+            packer.pack(tasks).forEach(expectedWriter::write);
+            strategyPacker.pack(tasks).forEach(listWriter::write);
+            strategyPacker.pack(new PackTaskReader(new ByteArrayInputStream(input.toString().getBytes())), streamWriter, 16);
+            final PackTaskBatch batch = PackTaskBatch.of(tasks);
+            strategyPacker.pack(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                batchWriter.write(batch, i);
+            }
+        }
+        assertThat(new String(listOut.toByteArray())).isEqualTo(new String(expected.toByteArray()));
+        assertThat(new String(streamOut.toByteArray())).isEqualTo(new String(expected.toByteArray()));
+        assertThat(new String(batchOut.toByteArray())).isEqualTo(new String(expected.toByteArray()));
+    }
+
     @Test
     public void whenIncorrectFilePathThenApiExceptionThrown() {
         assertThatExceptionOfType(APIException.class).isThrownBy(() -> Packer.pack("broken_path"));
@@ -78,4 +202,287 @@ public class PackerTest {
         }).withMessage("Max cost that a thing can have is ≤ %s, given: %s", 100.0, 145.0);
     }
 
+    @Test
+    public void whenBatchTaskIsIncorrectThenSameExceptionAsForTasks() throws Exception {
+        final List<PackTask> tasks = new PackTaskReader(new ByteArrayInputStream(
+            "81 : (1,53.38,€45)\n20 : (1,153.38,€45)\n".getBytes())).readAll();
+        try (Packer packer = new Packer(); Packer notIncremental = new Packer(1, task -> packer.validate(task))) {
+            assertThatExceptionOfType(ValidationException.class).isThrownBy(() -> packer.pack(PackTaskBatch.of(tasks)))
+                .withMessage("Max weight that a thing can have is ≤ %s, given: %s", 100.0, 153.38);
+            assertThatExceptionOfType(ValidationException.class).isThrownBy(() -> notIncremental.pack(PackTaskBatch.of(tasks)))
+                .withMessage("Max weight that a thing can have is ≤ %s, given: %s", 100.0, 153.38);
+        }
+    }
+
+    @Test
+    public void whenMemoryBudgetSetThenTasksSolvedWithinBudget() throws Exception {
+        final AtomicInteger solving = new AtomicInteger();
+        final AtomicInteger maxSolving = new AtomicInteger();
+        final PackSolver solver = new PackSolver() {
+            @Override
+            public Package solve(PackTask task) {
+                maxSolving.accumulateAndGet(solving.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                solving.decrementAndGet();
+                return new Package(Collections.emptyList());
+            }
+
+            @Override
+            public long estimateMemory(PackTask task) {
+                return task.getThings().size() * 100L;
+            }
+        };
+        final List<PackTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final List<Thing> things = new ArrayList<>();
+            // the task of 5 things takes more than the whole budget
+            for (int j = 1; j <= (i == 20 ? 5 : 1); j++) {
+                things.add(new Thing(j, 10.0, 10.0));
+            }
+            tasks.add(new PackTask(50.0, things));
+        }
+        final ExecutionStrategy strategy = ExecutionStrategy.fixedThreadPool(4).withMemoryBudget(250);
+        try (Packer packer = new Packer(strategy, new MaxPackageWeightRule(), task -> solver)) {
+            assertThat(packer.pack(tasks)).hasSize(40);
+        }
+        assertThat(maxSolving.get()).isBetween(1, 2);
+        assertThat(strategy.getMemoryBudget().getAvailable()).isEqualTo(250);
+        assertThat(strategy.getMemoryBudget().getWaits()).isPositive();
+    }
+
+    @Test
+    public void whenCapIsLiftedThenBigTaskSolved() throws Exception {
+        final List<Thing> things = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            things.add(new Thing(i, 10.0, i == 17 || i == 33 ? 50.0 : 1.0));
+        }
+        final ValidationRule<PackTask> rule = allOf(
+            new MaxPackageWeightRule(),
+            new EachThingSatisfyRule(allOf(new MaxThingCostRule(), new MaxThingWeightRule()))
+        );
+        try (Packer packer = new Packer(2, rule)) {
+            final List<Package> packages = packer.pack(Collections.singletonList(new PackTask(100.0, things)));
+            assertThat(packages).hasSize(1);
+            assertThat(packages.get(0).getThings()).extracting(Thing::getIndex).containsExactly(1, 2, 3, 4, 5, 6, 7, 17, 33);
+        }
+    }
+
+    @Test
+    public void whenBatchDeadlineExpiredThenFeasiblePackagesReturned() throws Exception {
+        final Random random = new Random(31);
+        final List<PackTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final List<Thing> things = new ArrayList<>();
+            for (int j = 1; j <= 60; j++) {
+                final int weight = 100 + random.nextInt(8900);
+                things.add(new Thing(j, weight / 100.0, (weight + 1000) / 100.0));
+            }
+            tasks.add(new PackTask(100.0, things));
+        }
+        final ValidationRule<PackTask> rule = allOf(
+            new MaxPackageWeightRule(),
+            new EachThingSatisfyRule(allOf(new MaxThingCostRule(), new MaxThingWeightRule()))
+        );
+        final BranchAndBoundSolver solver = new BranchAndBoundSolver();
+        try (Packer packer = new Packer(2, rule, task -> solver)) {
+            final List<Package> packages = packer.pack(tasks, Duration.ZERO, Duration.ofMillis(50));
+            assertThat(packages).hasSize(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                assertThat(packages.get(i).getGap()).isNotNegative();
+                assertThat(packages.get(i).getThings()).isNotEmpty();
+                assertThat(packages.get(i).getThings().stream().mapToDouble(Thing::getWeight).sum())
+                    .isLessThan(tasks.get(i).getMaxWeight());
+            }
+            assertThat(packages).anyMatch(p -> !p.isOptimal());
+        }
+    }
+
+    @Test
+    public void whenTaskTimeoutExpiredThenDefaultSolversGiveFeasiblePackages() throws Exception {
+        final Random random = new Random(13);
+        final List<PackTask> tasks = new ArrayList<>();
+        // solved by Gray code and dynamic programming
+        for (int size : new int[] {15, 40}) {
+            final List<Thing> things = new ArrayList<>();
+            for (int j = 1; j <= size; j++) {
+                final int weight = 100 + random.nextInt(8900);
+                things.add(new Thing(j, weight / 100.0, (weight + 1000) / 100.0));
+            }
+            tasks.add(new PackTask(100.0, things));
+        }
+        final ValidationRule<PackTask> rule = allOf(
+            new MaxPackageWeightRule(),
+            new EachThingSatisfyRule(allOf(new MaxThingCostRule(), new MaxThingWeightRule()))
+        );
+        try (Packer exact = new Packer(1, rule); Packer packer = new Packer(1, rule)) {
+            final List<Package> optimal = exact.pack(tasks);
+            final List<Package> packages = packer.pack(tasks, Duration.ZERO, null);
+            assertThat(packages).hasSize(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                assertThat(packages.get(i).isOptimal()).isFalse();
+                assertThat(cost(packages.get(i)) + packages.get(i).getGap()).isGreaterThanOrEqualTo(cost(optimal.get(i)) - 1e-9);
+                assertThat(packages.get(i).getThings().stream().mapToDouble(Thing::getWeight).sum())
+                    .isLessThan(tasks.get(i).getMaxWeight());
+            }
+        }
+    }
+
+    @Test
+    public void whenEpsilonGivenThenApproximatePackagesReported() throws Exception {
+        final Random random = new Random(41);
+        final List<Thing> things = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            things.add(new Thing(i, (1 + random.nextInt(9000)) / 100.0, (1 + random.nextInt(10000)) / 100.0));
+        }
+        final PackTask task = new PackTask(100.0, things);
+        final ValidationRule<PackTask> rule = allOf(
+            new MaxPackageWeightRule(),
+            new EachThingSatisfyRule(allOf(new MaxThingCostRule(), new MaxThingWeightRule()))
+        );
+        try (Packer exact = new Packer(1, rule); Packer approximate = new Packer(1, rule, 0.2)) {
+            final double optimum = cost(exact.pack(Collections.singletonList(task)).get(0));
+            final Package pack = approximate.pack(Collections.singletonList(task)).get(0);
+            assertThat(cost(pack)).isGreaterThanOrEqualTo(0.8 * optimum);
+            assertThat(cost(pack) + pack.getGap()).isGreaterThanOrEqualTo(optimum);
+        }
+    }
+
+    private static double cost(Package pack) {
+        return pack.getThings().stream().mapToDouble(Thing::getCost).sum();
+    }
+
+    @ParameterizedTest
+    @MethodSource("strategies")
+    public void whenErrorsIsolatedThenErrorRecordsWrittenInPlaceOfPackages(Supplier<ExecutionStrategy> strategy) throws Exception {
+        final String input = "" +
+            "81 : (1,53.38,€45) (2,88.62,€98)\n" +
+            "8 : (1,15.3,34)\n" +
+            "75 : (1,85.31,€29) (2,14.55,€74)\n" +
+            "101 : (1,15.3,€34)\n" +
+            "8 : (1,15.3,€34)\n";
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+            BytePackTaskReader reader = new BytePackTaskReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+            Packer packer = new Packer(strategy.get());
+            PackageWriter writer = new PackageWriter(out)) {
+            packer.pack(reader, writer, 4, ErrorPolicy.ISOLATE);
+        }
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("" +
+            "1\n" +
+            "! line 2: Check the input format! It's incorrect!\n" +
+            "2\n" +
+            "! line 4: Max weight that a package can take is ≤ 100.0, given: 101.0\n" +
+            "-\n");
+    }
+
+    @ParameterizedTest
+    @MethodSource("strategies")
+    public void whenTaskFailsAfterReadingThenErrorRecordHasItsLine(Supplier<ExecutionStrategy> strategy) throws Exception {
+        final ValidationRule<PackTask> rule = task -> {
+            if (task.getThings().size() > 1) {
+                throw new ValidationException("Only one thing is allowed");
+            }
+        };
+        final PackSolver solver = new PackSolver() {
+            @Override
+            public Package solve(PackTask task) throws APIException {
+                if (task.getMaxWeight() == 9) {
+                    throw new ValidationException("Max weight 9 is not supported");
+                }
+                return new Package(Collections.emptyList());
+            }
+        };
+        final String input = "" +
+            "8 : (1,15.3,€34)\n" +
+            "8 : (1,15.3,€34) (2,1,€1)\n" +
+            "\n" +
+            "9 : (1,15.3,€34)\n" +
+            "8 : (1,15.3,€34)\n";
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+            BytePackTaskReader reader = new BytePackTaskReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+            Packer packer = new Packer(strategy.get(), rule, task -> solver);
+            PackageWriter writer = new PackageWriter(out)) {
+            packer.pack(reader, writer, 4, ErrorPolicy.ISOLATE);
+        }
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("" +
+            "-\n" +
+            "! line 2: Only one thing is allowed\n" +
+            "! line 4: Max weight 9 is not supported\n" +
+            "-\n");
+    }
+
+    @Test
+    public void whenSourceDoesNotCountLinesThenTaskFailsAtItsNumber() throws Exception {
+        final ValidationRule<PackTask> rule = task -> {
+            if (task.getThings().size() > 1) {
+                throw new ValidationException("Only one thing is allowed");
+            }
+        };
+        try (
+            PackTaskReader reader = new PackTaskReader(new ByteArrayInputStream(
+                "8 : (1,15.3,€34)\n8 : (1,15.3,€34) (2,1,€1)\n".getBytes(StandardCharsets.UTF_8)));
+            Packer packer = new Packer(1, rule);
+            PackageWriter writer = new PackageWriter(new ByteArrayOutputStream())) {
+            Assertions.assertThatThrownBy(() -> packer.pack(reader, writer))
+                .isInstanceOf(ValidationException.class)
+                .hasFieldOrPropertyWithValue("line", 2L);
+        }
+    }
+
+    @Test
+    public void whenRuleIsNotIncrementalThenTaskValidatedAfterReading() throws Exception {
+        final ValidationRule<PackTask> rule = task -> {
+            if (task.getThings().size() > 1) {
+                throw new ValidationException("Only one thing is allowed");
+            }
+        };
+        try (
+            BytePackTaskReader reader = new BytePackTaskReader(new ByteArrayInputStream(
+                "8 : (1,15.3,€34) (2,1,€1)\n".getBytes(StandardCharsets.UTF_8)));
+            Packer packer = new Packer(1, rule);
+            PackageWriter writer = new PackageWriter(new ByteArrayOutputStream())) {
+            assertThatExceptionOfType(ValidationException.class).isThrownBy(() -> packer.pack(reader, writer))
+                .withMessage("Only one thing is allowed");
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("strategies")
+    public void whenPackedAsynchronouslyThenSameResults(Supplier<ExecutionStrategy> strategy) throws Exception {
+        final Random random = new Random(7);
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            input.append(random.nextInt(101)).append(" :");
+            for (int j = 1; j <= 1 + random.nextInt(15); j++) {
+                input.append(" (").append(j).append(',').append(random.nextInt(10000) / 100.0)
+                    .append(",€").append(random.nextInt(101)).append(')');
+            }
+            input.append('\n');
+        }
+        final List<PackTask> tasks = new PackTaskReader(new ByteArrayInputStream(input.toString().getBytes())).readAll();
+        try (Packer packer = new Packer(strategy.get())) {
+            final List<CompletableFuture<Package>> futures = new ArrayList<>();
+            tasks.forEach(task -> futures.add(packer.packAsync(task)));
+            final List<Package> expected = packer.pack(tasks);
+            for (int i = 0; i < tasks.size(); i++) {
+                assertThat(futures.get(i).get().getThings()).isEqualTo(expected.get(i).getThings());
+            }
+        }
+    }
+
+    @Test
+    public void whenAsyncTaskIsIncorrectThenFutureCompletedExceptionally() throws Exception {
+        try (Packer packer = new Packer()) {
+            final CompletableFuture<Package> future = packer.packAsync(
+                new PackTaskReader(new ByteArrayInputStream("200 : (1,53.38,€45)".getBytes())).readAll().get(0)
+            );
+            assertThatExceptionOfType(ExecutionException.class).isThrownBy(future::get)
+                .withCauseInstanceOf(ValidationException.class);
+        }
+    }
 }
@@ -0,0 +1,81 @@
+package com.mobiquityinc.packer.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MemoryBudgetTest {
+
+    @Test
+    public void whenAsyncReservationQueuedThenBlockingOneDoesNotOvertakeIt() throws Exception {
+        final MemoryBudget budget = new MemoryBudget(10);
+        final List<String> granted = new CopyOnWriteArrayList<>();
+        final long held = budget.acquire(6);
+        budget.acquireAsync(8, reserved -> granted.add("async"));
+        final Thread blocking = new Thread(() -> {
+            try {
+                budget.acquire(4);
+                granted.add("blocking");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        blocking.start();
+        while (blocking.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        assertThat(granted).isEmpty();
+        budget.release(held);
+        assertThat(granted).containsExactly("async");
+        budget.release(8);
+        blocking.join();
+        assertThat(granted).containsExactly("async", "blocking");
+        assertThat(budget.getAvailable()).isEqualTo(6);
+    }
+
+    @Test
+    public void whenBlockingWaiterInterruptedThenReservationsBehindItServed() throws Exception {
+        final MemoryBudget budget = new MemoryBudget(10);
+        final AtomicInteger granted = new AtomicInteger();
+        final long held = budget.acquire(5);
+        final Thread blocking = new Thread(() -> {
+            try {
+                budget.acquire(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        blocking.start();
+        while (blocking.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        budget.acquireAsync(5, reserved -> granted.incrementAndGet());
+        assertThat(granted).hasValue(0);
+        blocking.interrupt();
+        blocking.join();
+        assertThat(granted).hasValue(1);
+        budget.release(held);
+        budget.release(5);
+        assertThat(budget.getAvailable()).isEqualTo(10);
+    }
+
+    @Test
+    public void whenGrantedActionsReleaseMemoryThenStackDoesNotGrowWithQueue() throws Exception {
+        final MemoryBudget budget = new MemoryBudget(1);
+        final AtomicInteger solved = new AtomicInteger();
+        final long held = budget.acquire(1);
+        for (int i = 0; i < 100_000; i++) {
+            budget.acquireAsync(1, reserved -> {
+                solved.incrementAndGet();
+                budget.release(reserved);
+            });
+        }
+        budget.release(held);
+        assertThat(solved).hasValue(100_000);
+        assertThat(budget.getAvailable()).isEqualTo(1);
+    }
+}
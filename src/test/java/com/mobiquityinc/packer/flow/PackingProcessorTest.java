@@ -0,0 +1,204 @@
+package com.mobiquityinc.packer.flow;
+
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.Packer;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.execution.ExecutionStrategy;
+import com.mobiquityinc.packer.solver.DynamicProgrammingSolver;
+import com.mobiquityinc.packer.validation.task.MaxPackageWeightRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PackingProcessorTest {
+
+    @Test
+    public void whenTasksPublishedThenPackagesEmittedInOrderWithinDemand() throws Exception {
+        final List<PackTask> tasks = tasks(500);
+        try (
+            Packer packer = new Packer(ExecutionStrategy.workStealing(3));
+            SubmissionPublisher<PackTask> publisher = new SubmissionPublisher<>()) {
+            final PackingProcessor processor = new PackingProcessor(packer, 8);
+            final TestSubscriber subscriber = new TestSubscriber(3);
+            publisher.subscribe(processor);
+            processor.subscribe(subscriber);
+            tasks.forEach(publisher::submit);
+            publisher.close();
+            assertThat(subscriber.done.await(30, TimeUnit.SECONDS)).isTrue();
+            assertThat(subscriber.error).isNull();
+            assertThat(subscriber.overflow).isFalse();
+            final List<Package> expected = packer.pack(tasks);
+            assertThat(subscriber.packages).hasSameSizeAs(expected);
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(subscriber.packages.get(i).getThings()).isEqualTo(expected.get(i).getThings());
+            }
+        }
+    }
+
+    @Test
+    public void whenMemoryBudgetExhaustedThenPackagesEmittedWithoutDeadlock() throws Exception {
+        final List<PackTask> tasks = tasks(200);
+        final DynamicProgrammingSolver solver = new DynamicProgrammingSolver();
+        // every task takes the whole budget, so the only thread of the pool completes tasks while others wait
+        final ExecutionStrategy strategy = ExecutionStrategy.fixedThreadPool(1).withMemoryBudget(1);
+        try (
+            Packer packer = new Packer(strategy, new MaxPackageWeightRule(), task -> solver);
+            SubmissionPublisher<PackTask> publisher = new SubmissionPublisher<>()) {
+            final PackingProcessor processor = new PackingProcessor(packer, 8);
+            final TestSubscriber subscriber = new TestSubscriber(3);
+            publisher.subscribe(processor);
+            processor.subscribe(subscriber);
+            tasks.forEach(publisher::submit);
+            publisher.close();
+            assertThat(subscriber.done.await(30, TimeUnit.SECONDS)).isTrue();
+            assertThat(subscriber.error).isNull();
+            final List<Package> expected = packer.pack(tasks);
+            assertThat(subscriber.packages).hasSameSizeAs(expected);
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(subscriber.packages.get(i).getThings()).isEqualTo(expected.get(i).getThings());
+            }
+        }
+        assertThat(strategy.getMemoryBudget().getAvailable()).isEqualTo(1);
+        assertThat(strategy.getMemoryBudget().getWaits()).isPositive();
+    }
+
+    @Test
+    public void whenNothingRequestedThenNoTaskRequested() throws Exception {
+        try (Packer packer = new Packer()) {
+            final AtomicInteger requested = new AtomicInteger();
+            final PackingProcessor processor = new PackingProcessor(packer, 8);
+            final TestSubscriber subscriber = new TestSubscriber(0);
+            processor.subscribe(subscriber);
+            processor.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet((int) n);
+                }
+
+                @Override
+                public void cancel() {
+                    // nothing to cancel
+                }
+            });
+            assertThat(requested).hasValue(0);
+            subscriber.subscription.request(5);
+            assertThat(requested).hasValue(5);
+            subscriber.subscription.request(100);
+            assertThat(requested).hasValue(8);
+        }
+    }
+
+    @Test
+    public void whenTaskIsIncorrectThenErrorEmittedAndPublisherCancelled() throws Exception {
+        final List<PackTask> tasks = new ArrayList<>(tasks(50));
+        tasks.set(20, new PackTask(200.0, Collections.singletonList(new Thing(1, 1.0, 1.0))));
+        try (
+            Packer packer = new Packer();
+            SubmissionPublisher<PackTask> publisher = new SubmissionPublisher<>()) {
+            final PackingProcessor processor = new PackingProcessor(packer, 4);
+            final TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+            publisher.subscribe(processor);
+            processor.subscribe(subscriber);
+            for (PackTask task : tasks) {
+                if (!publisher.isClosed() && publisher.getNumberOfSubscribers() > 0) {
+                    publisher.offer(task, 1, TimeUnit.SECONDS, (s, t) -> false);
+                }
+            }
+            assertThat(subscriber.done.await(30, TimeUnit.SECONDS)).isTrue();
+            assertThat(subscriber.error).isInstanceOf(ValidationException.class);
+            assertThat(subscriber.packages).hasSize(20);
+            // the publisher removes the cancelled subscription asynchronously
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (publisher.getNumberOfSubscribers() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(publisher.getNumberOfSubscribers()).isZero();
+        }
+    }
+
+    @Test
+    public void whenSecondSubscriberThenItIsRejected() throws Exception {
+        try (Packer packer = new Packer()) {
+            final PackingProcessor processor = new PackingProcessor(packer);
+            processor.subscribe(new TestSubscriber(1));
+            final TestSubscriber second = new TestSubscriber(1);
+            processor.subscribe(second);
+            assertThat(second.error).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    private static List<PackTask> tasks(int count) {
+        final Random random = new Random(24);
+        final List<PackTask> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final List<Thing> things = new ArrayList<>();
+            for (int j = 0; j < 1 + random.nextInt(15); j++) {
+                things.add(new Thing(j + 1, random.nextInt(10000) / 100.0, (double) random.nextInt(101)));
+            }
+            tasks.add(new PackTask((double) random.nextInt(101), things));
+        }
+        return tasks;
+    }
+
+    /**
+     * Requests the given number of packages at a time and checks that no more packages than requested are emitted.
+     */
+    private static final class TestSubscriber implements Flow.Subscriber<Package> {
+
+        private final long batch;
+        private final List<Package> packages = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+        private long outstanding;
+        private volatile boolean overflow;
+        private volatile Throwable error;
+
+        private TestSubscriber(long batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            subscription = s;
+            if (batch > 0) {
+                outstanding = batch;
+                s.request(batch);
+            }
+        }
+
+        @Override
+        public void onNext(Package item) {
+            packages.add(item);
+            if (--outstanding < 0) {
+                overflow = true;
+            }
+            if (outstanding == 0 && batch > 0) {
+                outstanding = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BinaryConverterTest {
+
+    @Test
+    public void whenTasksConvertedThereAndBackThenSameTasks() throws Exception {
+        final String input = BytePackTaskReaderTest.randomInput(new Random(43), 200);
+        final Path text = Files.createTempFile("tasks", ".txt");
+        final Path binary = Files.createTempFile("tasks", ".bin");
+        final Path back = Files.createTempFile("tasks", ".txt");
+        try {
+            Files.write(text, input.getBytes(StandardCharsets.UTF_8));
+            assertThat(BinaryConverter.tasksToBinary(text, binary)).isEqualTo(200);
+            assertThat(BinaryConverter.tasksToText(binary, back)).isEqualTo(200);
+            final List<PackTask> expected = new BytePackTaskReader(ByteBuffer.wrap(Files.readAllBytes(text))).readAll();
+            final List<PackTask> actual = new BytePackTaskReader(ByteBuffer.wrap(Files.readAllBytes(back))).readAll();
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i).getMaxWeight()).isEqualTo(expected.get(i).getMaxWeight());
+                assertThat(actual.get(i).getThings()).isEqualTo(expected.get(i).getThings());
+            }
+            assertThat(Files.size(binary)).isLessThan(Files.size(text) / 2);
+        } finally {
+            Files.delete(text);
+            Files.delete(binary);
+            Files.delete(back);
+        }
+    }
+
+    @Test
+    public void whenTaskFormattedThenInsignificantZerosDropped() {
+        final PackTask task = new PackTask(81.0, Arrays.asList(new Thing(1, 53.38, 45.0), new Thing(4, 72.30, 0.5)));
+        assertThat(BinaryConverter.format(task)).isEqualTo("81 : (1,53.38,€45) (4,72.3,€0.5)");
+    }
+
+    @Test
+    public void whenPackagesConvertedThenSameAsTextOutput() throws Exception {
+        final Package[] packages = {
+            new Package(Arrays.asList(new Thing(2, 15.3, 34.0), new Thing(7, 57.05, 100.0)), 1.5),
+            new Package(Arrays.asList())
+        };
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        try (
+            PackageWriter textWriter = new PackageWriter(expected, StandardPackageFormat.CSV_WITH_TOTALS);
+            PackageWriter binaryWriter = new PackageWriter(binary, StandardPackageFormat.BINARY)) {
+            for (PackageWriter writer : new PackageWriter[] {textWriter, binaryWriter}) {
+                writer.write(packages[0]);
+                writer.writeError(new ValidationException("Max weight is ≤ 100.0", 2));
+                writer.write(packages[1]);
+            }
+        }
+        final BinaryPackageReader reader = new BinaryPackageReader(ByteBuffer.wrap(binary.toByteArray()));
+        assertThat(reader.readNext().getThings()).isEqualTo(packages[0].getThings());
+
+        final Path file = Files.createTempFile("packages", ".bin");
+        final Path text = Files.createTempFile("packages", ".txt");
+        try {
+            Files.write(file, binary.toByteArray());
+            assertThat(BinaryConverter.packagesToText(file, text, StandardPackageFormat.CSV_WITH_TOTALS)).isEqualTo(3);
+            assertThat(Files.readAllBytes(text)).isEqualTo(expected.toByteArray());
+        } finally {
+            Files.delete(file);
+            Files.delete(text);
+        }
+    }
+}
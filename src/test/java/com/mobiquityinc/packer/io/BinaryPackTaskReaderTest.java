@@ -0,0 +1,131 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.validation.task.MaxPackageWeightRule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class BinaryPackTaskReaderTest {
+
+    @Test
+    public void whenTasksWrittenThenSameTasksRead() throws Exception {
+        final List<PackTask> expected = randomTasks(31, 300);
+        final List<PackTask> actual = new BinaryPackTaskReader(ByteBuffer.wrap(write(expected))).readAll();
+        assertSameTasks(actual, expected);
+    }
+
+    @Test
+    public void whenSmallRegionsThenRecordsReadAcrossRegions() throws Exception {
+        final List<PackTask> expected = randomTasks(37, 300);
+        final Path file = Files.createTempFile("tasks", ".bin");
+        Files.write(file, write(expected));
+        try (BinaryPackTaskReader reader = new BinaryPackTaskReader(file, 16)) {
+            assertSameTasks(reader.readAll(), expected);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void whenReadBatchThenSameNumbersAsTextReader() throws Exception {
+        final String input = BytePackTaskReaderTest.randomInput(new Random(41), 100);
+        final PackTaskBatch expected = new PackTaskBatch();
+        new BytePackTaskReader(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8))).readBatch(expected, 1000);
+        final List<PackTask> tasks = new BytePackTaskReader(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8))).readAll();
+        final PackTaskBatch actual = new PackTaskBatch();
+        assertThat(new BinaryPackTaskReader(ByteBuffer.wrap(write(tasks))).readBatch(actual, 1000)).isEqualTo(expected.size());
+        for (int task = 0; task < expected.size(); task++) {
+            assertThat(actual.getMaxWeight(task)).isEqualTo(expected.getMaxWeight(task));
+            assertThat(actual.getTo(task)).isEqualTo(expected.getTo(task));
+        }
+        for (int i = 0; i < expected.getThingsNumber(); i++) {
+            assertThat(actual.getIndices()[i]).isEqualTo(expected.getIndices()[i]);
+            assertThat(actual.getWeights()[i]).isEqualTo(expected.getWeights()[i]);
+            assertThat(actual.getCosts()[i]).isEqualTo(expected.getCosts()[i]);
+        }
+    }
+
+    @Test
+    public void whenRecordsAreIncorrectThenOtherRecordsRead() throws Exception {
+        final List<PackTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new PackTask(i == 3 ? 101.0 : 8.0, Collections.singletonList(new Thing(1, 15.3, 34.0))));
+        }
+        final byte[] bytes = write(tasks);
+        // records take 9 bytes, the record of the task 7 claims more things than it has
+        bytes[BinaryFormat.MAGIC_SIZE + 9 * 7 + 3] = 9;
+        final BinaryPackTaskReader reader = new BinaryPackTaskReader(ByteBuffer.wrap(bytes));
+        reader.validateWhileReading(new MaxPackageWeightRule());
+        final List<Long> errorRecords = new ArrayList<>();
+        int read = 0;
+        while (reader.hasNext()) {
+            try {
+                reader.readNext();
+                read++;
+            } catch (IncorrectInputException e) {
+                errorRecords.add(e.getLine());
+            } catch (ValidationException e) {
+                errorRecords.add(e.getLine());
+            }
+        }
+        assertThat(read).isEqualTo(8);
+        assertThat(errorRecords).containsExactly(4L, 8L);
+    }
+
+    @Test
+    public void whenNotBinaryInputThenExceptionThrown() {
+        assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(() ->
+            new BinaryPackTaskReader(ByteBuffer.wrap("8 : (1,15.3,€34)".getBytes(StandardCharsets.UTF_8)))
+        );
+    }
+
+    @Test
+    public void whenTaskCanNotBeRepresentedThenExceptionThrown() {
+        assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(() ->
+            new BinaryPackTaskWriter(new ByteArrayOutputStream()).write(
+                new PackTask(8.0, Arrays.asList(new Thing(1, 15.305, 34.0)))
+            )
+        );
+    }
+
+    static byte[] write(List<PackTask> tasks) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryPackTaskWriter writer = new BinaryPackTaskWriter(out)) {
+            for (PackTask task : tasks) {
+                writer.write(task);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<PackTask> randomTasks(long seed, int number) throws APIException {
+        final String input = BytePackTaskReaderTest.randomInput(new Random(seed), number);
+        return new BytePackTaskReader(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8))).readAll();
+    }
+
+    private static void assertSameTasks(List<PackTask> actual, List<PackTask> expected) {
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getMaxWeight()).isEqualTo(expected.get(i).getMaxWeight());
+            assertThat(actual.get(i).getThings()).isEqualTo(expected.get(i).getThings());
+        }
+    }
+}
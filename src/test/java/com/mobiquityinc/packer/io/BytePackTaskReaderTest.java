@@ -0,0 +1,212 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.validation.IncrementalTaskRule;
+import com.mobiquityinc.packer.validation.ValidationRule;
+import com.mobiquityinc.packer.validation.task.EachThingSatisfyRule;
+import com.mobiquityinc.packer.validation.task.MaxPackageWeightRule;
+import com.mobiquityinc.packer.validation.task.MaxThingsNumberRule;
+import com.mobiquityinc.packer.validation.thing.MaxThingCostRule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class BytePackTaskReaderTest {
+
+    @Test
+    public void whenCorrectFormatThenReadTasks() throws APIException {
+        BytePackTaskReader reader = new BytePackTaskReader(ByteBuffer.wrap(
+            ("" +
+                "81 : (1,53.38,€45) (2,88.62,€98)\n" +
+                "8 : (1,15.3,€34)\n"
+            ).getBytes(StandardCharsets.UTF_8)
+        ));
+        List<PackTask> tasks = reader.readAll();
+        assertThat(tasks).hasSize(2);
+        assertThat(tasks.get(0).getMaxWeight()).isEqualTo(81);
+        assertThat(tasks.get(0).getThings()).containsExactly(
+            new Thing(1, 53.38, 45.0),
+            new Thing(2, 88.62, 98.0)
+        );
+        assertThat(tasks.get(1).getMaxWeight()).isEqualTo(8);
+        assertThat(tasks.get(1).getThings()).containsExactly(
+            new Thing(1, 15.3, 34.0)
+        );
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(reader::readNext);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "81 ; (1,53.38,€45) (2,88.62,€98)\n8 : (1,15.3,€34)",
+        "81 ; (1,53.38,€45) (2,88.62,€98)d",
+        "81 : (1,53.38,€45) (2,88.62,€98)d",
+        "81: (1,53.38,€45)",
+        "81 :(1,53.38,€45)",
+        "81 :",
+        "81 : (1,53.38,$45)",
+        "81 : (1,53.,€45)",
+        "81 : (1,.38,€45 )",
+        "81. : (1,53.38,€45)",
+        "81 : (a,53.38,€45)",
+    })
+    public void whenFormatIsNotCorrectThenExceptionThrown(String input) {
+        assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(() ->
+            new BytePackTaskReader(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8))).readAll()
+        );
+        assertThatExceptionOfType(APIException.class).isThrownBy(() ->
+            new PackTaskReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))).readAll()
+        );
+    }
+
+    @Test
+    public void whenRandomInputThenSameTasksAsScannerReader() throws APIException {
+        final String input = randomInput(new Random(17), 300);
+        final List<PackTask> expected = new PackTaskReader(
+            new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))
+        ).readAll();
+        // small buffer makes tokens span buffer refills
+        final List<PackTask> actual = new BytePackTaskReader(
+            Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))), 7
+        ).readAll();
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getMaxWeight()).isEqualTo(expected.get(i).getMaxWeight());
+            assertThat(actual.get(i).getThings()).isEqualTo(expected.get(i).getThings());
+        }
+    }
+
+    @Test
+    public void whenReadBatchThenSameBatchAsScannerReader() throws APIException {
+        final String input = randomInput(new Random(19), 100);
+        final PackTaskBatch expected = new PackTaskBatch();
+        new PackTaskReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))).readBatch(expected, 1000);
+        final PackTaskBatch actual = new PackTaskBatch();
+        new BytePackTaskReader(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8))).readBatch(actual, 1000);
+        assertThat(actual.size()).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.getMaxWeight(i)).isEqualTo(expected.getMaxWeight(i));
+            assertThat(actual.getTo(i)).isEqualTo(expected.getTo(i));
+        }
+        for (int i = 0; i < expected.getThingsNumber(); i++) {
+            assertThat(actual.getIndices()[i]).isEqualTo(expected.getIndices()[i]);
+            assertThat(actual.getWeights()[i]).isEqualTo(expected.getWeights()[i]);
+            assertThat(actual.getCosts()[i]).isEqualTo(expected.getCosts()[i]);
+        }
+    }
+
+    @Test
+    public void whenTooManyDecimalsThenBatchReadingFails() {
+        assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(() ->
+            new BytePackTaskReader(ByteBuffer.wrap("8 : (1,15.305,€34)".getBytes(StandardCharsets.UTF_8)))
+                .readBatch(new PackTaskBatch(), 1)
+        ).withMessage("Number 15.305 has more decimals than supported by the fixed-point format (line 1)");
+    }
+
+    @Test
+    public void whenTaskIsIncorrectThenReadingContinuesFromNextLine() throws APIException {
+        final BytePackTaskReader reader = new BytePackTaskReader(ByteBuffer.wrap((
+            "8 : (1,15.3,€34)\n" +
+            "8 : (1,15.3,34) (2,1,€1)\n" +
+            "8 :\n" +
+            "120 : (1,15.3,€34)\n" +
+            "9 : (1,15.3,€101) (2,1,€1)\n" +
+            "7 : (1,1,€1)\n"
+        ).getBytes(StandardCharsets.UTF_8)));
+        reader.validateWhileReading(new MaxPackageWeightRule());
+        assertThat(reader.readNext().getMaxWeight()).isEqualTo(8);
+        assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(reader::readNext)
+            .satisfies(e -> assertThat(e.getLine()).isEqualTo(2));
+        // the broken task is detected on the next line which is not skipped
+        assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(reader::readNext)
+            .satisfies(e -> assertThat(e.getLine()).isEqualTo(4));
+        assertThatExceptionOfType(ValidationException.class).isThrownBy(reader::readNext)
+            .satisfies(e -> assertThat(e.getLine()).isEqualTo(4));
+        assertThat(reader.readNext().getMaxWeight()).isEqualTo(9);
+        assertThat(reader.readNext().getMaxWeight()).isEqualTo(7);
+        assertThat(reader.hasNext()).isFalse();
+    }
+
+    @Test
+    public void whenBatchTaskIsIncorrectThenItIsRolledBackAndReadingContinuesFromNextLine() throws APIException {
+        final BytePackTaskReader reader = new BytePackTaskReader(ByteBuffer.wrap((
+            "8 : (1,15.3,€34)\n" +
+            "8 : (1,15.3,€34) (2,1,34)\n" +
+            "9 : (1,15.3,€34) (2,1,€101)\n" +
+            "7 : (1,1,€1)\n"
+        ).getBytes(StandardCharsets.UTF_8)));
+        reader.validateWhileReading(new EachThingSatisfyRule(new MaxThingCostRule()));
+        final PackTaskBatch batch = new PackTaskBatch();
+        assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(() -> reader.readBatch(batch, 10))
+            .satisfies(e -> assertThat(e.getLine()).isEqualTo(2));
+        assertThat(batch.size()).isEqualTo(1);
+        assertThat(batch.getThingsNumber()).isEqualTo(1);
+        assertThatExceptionOfType(ValidationException.class).isThrownBy(() -> reader.readBatch(batch, 10))
+            .satisfies(e -> assertThat(e.getLine()).isEqualTo(3));
+        assertThat(batch.size()).isEqualTo(1);
+        assertThat(batch.getThingsNumber()).isEqualTo(1);
+        assertThat(reader.readBatch(batch, 10)).isEqualTo(1);
+        assertThat(batch.getMaxWeight(1)).isEqualTo(700);
+        assertThat(batch.getFrom(1)).isEqualTo(1);
+        assertThat(batch.getTo(1)).isEqualTo(2);
+        assertThat(reader.hasNext()).isFalse();
+    }
+
+    @Test
+    public void whenRuleGivenThenTaskValidatedWhileReading() throws APIException {
+        final ValidationRule<PackTask> rule = ValidationRule.allOf(
+            new MaxThingsNumberRule(2),
+            new EachThingSatisfyRule(new MaxThingCostRule())
+        );
+        final String input = "8 : (1,15.3,€34)\n8 : (1,15.3,€101) (2,1,€1) (3,1,€1)\n";
+        final BytePackTaskReader reader = new BytePackTaskReader(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)));
+        assertThat(reader.validateWhileReading((IncrementalTaskRule) rule)).isTrue();
+        final PackTaskReader scannerReader = new PackTaskReader(
+            new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))
+        );
+        scannerReader.validateWhileReading((IncrementalTaskRule) rule);
+        for (PackTaskSource source : new PackTaskSource[] {reader, scannerReader}) {
+            assertThatExceptionOfType(ValidationException.class).isThrownBy(source::readAll)
+                .withMessage("Max cost that a thing can have is ≤ %s, given: %s", 100.0, 101.0);
+        }
+        assertThat(reader.hasNext()).isFalse();
+    }
+
+    @Test
+    public void whenFormatIsNotCorrectThenLineReported() {
+        assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(() ->
+            new BytePackTaskReader(ByteBuffer.wrap(
+                "8 : (1,15.3,€34)\r\n\n8 : (1,15.3,€34)\n8 : (1,15.3,34)\n".getBytes(StandardCharsets.UTF_8)
+            )).readAll()
+        ).satisfies(e -> assertThat(e.getLine()).isEqualTo(4));
+    }
+
+    static String randomInput(Random random, int lines) {
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            input.append(random.nextInt(101)).append(random.nextBoolean() ? " : " : "\t:  ");
+            for (int j = 1; j <= 1 + random.nextInt(15); j++) {
+                input.append(j == 1 ? "" : " ").append('(').append(j).append(',')
+                    .append(random.nextInt(10000) / 100.0).append(",€")
+                    .append(random.nextBoolean() ? String.valueOf(random.nextInt(101)) : "." + random.nextInt(100))
+                    .append(')');
+            }
+            input.append(random.nextBoolean() ? "\n" : "\r\n");
+        }
+        return input.toString();
+    }
+}
@@ -0,0 +1,192 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.validation.task.MaxPackageWeightRule;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class MappedPackTaskReaderTest {
+
+    private static ExecutorService executorService;
+
+    @BeforeAll
+    public static void startExecutor() {
+        executorService = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterAll
+    public static void stopExecutor() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void whenSmallChunksThenSameTasksAsSequentialReader() throws Exception {
+        final String input = BytePackTaskReaderTest.randomInput(new Random(23), 500);
+        final List<PackTask> expected = new BytePackTaskReader(
+            ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8))
+        ).readAll();
+        final Path file = write(input);
+        try (MappedPackTaskReader reader = new MappedPackTaskReader(file, executorService, 100, 4)) {
+            final List<PackTask> actual = reader.readAll();
+            assertThat(actual).hasSameSizeAs(expected);
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i).getMaxWeight()).isEqualTo(expected.get(i).getMaxWeight());
+                assertThat(actual.get(i).getThings()).isEqualTo(expected.get(i).getThings());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void whenReadBatchThenAllTasksRead() throws Exception {
+        final String input = BytePackTaskReaderTest.randomInput(new Random(29), 50);
+        final PackTaskBatch expected = new PackTaskBatch();
+        new BytePackTaskReader(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8))).readBatch(expected, 1000);
+        final Path file = write(input);
+        try (MappedPackTaskReader reader = new MappedPackTaskReader(file, executorService, 64, 2)) {
+            final PackTaskBatch actual = new PackTaskBatch();
+            assertThat(reader.readBatch(actual, 1000)).isEqualTo(expected.size());
+            for (int i = 0; i < expected.getThingsNumber(); i++) {
+                assertThat(actual.getWeights()[i]).isEqualTo(expected.getWeights()[i]);
+                assertThat(actual.getCosts()[i]).isEqualTo(expected.getCosts()[i]);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void whenBatchTaskIsNotRepresentableThenLineCountedFromFileStart() throws Exception {
+        // the first chunks are parsed to tasks since the first task is read alone, the next ones straight to batches
+        for (int incorrectLine : new int[] {3, 151}) {
+            final StringBuilder input = new StringBuilder();
+            for (int i = 1; i <= 200; i++) {
+                input.append(i == incorrectLine ? "8 : (1,15.333,€34)\n" : "8 : (1,15.3,€34)\n");
+            }
+            final Path file = write(input.toString());
+            try (MappedPackTaskReader reader = new MappedPackTaskReader(file, executorService, 50, 3)) {
+                reader.readNext();
+                final PackTaskBatch batch = new PackTaskBatch();
+                assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(() -> reader.readBatch(batch, 1000))
+                    .satisfies(e -> assertThat(e.getLine()).isEqualTo(incorrectLine));
+                assertThat(batch.size()).isEqualTo(incorrectLine - 2);
+                assertThat(reader.readBatch(batch, 1000)).isEqualTo(200 - incorrectLine);
+                assertThat(batch.getWeights()[batch.getFrom(batch.size() - 1)]).isEqualTo(1530);
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void whenFormatIsNotCorrectThenLineCountedFromFileStart() throws Exception {
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append(i == 150 ? "8 : (1,15.3,34)\n" : "8 : (1,15.3,€34)\r\n");
+        }
+        final Path file = write(input.toString());
+        try (MappedPackTaskReader reader = new MappedPackTaskReader(file, executorService, 50, 3)) {
+            assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(reader::readAll)
+                .satisfies(e -> assertThat(e.getLine()).isEqualTo(151));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void whenTasksAreIncorrectThenOtherTasksRead() throws Exception {
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append(i % 50 == 7 ? "8 : (1,15.3,34)\n" : i % 50 == 9 ? "101 : (1,15.3,€34)\n" : "8 : (1,15.3,€34)\n");
+        }
+        final Path file = write(input.toString());
+        try (MappedPackTaskReader reader = new MappedPackTaskReader(file, executorService, 50, 3)) {
+            reader.validateWhileReading(new MaxPackageWeightRule());
+            final List<Long> errorLines = new ArrayList<>();
+            int read = 0;
+            while (reader.hasNext()) {
+                try {
+                    reader.readNext();
+                    read++;
+                } catch (IncorrectInputException e) {
+                    errorLines.add(e.getLine());
+                } catch (ValidationException e) {
+                    errorLines.add(e.getLine());
+                }
+            }
+            assertThat(read).isEqualTo(192);
+            assertThat(errorLines).containsExactly(8L, 10L, 58L, 60L, 108L, 110L, 158L, 160L);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void whenTaskReadThenItsLineCountedFromFileStart() throws Exception {
+        final StringBuilder input = new StringBuilder();
+        final List<Long> expected = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            if (i % 7 == 0) {
+                input.append('\n');
+            } else {
+                input.append("8 : (1,15.3,€34)\n");
+                expected.add((long) i);
+            }
+        }
+        final Path file = write(input.toString());
+        try (MappedPackTaskReader reader = new MappedPackTaskReader(file, executorService, 50, 3)) {
+            final List<Long> lines = new ArrayList<>();
+            while (reader.hasNext()) {
+                reader.readNext();
+                lines.add(reader.getTaskLine());
+            }
+            assertThat(lines).isEqualTo(expected);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void whenFileIsEmptyThenNothingRead() throws Exception {
+        final Path file = write("");
+        try (MappedPackTaskReader reader = new MappedPackTaskReader(file, executorService)) {
+            assertThat(reader.hasNext()).isFalse();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void whenFileDoesNotExistThenApiExceptionThrown() {
+        assertThatExceptionOfType(APIException.FileNotFoundException.class).isThrownBy(() ->
+            new MappedPackTaskReader(Paths.get("broken_path"), executorService)
+        );
+    }
+
+    private static Path write(String input) throws IOException {
+        final Path file = Files.createTempFile("tasks", ".txt");
+        Files.write(file, input.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
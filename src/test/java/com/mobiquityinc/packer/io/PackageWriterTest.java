@@ -0,0 +1,109 @@
+package com.mobiquityinc.packer.io;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.exception.APIException.ValidationException;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PackageWriterTest {
+
+    private static final Package PACKAGE = new Package(Arrays.asList(
+        new Thing(2, 15.3, 34.0),
+        new Thing(7, 57.05, 100.0)
+    ));
+
+    private static final Package EMPTY = new Package(Collections.emptyList());
+
+    @Test
+    public void whenDefaultFormatThenIndicesSeparatedWithComma() throws Exception {
+        assertThat(write(StandardPackageFormat.CSV, PACKAGE, EMPTY, null)).isEqualTo("2,7\n-\n-\n");
+    }
+
+    @Test
+    public void whenTotalsFormatThenWeightAndCostWritten() throws Exception {
+        assertThat(write(StandardPackageFormat.CSV_WITH_TOTALS, PACKAGE, EMPTY)).isEqualTo("2,7;72.35;134\n-;0;0\n");
+    }
+
+    @Test
+    public void whenJsonLinesFormatThenObjectPerLine() throws Exception {
+        assertThat(write(StandardPackageFormat.JSON_LINES, PACKAGE, EMPTY))
+            .isEqualTo("{\"things\":[2,7]}\n{\"things\":[]}\n");
+    }
+
+    @Test
+    public void whenFormatterGivenThenItIsUsed() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PackageWriter writer = new PackageWriter(out, pack -> "things: " + pack.getThings().size())) {
+            writer.write(PACKAGE);
+        }
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo("things: 2\n");
+    }
+
+    @Test
+    public void whenErrorWrittenThenLineAndReasonWritten() throws Exception {
+        final ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try (
+            PackageWriter csvWriter = new PackageWriter(csv);
+            PackageWriter jsonWriter = new PackageWriter(json, StandardPackageFormat.JSON_LINES)) {
+            for (PackageWriter writer : new PackageWriter[] {csvWriter, jsonWriter}) {
+                writer.writeError(new IncorrectInputException("Check the \"input\"", 3));
+                writer.writeError(new ValidationException("Max weight is ≤ 100.0"));
+            }
+        }
+        assertThat(new String(csv.toByteArray(), StandardCharsets.UTF_8))
+            .isEqualTo("! line 3: Check the \"input\"\n! Max weight is ≤ 100.0\n");
+        assertThat(new String(json.toByteArray(), StandardCharsets.UTF_8))
+            .isEqualTo("{\"line\":3,\"error\":\"Check the \\\"input\\\"\"}\n{\"line\":0,\"error\":\"Max weight is ≤ 100.0\"}\n");
+    }
+
+    @ParameterizedTest
+    @EnumSource(StandardPackageFormat.class)
+    public void whenBatchWrittenThenSameAsPackages(StandardPackageFormat format) throws Exception {
+        final PackTaskBatch batch = new PackTaskBatch();
+        for (int task = 0; task < 500; task++) {
+            batch.addTask(10000);
+            for (int i = 1; i <= 1 + task % 15; i++) {
+                batch.addThing(i, 1000 + task * 7 % 1000, task * 13 % 10001);
+                batch.setPacked(batch.getThingsNumber() - 1, (task + i) % 3 == 0);
+            }
+        }
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        // small buffer makes records span buffer flushes
+        try (
+            PackageWriter packageWriter = new PackageWriter(expected, format);
+            PackageWriter batchWriter = new PackageWriter(Channels.newChannel(actual), format, 7)) {
+            for (int task = 0; task < batch.size(); task++) {
+                packageWriter.write(batch.toPackage(task));
+                batchWriter.write(batch, task);
+            }
+            batchWriter.writeError(new ValidationException("Max weight is ≤ 100.0", 12));
+            packageWriter.writeError(new ValidationException("Max weight is ≤ 100.0", 12));
+        }
+        assertThat(actual.toByteArray()).isEqualTo(expected.toByteArray());
+    }
+
+    private static String write(PackageFormat format, Package... packages) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PackageWriter writer = new PackageWriter(out, format)) {
+            for (Package pack : packages) {
+                writer.write(pack);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -2,6 +2,7 @@ package com.mobiquityinc.packer.io;
 
 import com.mobiquityinc.exception.APIException;
 import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
 import com.mobiquityinc.packer.domain.Thing;
 import org.junit.jupiter.api.Test;
 
@@ -37,6 +38,39 @@ public class PackerTaskReaderTest {
         assertThatExceptionOfType(IllegalStateException.class).isThrownBy(reader::readNext);
     }
 
+    @Test
+    public void whenTrailingNewLineThenItIsIgnored() throws APIException {
+        PackTaskReader reader = new PackTaskReader(new ByteArrayInputStream("8 : (1,15.3,€34)\n".getBytes()));
+        assertThat(reader.readAll()).hasSize(1);
+    }
+
+    @Test
+    public void whenReadBatchThenTasksStoredInColumns() throws APIException {
+        PackTaskReader reader = new PackTaskReader(new ByteArrayInputStream(
+            ("" +
+                "81 : (1,53.38,€45) (2,88.62,€98)\n" +
+                "8 : (1,15.3,€34)\n" +
+                "75 : (1,85.31,€29)"
+            ).getBytes()
+        ));
+        PackTaskBatch batch = new PackTaskBatch(1, 1);
+        assertThat(reader.readBatch(batch, 2)).isEqualTo(2);
+        assertThat(batch.size()).isEqualTo(2);
+        assertThat(batch.getMaxWeight(0)).isEqualTo(8100);
+        assertThat(batch.getFrom(1)).isEqualTo(2);
+        assertThat(batch.getTo(1)).isEqualTo(3);
+        assertThat(batch.getWeights()[1]).isEqualTo(8862);
+        assertThat(batch.getCosts()[2]).isEqualTo(3400);
+        assertThat(batch.toPackTask(0).getThings()).containsOnly(
+            new Thing(1, 53.38, 45.0),
+            new Thing(2, 88.62, 98.0)
+        );
+        batch.clear();
+        assertThat(reader.readBatch(batch, 2)).isEqualTo(1);
+        assertThat(batch.getIndices()[0]).isEqualTo(1);
+        assertThat(batch.getWeights()[0]).isEqualTo(8531);
+    }
+
     @Test
     public void whenFormatIsNotCorrectThenExceptionThrown() throws APIException {
         assertThatExceptionOfType(APIException.class).isThrownBy(() -> {
@@ -0,0 +1,154 @@
+package com.mobiquityinc.packer.journal;
+
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.packer.ErrorPolicy;
+import com.mobiquityinc.packer.Packer;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.execution.ExecutionStrategy;
+import com.mobiquityinc.packer.io.BinaryConverter;
+import com.mobiquityinc.packer.io.BytePackTaskReader;
+import com.mobiquityinc.packer.io.PackageWriter;
+import com.mobiquityinc.packer.io.StandardPackageFormat;
+import com.mobiquityinc.packer.solver.SizeBasedSolverSelector;
+import com.mobiquityinc.packer.solver.SolverSelector;
+import com.mobiquityinc.packer.validation.task.MaxPackageWeightRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class ResumablePackerTest {
+
+    private static final int TASKS = 3000;
+    private static final long CHECKPOINT_INTERVAL = 4 * 1024;
+
+    private Path input;
+    private Path output;
+    private Path journal;
+
+    @BeforeEach
+    public void createFiles() throws Exception {
+        final Random random = new Random(22);
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < TASKS; i++) {
+            final List<Thing> things = new ArrayList<>();
+            for (int j = 0; j < 1 + random.nextInt(12); j++) {
+                things.add(new Thing(j + 1, random.nextInt(10000) / 100.0, (double) random.nextInt(101)));
+            }
+            text.append(i == 2500 ? "81 : (1,53.38;€45)" : BinaryConverter.format(new PackTask((double) random.nextInt(101), things)))
+                .append('\n');
+        }
+        input = Files.createTempFile("tasks", ".txt");
+        output = Files.createTempFile("packages", ".txt");
+        journal = Files.createTempFile("progress", ".journal");
+        Files.write(input, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void deleteFiles() throws Exception {
+        Files.delete(input);
+        Files.delete(output);
+        Files.delete(journal);
+    }
+
+    @Test
+    public void whenRunCompletedThenSameOutputAsStreamingAndRunNotRepeated() throws Exception {
+        final AtomicInteger solved = new AtomicInteger();
+        try (Packer packer = countingPacker(solved)) {
+            final ResumablePacker resumable = new ResumablePacker(packer, CHECKPOINT_INTERVAL, 2);
+            assertThat(resumable.pack(input, output, journal, StandardPackageFormat.CSV, ErrorPolicy.ISOLATE))
+                .isEqualTo(Checkpoint.START);
+            assertThat(new String(Files.readAllBytes(output), StandardCharsets.UTF_8)).isEqualTo(expected());
+            assertThat(solved.get()).isEqualTo(TASKS - 1);
+
+            final Checkpoint end = resumable.pack(input, output, journal, StandardPackageFormat.CSV, ErrorPolicy.ISOLATE);
+            assertThat(end.getLine()).isEqualTo(TASKS + 1);
+            assertThat(end.getInputOffset()).isEqualTo(Files.size(input));
+            assertThat(end.getOutputOffset()).isEqualTo(Files.size(output));
+            assertThat(new String(Files.readAllBytes(output), StandardCharsets.UTF_8)).isEqualTo(expected());
+            assertThat(solved.get()).isEqualTo(TASKS - 1);
+        }
+    }
+
+    @Test
+    public void whenRunFailedThenResumedWithoutSolvingPackedTasks() throws Exception {
+        final AtomicInteger solved = new AtomicInteger();
+        try (Packer packer = countingPacker(solved)) {
+            assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(() ->
+                new ResumablePacker(packer, CHECKPOINT_INTERVAL, 0)
+                    .pack(input, output, journal, StandardPackageFormat.CSV, ErrorPolicy.FAIL)
+            ).withMessageEndingWith("(line 2501)");
+        }
+        // a torn record of the journal and records written after the last checkpoint
+        Files.write(journal, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+        Files.write(output, "1,2\n3".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        solved.set(0);
+        try (Packer packer = countingPacker(solved)) {
+            final Checkpoint start = new ResumablePacker(packer, CHECKPOINT_INTERVAL, 1)
+                .pack(input, output, journal, StandardPackageFormat.CSV, ErrorPolicy.ISOLATE);
+            assertThat(start.getLine()).isGreaterThan(1000).isLessThanOrEqualTo(2501);
+            assertThat(solved.get()).isEqualTo(TASKS - start.getLine());
+        }
+        assertThat(new String(Files.readAllBytes(output), StandardCharsets.UTF_8)).isEqualTo(expected());
+        try (ProgressJournal progress = ProgressJournal.open(journal)) {
+            assertThat(progress.getCheckpoints().size()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    public void whenJournalResetThenRecordsReplacedWithoutTemporaryFilesLeft() throws Exception {
+        final Checkpoint start = new Checkpoint(7, 100, 20);
+        final Checkpoint next = new Checkpoint(9, 150, 30);
+        try (ProgressJournal progress = ProgressJournal.open(journal)) {
+            progress.append(new Checkpoint(3, 40, 8));
+            progress.append(new Checkpoint(5, 70, 14));
+            progress.reset(start);
+            try (ProgressJournal reopened = ProgressJournal.open(journal)) {
+                assertThat(reopened.getCheckpoints()).containsExactly(start);
+            }
+            progress.append(next);
+            progress.sync();
+        }
+        try (ProgressJournal progress = ProgressJournal.open(journal)) {
+            assertThat(progress.getCheckpoints()).containsExactly(start, next);
+        }
+        try (Stream<Path> files = Files.list(journal.getParent())) {
+            assertThat(files.filter(file -> file.getFileName().toString().startsWith(journal.getFileName().toString())))
+                .containsExactly(journal);
+        }
+    }
+
+    private static Packer countingPacker(AtomicInteger solved) {
+        final SolverSelector selector = new SizeBasedSolverSelector();
+        return new Packer(ExecutionStrategy.fixedThreadPool(2), new MaxPackageWeightRule(), task -> {
+            solved.incrementAndGet();
+            return selector.select(task);
+        });
+    }
+
+    private String expected() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+            Packer packer = new Packer(ExecutionStrategy.fixedThreadPool(2));
+            PackageWriter writer = new PackageWriter(out)) {
+            packer.pack(new BytePackTaskReader(ByteBuffer.wrap(Files.readAllBytes(input))), writer, 16, ErrorPolicy.ISOLATE);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,135 @@
+package com.mobiquityinc.packer.metrics;
+
+import com.mobiquityinc.packer.Packer;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.execution.ExecutionStrategy;
+import com.mobiquityinc.packer.solver.GrayCodeSolver;
+import com.mobiquityinc.packer.solver.ReducingSolverSelector;
+import com.mobiquityinc.packer.solver.SizeBasedSolverSelector;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.management.ObjectName;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class PackerMetricsTest {
+
+    @Test
+    public void whenLatenciesRecordedThenPercentilesEstimated() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getMax()).isEqualTo(1_000_000);
+        assertThat(histogram.getPercentile(50)).isBetween(500_000L, 625_000L);
+        assertThat(histogram.getPercentile(99)).isBetween(990_000L, 1_000_000L);
+        assertThat(histogram.getPercentile(100)).isEqualTo(1_000_000);
+        histogram.reset();
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getPercentile(50)).isZero();
+    }
+
+    @Test
+    public void whenTasksPackedThenStagesRecorded() throws Exception {
+        final PackerMetrics metrics = new PackerMetrics();
+        final List<PackTask> tasks = Arrays.asList(
+            new PackTask(8.0, Collections.singletonList(new Thing(1, 15.3, 34.0))),
+            new PackTask(81.0, Arrays.asList(new Thing(1, 53.38, 45.0), new Thing(2, 88.62, 98.0)))
+        );
+        try (Packer packer = new Packer(
+            ExecutionStrategy.sameThread(), (PackTask task) -> { }, new SizeBasedSolverSelector(), metrics)) {
+            packer.pack(tasks);
+        }
+        assertThat(metrics.getCount(Stage.VALIDATE.name())).isEqualTo(2);
+        assertThat(metrics.getCount(Stage.QUEUE.name())).isEqualTo(2);
+        assertThat(metrics.getCount(Stage.SOLVE.name())).isEqualTo(2);
+        assertThat(metrics.getStatistics())
+            .filteredOn(s -> s.getSolver().equals(GrayCodeSolver.class.getName()))
+            .extracting(StageStatistics::getMinThings, StageStatistics::getMaxThings, StageStatistics::getCount)
+            .containsExactlyInAnyOrder(
+                tuple(1, 1, 1L),
+                tuple(2, 3, 1L)
+            );
+        metrics.reset();
+        assertThat(metrics.getStatistics()).isEmpty();
+    }
+
+    @Test
+    public void whenSelectorWrapsSolversThenEffectiveSolversRecorded() throws Exception {
+        final PackerMetrics metrics = new PackerMetrics();
+        final List<PackTask> tasks = Arrays.asList(
+            new PackTask(8.0, Collections.singletonList(new Thing(1, 5.3, 34.0))),
+            new PackTask(81.0, Arrays.asList(new Thing(1, 53.38, 45.0), new Thing(2, 88.62, 98.0), new Thing(3, 40.0, 30.0)))
+        );
+        final ReducingSolverSelector selector = new ReducingSolverSelector(new SizeBasedSolverSelector());
+        try (Packer packer = new Packer(ExecutionStrategy.sameThread(), (PackTask task) -> { }, selector, metrics)) {
+            packer.pack(tasks);
+        }
+        assertThat(metrics.getStatistics())
+            .filteredOn(s -> !s.getSolver().isEmpty())
+            .extracting(StageStatistics::getSolver, StageStatistics::getCount)
+            .containsExactlyInAnyOrder(
+                tuple(selector.select(tasks.get(0)).getClass().getName(), 1L),
+                tuple(GrayCodeSolver.class.getName(), 1L)
+            );
+    }
+
+    @Test
+    public void whenPredictionsRecordedThenPublishedBySolverAndSize() {
+        final PackerMetrics metrics = new PackerMetrics();
+        metrics.recordPrediction(GrayCodeSolver.class, 5, 1000, 1500);
+        metrics.recordPrediction(GrayCodeSolver.class, 6, 2000, 1000);
+        metrics.recordPrediction(GrayCodeSolver.class, 12, 8000, 9000);
+        assertThat(metrics.getPredictionStatistics())
+            .extracting(
+                PredictionStatistics::getSolver, PredictionStatistics::getMinThings, PredictionStatistics::getMaxThings,
+                PredictionStatistics::getTasks, PredictionStatistics::getPredictedNanos, PredictionStatistics::getNanos
+            )
+            .containsExactlyInAnyOrder(
+                tuple(GrayCodeSolver.class.getName(), 4, 7, 2L, 3000L, 2500L),
+                tuple(GrayCodeSolver.class.getName(), 8, 15, 1L, 8000L, 9000L)
+            );
+        metrics.reset();
+        assertThat(metrics.getPredictionStatistics()).isEmpty();
+    }
+
+    @Test
+    public void whenRecordingEnabledThenSolveEventsCommitted() throws Exception {
+        final PackerMetrics metrics = new PackerMetrics();
+        final Path file = Files.createTempFile("packer", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.mobiquityinc.packer.Solve");
+            recording.start();
+            metrics.recordSolve(GrayCodeSolver.class, 5, 1234);
+            recording.stop();
+            recording.dump(file);
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getInt("things")).isEqualTo(5);
+            assertThat(events.get(0).getDuration("latency").toNanos()).isEqualTo(1234);
+            assertThat(events.get(0).getClass("solver").getName()).isEqualTo(GrayCodeSolver.class.getName());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void whenDefaultMetricsUsedThenRegisteredInMBeanServer() throws Exception {
+        PackerMetrics.getDefault().recordSolve(GrayCodeSolver.class, 3, 1000);
+        assertThat((Long) ManagementFactory.getPlatformMBeanServer().invoke(
+            new ObjectName(PackerMetrics.OBJECT_NAME), "getCount", new Object[] {"SOLVE"}, new String[] {String.class.getName()}
+        )).isPositive();
+    }
+}
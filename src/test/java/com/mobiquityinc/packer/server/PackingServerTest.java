@@ -0,0 +1,121 @@
+package com.mobiquityinc.packer.server;
+
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.packer.Packer;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.execution.ExecutionStrategy;
+import com.mobiquityinc.packer.io.BinaryPackTaskWriter;
+import com.mobiquityinc.packer.io.BinaryPackageReader;
+import com.mobiquityinc.packer.metrics.PackerMetrics;
+import com.mobiquityinc.packer.metrics.Stage;
+import com.mobiquityinc.packer.solver.SizeBasedSolverSelector;
+import com.mobiquityinc.packer.validation.task.MaxPackageWeightRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class PackingServerTest {
+
+    private static final String INPUT = "" +
+        "81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)\n" +
+        "8 : (1,15.3,€34)\n" +
+        "75 : (1,85.31,€29) (2,14.55,€74) (3,3.98,€16) (4,26.24,€55) (5,63.69,€52) (6,76.25,€75) (7,60.02,€74) " +
+        "(8,93.18,€35) (9,89.95,€78)\n" +
+        "56 : (1,90.72,€13) (2,33.80,€40) (3,43.15,€10) (4,37.97,€16) (5,46.81,€36) (6,48.77,€79) (7,81.80,€45) " +
+        "(8,19.36,€79) (9,6.76,€64)\n";
+
+    private PackerMetrics metrics;
+    private Packer packer;
+    private PackingServer server;
+    private PackingClient client;
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        metrics = new PackerMetrics();
+        packer = new Packer(ExecutionStrategy.batched(2), new MaxPackageWeightRule(), new SizeBasedSolverSelector(), metrics);
+        server = new PackingServer(packer, 0, Duration.ofMillis(5), 64, 2, 1024 * 1024);
+        client = new PackingClient(server.getPort());
+    }
+
+    @AfterEach
+    public void stopServer() throws Exception {
+        server.close();
+        packer.close();
+    }
+
+    @Test
+    public void whenTextRequestSentThenPackagesReturned() throws Exception {
+        assertThat(client.pack(INPUT)).isEqualTo("4\n-\n2,7\n8,9\n");
+        assertThat(client.pack("")).isEmpty();
+    }
+
+    @Test
+    public void whenTasksAreIncorrectThenErrorRecordsReturnedInTheirPlaces() throws Exception {
+        assertThat(client.pack("20 : (1,15.3,€34)\n8 : (1,15.3,34)\n101 : (1,15.3,€34)\n"))
+            .isEqualTo("1\n! line 2: Check the input format! It's incorrect!\n" +
+                "! Max weight that a package can take is ≤ 100.0, given: 101.0\n");
+    }
+
+    @Test
+    public void whenRequestHasMaxSizeThenItIsAccepted() throws Exception {
+        final int size = INPUT.getBytes(StandardCharsets.UTF_8).length;
+        try (PackingServer limited = new PackingServer(packer, 0, Duration.ofMillis(5), 64, 2, size)) {
+            final PackingClient limitedClient = new PackingClient(limited.getPort());
+            assertThat(limitedClient.pack(INPUT)).isEqualTo("4\n-\n2,7\n8,9\n");
+            assertThat(limitedClient.pack(INPUT + "\n")).isEqualTo("! Request is too big\n");
+        }
+    }
+
+    @Test
+    public void whenBinaryRequestSentThenBinaryPackagesReturned() throws Exception {
+        final ByteArrayOutputStream request = new ByteArrayOutputStream();
+        try (BinaryPackTaskWriter writer = new BinaryPackTaskWriter(request)) {
+            writer.write(new PackTask(20.0, Arrays.asList(new Thing(1, 15.3, 34.0))));
+            writer.write(new PackTask(101.0, Arrays.asList(new Thing(1, 15.3, 34.0))));
+            writer.write(new PackTask(81.0, Arrays.asList(new Thing(1, 53.38, 45.0), new Thing(2, 88.62, 98.0))));
+        }
+        final BinaryPackageReader reader = new BinaryPackageReader(ByteBuffer.wrap(client.send(request.toByteArray())));
+        assertThat(reader.readNext().getThings()).containsExactly(new Thing(1, 15.3, 34.0));
+        assertThatExceptionOfType(IncorrectInputException.class).isThrownBy(reader::readNext);
+        final Package pack = reader.readNext();
+        assertThat(pack.getThings()).containsExactly(new Thing(1, 53.38, 45.0));
+        assertThat(reader.hasNext()).isFalse();
+    }
+
+    @Test
+    public void whenConcurrentRequestsSentThenAllAnsweredAndLatencyReported() throws Exception {
+        final ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                responses.add(clients.submit(() -> client.pack(INPUT)));
+            }
+            for (Future<String> response : responses) {
+                assertThat(response.get()).isEqualTo("4\n-\n2,7\n8,9\n");
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        assertThat(metrics.getCount(Stage.REQUEST.name())).isEqualTo(100);
+        assertThat(metrics.getCount(Stage.SOLVE.name())).isEqualTo(400);
+        final long p50 = metrics.getPercentileNanos(Stage.REQUEST.name(), 50);
+        assertThat(p50).isPositive();
+        assertThat(metrics.getPercentileNanos(Stage.REQUEST.name(), 99)).isGreaterThanOrEqualTo(p50);
+    }
+}
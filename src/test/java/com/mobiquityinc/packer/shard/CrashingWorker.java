@@ -0,0 +1,38 @@
+package com.mobiquityinc.packer.shard;
+
+import com.mobiquityinc.packer.Packer;
+import com.mobiquityinc.packer.execution.ExecutionStrategy;
+
+import java.io.DataInputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Worker process crashing on its first request if the marker file given as the argument does not exist yet,
+ * so only the first worker started crashes. If the second argument is {@code hang}, the worker hangs instead
+ * of crashing and never responds.
+ */
+public final class CrashingWorker {
+
+    private CrashingWorker() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        try {
+            Files.createFile(Paths.get(args[0]));
+            final DataInputStream requests = new DataInputStream(System.in);
+            requests.readUTF();
+            requests.readLong();
+            requests.readLong();
+            if (args.length > 1 && "hang".equals(args[1])) {
+                Thread.sleep(Long.MAX_VALUE);
+            }
+            Runtime.getRuntime().halt(1);
+        } catch (FileAlreadyExistsException e) {
+            try (Packer packer = new Packer(ExecutionStrategy.fixedThreadPool(1))) {
+                ShardWorker.serve(packer, System.in, System.out);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.mobiquityinc.packer.shard;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.exception.APIException.IncorrectInputException;
+import com.mobiquityinc.packer.Packer;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.io.BinaryConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class ShardCoordinatorTest {
+
+    private static final long SHARD_SIZE = 8 * 1024;
+
+    private Path input;
+
+    @BeforeEach
+    public void writeInput() throws Exception {
+        final Random random = new Random(21);
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            final List<Thing> things = new ArrayList<>();
+            for (int j = 0; j < 1 + random.nextInt(12); j++) {
+                things.add(new Thing(j + 1, random.nextInt(10000) / 100.0, (double) random.nextInt(101)));
+            }
+            text.append(BinaryConverter.format(new PackTask((double) random.nextInt(101), things))).append('\n');
+        }
+        input = Files.createTempFile("tasks", ".txt");
+        Files.write(input, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void deleteInput() throws Exception {
+        Files.delete(input);
+    }
+
+    @Test
+    public void whenFileShardedThenSameResultAsPacker() throws APIException {
+        try (ShardCoordinator coordinator = new ShardCoordinator(2, workerCommand(), SHARD_SIZE, 3)) {
+            assertThat(coordinator.pack(input)).isEqualTo(Packer.pack(input.toString()));
+            assertThat(coordinator.pack(input)).isEqualTo(Packer.pack(input.toString()));
+            assertThat(coordinator.getRestarts()).isZero();
+        }
+    }
+
+    @Test
+    public void whenWorkerCrashesThenShardPackedAgain() throws Exception {
+        final Path marker = Files.createTempFile("crash", ".marker");
+        Files.delete(marker);
+        final List<String> command = new ArrayList<>(ShardCoordinator.workerCommand(Collections.emptyList(), 1));
+        command.subList(command.size() - 3, command.size()).clear();
+        command.addAll(Arrays.asList(CrashingWorker.class.getName(), marker.toString()));
+        try (ShardCoordinator coordinator = new ShardCoordinator(2, command, SHARD_SIZE, 3)) {
+            assertThat(coordinator.pack(input)).isEqualTo(Packer.pack(input.toString()));
+            assertThat(coordinator.getRestarts()).isEqualTo(1);
+        } finally {
+            Files.deleteIfExists(marker);
+        }
+    }
+
+    @Test
+    public void whenWorkerHangsThenItIsRestartedAfterTimeout() throws Exception {
+        final Path marker = Files.createTempFile("hang", ".marker");
+        Files.delete(marker);
+        final List<String> command = new ArrayList<>(ShardCoordinator.workerCommand(Collections.emptyList(), 1));
+        command.subList(command.size() - 3, command.size()).clear();
+        command.addAll(Arrays.asList(CrashingWorker.class.getName(), marker.toString(), "hang"));
+        try (ShardCoordinator coordinator = new ShardCoordinator(2, command, SHARD_SIZE, 3, Duration.ofSeconds(5))) {
+            assertThat(coordinator.pack(input)).isEqualTo(Packer.pack(input.toString()));
+            assertThat(coordinator.getRestarts()).isEqualTo(1);
+        } finally {
+            Files.deleteIfExists(marker);
+        }
+    }
+
+    @Test
+    public void whenLineIncorrectThenSameExceptionAsPacker() throws Exception {
+        final List<String> lines = new ArrayList<>(Files.readAllLines(input, StandardCharsets.UTF_8));
+        lines.set(2500, "81 : (1,53.38;€45)");
+        Files.write(input, lines, StandardCharsets.UTF_8);
+        final String expected = catchMessage(() -> Packer.pack(input.toString()));
+        assertThat(expected).contains("2501");
+        try (ShardCoordinator coordinator = new ShardCoordinator(2, workerCommand(), SHARD_SIZE, 3)) {
+            assertThatExceptionOfType(IncorrectInputException.class)
+                .isThrownBy(() -> coordinator.pack(input))
+                .withMessage(expected);
+        }
+    }
+
+    private static List<String> workerCommand() {
+        return ShardCoordinator.workerCommand(Collections.emptyList(), 1);
+    }
+
+    private static String catchMessage(Packing packing) {
+        try {
+            packing.pack();
+            throw new AssertionError("Exception expected");
+        } catch (APIException e) {
+            return e.getMessage();
+        }
+    }
+
+    private interface Packing {
+
+        void pack() throws APIException;
+    }
+}
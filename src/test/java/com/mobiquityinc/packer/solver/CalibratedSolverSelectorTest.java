@@ -0,0 +1,141 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import com.mobiquityinc.packer.metrics.PackerMetrics;
+import com.mobiquityinc.packer.metrics.PredictionStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class CalibratedSolverSelectorTest {
+
+    private static final DynamicProgrammingSolver DYNAMIC_PROGRAMMING = new DynamicProgrammingSolver();
+
+    @Test
+    public void whenCalibratedThenSameResultsAsDynamicProgramming() throws APIException {
+        final PackerMetrics metrics = new PackerMetrics();
+        final CalibratedSolverSelector selector = new CalibratedSolverSelector(new CostModel(), metrics);
+        selector.calibrate(CalibratedSolverSelector.DEFAULT_CALIBRATION_TASKS);
+        assertThat(selector.getModel().getObservations(GrayCodeSolver.class, 12)).isPositive();
+        assertThat(selector.getModel().getObservations(DynamicProgrammingSolver.class, 48)).isPositive();
+        final Random random = new Random(25);
+        final List<PackTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tasks.add(randomTask(random, 1 + random.nextInt(50)));
+        }
+        for (PackTask task : tasks) {
+            assertThat(indices(selector.select(task).solve(task))).isEqualTo(indices(DYNAMIC_PROGRAMMING.solve(task)));
+        }
+        final PackTaskBatch batch = PackTaskBatch.of(tasks);
+        for (int i = 0; i < batch.size(); i++) {
+            selector.select(batch, i).solve(batch, i);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            assertThat(indices(Packages.of(tasks.get(i).getThings(), batch, i)))
+                .isEqualTo(indices(DYNAMIC_PROGRAMMING.solve(tasks.get(i))));
+        }
+        assertThat(selector.getStatistics().stream().mapToLong(SelectionStatistics::getTasks).sum()).isEqualTo(600);
+        assertThat(metrics.getPredictionStatistics().stream().mapToLong(PredictionStatistics::getTasks).sum()).isEqualTo(600);
+        assertThat(metrics.getPredictionStatistics()).allMatch(statistics -> statistics.getPredictedNanos() > 0);
+    }
+
+    @Test
+    public void whenSolverObservedSlowThenAnotherOneChosen() throws Exception {
+        final CostModel model = new CostModel();
+        final CalibratedSolverSelector selector = new CalibratedSolverSelector(model);
+        final PackTask task = randomTask(new Random(3), 10);
+        selector.select(task).solve(task);
+        assertThat(solved(selector)).hasSize(1);
+        final Class<?> first = Class.forName(solved(selector).get(0));
+        for (int i = 0; i < CostModel.LEARNING_WINDOW; i++) {
+            model.observe(first, 10, 1 << 10, 1_000_000_000L);
+        }
+        selector.select(task).solve(task);
+        assertThat(solved(selector)).hasSize(2);
+        assertThat(model.getObservations(first, 10)).isEqualTo(CostModel.LEARNING_WINDOW + 1);
+    }
+
+    @Test
+    public void whenSlowSolverNotObservedThenItIsTriedAgain() throws Exception {
+        final CostModel model = new CostModel();
+        final CalibratedSolverSelector selector = new CalibratedSolverSelector(model, new PackerMetrics());
+        final PackTask task = randomTask(new Random(3), 10);
+        final Class<?> first = selector.select(task).getEffectiveSolverClass();
+        for (int i = 0; i < CostModel.LEARNING_WINDOW; i++) {
+            model.observe(first, 10, 1 << 10, 1_000_000_000L);
+        }
+        final Class<?> second = selector.select(task).getEffectiveSolverClass();
+        assertThat(second).isNotEqualTo(first);
+        for (int i = 0; i < 32 * CostModel.DECAY_HALF_LIFE; i++) {
+            model.observe(second, 10, 1 << 10, 1 << 10);
+        }
+        assertThat(selector.select(task).getEffectiveSolverClass()).isEqualTo(first);
+    }
+
+    @Test
+    public void whenOtherSolversObservedThenPredictionDecays() {
+        final CostModel model = new CostModel();
+        model.observe(GrayCodeSolver.class, 10, 1, 1000);
+        model.observe(DynamicProgrammingSolver.class, 10, 1, 1);
+        assertThat(model.predictNanos(GrayCodeSolver.class, 10, 1)).isCloseTo(1000, within(1.0));
+        for (int i = 0; i < CostModel.DECAY_HALF_LIFE; i++) {
+            model.observe(DynamicProgrammingSolver.class, 10, 1, 1);
+        }
+        assertThat(model.predictNanos(GrayCodeSolver.class, 10, 1)).isCloseTo(500, within(1.0));
+        assertThat(model.predictNanos(DynamicProgrammingSolver.class, 10, 1)).isCloseTo(1.0, within(1e-9));
+        assertThat(model.getNanosPerStep(GrayCodeSolver.class, 10)).isEqualTo(1000.0);
+        model.observe(GrayCodeSolver.class, 10, 1, 1000);
+        assertThat(model.predictNanos(GrayCodeSolver.class, 10, 1)).isCloseTo(1000, within(1.0));
+    }
+
+    @Test
+    public void whenModelSavedThenSameModelLoaded() throws Exception {
+        final CostModel model = new CostModel();
+        model.observe(GrayCodeSolver.class, 10, 1024, 4096);
+        model.observe(GrayCodeSolver.class, 10, 1024, 2048);
+        model.observe(BranchAndBoundSolver.class, 40, 1000, 500);
+        final Path file = Files.createTempFile("model", ".properties");
+        try {
+            model.save(file);
+            final CostModel loaded = CostModel.load(file);
+            assertThat(loaded.getNanosPerStep(GrayCodeSolver.class, 10)).isEqualTo(3.0);
+            assertThat(loaded.getObservations(GrayCodeSolver.class, 10)).isEqualTo(2);
+            assertThat(loaded.getNanosPerStep(BranchAndBoundSolver.class, 40)).isEqualTo(0.5);
+            assertThat(loaded.getObservations(BranchAndBoundSolver.class, 20)).isZero();
+            assertThat(loaded.getNanosPerStep(DynamicProgrammingSolver.class, 40)).isEqualTo(1.0);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<String> solved(CalibratedSolverSelector selector) {
+        return selector.getStatistics().stream()
+            .filter(statistics -> statistics.getTasks() > 0)
+            .map(SelectionStatistics::getSolver)
+            .collect(toList());
+    }
+
+    private static PackTask randomTask(Random random, int size) {
+        final List<Thing> things = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            things.add(new Thing(i + 1, random.nextInt(10000) / 100.0, (double) random.nextInt(101)));
+        }
+        return new PackTask(random.nextInt(10001) / 100.0, things);
+    }
+
+    private static List<Integer> indices(Package pack) {
+        return pack.getThings().stream().map(Thing::getIndex).collect(toList());
+    }
+}
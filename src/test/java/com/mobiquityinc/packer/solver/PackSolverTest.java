@@ -0,0 +1,251 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class PackSolverTest {
+
+    private static final BruteForceSolver BRUTE_FORCE = new BruteForceSolver();
+
+    static Stream<Arguments> solvers() {
+        return Stream.of(
+            Arguments.of(new GrayCodeSolver()),
+            Arguments.of(new DynamicProgrammingSolver()),
+            Arguments.of(new BranchAndBoundSolver()),
+            Arguments.of(new MeetInTheMiddleSolver())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("solvers")
+    public void whenSmallTaskThenSameResultAsBruteForce(PackSolver solver) throws APIException {
+        final Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            final PackTask task = randomTask(random, 1 + random.nextInt(12));
+            assertThat(indices(solver.solve(task))).isEqualTo(indices(BRUTE_FORCE.solve(task)));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("solvers")
+    public void whenBatchThenSameResultAsForTasks(PackSolver solver) throws APIException {
+        final Random random = new Random(5);
+        final List<PackTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(randomTask(random, random.nextInt(13)));
+        }
+        final PackTaskBatch batch = PackTaskBatch.of(tasks);
+        for (int i = 0; i < batch.size(); i++) {
+            solver.solve(batch, i);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            assertThat(indices(batch.toPackage(i))).isEqualTo(indices(solver.solve(tasks.get(i))));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("solvers")
+    public void whenEqualCostsThenLightestPackageChosen(PackSolver solver) throws APIException {
+        final PackTask task = new PackTask(30.0, Arrays.asList(
+            new Thing(1, 20.0, 30.0),
+            new Thing(2, 10.0, 15.0),
+            new Thing(3, 11.0, 15.0),
+            new Thing(4, 9.0, 15.0),
+            new Thing(5, 10.0, 15.0)
+        ));
+        assertThat(indices(solver.solve(task))).isEqualTo(indices(BRUTE_FORCE.solve(task))).containsExactly(1, 4);
+    }
+
+    @ParameterizedTest
+    @MethodSource("solvers")
+    public void whenFifteenThingsThenSameResultAsBruteForce(PackSolver solver) throws APIException {
+        final PackTask task = randomTask(new Random(15), 15);
+        assertThat(indices(solver.solve(task))).isEqualTo(indices(BRUTE_FORCE.solve(task)));
+    }
+
+    @Test
+    public void whenNothingWithCostFitsThenGrayCodeGivesSameResultAsBruteForce() throws APIException {
+        final PackTask task = new PackTask(10.0, Arrays.asList(
+            new Thing(1, 20.0, 30.0),
+            new Thing(2, 5.0, 0.0),
+            new Thing(3, 4.0, 0.0),
+            new Thing(4, 4.0, 0.0)
+        ));
+        assertThat(indices(new GrayCodeSolver().solve(task))).isEqualTo(indices(BRUTE_FORCE.solve(task))).containsExactly(3);
+    }
+
+    @Test
+    public void whenManyThingsThenDynamicProgrammingSolvesTask() throws APIException {
+        final Random random = new Random(7);
+        final PackTask task = randomTask(random, 300);
+        final Package pack = new DynamicProgrammingSolver().solve(task);
+        final double weight = pack.getThings().stream().mapToDouble(Thing::getWeight).sum();
+        assertThat(weight).isLessThan(task.getMaxWeight());
+        assertThat(pack.getThings()).isNotEmpty();
+    }
+
+    @Test
+    public void whenKeepTableReusedThenSameResultsAsBranchAndBound() throws APIException {
+        final Random random = new Random(23);
+        final DynamicProgrammingSolver solver = new DynamicProgrammingSolver();
+        for (int i = 0; i < 50; i++) {
+            // a smaller table reuses the words of the bigger one, they must be cleared
+            final PackTask task = new PackTask(100.0, randomTask(random, 20 + random.nextInt(40)).getThings());
+            final Package expected = new BranchAndBoundSolver().solve(task);
+            assertThat(indices(solver.solve(task))).isEqualTo(indices(expected));
+        }
+        final PackTask task = new PackTask(100.0, randomTask(random, 20).getThings());
+        assertThat(solver.estimateMemory(task)).isEqualTo(20 * 157 * Long.BYTES + 10000 * Long.BYTES);
+    }
+
+    @Test
+    public void whenManyThingsThenBranchAndBoundGivesSameResultAsDynamicProgramming() throws APIException {
+        final Random random = new Random(11);
+        for (int i = 0; i < 50; i++) {
+            final PackTask task = randomTask(random, 15 + random.nextInt(46));
+            assertThat(indices(new BranchAndBoundSolver().solve(task)))
+                .isEqualTo(indices(new DynamicProgrammingSolver().solve(task)));
+        }
+    }
+
+    @Test
+    public void whenInForkJoinPoolThenBranchAndBoundGivesSameResultAsDynamicProgramming() throws Exception {
+        final Random random = new Random(17);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int i = 0; i < 30; i++) {
+                final PackTask task = randomTask(random, 24 + random.nextInt(37));
+                assertThat(indices(pool.submit(() -> new BranchAndBoundSolver().solve(task)).get()))
+                    .isEqualTo(indices(new DynamicProgrammingSolver().solve(task)));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void whenDeadlineNotExpiredThenBranchAndBoundGivesOptimalPackage() throws APIException {
+        final Random random = new Random(19);
+        for (int i = 0; i < 20; i++) {
+            final PackTask task = randomTask(random, 15 + random.nextInt(46));
+            final Package pack = new BranchAndBoundSolver().solve(task, Deadline.after(Duration.ofMinutes(1)));
+            assertThat(pack.isOptimal()).isTrue();
+            assertThat(indices(pack)).isEqualTo(indices(new DynamicProgrammingSolver().solve(task)));
+        }
+    }
+
+    @Test
+    public void whenDeadlineExpiredThenBranchAndBoundGivesBestSoFarPackage() throws APIException {
+        final PackTask task = stronglyCorrelatedTask(new Random(23), 60);
+        final Package pack = new BranchAndBoundSolver().solve(task, Deadline.after(Duration.ZERO));
+        final double optimum = totalCost(new DynamicProgrammingSolver().solve(task));
+        assertThat(pack.isOptimal()).isFalse();
+        assertThat(pack.getGap()).isPositive();
+        assertThat(totalCost(pack) + pack.getGap()).isGreaterThanOrEqualTo(optimum);
+        assertThat(pack.getThings().stream().mapToDouble(Thing::getWeight).sum()).isLessThan(task.getMaxWeight());
+    }
+
+    static Stream<Arguments> exactSolversWithSizes() {
+        return Stream.of(
+            Arguments.of(new GrayCodeSolver(), 15),
+            Arguments.of(new DynamicProgrammingSolver(), 40),
+            Arguments.of(new MeetInTheMiddleSolver(), 30)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("exactSolversWithSizes")
+    public void whenDeadlineExpiredThenFeasiblePackageWithGapGiven(PackSolver solver, int size) throws APIException {
+        final PackTask task = stronglyCorrelatedTask(new Random(17), size);
+        final Package pack = solver.solve(task, Deadline.after(Duration.ZERO));
+        final double optimum = totalCost(new DynamicProgrammingSolver().solve(task));
+        assertThat(pack.isOptimal()).isFalse();
+        assertThat(totalCost(pack) + pack.getGap()).isGreaterThanOrEqualTo(optimum - 1e-9);
+        assertThat(pack.getThings().stream().mapToDouble(Thing::getWeight).sum()).isLessThan(task.getMaxWeight());
+        final PackTaskBatch batch = PackTaskBatch.of(Arrays.asList(task));
+        solver.solve(batch, 0, Deadline.after(Duration.ZERO));
+        assertThat(Packages.of(task.getThings(), batch, 0).getGap()).isCloseTo(pack.getGap(), within(0.005));
+    }
+
+    @Test
+    public void whenGreedyThenGapBoundsOptimum() throws APIException {
+        final Random random = new Random(29);
+        for (int i = 0; i < 50; i++) {
+            final PackTask task = randomTask(random, 1 + random.nextInt(60));
+            final Package pack = new GreedySolver().solve(task);
+            final double optimum = totalCost(new DynamicProgrammingSolver().solve(task));
+            assertThat(totalCost(pack)).isLessThanOrEqualTo(optimum + 1e-9);
+            assertThat(totalCost(pack) + pack.getGap()).isGreaterThanOrEqualTo(optimum - 1e-9);
+            assertThat(pack.getThings().stream().mapToDouble(Thing::getWeight).sum()).isLessThan(task.getMaxWeight());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.01, 0.1, 0.5})
+    public void whenProfitScalingThenCostWithinEpsilonOfOptimum(double epsilon) throws APIException {
+        final Random random = new Random(37);
+        for (int i = 0; i < 30; i++) {
+            final PackTask task = randomTask(random, 1 + random.nextInt(40));
+            final Package pack = new ProfitScalingSolver(epsilon).solve(task);
+            final double optimum = totalCost(new DynamicProgrammingSolver().solve(task));
+            assertThat(totalCost(pack)).isGreaterThanOrEqualTo((1 - epsilon) * optimum - 1e-9);
+            assertThat(totalCost(pack) + pack.getGap()).isGreaterThanOrEqualTo(optimum - 1e-9);
+            assertThat(pack.getThings().stream().mapToDouble(Thing::getWeight).sum()).isLessThan(task.getMaxWeight());
+        }
+    }
+
+    @Test
+    public void whenManyThingsThenMeetInTheMiddleGivesSameResultAsDynamicProgramming() throws APIException {
+        final Random random = new Random(13);
+        for (int i = 0; i < 20; i++) {
+            final PackTask task = randomTask(random, 16 + random.nextInt(15));
+            assertThat(indices(new MeetInTheMiddleSolver().solve(task)))
+                .isEqualTo(indices(new DynamicProgrammingSolver().solve(task)));
+        }
+    }
+
+    static PackTask randomTask(Random random, int size) {
+        final List<Thing> things = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            things.add(new Thing(i + 1, random.nextInt(10000) / 100.0, (double) random.nextInt(101)));
+        }
+        return new PackTask((double) random.nextInt(101), things);
+    }
+
+    static PackTask stronglyCorrelatedTask(Random random, int size) {
+        final List<Thing> things = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final int weight = 100 + random.nextInt(8900);
+            things.add(new Thing(i + 1, weight / 100.0, (weight + 1000) / 100.0));
+        }
+        return new PackTask(100.0, things);
+    }
+
+    static double totalCost(Package pack) {
+        return pack.getThings().stream().mapToDouble(Thing::getCost).sum();
+    }
+
+    static List<Integer> indices(Package pack) {
+        return pack.getThings().stream().map(Thing::getIndex).collect(toList());
+    }
+}
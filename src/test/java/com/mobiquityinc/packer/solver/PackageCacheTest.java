@@ -0,0 +1,159 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PackageCacheTest {
+
+    private final BruteForceSolver solver = new BruteForceSolver();
+
+    @Test
+    public void whenSameTaskThenCachedPackageReturned() throws APIException {
+        final PackageCache cache = new PackageCache(10);
+        final Random random = new Random(31);
+        for (int i = 0; i < 50; i++) {
+            final PackTask task = PackSolverTest.randomTask(random, 1 + random.nextInt(15));
+            final Package expected = solver.solve(task);
+            assertThat(cache.get(task, solver).getThings()).isEqualTo(expected.getThings());
+            final PackTask copy = new PackTask(task.getMaxWeight(), new ArrayList<>(task.getThings()));
+            assertThat(cache.get(copy, solver).getThings()).isEqualTo(expected.getThings());
+        }
+        assertThat(cache.getHits()).isEqualTo(50);
+        assertThat(cache.getMisses()).isEqualTo(50);
+        assertThat(cache.getEvictions()).isEqualTo(40);
+        assertThat(cache.size()).isEqualTo(10);
+    }
+
+    @Test
+    public void whenIndicesDifferThenOriginalIndicesReturned() throws APIException {
+        final PackageCache cache = new PackageCache(10);
+        final PackTask task = new PackTask(50.0, Arrays.asList(
+            new Thing(1, 20.0, 30.0),
+            new Thing(2, 40.0, 10.0),
+            new Thing(3, 25.0, 35.0)
+        ));
+        final PackTask renumbered = new PackTask(50.0, Arrays.asList(
+            new Thing(7, 20.0, 30.0),
+            new Thing(8, 40.0, 10.0),
+            new Thing(9, 25.0, 35.0)
+        ));
+        cache.get(task, solver);
+        assertThat(cache.get(renumbered, t -> {
+            throw new AssertionError("Must be cached");
+        }).getThings()).extracting(Thing::getIndex).containsExactly(7, 9);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenThingsReorderedThenTaskSolvedAgain() throws APIException {
+        final PackageCache cache = new PackageCache(10);
+        // both packages of the same cost and weight are the best, the solver prefers the first things
+        final PackTask task = new PackTask(50.0, Arrays.asList(
+            new Thing(1, 20.0, 30.0),
+            new Thing(2, 20.0, 30.0),
+            new Thing(3, 25.0, 35.0)
+        ));
+        final PackTask reordered = new PackTask(50.0, Arrays.asList(
+            new Thing(1, 25.0, 35.0),
+            new Thing(2, 20.0, 30.0),
+            new Thing(3, 20.0, 30.0)
+        ));
+        assertThat(cache.get(task, solver).getThings()).extracting(Thing::getIndex).containsExactly(1, 3);
+        assertThat(cache.get(reordered, solver).getThings()).extracting(Thing::getIndex)
+            .isEqualTo(indices(solver.solve(reordered)));
+        assertThat(cache.getHits()).isZero();
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenPackageIsApproximateThenGapCached() throws APIException {
+        final PackageCache cache = new PackageCache(10);
+        final PackTask task = task(10.0);
+        final PackSolver approximate = t -> new Package(t.getThings(), 2.5);
+        assertThat(cache.get(task, approximate).getGap()).isEqualTo(2.5);
+        final Package cached = cache.get(task, t -> {
+            throw new AssertionError("Must be cached");
+        });
+        assertThat(cached.getGap()).isEqualTo(2.5);
+        assertThat(cached.isOptimal()).isFalse();
+    }
+
+    @Test
+    public void whenSearchStoppedAtDeadlineThenPackageNotCached() throws APIException {
+        final PackageCache cache = new PackageCache(10);
+        final PackTask task = task(10.0);
+        final Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        final PackSolver stopped = new PackSolver() {
+            @Override
+            public Package solve(PackTask t) {
+                throw new AssertionError("Deadline must be passed");
+            }
+
+            @Override
+            public Package solve(PackTask t, Deadline d) {
+                assertThat(d).isSameAs(deadline);
+                return new Package(t.getThings(), 1.0);
+            }
+        };
+        assertThat(cache.get(task, stopped, deadline).getGap()).isEqualTo(1.0);
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get(task, solver, deadline).isOptimal()).isTrue();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenEntryUsedThenLeastRecentlyUsedEvicted() throws APIException {
+        final PackageCache cache = new PackageCache(2);
+        final PackTask first = task(10.0);
+        final PackTask second = task(20.0);
+        final PackTask third = task(30.0);
+        cache.get(first, solver);
+        cache.get(second, solver);
+        cache.get(first, solver);
+        cache.get(third, solver);
+        cache.get(first, solver);
+        assertThat(cache.getHits()).isEqualTo(2);
+        cache.get(second, solver);
+        assertThat(cache.getMisses()).isEqualTo(4);
+        assertThat(cache.getEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenSelectorCachesThenSameResultAsWithoutCache() throws APIException {
+        final SizeBasedSolverSelector selector = new SizeBasedSolverSelector();
+        final CachingSolverSelector cachingSelector = new CachingSolverSelector(selector, 100);
+        final Random random = new Random(37);
+        final List<PackTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tasks.add(PackSolverTest.randomTask(random, 1 + random.nextInt(30)));
+        }
+        tasks.addAll(new ArrayList<>(tasks));
+        Collections.shuffle(tasks, random);
+        for (PackTask task : tasks) {
+            assertThat(cachingSelector.select(task).solve(task).getThings())
+                .isEqualTo(selector.select(task).solve(task).getThings());
+        }
+        assertThat(cachingSelector.getCache().getHits()).isEqualTo(20);
+    }
+
+    private static List<Integer> indices(Package pack) {
+        return pack.getThings().stream().map(Thing::getIndex).collect(Collectors.toList());
+    }
+
+    private static PackTask task(double maxWeight) {
+        return new PackTask(maxWeight, Collections.singletonList(new Thing(1, 5.0, 5.0)));
+    }
+}
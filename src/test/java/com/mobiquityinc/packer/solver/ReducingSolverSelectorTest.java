@@ -0,0 +1,115 @@
+package com.mobiquityinc.packer.solver;
+
+import com.mobiquityinc.exception.APIException;
+import com.mobiquityinc.packer.domain.PackTask;
+import com.mobiquityinc.packer.domain.PackTaskBatch;
+import com.mobiquityinc.packer.domain.Package;
+import com.mobiquityinc.packer.domain.Thing;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReducingSolverSelectorTest {
+
+    private static final BruteForceSolver BRUTE_FORCE = new BruteForceSolver();
+
+    @Test
+    public void whenTasksReducedThenSameResultAsBruteForce() throws APIException {
+        final ReducingSolverSelector selector = new ReducingSolverSelector(new SizeBasedSolverSelector());
+        final Random random = new Random(19);
+        for (int i = 0; i < 1000; i++) {
+            final PackTask task = i % 2 == 0 ?
+                PackSolverTest.randomTask(random, 1 + random.nextInt(12)) :
+                taskWithDuplicates(random, 1 + random.nextInt(12));
+            assertThat(indices(selector.select(task).solve(task))).isEqualTo(indices(BRUTE_FORCE.solve(task)));
+        }
+        assertThat(selector.getStatistics().getTasks()).isEqualTo(1000);
+        assertThat(selector.getStatistics().getDominatedThings()).isPositive();
+    }
+
+    @Test
+    public void whenBatchReducedThenSameResultAsForTasks() throws APIException {
+        final ReducingSolverSelector selector = new ReducingSolverSelector(new SizeBasedSolverSelector());
+        final Random random = new Random(7);
+        final List<PackTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(taskWithDuplicates(random, random.nextInt(20)));
+        }
+        final PackTaskBatch batch = PackTaskBatch.of(tasks);
+        for (int i = 0; i < batch.size(); i++) {
+            selector.select(batch, i).solve(batch, i);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            assertThat(indices(batch.toPackage(i))).isEqualTo(indices(new DynamicProgrammingSolver().solve(tasks.get(i))));
+        }
+    }
+
+    @Test
+    public void whenThingsCanNotBePackedThenSolverGetsReducedTask() throws APIException {
+        final List<Integer> solvedIndices = new ArrayList<>();
+        final ReducingSolverSelector selector = new ReducingSolverSelector(task -> t -> {
+            t.getThings().forEach(thing -> solvedIndices.add(thing.getIndex()));
+            return BRUTE_FORCE.solve(t);
+        });
+        final PackTask task = new PackTask(50.0, Arrays.asList(
+            new Thing(1, 60.0, 90.0),
+            new Thing(2, 20.0, 40.0),
+            new Thing(3, 20.0, 0.0),
+            new Thing(4, 30.0, 30.0),
+            new Thing(5, 20.0, 40.0),
+            new Thing(6, 45.0, 35.0),
+            new Thing(7, 25.0, 45.0)
+        ));
+        assertThat(indices(selector.select(task).solve(task))).isEqualTo(indices(BRUTE_FORCE.solve(task)));
+        assertThat(solvedIndices).containsExactly(2, 5, 7);
+        final ReductionStatistics statistics = selector.getStatistics();
+        assertThat(statistics.getThings()).isEqualTo(7);
+        assertThat(statistics.getInfeasibleThings()).isEqualTo(1);
+        assertThat(statistics.getZeroCostThings()).isEqualTo(1);
+        assertThat(statistics.getDominatedThings()).isEqualTo(2);
+        assertThat(statistics.getTrivialTasks()).isZero();
+    }
+
+    @Test
+    public void whenTaskTrivialThenSolverNotCalled() throws APIException {
+        final ReducingSolverSelector selector = new ReducingSolverSelector(task -> t -> {
+            throw new AssertionError("Must be trivial");
+        });
+        final PackTask allFit = new PackTask(50.0, Arrays.asList(
+            new Thing(1, 10.0, 10.0),
+            new Thing(2, 60.0, 50.0),
+            new Thing(3, 15.0, 0.0),
+            new Thing(4, 20.0, 20.0)
+        ));
+        assertThat(indices(selector.select(allFit).solve(allFit))).containsExactly(1, 4);
+        final PackTask nothingValuable = new PackTask(10.0, Arrays.asList(
+            new Thing(1, 12.0, 50.0),
+            new Thing(2, 6.0, 0.0),
+            new Thing(3, 4.0, 0.0),
+            new Thing(4, 4.0, 0.0)
+        ));
+        assertThat(indices(selector.select(nothingValuable).solve(nothingValuable)))
+            .isEqualTo(indices(BRUTE_FORCE.solve(nothingValuable)))
+            .containsExactly(3);
+        assertThat(selector.getStatistics().getTrivialTasks()).isEqualTo(2);
+        assertThat(selector.getStatistics().getRemovedThings()).isEqualTo(3);
+    }
+
+    private static PackTask taskWithDuplicates(Random random, int size) {
+        final List<Thing> things = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            things.add(new Thing(i + 1, (double) (1 + random.nextInt(8)) * 5, (double) random.nextInt(6) * 10));
+        }
+        return new PackTask((double) (10 + random.nextInt(60)), things);
+    }
+
+    private static List<Integer> indices(Package pack) {
+        return pack.getThings().stream().map(Thing::getIndex).collect(toList());
+    }
+}